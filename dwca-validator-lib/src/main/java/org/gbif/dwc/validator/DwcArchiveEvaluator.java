@@ -1,5 +1,6 @@
 package org.gbif.dwc.validator;
 
+import org.gbif.dwc.record.Record;
 import org.gbif.dwc.record.RecordIterator;
 import org.gbif.dwc.text.Archive;
 import org.gbif.dwc.text.ArchiveFactory;
@@ -7,9 +8,11 @@ import org.gbif.dwc.text.ArchiveFile;
 import org.gbif.dwc.text.UnsupportedArchiveException;
 import org.gbif.dwc.validator.chain.EvaluatorChain;
 import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.ZipStreamingArchive.ZipEntryRecordIterator;
 import org.gbif.dwc.validator.evaluator.structure.EMLEvaluator;
 import org.gbif.dwc.validator.evaluator.structure.MetaDescriptorEvaluator;
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluatedRecordListener;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.Result;
 import org.gbif.dwc.validator.result.ResultAccumulator;
@@ -17,12 +20,23 @@ import org.gbif.dwc.validator.result.type.StructureValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.google.common.base.Preconditions;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,9 +53,36 @@ public class DwcArchiveEvaluator implements FileEvaluator {
   private String workingFolder = ".";
 
   private final EvaluatorChain criteriaChain;
+  private final int numberOfThreads;
+  private final boolean concurrentComponents;
+  private final boolean streamFromZip;
 
   DwcArchiveEvaluator(EvaluatorChain criteriaChain) {
+    this(criteriaChain, 1, false, false);
+  }
+
+  DwcArchiveEvaluator(EvaluatorChain criteriaChain, int numberOfThreads) {
+    this(criteriaChain, numberOfThreads, false, false);
+  }
+
+  DwcArchiveEvaluator(EvaluatorChain criteriaChain, int numberOfThreads, boolean concurrentComponents) {
+    this(criteriaChain, numberOfThreads, concurrentComponents, false);
+  }
+
+  /**
+   * @param criteriaChain
+   * @param numberOfThreads number of threads used to evaluate RecordCriterion, 1 means evaluation is done on the
+   *        calling thread.
+   * @param concurrentComponents inspect the core and all extensions at the same time, one reader per ArchiveFile
+   * @param streamFromZip read data files directly from the zip instead of extracting the archive
+   */
+  DwcArchiveEvaluator(EvaluatorChain criteriaChain, int numberOfThreads, boolean concurrentComponents,
+    boolean streamFromZip) {
+    Preconditions.checkArgument(numberOfThreads > 0, "numberOfThreads must be greater than 0");
     this.criteriaChain = criteriaChain;
+    this.numberOfThreads = numberOfThreads;
+    this.concurrentComponents = concurrentComponents;
+    this.streamFromZip = streamFromZip;
   }
 
   /**
@@ -72,9 +113,21 @@ public class DwcArchiveEvaluator implements FileEvaluator {
   public void evaluateFile(File dwcaFile, ResultAccumulator resultAccumulator) {
     File dwcFolder = new File(new File(workingFolder), UUID.randomUUID().toString());
     boolean isGeneratedFolder = true;
+    ParallelRecordEvaluator parallelEvaluator = null;
+    ZipStreamingArchive zipArchive = null;
+    if (numberOfThreads > 1) {
+      parallelEvaluator = new ParallelRecordEvaluator(numberOfThreads);
+    }
     try {
       Archive dwc = null;
-      if (dwcaFile.isFile()) {
+      if (dwcaFile.isFile() && streamFromZip) {
+        // only the descriptor files will be extracted in dwcFolder
+        zipArchive = ZipStreamingArchive.open(dwcaFile, dwcFolder);
+      }
+
+      if (zipArchive != null) {
+        dwc = zipArchive.getArchive();
+      } else if (dwcaFile.isFile()) {
         dwc = ArchiveFactory.openArchive(dwcaFile, dwcFolder);
       } else {
         dwc = ArchiveFactory.openArchive(dwcaFile);
@@ -95,13 +148,19 @@ public class DwcArchiveEvaluator implements FileEvaluator {
         System.out.println("eml.xml validation temporary suspended");
       }
 
-      // inspect core
-      inspectDwcComponent(dwc.getCore(), EvaluationContext.CORE, criteriaChain, resultAccumulator);
+      if (concurrentComponents) {
+        inspectDwcComponentsConcurrently(dwc, criteriaChain, zipArchive, parallelEvaluator, resultAccumulator);
+      } else {
+        // inspect core
+        inspectDwcComponent(dwc.getCore(), EvaluationContext.CORE, criteriaChain, zipArchive, parallelEvaluator,
+          resultAccumulator);
 
-      // inspect extensions
-      Set<ArchiveFile> extensions = dwc.getExtensions();
-      for (ArchiveFile currExt : extensions) {
-        inspectDwcComponent(currExt, EvaluationContext.EXT, criteriaChain, resultAccumulator);
+        // inspect extensions
+        Set<ArchiveFile> extensions = dwc.getExtensions();
+        for (ArchiveFile currExt : extensions) {
+          inspectDwcComponent(currExt, EvaluationContext.EXT, criteriaChain, zipArchive, parallelEvaluator,
+            resultAccumulator);
+        }
       }
       // we only call postIterate one, at the end
       criteriaChain.evaluateDataset(resultAccumulator);
@@ -115,9 +174,14 @@ public class DwcArchiveEvaluator implements FileEvaluator {
       recordCantOpenArchiveValidationResult(resultAccumulator, dwcaFile, e.getMessage());
     } catch (ResultAccumulationException e) {
       LOGGER.error("Error while accumulating results", e);
+    } finally {
+      if (parallelEvaluator != null) {
+        parallelEvaluator.shutdown();
+      }
+      IOUtils.closeQuietly(zipArchive);
     }
 
-    if (isGeneratedFolder) {
+    if (isGeneratedFolder && dwcFolder.exists()) {
       try {
         FileUtils.forceDelete(dwcFolder);
       } catch (IOException e) {
@@ -126,25 +190,147 @@ public class DwcArchiveEvaluator implements FileEvaluator {
     }
   }
 
+  /**
+   * Inspect the core and all extensions at the same time using one thread per ArchiveFile.
+   * This method returns once all components are inspected, DatasetCriterion have then received all records.
+   * 
+   * @param dwc
+   * @param evaluatorChain head of the evaluators chain
+   * @param zipArchive ZipStreamingArchive to read records from or null to read from extracted files
+   * @param parallelEvaluator ParallelRecordEvaluator to use or null to evaluate on the reading threads
+   * @param resultAccumulator
+   * @throws ResultAccumulationException
+   * @throws IOException
+   */
+  private void inspectDwcComponentsConcurrently(Archive dwc, EvaluatorChain evaluatorChain,
+    ZipStreamingArchive zipArchive, ParallelRecordEvaluator parallelEvaluator, ResultAccumulator resultAccumulator)
+    throws ResultAccumulationException, IOException {
+
+    Set<ArchiveFile> extensions = dwc.getExtensions();
+    ExecutorService executorService = Executors.newFixedThreadPool(1 + extensions.size());
+    List<Future<Void>> futures = new ArrayList<Future<Void>>();
+    try {
+      futures.add(submitDwcComponent(executorService, dwc.getCore(), EvaluationContext.CORE, evaluatorChain,
+        zipArchive, parallelEvaluator, resultAccumulator));
+      for (ArchiveFile currExt : extensions) {
+        futures.add(submitDwcComponent(executorService, currExt, EvaluationContext.EXT, evaluatorChain, zipArchive,
+          parallelEvaluator, resultAccumulator));
+      }
+
+      // wait for all readers to complete
+      for (Future<Void> currFuture : futures) {
+        currFuture.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResultAccumulationException("Interrupted while inspecting archive components", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ResultAccumulationException) {
+        throw (ResultAccumulationException) e.getCause();
+      } else if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ResultAccumulationException("Error while inspecting archive components", e.getCause());
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private Future<Void> submitDwcComponent(ExecutorService executorService, final ArchiveFile dwcaComponent,
+    final EvaluationContext evaluationContext, final EvaluatorChain evaluatorChain,
+    final ZipStreamingArchive zipArchive, final ParallelRecordEvaluator parallelEvaluator,
+    final ResultAccumulator resultAccumulator) {
+    return executorService.submit(new Callable<Void>() {
+
+      @Override
+      public Void call() throws ResultAccumulationException, IOException {
+        inspectDwcComponent(dwcaComponent, evaluationContext, evaluatorChain, zipArchive, parallelEvaluator,
+          resultAccumulator);
+        return null;
+      }
+    });
+  }
+
   /**
    * Inspect DarwinCore component record loop function.
    * 
    * @param dwcaComponent
    * @param evaluationContext
    * @param evaluatorChain head of the evaluators chain
-   * @param resultAccumulator
+   * @param zipArchive ZipStreamingArchive to read records from or null to read from extracted files
+   * @param parallelEvaluator ParallelRecordEvaluator to use or null to evaluate on the current thread
+   * @param resultAccumulator notified of the number of evaluated records if it is an EvaluatedRecordListener
    * @throws ResultAccumulationException
+   * @throws IOException
    */
   private void inspectDwcComponent(ArchiveFile dwcaComponent, EvaluationContext evaluationContext,
-    EvaluatorChain evaluatorChain, ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    EvaluatorChain evaluatorChain, ZipStreamingArchive zipArchive, ParallelRecordEvaluator parallelEvaluator,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException, IOException {
 
     // In theory, we could optimize the validation if we realize the coreId is a term used in the chain
     // but it could also be very error prone.
     // Term idTerm = dwcaComponent.getId().getTerm();
 
-    RecordIterator recordIt = RecordIterator.build(dwcaComponent, false);
-    while (recordIt.hasNext()) {
-      evaluatorChain.evaluateRecord(recordIt.next(), evaluationContext, resultAccumulator);
+    Iterator<Record> recordIt;
+    Closeable closeableRecordIt = null;
+    if (zipArchive != null) {
+      ZipEntryRecordIterator zipRecordIt = zipArchive.iterator(dwcaComponent);
+      recordIt = zipRecordIt;
+      closeableRecordIt = zipRecordIt;
+    } else {
+      recordIt = RecordIterator.build(dwcaComponent, false);
+    }
+    CountingRecordIterator countingRecordIt = new CountingRecordIterator(recordIt);
+    // resolved once, criteria not applicable to this component will not receive its records
+    EvaluatorChain componentChain = evaluatorChain.forComponent(dwcaComponent, evaluationContext);
+
+    try {
+      if (parallelEvaluator != null) {
+        parallelEvaluator.evaluate(countingRecordIt, dwcaComponent, evaluationContext, componentChain,
+          resultAccumulator);
+      } else {
+        while (countingRecordIt.hasNext()) {
+          componentChain.evaluateRecord(countingRecordIt.next(), evaluationContext, resultAccumulator);
+        }
+      }
+      if (resultAccumulator instanceof EvaluatedRecordListener) {
+        ((EvaluatedRecordListener) resultAccumulator).onRecordsEvaluated(evaluationContext,
+          dwcaComponent.getRowType(), countingRecordIt.count);
+      }
+    } finally {
+      IOUtils.closeQuietly(closeableRecordIt);
+    }
+  }
+
+  /**
+   * Iterator counting the records it returns.
+   */
+  private static class CountingRecordIterator implements Iterator<Record> {
+
+    private final Iterator<Record> recordIt;
+    private long count;
+
+    CountingRecordIterator(Iterator<Record> recordIt) {
+      this.recordIt = recordIt;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return recordIt.hasNext();
+    }
+
+    @Override
+    public Record next() {
+      Record record = recordIt.next();
+      count++;
+      return record;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
     }
   }
 
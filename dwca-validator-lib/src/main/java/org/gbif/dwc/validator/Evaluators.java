@@ -6,6 +6,8 @@ import org.gbif.dwc.validator.criteria.DatasetCriteria;
 import org.gbif.dwc.validator.criteria.RecordCriteria;
 import org.gbif.dwc.validator.criteria.dataset.DatasetCriterion;
 import org.gbif.dwc.validator.criteria.dataset.DatasetCriterionBuilder;
+import org.gbif.dwc.validator.criteria.dataset.ValueIndexRegistry;
+import org.gbif.dwc.validator.criteria.dataset.ValueIndexSharingBuilder;
 import org.gbif.dwc.validator.criteria.record.RecordCriterion;
 import org.gbif.dwc.validator.criteria.record.RecordCriterionBuilder;
 
@@ -13,6 +15,8 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.google.common.base.Preconditions;
+
 /**
  * Main builder to create evaluation chain.
  * 
@@ -30,6 +34,9 @@ public class Evaluators {
 
   private final List<RecordCriterionBuilder> buildersList;
   private final List<DatasetCriterionBuilder> datasetCriteriaBuildersList;
+  private int numberOfThreads = 1;
+  private boolean concurrentComponents = false;
+  private boolean streamFromZip = false;
 
   /**
    * Get a new Evaluators instance
@@ -70,6 +77,32 @@ public class Evaluators {
     return new DwcArchiveEvaluator(head);
   }
 
+  /**
+   * Build a FileEvaluator from an existing validation chain using numberOfThreads threads to evaluate records.
+   * 
+   * @param tempFolder
+   * @param head
+   * @param numberOfThreads
+   * @return
+   */
+  public static FileEvaluator buildFromValidationChain(File tempFolder, EvaluatorChain head, int numberOfThreads) {
+    return new DwcArchiveEvaluator(head, numberOfThreads);
+  }
+
+  /**
+   * Build a FileEvaluator from an existing validation chain using numberOfThreads threads to evaluate records.
+   * 
+   * @param tempFolder
+   * @param head
+   * @param numberOfThreads
+   * @param concurrentComponents inspect the core and the extensions concurrently
+   * @return
+   */
+  public static FileEvaluator buildFromValidationChain(File tempFolder, EvaluatorChain head, int numberOfThreads,
+    boolean concurrentComponents) {
+    return new DwcArchiveEvaluator(head, numberOfThreads, concurrentComponents);
+  }
+
   /**
    * Build a validation chain from a list of RecordCriteria and DatasetCriteria.
    * 
@@ -113,13 +146,60 @@ public class Evaluators {
     return this;
   }
 
+  /**
+   * Set the number of threads used to evaluate the record level criteria.
+   * Records are always read by a single thread and dataset level criteria still receive them in reading order.
+   * Default is 1, meaning everything is done on the calling thread.
+   * 
+   * @param numberOfThreads
+   * @return
+   */
+  public Evaluators usingThreads(int numberOfThreads) {
+    this.numberOfThreads = numberOfThreads;
+    return this;
+  }
+
+  /**
+   * Inspect the core and all extensions concurrently, using one reading thread per file.
+   * Dataset level criteria still receive all records before the dataset is evaluated.
+   * 
+   * @return
+   */
+  public Evaluators concurrentComponents() {
+    this.concurrentComponents = true;
+    return this;
+  }
+
+  /**
+   * Read the data files directly from the zip file instead of extracting the complete archive on disk.
+   * Only meta.xml and the metadata file will be extracted.
+   * 
+   * @return
+   */
+  public Evaluators streamFromZip() {
+    this.streamFromZip = true;
+    return this;
+  }
+
   /**
    * Build the ArchiveValidator instance.
    * 
    * @return
    */
   public FileEvaluator build() throws IllegalStateException {
-    return new DwcArchiveEvaluator(buildChain());
+    return build(buildChain());
+  }
+
+  /**
+   * Build the ArchiveValidator instance using an existing validation chain and the options set on this builder.
+   * Criteria appended to this builder are ignored.
+   * 
+   * @param head
+   * @return
+   */
+  public FileEvaluator build(EvaluatorChain head) throws IllegalStateException {
+    Preconditions.checkState(numberOfThreads > 0, "numberOfThreads must be greater than 0");
+    return new DwcArchiveEvaluator(head, numberOfThreads, concurrentComponents, streamFromZip);
   }
 
   /**
@@ -133,8 +213,13 @@ public class Evaluators {
       recordCriteriaList.add(currRecordCriteriaBuilder.build());
     }
 
+    // dataset criteria of the chain share the values they record
+    ValueIndexRegistry valueIndexRegistry = new ValueIndexRegistry();
     List<DatasetCriterion> datasetCriteriaList = new ArrayList<DatasetCriterion>();
     for (DatasetCriterionBuilder currDDatasetCriteriaBuilder : datasetCriteriaBuildersList) {
+      if (currDDatasetCriteriaBuilder instanceof ValueIndexSharingBuilder) {
+        ((ValueIndexSharingBuilder) currDDatasetCriteriaBuilder).valueIndexRegistry(valueIndexRegistry);
+      }
       datasetCriteriaList.add(currDDatasetCriteriaBuilder.build());
     }
 
@@ -0,0 +1,175 @@
+package org.gbif.dwc.validator;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.record.RecordImpl;
+import org.gbif.dwc.text.ArchiveField;
+import org.gbif.dwc.text.ArchiveFile;
+import org.gbif.dwc.validator.chain.EvaluatorChain;
+import org.gbif.dwc.validator.criteria.record.RecordBatch;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Evaluate records of a DarwinCore component using a pool of worker threads.
+ * Records are read on the calling thread and sent by batch to the workers running the RecordCriterion of the chain.
+ * Each batch is evaluated as a RecordBatch so criteria supporting it can work column by column.
+ * DatasetCriterion are notified on the calling thread, in reading order, since they are stateful.
+ * Different components can be evaluated concurrently (one reading thread each), they will share the same worker pool.
+ * 
+ * @author cgendreau
+ */
+class ParallelRecordEvaluator {
+
+  static final int DEFAULT_BATCH_SIZE = 1000;
+
+  // number of batches waiting or running, per worker, before the reader blocks
+  private static final int MAX_PENDING_BATCH_PER_THREAD = 2;
+
+  private final ExecutorService executorService;
+  private final int numberOfThreads;
+  private final int batchSize;
+  private final int maxPendingBatch;
+
+  ParallelRecordEvaluator(int numberOfThreads) {
+    this(numberOfThreads, DEFAULT_BATCH_SIZE);
+  }
+
+  ParallelRecordEvaluator(int numberOfThreads, int batchSize) {
+    Preconditions.checkArgument(numberOfThreads > 0, "numberOfThreads must be greater than 0");
+    Preconditions.checkArgument(batchSize > 0, "batchSize must be greater than 0");
+    this.numberOfThreads = numberOfThreads;
+    this.batchSize = batchSize;
+    this.maxPendingBatch = numberOfThreads * MAX_PENDING_BATCH_PER_THREAD;
+    this.executorService = Executors.newFixedThreadPool(numberOfThreads);
+  }
+
+  int getNumberOfThreads() {
+    return numberOfThreads;
+  }
+
+  /**
+   * Evaluate all records of the iterator. This method returns once all records are evaluated.
+   * 
+   * @param recordIt
+   * @param dwcaComponent ArchiveFile the records are coming from
+   * @param evaluationContext
+   * @param evaluatorChain
+   * @param resultAccumulator must be thread-safe
+   * @throws ResultAccumulationException
+   */
+  void evaluate(Iterator<Record> recordIt, ArchiveFile dwcaComponent, final EvaluationContext evaluationContext,
+    final EvaluatorChain evaluatorChain, final ResultAccumulator resultAccumulator)
+    throws ResultAccumulationException {
+
+    final Semaphore pendingBatch = new Semaphore(maxPendingBatch);
+    final AtomicReference<Throwable> workerError = new AtomicReference<Throwable>();
+    RecordCopier recordCopier = new RecordCopier(dwcaComponent);
+    String rowType = dwcaComponent.getRowType();
+
+    List<Record> batch = new ArrayList<Record>(batchSize);
+    Record record;
+    try {
+      while (recordIt.hasNext() && workerError.get() == null) {
+        record = recordIt.next();
+        evaluatorChain.notifyDatasetCriteria(record, evaluationContext);
+        // the iterator could reuse the same Record instance
+        batch.add(recordCopier.copy(record));
+        if (batch.size() == batchSize) {
+          submitBatch(batch, rowType, evaluationContext, evaluatorChain, resultAccumulator, pendingBatch, workerError);
+          batch = new ArrayList<Record>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        submitBatch(batch, rowType, evaluationContext, evaluatorChain, resultAccumulator, pendingBatch, workerError);
+      }
+      // wait for all workers to complete
+      pendingBatch.acquire(maxPendingBatch);
+      pendingBatch.release(maxPendingBatch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResultAccumulationException("Interrupted while waiting for record evaluation", e);
+    }
+
+    Throwable error = workerError.get();
+    if (error instanceof ResultAccumulationException) {
+      throw (ResultAccumulationException) error;
+    } else if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    } else if (error != null) {
+      throw new ResultAccumulationException("Error during record evaluation", error);
+    }
+  }
+
+  private void submitBatch(final List<Record> batch, final String rowType, final EvaluationContext evaluationContext,
+    final EvaluatorChain evaluatorChain, final ResultAccumulator resultAccumulator, final Semaphore pendingBatch,
+    final AtomicReference<Throwable> workerError) throws InterruptedException {
+    pendingBatch.acquire();
+    executorService.execute(new Runnable() {
+
+      @Override
+      public void run() {
+        try {
+          evaluatorChain.evaluateRecordBatch(new RecordBatch(batch, rowType, evaluatorChain.getColumnIndex()),
+            evaluationContext, resultAccumulator);
+        } catch (Throwable t) {
+          workerError.compareAndSet(null, t);
+        } finally {
+          pendingBatch.release();
+        }
+      }
+    });
+  }
+
+  /**
+   * Stop the worker threads.
+   */
+  void shutdown() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * Create detached copies of Record coming from an ArchiveFile.
+   */
+  private static class RecordCopier {
+
+    private final ArchiveFile dwcaComponent;
+    private final int columnCount;
+
+    RecordCopier(ArchiveFile dwcaComponent) {
+      this.dwcaComponent = dwcaComponent;
+      int maxIndex = -1;
+      if (dwcaComponent.getId() != null && dwcaComponent.getId().getIndex() != null) {
+        maxIndex = dwcaComponent.getId().getIndex();
+      }
+      for (ArchiveField currField : dwcaComponent.getFields().values()) {
+        if (currField.getIndex() != null && currField.getIndex() > maxIndex) {
+          maxIndex = currField.getIndex();
+        }
+      }
+      this.columnCount = maxIndex + 1;
+    }
+
+    Record copy(Record record) {
+      String[] row = new String[columnCount];
+      for (int i = 0; i < columnCount; i++) {
+        row[i] = record.column(i);
+      }
+      RecordImpl copy =
+        new RecordImpl(dwcaComponent.getId(), dwcaComponent.getFields().values(), record.rowType(), false);
+      copy.setRow(row);
+      return copy;
+    }
+  }
+
+}
@@ -0,0 +1,233 @@
+package org.gbif.dwc.validator;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.record.RecordImpl;
+import org.gbif.dwc.text.Archive;
+import org.gbif.dwc.text.ArchiveFactory;
+import org.gbif.dwc.text.ArchiveFile;
+import org.gbif.dwc.text.UnsupportedArchiveException;
+import org.gbif.utils.file.csv.CSVReader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * DarwinCore archive read directly from its zip file.
+ * Only the descriptor files (meta.xml and the metadata file) are extracted, data files are streamed from their
+ * ZipEntry so no disk space is required for them.
+ * ZipFile allows concurrent reads so different components can be iterated at the same time.
+ * 
+ * @author cgendreau
+ */
+class ZipStreamingArchive implements Closeable {
+
+  private static final String META_XML_FILE = "meta.xml";
+
+  private final ZipFile zipFile;
+  private final String entryPrefix;
+  private final File descriptorFolder;
+  private final Archive archive;
+
+  private ZipStreamingArchive(ZipFile zipFile, String entryPrefix, File descriptorFolder) throws IOException,
+    UnsupportedArchiveException {
+    this.zipFile = zipFile;
+    this.entryPrefix = entryPrefix;
+    this.descriptorFolder = descriptorFolder;
+
+    extractEntry(META_XML_FILE);
+    this.archive = ArchiveFactory.openArchive(descriptorFolder);
+    if (StringUtils.isNotBlank(archive.getMetadataLocation())) {
+      extractEntry(archive.getMetadataLocation());
+    }
+  }
+
+  /**
+   * Open a zipped DarwinCore archive for streaming.
+   * 
+   * @param dwcaFile zip file
+   * @param descriptorFolder folder where the descriptor files will be extracted, will be created
+   * @return ZipStreamingArchive or null if the zip file does not include a meta.xml file
+   * @throws IOException
+   * @throws UnsupportedArchiveException
+   */
+  static ZipStreamingArchive open(File dwcaFile, File descriptorFolder) throws IOException,
+    UnsupportedArchiveException {
+    ZipFile zipFile = new ZipFile(dwcaFile);
+    String entryPrefix = findMetaXMLPrefix(zipFile);
+    if (entryPrefix == null) {
+      zipFile.close();
+      return null;
+    }
+
+    FileUtils.forceMkdir(descriptorFolder);
+    try {
+      return new ZipStreamingArchive(zipFile, entryPrefix, descriptorFolder);
+    } catch (IOException e) {
+      zipFile.close();
+      throw e;
+    } catch (UnsupportedArchiveException e) {
+      zipFile.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Find the path, inside the zip, of the folder containing the meta.xml file.
+   * 
+   * @param zipFile
+   * @return path prefix (possibly empty) or null if no meta.xml file can be found
+   */
+  private static String findMetaXMLPrefix(ZipFile zipFile) {
+    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+    ZipEntry entry;
+    while (entries.hasMoreElements()) {
+      entry = entries.nextElement();
+      if (entry.isDirectory()) {
+        continue;
+      }
+      if (META_XML_FILE.equals(entry.getName())) {
+        return "";
+      }
+      if (entry.getName().endsWith("/" + META_XML_FILE) && !entry.getName().startsWith("__MACOSX")) {
+        return StringUtils.removeEnd(entry.getName(), META_XML_FILE);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Extract an entry into the descriptor folder, keeping its path (e.g. docs/eml.xml).
+   * 
+   * @param location path relative to the meta.xml file
+   * @throws IOException if the entry can not be found or its path leads outside of the descriptor folder
+   */
+  private void extractEntry(String location) throws IOException {
+    File destination = new File(descriptorFolder, location);
+    // the location comes from the archive, a path like ../x must not be written outside of the descriptor folder
+    if (!destination.getCanonicalPath().startsWith(descriptorFolder.getCanonicalPath() + File.separator)) {
+      throw new IOException("Can not extract " + location + " outside of " + descriptorFolder);
+    }
+    FileUtils.forceMkdir(destination.getParentFile());
+
+    ZipEntry entry = getEntry(location);
+    InputStream is = null;
+    OutputStream os = null;
+    try {
+      is = zipFile.getInputStream(entry);
+      os = new FileOutputStream(destination);
+      IOUtils.copy(is, os);
+    } finally {
+      IOUtils.closeQuietly(is);
+      IOUtils.closeQuietly(os);
+    }
+  }
+
+  private ZipEntry getEntry(String location) throws IOException {
+    ZipEntry entry = zipFile.getEntry(entryPrefix + location);
+    if (entry == null) {
+      throw new IOException("Can not find " + location + " in " + zipFile.getName());
+    }
+    return entry;
+  }
+
+  Archive getArchive() {
+    return archive;
+  }
+
+  /**
+   * Folder containing the extracted descriptor files.
+   * 
+   * @return
+   */
+  File getDescriptorFolder() {
+    return descriptorFolder;
+  }
+
+  /**
+   * Get a new iterator streaming the records of a component directly from the zip file.
+   * The returned iterator should be closed after usage.
+   * 
+   * @param dwcaComponent
+   * @return
+   * @throws IOException
+   */
+  ZipEntryRecordIterator iterator(ArchiveFile dwcaComponent) throws IOException {
+    ZipEntry entry = getEntry(dwcaComponent.getLocation());
+    InputStream is = zipFile.getInputStream(entry);
+    try {
+      CSVReader reader =
+        new CSVReader(is, dwcaComponent.getEncoding(), dwcaComponent.getFieldsTerminatedBy(),
+          dwcaComponent.getFieldsEnclosedBy(), dwcaComponent.getIgnoreHeaderLines());
+      return new ZipEntryRecordIterator(reader, dwcaComponent);
+    } catch (IOException e) {
+      IOUtils.closeQuietly(is);
+      throw e;
+    }
+  }
+
+  /**
+   * Close the zip file and delete the extracted descriptor files.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      zipFile.close();
+    } finally {
+      FileUtils.deleteQuietly(descriptorFolder);
+    }
+  }
+
+  /**
+   * Record iterator reading lines from a ZipEntry.
+   */
+  static class ZipEntryRecordIterator implements Iterator<Record>, Closeable {
+
+    private final CSVReader reader;
+    private final ArchiveFile dwcaComponent;
+
+    private ZipEntryRecordIterator(CSVReader reader, ArchiveFile dwcaComponent) {
+      this.reader = reader;
+      this.dwcaComponent = dwcaComponent;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return reader.hasNext();
+    }
+
+    @Override
+    public Record next() {
+      if (!reader.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      RecordImpl record =
+        new RecordImpl(dwcaComponent.getId(), dwcaComponent.getFields().values(), dwcaComponent.getRowType(), false);
+      record.setRow(reader.next());
+      return record;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+      reader.close();
+    }
+  }
+
+}
@@ -1,24 +1,48 @@
 package org.gbif.dwc.validator.chain;
 
 import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.text.ArchiveFile;
+import org.gbif.dwc.validator.criteria.CachingCriterion;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
 import org.gbif.dwc.validator.criteria.dataset.DatasetCriterion;
+import org.gbif.dwc.validator.criteria.record.ColumnIndex;
+import org.gbif.dwc.validator.criteria.record.MultiRegexCriterion;
+import org.gbif.dwc.validator.criteria.record.MultiResultRecordCriterion;
+import org.gbif.dwc.validator.criteria.record.RecordBatch;
+import org.gbif.dwc.validator.criteria.record.RecordBatchCriterion;
 import org.gbif.dwc.validator.criteria.record.RecordCriterion;
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.ResultAccumulator;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.transformation.ValueTransformationCache;
+import org.gbif.util.ValueCache;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This class is responsible to manage the evaluation chain.
  * The class is immutable but the RecordEvaluator immutability can not be enforced.
+ * Criteria are kept in arrays, forComponent(ArchiveFile, EvaluationContext) returns a chain restricted to the
+ * criteria applicable to an ArchiveFile so records are not sent to criteria that would ignore them. The terms used by
+ * the criteria are collected when the chain is created and their columns are resolved once per ArchiveFile.
+ * Transformations shared by different criteria are computed once per record, see ValueTransformationCache.
+ * Criteria do not check their restrictions themselves, records sent to a chain that was not obtained from
+ * forComponent are dispatched to the chain of their rowType and EvaluationContext.
  * 
  * @author cgendreau
  */
@@ -26,27 +50,303 @@ public class EvaluatorChain {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(EvaluatorChain.class);
 
-  private final List<RecordCriterion> recordCriteriaList;
-  private final List<DatasetCriterion> datasetCriteria;
+  private final RecordCriterion[] recordCriteria;
+  // criteria evaluating a RecordBatch column by column
+  private final RecordBatchCriterion[] recordBatchCriteria;
+  // criteria without RecordBatch support, evaluated record by record
+  private final RecordCriterion[] perRecordCriteria;
+  private final DatasetCriterion[] datasetCriteria;
+
+  // terms used by TermBasedCriterion
+  private final Set<Term> terms;
+  // only set on chains returned by forComponent(ArchiveFile, EvaluationContext)
+  private final ColumnIndex columnIndex;
+  // chains per rowType and EvaluationContext, null on chains returned by forComponent
+  private final ConcurrentMap<String, EvaluatorChain> componentChains;
+
+  // DatasetCriterion are shared with the chains returned by forComponent, so is the lock protecting them
+  private final Object datasetCriteriaLock;
 
   public EvaluatorChain(List<RecordCriterion> recordCriteriaList, List<DatasetCriterion> datasetCriteria) {
-    this.recordCriteriaList = ImmutableList.copyOf(recordCriteriaList);
-    this.datasetCriteria = ImmutableList.copyOf(datasetCriteria);
+    // regexes on the same term are evaluated at once
+    this.recordCriteria =
+      ImmutableList.copyOf(MultiRegexCriterion.merge(recordCriteriaList)).toArray(new RecordCriterion[0]);
+    this.recordBatchCriteria = getRecordBatchCriteria(recordCriteria);
+    this.perRecordCriteria = getPerRecordCriteria(recordCriteria);
+    this.datasetCriteria = ImmutableList.copyOf(datasetCriteria).toArray(new DatasetCriterion[0]);
+    this.datasetCriteriaLock = new Object();
+
+    ImmutableSet.Builder<Term> chainTerms = ImmutableSet.builder();
+    for (RecordCriterion currRecordCriterion : recordCriteria) {
+      if (currRecordCriterion instanceof TermBasedCriterion) {
+        chainTerms.addAll(((TermBasedCriterion) currRecordCriterion).getTerms());
+      }
+    }
+    this.terms = chainTerms.build();
+    this.columnIndex = null;
+    this.componentChains = new ConcurrentHashMap<String, EvaluatorChain>();
+  }
+
+  private EvaluatorChain(RecordCriterion[] recordCriteria, DatasetCriterion[] datasetCriteria,
+    Object datasetCriteriaLock, Set<Term> terms, ColumnIndex columnIndex) {
+    this.recordCriteria = recordCriteria;
+    this.recordBatchCriteria = getRecordBatchCriteria(recordCriteria);
+    this.perRecordCriteria = getPerRecordCriteria(recordCriteria);
+    this.datasetCriteria = datasetCriteria;
+    this.datasetCriteriaLock = datasetCriteriaLock;
+    this.terms = terms;
+    this.columnIndex = columnIndex;
+    this.componentChains = null;
+  }
+
+  private static RecordBatchCriterion[] getRecordBatchCriteria(RecordCriterion[] recordCriteria) {
+    List<RecordBatchCriterion> recordBatchCriteria = new ArrayList<RecordBatchCriterion>();
+    for (RecordCriterion currRecordCriterion : recordCriteria) {
+      if (currRecordCriterion instanceof RecordBatchCriterion) {
+        recordBatchCriteria.add((RecordBatchCriterion) currRecordCriterion);
+      }
+    }
+    return recordBatchCriteria.toArray(new RecordBatchCriterion[0]);
+  }
+
+  private static RecordCriterion[] getPerRecordCriteria(RecordCriterion[] recordCriteria) {
+    List<RecordCriterion> perRecordCriteria = new ArrayList<RecordCriterion>();
+    for (RecordCriterion currRecordCriterion : recordCriteria) {
+      if (!(currRecordCriterion instanceof RecordBatchCriterion)) {
+        perRecordCriteria.add(currRecordCriterion);
+      }
+    }
+    return perRecordCriteria.toArray(new RecordCriterion[0]);
+  }
+
+  /**
+   * Get the chain to use for all records of an ArchiveFile. It only contains the criteria applicable to the rowType
+   * and the EvaluationContext, see RestrictedCriterion, and skips TermBasedCriterion using only terms not declared
+   * by the ArchiveFile. The columns of the terms used by the criteria are resolved, see getColumnIndex().
+   * evaluateDataset and cleanup must still be called on this chain, not on the returned one.
+   * 
+   * @param archiveFile
+   * @param evaluationContext
+   * @return
+   */
+  public EvaluatorChain forComponent(ArchiveFile archiveFile, EvaluationContext evaluationContext) {
+    return forComponent(archiveFile.getRowType(), evaluationContext, ColumnIndex.resolve(archiveFile, terms));
+  }
+
+  /**
+   * Get the chain to use for all records of an ArchiveFile. It only contains the criteria applicable to the rowType
+   * and the EvaluationContext, see RestrictedCriterion. Criteria not implementing RestrictedCriterion are always
+   * included.
+   * evaluateDataset and cleanup must still be called on this chain, not on the returned one.
+   * 
+   * @param rowType
+   * @param evaluationContext
+   * @return
+   */
+  public EvaluatorChain forComponent(String rowType, EvaluationContext evaluationContext) {
+    return forComponent(rowType, evaluationContext, null);
+  }
+
+  private EvaluatorChain forComponent(String rowType, EvaluationContext evaluationContext,
+    ColumnIndex componentColumnIndex) {
+    List<RecordCriterion> applicableRecordCriteria = new ArrayList<RecordCriterion>();
+    for (int i = 0; i < recordCriteria.length; i++) {
+      if (!isApplicable(recordCriteria[i], rowType, evaluationContext)) {
+        continue;
+      }
+      if (componentColumnIndex != null && hasOnlyMissingTerms(recordCriteria[i], componentColumnIndex)) {
+        // reported once instead of evaluating the criterion on each record
+        LOGGER.info("Criterion {} skipped on {}, none of the terms {} is declared", recordCriteria[i].getCriteriaKey(),
+          rowType, ((TermBasedCriterion) recordCriteria[i]).getTerms());
+        continue;
+      }
+      applicableRecordCriteria.add(recordCriteria[i]);
+    }
+
+    List<DatasetCriterion> applicableDatasetCriteria = new ArrayList<DatasetCriterion>();
+    for (DatasetCriterion currDatasetCriterion : datasetCriteria) {
+      if (isApplicable(currDatasetCriterion, rowType, evaluationContext)) {
+        applicableDatasetCriteria.add(currDatasetCriterion);
+      }
+    }
+
+    return new EvaluatorChain(applicableRecordCriteria.toArray(new RecordCriterion[0]),
+      applicableDatasetCriteria.toArray(new DatasetCriterion[0]), datasetCriteriaLock, terms, componentColumnIndex);
+  }
+
+  private static boolean hasOnlyMissingTerms(RecordCriterion criterion, ColumnIndex componentColumnIndex) {
+    if (!(criterion instanceof TermBasedCriterion)) {
+      return false;
+    }
+    Set<Term> criterionTerms = ((TermBasedCriterion) criterion).getTerms();
+    if (criterionTerms.isEmpty()) {
+      return false;
+    }
+    for (Term currTerm : criterionTerms) {
+      if (!componentColumnIndex.isMissing(currTerm)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Columns of the terms used by the criteria, only available on chains returned by
+   * forComponent(ArchiveFile, EvaluationContext).
+   * 
+   * @return the ColumnIndex or null
+   */
+  public ColumnIndex getColumnIndex() {
+    return columnIndex;
+  }
+
+  /**
+   * Get the chain restricted to the rowType and EvaluationContext, built on first use.
+   * Only used on chains that were not obtained from forComponent.
+   * 
+   * @param rowType
+   * @param evaluationContext
+   * @return
+   */
+  private EvaluatorChain getComponentChain(String rowType, EvaluationContext evaluationContext) {
+    String key = evaluationContext + "|" + StringUtils.defaultString(rowType).toLowerCase();
+    EvaluatorChain componentChain = componentChains.get(key);
+    if (componentChain == null) {
+      componentChain = forComponent(rowType, evaluationContext);
+      EvaluatorChain previous = componentChains.putIfAbsent(key, componentChain);
+      if (previous != null) {
+        componentChain = previous;
+      }
+    }
+    return componentChain;
+  }
+
+  private static boolean isApplicable(Object criterion, String rowType, EvaluationContext evaluationContext) {
+    if (!(criterion instanceof RestrictedCriterion)) {
+      return true;
+    }
+    RestrictedCriterion restrictedCriterion = (RestrictedCriterion) criterion;
+    String rowTypeRestriction = restrictedCriterion.getRowTypeRestriction();
+    EvaluationContext evaluationContextRestriction = restrictedCriterion.getEvaluationContextRestriction();
+    return (StringUtils.isBlank(rowTypeRestriction) || rowTypeRestriction.equalsIgnoreCase(rowType))
+      && (evaluationContextRestriction == null || evaluationContextRestriction == evaluationContext);
   }
 
   public void evaluateRecord(Record record, EvaluationContext evaluationContext, ResultAccumulator resultAccumulator)
     throws ResultAccumulationException {
+    evaluateRecordCriteria(record, evaluationContext, resultAccumulator);
+    notifyDatasetCriteria(record, evaluationContext);
+  }
+
+  /**
+   * Run all RecordCriterion of the chain applicable to the provided record.
+   * RecordCriterion are stateless so this method can be called concurrently from different threads.
+   * 
+   * @param record
+   * @param evaluationContext
+   * @param resultAccumulator
+   * @throws ResultAccumulationException
+   */
+  public void evaluateRecordCriteria(Record record, EvaluationContext evaluationContext,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    if (componentChains != null) {
+      getComponentChain(record.rowType(), evaluationContext).evaluateRecordCriteria(record, evaluationContext,
+        resultAccumulator);
+      return;
+    }
 
     Optional<ValidationResult> result;
-    for (RecordCriterion currRecordCriteria : recordCriteriaList) {
-      result = currRecordCriteria.validate(record, evaluationContext);
-      if (result.isPresent()) {
-        resultAccumulator.accumulate(result.get());
+    // transformations shared by different criteria are only computed once for this record
+    ValueTransformationCache valueTransformationCache = ValueTransformationCache.current();
+    valueTransformationCache.beginRecord();
+    try {
+      for (int i = 0; i < recordCriteria.length; i++) {
+        // one result per grouped criterion
+        if (recordCriteria[i] instanceof MultiResultRecordCriterion) {
+          ((MultiResultRecordCriterion) recordCriteria[i]).validate(record, evaluationContext, resultAccumulator);
+          continue;
+        }
+        result = recordCriteria[i].validate(record, evaluationContext);
+        // passed results are not recorded, skip the accumulator
+        if (result.isPresent() && !result.get().passed()) {
+          resultAccumulator.accumulate(result.get());
+        }
       }
+    } finally {
+      valueTransformationCache.endRecord();
     }
+  }
 
-    for (DatasetCriterion currRecordCriteria : datasetCriteria) {
-      currRecordCriteria.onRecord(record, evaluationContext);
+  /**
+   * Run all RecordCriterion of the chain on the provided batch, column by column when supported by the criterion.
+   * Other criteria are evaluated record by record, all of them on a record before moving to the next one so
+   * transformations they share are only computed once per record. Columns already transformed for the batch by
+   * column by column criteria are reused, see RecordBatch.getTransformedColumn.
+   * Can be called concurrently from different threads as long as each thread uses its own RecordBatch.
+   * 
+   * @param recordBatch
+   * @param evaluationContext
+   * @param resultAccumulator
+   * @throws ResultAccumulationException
+   */
+  public void evaluateRecordBatch(RecordBatch recordBatch, EvaluationContext evaluationContext,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    if (componentChains != null) {
+      getComponentChain(recordBatch.getRowType(), evaluationContext).evaluateRecordBatch(recordBatch,
+        evaluationContext, resultAccumulator);
+      return;
+    }
+
+    for (int i = 0; i < recordBatchCriteria.length; i++) {
+      recordBatchCriteria[i].validate(recordBatch, evaluationContext, resultAccumulator);
+    }
+    if (perRecordCriteria.length == 0) {
+      return;
+    }
+
+    Optional<ValidationResult> result;
+    ValueTransformationCache valueTransformationCache = ValueTransformationCache.current();
+    for (int i = 0; i < recordBatch.size(); i++) {
+      Record record = recordBatch.getRecord(i);
+      // results of the columns already transformed for the batch are reused
+      recordBatch.beginRecord(valueTransformationCache, i);
+      try {
+        for (int j = 0; j < perRecordCriteria.length; j++) {
+          if (perRecordCriteria[j] instanceof MultiResultRecordCriterion) {
+            ((MultiResultRecordCriterion) perRecordCriteria[j]).validate(record, evaluationContext, resultAccumulator);
+            continue;
+          }
+          result = perRecordCriteria[j].validate(record, evaluationContext);
+          if (result.isPresent() && !result.get().passed()) {
+            resultAccumulator.accumulate(result.get());
+          }
+        }
+      } finally {
+        valueTransformationCache.endRecord();
+      }
+    }
+  }
+
+  /**
+   * Send the record to all DatasetCriterion of the chain applicable to the provided record.
+   * DatasetCriterion are stateful, calls are synchronized so different components (core, extensions) can be read
+   * concurrently but records of a component must be sent from a single thread in reading order.
+   * 
+   * @param record
+   * @param evaluationContext
+   */
+  public void notifyDatasetCriteria(Record record, EvaluationContext evaluationContext) {
+    if (componentChains != null) {
+      getComponentChain(record.rowType(), evaluationContext).notifyDatasetCriteria(record, evaluationContext);
+      return;
+    }
+    if (datasetCriteria.length == 0) {
+      return;
+    }
+    synchronized (datasetCriteriaLock) {
+      for (int i = 0; i < datasetCriteria.length; i++) {
+        datasetCriteria[i].onRecord(record, evaluationContext);
+      }
     }
   }
 
@@ -57,6 +357,13 @@ public class EvaluatorChain {
   }
 
   public void cleanup() throws IOException {
+    for (RecordCriterion currRecordCriterion : recordCriteria) {
+      if (currRecordCriterion instanceof CachingCriterion) {
+        for (ValueCache<?> currValueCache : ((CachingCriterion) currRecordCriterion).getValueCaches()) {
+          LOGGER.info("Cache statistics {}", currValueCache);
+        }
+      }
+    }
     for (DatasetCriterion currRecordCriteria : datasetCriteria) {
       currRecordCriteria.close();
     }
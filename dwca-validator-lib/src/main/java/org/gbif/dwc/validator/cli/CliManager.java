@@ -23,13 +23,32 @@ public class CliManager {
   static final String CLI_OUT = "o";
   static final String CLI_CONFIG = "c";
   static final String CLI_OUTPUT_FORMAT = "of";
+  static final String CLI_THREADS = "t";
+  static final String CLI_CONCURRENT_COMPONENTS = "cc";
+  static final String CLI_STREAM_FROM_ZIP = "z";
+  static final String CLI_MAX_RESULTS = "max";
+  static final String CLI_SUMMARY = "sum";
+  static final String CLI_GZIP = "gz";
 
   static {
     cmdLineOptions = new Options();
     cmdLineOptions.addOption(CLI_SOURCE, true, "Path or URL pointing to the DarwinCore Archive file");
     cmdLineOptions.addOption(CLI_OUT, true, "Output folder (optional)");
-    cmdLineOptions.addOption(CLI_OUTPUT_FORMAT, true, "Output format: csv or json (optional)");
+    cmdLineOptions.addOption(CLI_OUTPUT_FORMAT, true, "Output format(s), comma separated: csv, json or bin (optional)");
     cmdLineOptions.addOption(CLI_CONFIG, true, "Path of a configuration file (optional)");
+    cmdLineOptions.addOption(CLI_THREADS, true,
+      "Number of threads used to evaluate records, default is 1 (optional)");
+    cmdLineOptions.addOption(CLI_CONCURRENT_COMPONENTS, false,
+      "Read core and extension files concurrently (optional)");
+    cmdLineOptions.addOption(CLI_STREAM_FROM_ZIP, false,
+      "Read data files directly from the zip file without extracting them (optional)");
+    cmdLineOptions.addOption(CLI_MAX_RESULTS, true,
+      "Maximum number of results recorded per criterion, type and rowType. A sample of the remaining results and "
+        + "the total counts are also recorded. Not supported by the bin output format (optional)");
+    cmdLineOptions.addOption(CLI_SUMMARY, false,
+      "Record the number of errors and warnings per criterion, term, context and rowType. Not supported by the bin "
+        + "output format (optional)");
+    cmdLineOptions.addOption(CLI_GZIP, false, "Compress csv and json result files using gzip (optional)");
   }
 
   /**
@@ -52,6 +71,12 @@ public class CliManager {
     cmdValues.put(CLI_OUT, cmdLine.getOptionValue(CLI_OUT));
     cmdValues.put(CLI_OUTPUT_FORMAT, cmdLine.getOptionValue(CLI_OUTPUT_FORMAT));
     cmdValues.put(CLI_CONFIG, cmdLine.getOptionValue(CLI_CONFIG));
+    cmdValues.put(CLI_THREADS, cmdLine.getOptionValue(CLI_THREADS));
+    cmdValues.put(CLI_CONCURRENT_COMPONENTS, Boolean.toString(cmdLine.hasOption(CLI_CONCURRENT_COMPONENTS)));
+    cmdValues.put(CLI_STREAM_FROM_ZIP, Boolean.toString(cmdLine.hasOption(CLI_STREAM_FROM_ZIP)));
+    cmdValues.put(CLI_MAX_RESULTS, cmdLine.getOptionValue(CLI_MAX_RESULTS));
+    cmdValues.put(CLI_SUMMARY, Boolean.toString(cmdLine.hasOption(CLI_SUMMARY)));
+    cmdValues.put(CLI_GZIP, Boolean.toString(cmdLine.hasOption(CLI_GZIP)));
     return cmdValues;
   }
 
@@ -7,6 +7,12 @@ import org.gbif.dwc.validator.config.FileBasedValidationChainLoader;
 import org.gbif.dwc.validator.config.ValidatorConfig;
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.AsyncResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.CompositeResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.ResultCompression;
+import org.gbif.dwc.validator.result.accumulator.SamplingResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.SummaryResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.binary.BinaryResultAccumulator;
 import org.gbif.dwc.validator.result.accumulator.csv.CSVResultAccumulator;
 import org.gbif.dwc.validator.result.accumulator.json.JSONResultAccumulator;
 
@@ -20,12 +26,18 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,29 +53,40 @@ public class ValidatorMain {
   private static final Logger LOGGER = LoggerFactory.getLogger(ValidatorMain.class);
   private static final DateFormat DF = new SimpleDateFormat("yyyy-MM-dd_HH_mm_ss_SS");
   private static final String RESULT_FILENAME = "ValidationResults_";
+  private static final String SUMMARY_FILENAME_SUFFIX = "_summary";
 
   public ValidatorMain(String[] args) {
 
     Map<String, String> cliArgs = CliManager.parseCommandLine(args);
     String sourceFileLocation = cliArgs.get(CliManager.CLI_SOURCE);
     String resultFolderLocation = cliArgs.get(CliManager.CLI_OUT);
-    String resultOutputFormat =
-      StringUtils.defaultIfBlank(cliArgs.get(CliManager.CLI_OUTPUT_FORMAT), ValidatorConfig.CSV_OUTPUT_FORMAT);
+    List<String> resultOutputFormats = parseResultOutputFormats(
+      StringUtils.defaultIfBlank(cliArgs.get(CliManager.CLI_OUTPUT_FORMAT), ValidatorConfig.CSV_OUTPUT_FORMAT));
     String configurationFile = cliArgs.get(CliManager.CLI_CONFIG);
+    int numberOfThreads = NumberUtils.toInt(cliArgs.get(CliManager.CLI_THREADS), 1);
+    boolean concurrentComponents = Boolean.parseBoolean(cliArgs.get(CliManager.CLI_CONCURRENT_COMPONENTS));
+    boolean streamFromZip = Boolean.parseBoolean(cliArgs.get(CliManager.CLI_STREAM_FROM_ZIP));
+    // -1 means no limit
+    int maxResults = NumberUtils.toInt(cliArgs.get(CliManager.CLI_MAX_RESULTS), -1);
+    boolean summary = Boolean.parseBoolean(cliArgs.get(CliManager.CLI_SUMMARY));
+    ResultCompression compression =
+      Boolean.parseBoolean(cliArgs.get(CliManager.CLI_GZIP)) ? ResultCompression.GZIP : ResultCompression.NONE;
 
     String sourceIdentifier = Long.toString(System.currentTimeMillis());
 
     // TODO probably load from configuration file
     ValidatorConfig validatorConfig = ValidatorConfig.getInstance();
 
-    // ensure source file was provided and resultOutputFormat is a valid format
-    if (StringUtils.isBlank(sourceFileLocation) || !isValidResultOutputFormat(resultOutputFormat)) {
+    // ensure source file was provided and all resultOutputFormats are valid formats
+    if (StringUtils.isBlank(sourceFileLocation) || resultOutputFormats.isEmpty() || numberOfThreads < 1
+      || (cliArgs.get(CliManager.CLI_MAX_RESULTS) != null && maxResults < 0)
+      || ((maxResults >= 0 || summary) && resultOutputFormats.contains(ValidatorConfig.BINARY_OUTPUT_FORMAT))) {
       CliManager.printHelp();
       return;
     }
 
     // handle output folder/file location
-    File outputFile = handleValidationResultFile(resultFolderLocation, resultOutputFormat);
+    File outputFile = handleValidationResultFile(resultFolderLocation);
     if (outputFile == null) {
       CliManager.printHelp();
       return;
@@ -80,16 +103,27 @@ public class ValidatorMain {
     File tmpFolder = new File(validatorConfig.getWorkingFolder(), "validator-dwca-" + sourceIdentifier);
     tmpFolder.mkdir();
     FileEvaluator archiveValidator;
+    Evaluators evaluators;
+    EvaluatorChain evaluatorChain = null;
     if (StringUtils.isNotBlank(configurationFile)) {
-      archiveValidator =
-        Evaluators.buildFromValidationChain(tmpFolder, handleConfigurationFile(new File(configurationFile)));
-      if (archiveValidator == null) {
+      evaluatorChain = handleConfigurationFile(new File(configurationFile));
+      if (evaluatorChain == null) {
         return;
       }
+      evaluators = Evaluators.builder();
     } else {
-      archiveValidator = Evaluators.defaultChain(tmpFolder).build();
+      evaluators = Evaluators.defaultChain(tmpFolder);
     }
 
+    evaluators.usingThreads(numberOfThreads);
+    if (concurrentComponents) {
+      evaluators.concurrentComponents();
+    }
+    if (streamFromZip) {
+      evaluators.streamFromZip();
+    }
+    archiveValidator = (evaluatorChain != null ? evaluators.build(evaluatorChain) : evaluators.build());
+
     if (isURL(sourceFileLocation)) {
       System.out.println("Downloading file from: " + sourceFileLocation);
       File dFile = new File(tmpFolder, tmpFolder.getName() + ".zip");
@@ -110,7 +144,8 @@ public class ValidatorMain {
     }
 
 
-    ResultAccumulator resultAccumulator = handleResultAccumulator(outputFile, resultOutputFormat);
+    ResultAccumulator resultAccumulator =
+      handleResultAccumulator(outputFile, resultOutputFormats, compression, maxResults, summary);
 
     long startTime = System.currentTimeMillis();
     System.out.println("Starting validation ... ");
@@ -127,7 +162,10 @@ public class ValidatorMain {
 
     if (resultAccumulator.getValidationResultCount() > 0) {
       System.out.println("The Dwc-A file is not valid according to current validation chain:");
-      System.out.println("Results available in " + outputFile.getAbsolutePath());
+      for (String resultOutputFormat : resultOutputFormats) {
+        System.out.println("Results available in "
+          + getOutputFile(outputFile, resultOutputFormat, compression).getAbsolutePath());
+      }
     } else {
       System.out.println("The Dwc-A file looks valid according to current validation chain.");
     }
@@ -181,6 +219,24 @@ public class ValidatorMain {
     return urlValidator.isValid(source);
   }
 
+  /**
+   * Parse a comma separated list of result output formats.
+   * 
+   * @param resultOutputFormat e.g. csv,json
+   * @return distinct formats in lower case or an empty list if one of them is not a valid format
+   */
+  private List<String> parseResultOutputFormats(String resultOutputFormat) {
+    Set<String> resultOutputFormats = new LinkedHashSet<String>();
+    for (String format : StringUtils.split(resultOutputFormat, ',')) {
+      format = format.trim().toLowerCase();
+      if (!isValidResultOutputFormat(format)) {
+        return Collections.emptyList();
+      }
+      resultOutputFormats.add(format);
+    }
+    return new ArrayList<String>(resultOutputFormats);
+  }
+
   /**
    * Checks if the provided resultOutputFormat is a valid format.
    * 
@@ -189,7 +245,8 @@ public class ValidatorMain {
    */
   private boolean isValidResultOutputFormat(String resultOutputFormat) {
     return resultOutputFormat.equalsIgnoreCase(ValidatorConfig.CSV_OUTPUT_FORMAT)
-      || resultOutputFormat.equalsIgnoreCase(ValidatorConfig.JSON_OUTPUT_FORMAT);
+      || resultOutputFormat.equalsIgnoreCase(ValidatorConfig.JSON_OUTPUT_FORMAT)
+      || resultOutputFormat.equalsIgnoreCase(ValidatorConfig.BINARY_OUTPUT_FORMAT);
   }
 
   /**
@@ -214,29 +271,103 @@ public class ValidatorMain {
   }
 
   /**
-   * Get a configured ResultAccumulator based on the result output format.
+   * Get a configured ResultAccumulator based on the result output formats.
    * 
-   * @param outputFile File where the result will be printed
-   * @param resultOutputFormat format to use to output result
-   * @return configured ResultAccumulator or null if no ResultAccumulator match the output format.
+   * @param outputFile File where the result will be printed, without extension
+   * @param resultOutputFormats formats to use to output result, one file is produced per format
+   * @param compression compression of the text formats
+   * @param maxResults maximum number of results recorded per criterion, type and rowType or -1 to record all of them
+   * @param summary also record summary counts
+   * @return configured ResultAccumulator or null if no ResultAccumulator match the output formats.
    */
-  private ResultAccumulator handleResultAccumulator(File outputFile, String resultOutputFormat) {
+  private ResultAccumulator handleResultAccumulator(File outputFile, List<String> resultOutputFormats,
+    ResultCompression compression, int maxResults, boolean summary) {
+    // AggregationResult are produced by the sampling and the summary
+    boolean aggregation = (maxResults >= 0 || summary);
+    List<ResultAccumulator> resultAccumulators = new ArrayList<ResultAccumulator>();
+    for (String resultOutputFormat : resultOutputFormats) {
+      ResultAccumulator formatResultAccumulator =
+        createResultAccumulator(outputFile, resultOutputFormat, compression, aggregation);
+      if (formatResultAccumulator == null) {
+        return null;
+      }
+      resultAccumulators.add(formatResultAccumulator);
+    }
+
+    ResultAccumulator resultAccumulator;
+    if (resultAccumulators.size() == 1) {
+      resultAccumulator = resultAccumulators.get(0);
+      // JSON is written on the calling thread, move it to a background writer
+      if (resultAccumulator instanceof JSONResultAccumulator) {
+        resultAccumulator = new AsyncResultAccumulator(resultAccumulator);
+      }
+    } else {
+      // each format is written by its own thread
+      resultAccumulator = new CompositeResultAccumulator(resultAccumulators, true);
+    }
+
+    if (maxResults >= 0) {
+      resultAccumulator =
+        new SamplingResultAccumulator(resultAccumulator, maxResults, SamplingResultAccumulator.DEFAULT_SAMPLE_SIZE);
+    }
+    // counts all results, including the ones not recorded by the sampling
+    if (summary) {
+      resultAccumulator = new SummaryResultAccumulator(resultAccumulator);
+    }
+    return resultAccumulator;
+  }
+
+  /**
+   * Create the ResultAccumulator of a result output format.
+   * 
+   * @param outputFile validation result file without extension
+   * @param resultOutputFormat
+   * @param compression
+   * @param aggregation the ResultAccumulator must record AggregationResult
+   * @return
+   */
+  private ResultAccumulator createResultAccumulator(File outputFile, String resultOutputFormat,
+    ResultCompression compression, boolean aggregation) {
+    String filePath = getOutputFile(outputFile, resultOutputFormat, compression).getAbsolutePath();
     if (resultOutputFormat.equalsIgnoreCase(ValidatorConfig.CSV_OUTPUT_FORMAT)) {
-      return new CSVResultAccumulator(outputFile.getAbsolutePath());
+      String aggregationFilePath = null;
+      if (aggregation) {
+        // aggregations are saved in a second file
+        aggregationFilePath =
+          outputFile.getAbsolutePath() + SUMMARY_FILENAME_SUFFIX + "." + resultOutputFormat
+            + compression.getFileExtension();
+      }
+      return new CSVResultAccumulator(filePath, aggregationFilePath, compression);
     } else if (resultOutputFormat.equalsIgnoreCase(ValidatorConfig.JSON_OUTPUT_FORMAT)) {
-      return new JSONResultAccumulator(outputFile.getAbsolutePath());
+      return new JSONResultAccumulator(filePath, compression);
+    } else if (resultOutputFormat.equalsIgnoreCase(ValidatorConfig.BINARY_OUTPUT_FORMAT)) {
+      return new BinaryResultAccumulator(filePath);
     }
     return null;
   }
 
+  /**
+   * Get the validation result file of a result output format.
+   * 
+   * @param outputFile validation result file without extension
+   * @param resultOutputFormat
+   * @param compression ignored for the binary format which is never compressed
+   * @return
+   */
+  private File getOutputFile(File outputFile, String resultOutputFormat, ResultCompression compression) {
+    if (resultOutputFormat.equalsIgnoreCase(ValidatorConfig.BINARY_OUTPUT_FORMAT)) {
+      return new File(outputFile.getAbsolutePath() + "." + resultOutputFormat);
+    }
+    return new File(outputFile.getAbsolutePath() + "." + resultOutputFormat + compression.getFileExtension());
+  }
+
   /**
    * Handle the name and location of validation result file.
    * 
    * @param resultFolderLocation if null, the current folder will be used
-   * @param extension extension to use for the validation result file.
-   * @return the file
+   * @return the file, without extension
    */
-  private File handleValidationResultFile(String resultFolderLocation, String extension) {
+  private File handleValidationResultFile(String resultFolderLocation) {
     File outputFolder = new File("");
     if (StringUtils.isNotBlank(resultFolderLocation)) {
       File resultFolder = new File(resultFolderLocation);
@@ -245,7 +376,6 @@ public class ValidatorMain {
       }
       outputFolder = resultFolder;
     }
-    return new File(outputFolder.getAbsoluteFile(), RESULT_FILENAME + DF.format(Calendar.getInstance().getTime()) + "."
-      + extension);
+    return new File(outputFolder.getAbsoluteFile(), RESULT_FILENAME + DF.format(Calendar.getInstance().getTime()));
   }
 }
@@ -0,0 +1,60 @@
+package org.gbif.dwc.validator.config;
+
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Formats the messages of a ResourceBundle using MessageFormat instances compiled once per thread and per key.
+ * MessageFormat.format(String, Object...) parses the pattern on every call, which is costly when a lot of
+ * results are produced. MessageFormat is not thread-safe so each thread keeps its own instances.
+ * Thread-safe.
+ * 
+ * @author cgendreau
+ */
+public class MessageFormatCache {
+
+  private final ResourceBundle resourceBundle;
+  private final Locale locale;
+
+  private final ThreadLocal<Map<String, MessageFormat>> messageFormats = new ThreadLocal<Map<String, MessageFormat>>() {
+
+    @Override
+    protected Map<String, MessageFormat> initialValue() {
+      return new HashMap<String, MessageFormat>();
+    }
+  };
+
+  /**
+   * @param resourceBundle bundle containing the message patterns
+   * @param locale locale used to format the parameters (e.g. numbers)
+   */
+  public MessageFormatCache(ResourceBundle resourceBundle, Locale locale) {
+    this.resourceBundle = resourceBundle;
+    this.locale = locale;
+  }
+
+  /**
+   * Format the message represented by the provided key.
+   * 
+   * @param key
+   * @param params
+   * @return
+   */
+  public String format(String key, Object... params) {
+    Map<String, MessageFormat> threadMessageFormats = messageFormats.get();
+    MessageFormat messageFormat = threadMessageFormats.get(key);
+    if (messageFormat == null) {
+      messageFormat = new MessageFormat(resourceBundle.getString(key), locale);
+      threadMessageFormats.put(key, messageFormat);
+    }
+    return messageFormat.format(params);
+  }
+
+  public Locale getLocale() {
+    return locale;
+  }
+
+}
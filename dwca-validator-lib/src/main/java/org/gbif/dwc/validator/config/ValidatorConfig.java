@@ -2,7 +2,6 @@ package org.gbif.dwc.validator.config;
 
 import java.io.File;
 import java.io.IOException;
-import java.text.MessageFormat;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
@@ -28,6 +27,7 @@ public class ValidatorConfig {
 
   public static final String CSV_OUTPUT_FORMAT = "csv";
   public static final String JSON_OUTPUT_FORMAT = "json";
+  public static final String BINARY_OUTPUT_FORMAT = "bin";
 
   public static final String TEXT_FILE_EXT = ".txt";
   public static final String CSV_FILE_EXT = ".csv";
@@ -38,6 +38,10 @@ public class ValidatorConfig {
 
   private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle(BUNDLE_NAME, Locale.ENGLISH);
 
+  // parameters are formatted using the default locale, like MessageFormat.format
+  private static final MessageFormatCache MESSAGE_FORMAT_CACHE = new MessageFormatCache(RESOURCE_BUNDLE, Locale
+    .getDefault());
+
   public static ValidatorConfig getInstance() {
     return _instance;
   }
@@ -74,13 +78,14 @@ public class ValidatorConfig {
   /**
    * Get a localized string represented by the provided key.
    * The string contains parameter substitution in the form of {0} test {1}
+   * The compiled message formats are cached, see MessageFormatCache.
    * 
    * @param key
    * @param params
    * @return
    */
   public static String getLocalizedString(String key, Object... params) {
-    return MessageFormat.format(RESOURCE_BUNDLE.getString(key), params);
+    return MESSAGE_FORMAT_CACHE.format(key, params);
   }
 
 }
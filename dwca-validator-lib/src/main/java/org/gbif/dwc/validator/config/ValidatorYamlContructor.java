@@ -3,6 +3,8 @@ package org.gbif.dwc.validator.config;
 import org.gbif.dwc.validator.criteria.annotation.DatasetCriterionBuilderKey;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionBuilderKey;
 import org.gbif.dwc.validator.criteria.dataset.DatasetCriterionBuilder;
+import org.gbif.dwc.validator.criteria.dataset.ValueIndexRegistry;
+import org.gbif.dwc.validator.criteria.dataset.ValueIndexSharingBuilder;
 import org.gbif.dwc.validator.criteria.record.RecordCriterionBuilder;
 
 import java.util.Collection;
@@ -20,6 +22,9 @@ import org.yaml.snakeyaml.nodes.Tag;
  */
 public class ValidatorYamlContructor extends Constructor {
 
+  // dataset criteria loaded by the same constructor share the values they record
+  private final ValueIndexRegistry valueIndexRegistry = new ValueIndexRegistry();
+
   /**
    * @param recordCriteriaBuilderClasses RecordCriteriaBuilder implementations must have the RecordCriteriaBuilderKey
    *        annotation set. The value of the annotation will be used for the alias name.
@@ -81,6 +86,9 @@ public class ValidatorYamlContructor extends Constructor {
     @Override
     public Object construct(Node node) {
       Object obj = super.construct(node);
+      if (obj instanceof ValueIndexSharingBuilder) {
+        ((ValueIndexSharingBuilder) obj).valueIndexRegistry(valueIndexRegistry);
+      }
       return ((DatasetCriterionBuilder) obj).build();
     }
   }
@@ -0,0 +1,20 @@
+package org.gbif.dwc.validator.criteria;
+
+import org.gbif.util.ValueCache;
+
+import java.util.List;
+
+/**
+ * RecordCriterion keeping the result of the evaluation of raw values in ValueCache instances.
+ * The EvaluatorChain reports the statistics of the caches on cleanup.
+ * 
+ * @author cgendreau
+ */
+public interface CachingCriterion {
+
+  /**
+   * @return caches used by the criterion, can be empty if caching is not enabled
+   */
+  List<ValueCache<?>> getValueCaches();
+
+}
@@ -0,0 +1,24 @@
+package org.gbif.dwc.validator.criteria;
+
+import org.gbif.dwc.validator.result.EvaluationContext;
+
+/**
+ * Criterion (RecordCriterion or DatasetCriterion) only applicable to records of a rowType and/or an
+ * EvaluationContext. The EvaluatorChain uses the restrictions to dispatch records only to applicable criteria,
+ * RecordCriterion do not check them again on each record.
+ * 
+ * @author cgendreau
+ */
+public interface RestrictedCriterion {
+
+  /**
+   * @return rowType the criterion applies to (case insensitive) or null if it applies to all rowTypes
+   */
+  String getRowTypeRestriction();
+
+  /**
+   * @return EvaluationContext the criterion applies to or null if it applies to all contexts
+   */
+  EvaluationContext getEvaluationContextRestriction();
+
+}
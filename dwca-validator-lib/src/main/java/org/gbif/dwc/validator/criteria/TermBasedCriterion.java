@@ -0,0 +1,21 @@
+package org.gbif.dwc.validator.criteria;
+
+import org.gbif.dwc.terms.Term;
+
+import java.util.Set;
+
+/**
+ * RecordCriterion reading the values of some terms and ignoring records without a value for all of them.
+ * The EvaluatorChain resolves the column of those terms once per ArchiveFile and skips the criterion on ArchiveFile
+ * declaring none of them.
+ * 
+ * @author cgendreau
+ */
+public interface TermBasedCriterion {
+
+  /**
+   * @return terms read by the criterion or an empty set if they are not known, the criterion is then never skipped
+   */
+  Set<Term> getTerms();
+
+}
@@ -3,6 +3,7 @@ package org.gbif.dwc.validator.criteria.configuration;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.validator.criteria.annotation.CriterionConfigurationKey;
 import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.vocabulary.CompactVocabulary;
 
 import java.util.Set;
 
@@ -19,6 +20,9 @@ public class ControlledVocabularyCriterionConfiguration {
   private Term term;
   private String dictionaryPath;
   private Set<String> vocabularySet;
+  private boolean caseInsensitive;
+  private boolean asciiFolding;
+  private CompactVocabulary vocabulary;
 
   public String getRowTypeRestriction() {
     return rowTypeRestriction;
@@ -59,4 +63,28 @@ public class ControlledVocabularyCriterionConfiguration {
   public void setVocabularySet(Set<String> vocabularySet) {
     this.vocabularySet = vocabularySet;
   }
+
+  public boolean isCaseInsensitive() {
+    return caseInsensitive;
+  }
+
+  public void setCaseInsensitive(boolean caseInsensitive) {
+    this.caseInsensitive = caseInsensitive;
+  }
+
+  public boolean isAsciiFolding() {
+    return asciiFolding;
+  }
+
+  public void setAsciiFolding(boolean asciiFolding) {
+    this.asciiFolding = asciiFolding;
+  }
+
+  public CompactVocabulary getVocabulary() {
+    return vocabulary;
+  }
+
+  public void setVocabulary(CompactVocabulary vocabulary) {
+    this.vocabulary = vocabulary;
+  }
 }
@@ -22,6 +22,7 @@ public class InvalidCharacterCriterionConfiguration {
   private boolean rejectReplacementChar = false;
 
   private CharMatcher charMatcher;
+  private int verdictCacheSize;
 
   public String getRowTypeRestriction() {
     return rowTypeRestriction;
@@ -75,4 +76,19 @@ public class InvalidCharacterCriterionConfiguration {
   public void setCharMatcher(CharMatcher charMatcher) {
     this.charMatcher = charMatcher;
   }
+
+  public int getVerdictCacheSize() {
+    return verdictCacheSize;
+  }
+
+  /**
+   * Keep the verdict of up to verdictCacheSize distinct values, for terms with a low cardinality. 0 (default)
+   * disables the cache.
+   * 
+   * @param verdictCacheSize
+   */
+  public void setVerdictCacheSize(int verdictCacheSize) {
+    this.verdictCacheSize = verdictCacheSize;
+  }
+
 }
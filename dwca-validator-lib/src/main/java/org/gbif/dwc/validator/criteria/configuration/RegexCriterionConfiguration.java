@@ -17,6 +17,7 @@ public class RegexCriterionConfiguration {
   private Term term;
   private String regex;
   private String explanation;
+  private int verdictCacheSize;
 
   public String getRowTypeRestriction() {
     return rowTypeRestriction;
@@ -63,4 +64,18 @@ public class RegexCriterionConfiguration {
     this.explanation = explanation;
   }
 
+  public int getVerdictCacheSize() {
+    return verdictCacheSize;
+  }
+
+  /**
+   * Keep the verdict of up to verdictCacheSize distinct values, for terms with a low cardinality. 0 (default)
+   * disables the cache.
+   * 
+   * @param verdictCacheSize
+   */
+  public void setVerdictCacheSize(int verdictCacheSize) {
+    this.verdictCacheSize = verdictCacheSize;
+  }
+
 }
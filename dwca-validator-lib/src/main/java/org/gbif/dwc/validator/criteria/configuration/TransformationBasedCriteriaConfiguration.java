@@ -20,6 +20,7 @@ public class TransformationBasedCriteriaConfiguration {
   private Result level = Result.ERROR;
 
   private List<ValueTransformation<?>> transformations;
+  private int transformationCacheSize;
 
   public TransformationBasedCriteriaConfiguration() {
     transformations = new ArrayList<ValueTransformation<?>>();
@@ -53,4 +54,19 @@ public class TransformationBasedCriteriaConfiguration {
     this.transformations = transformations;
   }
 
+  public int getTransformationCacheSize() {
+    return transformationCacheSize;
+  }
+
+  /**
+   * Keep the results of up to transformationCacheSize distinct values per transformation, for terms with a low
+   * cardinality. Only applies to TermValueTransformation, see ValueTransformations.cached. 0 (default) disables the
+   * cache.
+   * 
+   * @param transformationCacheSize
+   */
+  public void setTransformationCacheSize(int transformationCacheSize) {
+    this.transformationCacheSize = transformationCacheSize;
+  }
+
 }
@@ -19,6 +19,9 @@ public class UniquenessCriterionConfiguration {
 
   private Term term;
   private File workingFolder;
+  private Integer maxValuesInMemory;
+  private Integer bloomFilterExpectedInsertions;
+  private Double bloomFilterFalsePositiveProbability;
 
   public Term getTerm() {
     return term;
@@ -36,6 +39,40 @@ public class UniquenessCriterionConfiguration {
     this.workingFolder = workingFolder;
   }
 
+  /**
+   * Maximum number of values kept in memory before switching to the file based (sort) implementation.
+   * 
+   * @return
+   */
+  public Integer getMaxValuesInMemory() {
+    return maxValuesInMemory;
+  }
+
+  public void setMaxValuesInMemory(Integer maxValuesInMemory) {
+    this.maxValuesInMemory = maxValuesInMemory;
+  }
+
+  /**
+   * Expected number of values used to size the optional Bloom filter, null if no Bloom filter should be used.
+   * 
+   * @return
+   */
+  public Integer getBloomFilterExpectedInsertions() {
+    return bloomFilterExpectedInsertions;
+  }
+
+  public void setBloomFilterExpectedInsertions(Integer bloomFilterExpectedInsertions) {
+    this.bloomFilterExpectedInsertions = bloomFilterExpectedInsertions;
+  }
+
+  public Double getBloomFilterFalsePositiveProbability() {
+    return bloomFilterFalsePositiveProbability;
+  }
+
+  public void setBloomFilterFalsePositiveProbability(Double bloomFilterFalsePositiveProbability) {
+    this.bloomFilterFalsePositiveProbability = bloomFilterFalsePositiveProbability;
+  }
+
   public String getRowTypeRestriction() {
     return rowTypeRestriction;
   }
@@ -13,13 +13,15 @@ import org.gbif.dwc.validator.result.ResultAccumulator;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.util.SortedFileDiffReader;
+import org.gbif.util.SpoolWriter;
 import org.gbif.util.ToBeMovedFileUtils;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -45,12 +47,10 @@ class ReferenceUniqueCriterion implements DatasetCriterion {
   private final String key = ReferenceUniqueCriterion.class.getAnnotation(RecordCriterionKey.class).key();
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceUniqueCriterion.class);
-  org.gbif.utils.file.FileUtils GBIF_FILE_UTILS = new org.gbif.utils.file.FileUtils();
+  private static final ToBeMovedFileUtils FILE_UTILS = new ToBeMovedFileUtils();
   private final TermFactory TERM_FACTORY = TermFactory.instance();
-  private static final int BUFFER_THRESHOLD = 1000;
 
   private static final String SORTED_FILE_SUFFIX = "_sorted" + ValidatorConfig.TEXT_FILE_EXT;
-  private static final String DIFF_FILE_SUFFIX = "_diff" + ValidatorConfig.TEXT_FILE_EXT;
 
   private final EvaluationContext evaluationContextRestriction;
   private final String rowTypeRestriction;
@@ -63,8 +63,7 @@ class ReferenceUniqueCriterion implements DatasetCriterion {
   private final File workingFolder;
   private final String randomUUID;
 
-  private final Map<String, List<String>> valuePerRowType;
-  private final Map<String, FileWriter> fileWriterPerRowType;
+  private final Map<String, SpoolWriter> spoolWriterPerRowType;
   private final Map<String, File> valueFilePerRowType;
 
   private final List<File> filesCreated;
@@ -88,47 +87,39 @@ class ReferenceUniqueCriterion implements DatasetCriterion {
     this.workingFolder = configuration.getWorkingFolder();
     this.filesCreated = new ArrayList<File>();
 
-    this.valuePerRowType = new HashMap<String, List<String>>();
-    this.fileWriterPerRowType = new HashMap<String, FileWriter>();
+    this.spoolWriterPerRowType = new HashMap<String, SpoolWriter>();
     this.valueFilePerRowType = new HashMap<String, File>();
   }
 
   /**
-   * Flush the provided valueList into the provided FileWriter and clear the list.
+   * Record a value to check at the end unless the Bloom filter of the UniquenessCriterion tells us the referred value
+   * was (probably) already seen.
    * 
-   * @param valueList
-   * @param fw
+   * @param value
+   * @param spoolWriter
    * @throws IOException
    */
-  private void flushValueList(List<String> valueList, FileWriter fw) throws IOException {
-
-    for (String curr : valueList) {
-      fw.write(curr + ValidatorConfig.ENDLINE);
+  private void recordValue(String value, SpoolWriter spoolWriter) throws IOException {
+    if (!uniquenessCriteria.mightContainValue(value)) {
+      spoolWriter.writeLine(value);
     }
-    fw.flush();
-
-    valueList.clear();
   }
 
   /**
    * Ensure the provided maps are ready to deal with the provided rowType.
    * 
    * @param rowType
-   * @param valuePerRowType
-   * @param fileWriterPerRowType
+   * @param valueFilePerRowType
+   * @param spoolWriterPerRowType
    */
-  private void ensureReadyForRowType(String rowType, Map<String, List<String>> valuePerRowType,
-    Map<String, File> valueFilePerRowType, Map<String, FileWriter> fileWriterPerRowType) throws IOException {
-    if (valuePerRowType.get(rowType) == null) {
-      valuePerRowType.put(rowType, new ArrayList<String>(BUFFER_THRESHOLD));
-    }
-
-    if (fileWriterPerRowType.get(rowType) == null) {
+  private void ensureReadyForRowType(String rowType, Map<String, File> valueFilePerRowType,
+    Map<String, SpoolWriter> spoolWriterPerRowType) throws IOException {
+    if (spoolWriterPerRowType.get(rowType) == null) {
 
       Term ct = TERM_FACTORY.findTerm(rowType);
       String fileName = randomUUID + "_" + ct.simpleName() + ValidatorConfig.TEXT_FILE_EXT;
       File valueRecordingFile = new File(workingFolder, fileName);
-      fileWriterPerRowType.put(rowType, new FileWriter(valueRecordingFile));
+      spoolWriterPerRowType.put(rowType, new SpoolWriter(valueRecordingFile));
       valueFilePerRowType.put(rowType, valueRecordingFile);
 
       filesCreated.add(valueRecordingFile);
@@ -136,40 +127,71 @@ class ReferenceUniqueCriterion implements DatasetCriterion {
   }
 
   /**
-   * Record in resultAccumulator all broken links (if any).
+   * Record in resultAccumulator all broken links (if any) by reading the values file and checking them against the
+   * in memory values of the UniquenessCriterion.
    * 
    * @param rowType
-   * @param diffFile
+   * @param valueFile
    * @param resultAccumulator
+   * @throws IOException if the value file can not be read
    * @throws ResultAccumulationException
    */
-  private void recordBrokenLinks(String rowType, File diffFile, ResultAccumulator resultAccumulator)
-    throws ResultAccumulationException {
+  private void recordBrokenLinksInMemory(String rowType, File valueFile, ResultAccumulator resultAccumulator)
+    throws IOException, ResultAccumulationException {
 
     BufferedReader br = null;
     try {
       String currentLine;
-      String termString = (term != null ? term.toString() : ValidatorConfig.CORE_ID);
-      String referedTermString =
-        (uniquenessCriteria.getTerm() != null ? uniquenessCriteria.getTerm().toString() : ValidatorConfig.CORE_ID);
-
-      br = new BufferedReader(new FileReader(diffFile));
-      ValidationResultElement validationResultElement = null;
+      br = new BufferedReader(new InputStreamReader(new FileInputStream(valueFile), Charsets.UTF_8));
       while ((currentLine = br.readLine()) != null) {
-        validationResultElement =
-          new ValidationResultElement(key, ContentValidationType.FIELD_REFERENTIAL_INTEGRITY, Result.ERROR,
-            ValidatorConfig.getLocalizedString("criterion.reference_unique_criterion.referential_integrity",
-              currentLine, termString, referedTermString));
-        resultAccumulator.accumulate(new ValidationResult(currentLine, evaluationContextRestriction, rowType,
-          validationResultElement));
+        if (!uniquenessCriteria.containsValue(currentLine)) {
+          recordBrokenLink(rowType, currentLine, resultAccumulator);
+        }
       }
-    } catch (IOException ioEx) {
-      LOGGER.error("Can't sort id file", ioEx);
     } finally {
       IOUtils.closeQuietly(br);
     }
   }
 
+  /**
+   * Record in resultAccumulator all broken links (if any) using a merge-join between the sorted reference file and
+   * the sorted values file. No intermediate file is written.
+   * 
+   * @param rowType
+   * @param referenceFile sorted file
+   * @param sortedValueFile sorted file
+   * @param resultAccumulator
+   * @throws IOException if a file can not be read or is not sorted
+   * @throws ResultAccumulationException
+   */
+  private void recordBrokenLinks(String rowType, File referenceFile, File sortedValueFile,
+    ResultAccumulator resultAccumulator) throws IOException, ResultAccumulationException {
+
+    SortedFileDiffReader diffReader = null;
+    try {
+      String currentLine;
+      diffReader = new SortedFileDiffReader(referenceFile, sortedValueFile);
+      while ((currentLine = diffReader.readLine()) != null) {
+        recordBrokenLink(rowType, currentLine, resultAccumulator);
+      }
+    } finally {
+      IOUtils.closeQuietly(diffReader);
+    }
+  }
+
+  private void recordBrokenLink(String rowType, String value, ResultAccumulator resultAccumulator)
+    throws ResultAccumulationException {
+    String termString = (term != null ? term.toString() : ValidatorConfig.CORE_ID);
+    String referedTermString =
+      (uniquenessCriteria.getTerm() != null ? uniquenessCriteria.getTerm().toString() : ValidatorConfig.CORE_ID);
+
+    ValidationResultElement validationResultElement =
+      ValidationResultElement.fromMessage(key, ContentValidationType.FIELD_REFERENTIAL_INTEGRITY, Result.ERROR,
+        "criterion.reference_unique_criterion.referential_integrity", value, termString, referedTermString);
+    resultAccumulator.accumulate(new ValidationResult(value, evaluationContextRestriction, rowType,
+      validationResultElement));
+  }
+
   @Override
   public String getCriteriaKey() {
     return key;
@@ -203,63 +225,61 @@ class ReferenceUniqueCriterion implements DatasetCriterion {
     // only record non-blank value
     if (StringUtils.isNotBlank(value)) {
       try {
-        ensureReadyForRowType(currentRowType, valuePerRowType, valueFilePerRowType, fileWriterPerRowType);
+        ensureReadyForRowType(currentRowType, valueFilePerRowType, spoolWriterPerRowType);
 
-        List<String> valueList = valuePerRowType.get(currentRowType);
+        SpoolWriter spoolWriter = spoolWriterPerRowType.get(currentRowType);
         if (multipleValuesSeparator == null || !value.contains(multipleValuesSeparator)) {
-          valueList.add(value);
+          recordValue(value, spoolWriter);
         } else {
           for (String currValue : StringUtils.split(value, multipleValuesSeparator)) {
-            valueList.add(currValue);
+            recordValue(currValue, spoolWriter);
           }
         }
-        if (valueList.size() >= BUFFER_THRESHOLD) {
-          flushValueList(valueList, fileWriterPerRowType.get(currentRowType));
-        }
       } catch (IOException ioEx) {
-        LOGGER.error("Can't write to file using FileWriter", ioEx);
+        LOGGER.error("Can't write to file using SpoolWriter", ioEx);
       }
     }
   }
 
   @Override
   public void validateDataset(ResultAccumulator resultAccumulator) throws ResultAccumulationException {
-    String sortedFileName, diffFileName;
-    File sortedValueFile, diffFile;
-    ToBeMovedFileUtils tbmFu = new ToBeMovedFileUtils();
+    String sortedFileName;
+    File sortedValueFile;
 
     // call our composed RecordEvaluator first
     uniquenessCriteria.validateDataset(resultAccumulator);
 
-    // use the UniquenessEvaluator sorted values file as reference file
+    // use the UniquenessEvaluator sorted values file as reference file (sorted only once, even if shared)
     // this file could contains duplicates and the UniquenessEvaluator is responsible to flag them.
-    File referenceFile = uniquenessCriteria.getSortedValueFile();
+    File referenceFile = uniquenessCriteria.isInMemory() ? null : uniquenessCriteria.getSortedValueFile();
 
     try {
       // flush and close all resources
-      for (String currRowType : valuePerRowType.keySet()) {
-        flushValueList(valuePerRowType.get(currRowType), fileWriterPerRowType.get(currRowType));
-        fileWriterPerRowType.get(currRowType).close();
+      for (String currRowType : spoolWriterPerRowType.keySet()) {
+        spoolWriterPerRowType.get(currRowType).close();
+
+        // referred values are still in memory, no need to sort anything
+        if (uniquenessCriteria.isInMemory()) {
+          recordBrokenLinksInMemory(currRowType, valueFilePerRowType.get(currRowType), resultAccumulator);
+          continue;
+        }
+
         Term ct = TERM_FACTORY.findTerm(currRowType);
         sortedFileName = randomUUID + "_" + ct.simpleName() + SORTED_FILE_SUFFIX;
-        diffFileName = randomUUID + "_" + ct.simpleName() + DIFF_FILE_SUFFIX;
-
         sortedValueFile = new File(workingFolder, sortedFileName);
-        diffFile = new File(workingFolder, diffFileName);
-        // remember them so we can delete them
+        // remember it so we can delete it
         filesCreated.add(sortedValueFile);
-        filesCreated.add(diffFile);
 
         // sort the recorded values
-        GBIF_FILE_UTILS.sort(valueFilePerRowType.get(currRowType), sortedValueFile, Charsets.UTF_8.toString(), 0, null,
-          null, ValidatorConfig.ENDLINE, 0);
-
-        tbmFu.diffFileInUnix(referenceFile, sortedValueFile, diffFile);
+        FILE_UTILS.sortByCodePoint(valueFilePerRowType.get(currRowType), sortedValueFile);
 
-        recordBrokenLinks(currRowType, diffFile, resultAccumulator);
+        // both files are sorted by code point, broken links are found by a merge-join
+        recordBrokenLinks(currRowType, referenceFile, sortedValueFile, resultAccumulator);
       }
     } catch (IOException ioEx) {
-      LOGGER.error("IO issue", ioEx);
+      // without all the values, missing broken links would look like a successful validation
+      throw new ResultAccumulationException("Can't check the references of "
+        + (term != null ? term.toString() : ValidatorConfig.CORE_ID), ioEx);
     }
 
   }
@@ -271,6 +291,10 @@ class ReferenceUniqueCriterion implements DatasetCriterion {
   public void close() throws IOException {
     uniquenessCriteria.close();
 
+    for (SpoolWriter currSpoolWriter : spoolWriterPerRowType.values()) {
+      IOUtils.closeQuietly(currSpoolWriter);
+    }
+
     // delete all created files
     for (File currFile : filesCreated) {
       currFile.delete();
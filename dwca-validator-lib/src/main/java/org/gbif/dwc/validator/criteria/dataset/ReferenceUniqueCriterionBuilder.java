@@ -18,10 +18,11 @@ import org.apache.commons.lang3.StringUtils;
  * @author cgendreau
  */
 @DatasetCriterionBuilderKey("referenceUniqueCriterion")
-public class ReferenceUniqueCriterionBuilder implements DatasetCriterionBuilder {
+public class ReferenceUniqueCriterionBuilder implements ValueIndexSharingBuilder {
 
   private final ReferenceUniqueCriterionConfiguration configuration;
   private final UniquenessCriterionConfiguration uniquenessCriterionConfiguration;
+  private ValueIndexRegistry valueIndexRegistry;
 
   private ReferenceUniqueCriterionBuilder() {
     this.configuration = new ReferenceUniqueCriterionConfiguration();
@@ -73,17 +74,21 @@ public class ReferenceUniqueCriterionBuilder implements DatasetCriterionBuilder
     }
 
     // UniquenessCriterionBuilder will validate UniquenessCriterion pre conditions.
-    // Always build our own instance to ensure it will not be reused.
+    // Always build our own instance to ensure it will not be reused, the values could still be shared through the
+    // ValueIndexRegistry.
     UniquenessCriterion uniquenessCriteria;
     if (uniquenessCriterionConfiguration == null) {
       // Build uniquenessEvaluator on coreId
       uniquenessCriteria =
-        UniquenessCriterionBuilder.builder().workingFolder(configuration.getWorkingFolder()).innerBuild();
+        UniquenessCriterionBuilder.builder().workingFolder(configuration.getWorkingFolder())
+          .valueIndexRegistry(valueIndexRegistry).innerBuild();
     } else {
       if (uniquenessCriterionConfiguration.getWorkingFolder() == null) {
         uniquenessCriterionConfiguration.setWorkingFolder(configuration.getWorkingFolder());
       }
-      uniquenessCriteria = UniquenessCriterionBuilder.builder(uniquenessCriterionConfiguration).innerBuild();
+      uniquenessCriteria =
+        UniquenessCriterionBuilder.builder(uniquenessCriterionConfiguration).valueIndexRegistry(valueIndexRegistry)
+          .innerBuild();
     }
 
     return new ReferenceUniqueCriterion(configuration, uniquenessCriteria);
@@ -127,4 +132,39 @@ public class ReferenceUniqueCriterionBuilder implements DatasetCriterionBuilder
     this.uniquenessCriterionConfiguration.setWorkingFolder(workingFolder);
     return this;
   }
+
+  /**
+   * Set the maximum number of referred values to keep in memory.
+   * See UniquenessCriterionBuilder.maxValuesInMemory(int).
+   * 
+   * @param maxValuesInMemory
+   * @return
+   */
+  public ReferenceUniqueCriterionBuilder maxValuesInMemory(int maxValuesInMemory) {
+    this.uniquenessCriterionConfiguration.setMaxValuesInMemory(maxValuesInMemory);
+    return this;
+  }
+
+  /**
+   * Use a Bloom filter of the referred values to skip, as soon as they are read, the references that are probably
+   * valid. Only the possibly broken references are sorted and compared at the end.
+   * Probabilistic: a broken reference will not be reported with a probability of falsePositiveProbability.
+   * The referred values must be read before the references for the filter to be effective (e.g. core before
+   * extensions).
+   * 
+   * @param expectedInsertions expected number of referred values
+   * @param falsePositiveProbability
+   * @return
+   */
+  public ReferenceUniqueCriterionBuilder bloomFilter(int expectedInsertions, double falsePositiveProbability) {
+    this.uniquenessCriterionConfiguration.setBloomFilterExpectedInsertions(expectedInsertions);
+    this.uniquenessCriterionConfiguration.setBloomFilterFalsePositiveProbability(falsePositiveProbability);
+    return this;
+  }
+
+  @Override
+  public ReferenceUniqueCriterionBuilder valueIndexRegistry(ValueIndexRegistry valueIndexRegistry) {
+    this.valueIndexRegistry = valueIndexRegistry;
+    return this;
+  }
 }
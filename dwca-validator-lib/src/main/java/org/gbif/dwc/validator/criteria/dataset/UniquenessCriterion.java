@@ -3,6 +3,7 @@ package org.gbif.dwc.validator.criteria.dataset;
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.UniquenessCriterionConfiguration;
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
@@ -15,12 +16,9 @@ import org.gbif.dwc.validator.result.validation.ValidationResultElement;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.io.InputStreamReader;
 
 import com.google.common.base.Charsets;
 import org.apache.commons.lang3.StringUtils;
@@ -29,15 +27,19 @@ import org.slf4j.LoggerFactory;
 
 /**
  * DatasetCriteria implementation to check the uniqueness of specific fields.
- * This implementation will write a new file with all the id and then sort it using org.gbif.utils.file.FileUtils.
+ * Values are recorded in a ValueIndex that can be shared with other DatasetCriterion interested in the same values.
+ * They are first kept in memory and duplicates are detected as they arrive. When maxValuesInMemory is reached,
+ * the ValueIndex will write a new file with all the id and then sort it using org.gbif.utils.file.FileUtils.
  * GBIF FileUtils can also sort directly on the archive file, it may be a better solution than writing a new
  * file containing all the id but referential integrity check needs the resulting file.
+ * Comparison is case insensitive.
+ * Values can also be recorded in an optional Bloom filter used by ReferenceUniqueCriterion to screen references.
  * NOT thread-safe
  * 
  * @author cgendreau
  */
 @RecordCriterionKey(key = "uniquenessCriterion")
-class UniquenessCriterion implements DatasetCriterion {
+class UniquenessCriterion implements DatasetCriterion, RestrictedCriterion {
 
   private final String key = UniquenessCriterion.class.getAnnotation(RecordCriterionKey.class).key();
   private final EvaluationContext evaluationContextRestriction;
@@ -46,60 +48,80 @@ class UniquenessCriterion implements DatasetCriterion {
   private final String conceptTermString;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(UniquenessCriterion.class);
-  org.gbif.utils.file.FileUtils GBIF_FILE_UTILS = new org.gbif.utils.file.FileUtils();
-  private static final int BUFFER_THRESHOLD = 1000;
 
-  private final List<String> idList;
-  private final FileWriter fw;
-
-  private final File valueRecordingFile;
-  private final File sortedValueFile;
+  private final ValueIndexRegistry valueIndexRegistry;
+  private final ValueIndex valueIndex;
 
   /**
-   * @param UniquenessCriterionConfiguration
-   * @throws IOException
+   * @param configuration
+   * @param valueIndexRegistry registry providing the (possibly shared) ValueIndex
    */
-  UniquenessCriterion(UniquenessCriterionConfiguration configuration) throws IOException {
+  UniquenessCriterion(UniquenessCriterionConfiguration configuration, ValueIndexRegistry valueIndexRegistry) {
     this.evaluationContextRestriction = configuration.getEvaluationContextRestriction();
     this.rowTypeRestriction = configuration.getRowTypeRestriction();
     this.term = configuration.getTerm();
     this.conceptTermString = term != null ? term.simpleName() : "coreId";
 
-    idList = new ArrayList<String>(BUFFER_THRESHOLD);
-    String randomUUID = UUID.randomUUID().toString();
-    String fileName = randomUUID + ValidatorConfig.TEXT_FILE_EXT;
-    String sortedFileName = randomUUID + "_sorted" + ValidatorConfig.TEXT_FILE_EXT;
+    this.valueIndexRegistry = valueIndexRegistry;
+    this.valueIndex = valueIndexRegistry.register(this, configuration);
+  }
 
-    valueRecordingFile = new File(configuration.getWorkingFolder(), fileName);
-    sortedValueFile = new File(configuration.getWorkingFolder(), sortedFileName);
-    fw = new FileWriter(valueRecordingFile);
+  @Override
+  public String getCriteriaKey() {
+    return key;
   }
 
-  private void flushCurrentIdList() {
-    try {
-      for (String curr : idList) {
-        fw.write(curr + ValidatorConfig.ENDLINE);
-      }
-      fw.flush();
-    } catch (IOException ioEx) {
-      LOGGER.error("Can't write to file using FileWriter", ioEx);
-    }
-    idList.clear();
+  @Override
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
   }
 
   @Override
-  public String getCriteriaKey() {
-    return key;
+  public EvaluationContext getEvaluationContextRestriction() {
+    return evaluationContextRestriction;
   }
 
   /**
-   * Returns the file used(or to be used) to store the sorted record value.
-   * The file may or may not exist yet.
+   * Returns the file containing the sorted record values. The file is sorted on the first call.
+   * Only available when isInMemory() returns false.
    * 
    * @return
    */
   File getSortedValueFile() {
-    return sortedValueFile;
+    return valueIndex.getSortedValueFile();
+  }
+
+  /**
+   * Are all values still kept in memory?
+   * If true, no sorted value file will be produced.
+   * 
+   * @return
+   */
+  boolean isInMemory() {
+    return valueIndex.isInMemory();
+  }
+
+  /**
+   * Check if a value was recorded by this criterion. Only available while isInMemory() returns true.
+   * The check is case sensitive.
+   * 
+   * @param value
+   * @return
+   */
+  boolean containsValue(String value) {
+    return valueIndex.containsValue(value);
+  }
+
+  /**
+   * Check if a value was probably recorded by this criterion using the Bloom filter.
+   * A false positive is possible but a value recorded will never be reported as not recorded.
+   * The check is case sensitive.
+   * 
+   * @param value
+   * @return true if the value was probably recorded, always false if no Bloom filter is used
+   */
+  boolean mightContainValue(String value) {
+    return valueIndex.mightContainValue(value);
   }
 
   /**
@@ -113,68 +135,51 @@ class UniquenessCriterion implements DatasetCriterion {
 
   /**
    * Record each fields that shall be unique.
+   * If the ValueIndex is shared, only the first registered criterion records the values.
    */
   @Override
   public void onRecord(Record record, EvaluationContext evaluationContext) {
-
-    // check that the record is in the right evaluation context
-    if (evaluationContext != evaluationContextRestriction) {
-      return;
-    }
-
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return;
-    }
-
-    if (term == null) {
-      idList.add(record.id());
-    } else {
-      idList.add(record.value(term));
+    if (valueIndex.isFeeder(this)) {
+      valueIndex.onRecord(record, evaluationContext);
     }
+  }
 
-    if (idList.size() >= BUFFER_THRESHOLD) {
-      flushCurrentIdList();
-    }
+  /**
+   * Record a duplicate value into the ResultAccumulator.
+   * 
+   * @param value
+   * @param resultAccumulator
+   * @throws ResultAccumulationException
+   */
+  private void recordDuplicate(String value, ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    String displayValue = StringUtils.isBlank(value) ? ValidatorConfig.EMPTY_STRING_FOR_DISPLAY : value;
+    ValidationResultElement validationResultElement =
+      ValidationResultElement.fromMessage(key, ContentValidationType.FIELD_UNIQUENESS, Result.ERROR,
+        "criterion.uniqueness_criterion.not_unique", displayValue, conceptTermString);
+    resultAccumulator.accumulate(new ValidationResult(displayValue, evaluationContextRestriction, StringUtils
+      .defaultString(rowTypeRestriction), validationResultElement));
   }
 
   @Override
   public void validateDataset(ResultAccumulator resultAccumulator) throws ResultAccumulationException {
-    flushCurrentIdList();
-
-    try {
-      fw.close();
-    } catch (IOException ioEx) {
-      LOGGER.error("Can't close UniquenessEvaluator FileWriter properly", ioEx);
-    }
-
-    // sort the file containing the value
-    try {
-      GBIF_FILE_UTILS.sort(valueRecordingFile, sortedValueFile, Charsets.UTF_8.toString(), 0, null, null,
-        ValidatorConfig.ENDLINE, 0);
-    } catch (IOException ioEx) {
-      LOGGER.error("Can't sort id file", ioEx);
+    if (valueIndex.isInMemory()) {
+      for (String currDuplicate : valueIndex.getDuplicatesInMemory()) {
+        recordDuplicate(currDuplicate, resultAccumulator);
+      }
+      return;
     }
 
     // search for duplicates
     BufferedReader br = null;
     try {
       String previousLine = null;
-      String currentLine, displayValue;
+      String currentLine;
 
-      br = new BufferedReader(new FileReader(sortedValueFile));
-      ValidationResultElement validationResultElement = null;
+      br =
+        new BufferedReader(new InputStreamReader(new FileInputStream(valueIndex.getSortedValueFile()), Charsets.UTF_8));
       while ((currentLine = br.readLine()) != null) {
         if (previousLine != null && previousLine.equalsIgnoreCase(currentLine)) {
-
-          displayValue = StringUtils.isBlank(currentLine) ? ValidatorConfig.EMPTY_STRING_FOR_DISPLAY : currentLine;
-
-          validationResultElement =
-            new ValidationResultElement(key, ContentValidationType.FIELD_UNIQUENESS, Result.ERROR,
-              ValidatorConfig.getLocalizedString("criterion.uniqueness_criterion.not_unique", displayValue,
-                conceptTermString));
-          resultAccumulator.accumulate(new ValidationResult(displayValue, evaluationContextRestriction, StringUtils
-            .defaultString(rowTypeRestriction), validationResultElement));
+          recordDuplicate(currentLine, resultAccumulator);
         }
         previousLine = currentLine;
       }
@@ -191,12 +196,11 @@ class UniquenessCriterion implements DatasetCriterion {
   }
 
   /**
-   * Delete generated files.
+   * Release the ValueIndex, generated files are deleted by the last criterion using it.
    */
   @Override
   public void close() throws IOException {
-    valueRecordingFile.delete();
-    sortedValueFile.delete();
+    valueIndexRegistry.release(valueIndex);
   }
 
 }
@@ -18,9 +18,13 @@ import org.apache.commons.lang3.StringUtils;
  * @author cgendreau
  */
 @DatasetCriterionBuilderKey("uniquenessCriterion")
-public class UniquenessCriterionBuilder implements DatasetCriterionBuilder {
+public class UniquenessCriterionBuilder implements ValueIndexSharingBuilder {
+
+  public static final int DEFAULT_MAX_VALUES_IN_MEMORY = 500000;
+  public static final double DEFAULT_BLOOM_FILTER_FPP = 0.000001;
 
   private final UniquenessCriterionConfiguration configuration;
+  private ValueIndexRegistry valueIndexRegistry;
 
   private UniquenessCriterionBuilder() {
     this.configuration = new UniquenessCriterionConfiguration();
@@ -76,6 +80,23 @@ public class UniquenessCriterionBuilder implements DatasetCriterionBuilder {
       Preconditions.checkState(configuration.getTerm() != null, "A Term must be provided for extension");
     }
 
+    if (configuration.getMaxValuesInMemory() == null) {
+      configuration.setMaxValuesInMemory(DEFAULT_MAX_VALUES_IN_MEMORY);
+    } else {
+      Preconditions.checkState(configuration.getMaxValuesInMemory() >= 0, "maxValuesInMemory can not be negative");
+    }
+
+    if (configuration.getBloomFilterExpectedInsertions() != null) {
+      Preconditions.checkState(configuration.getBloomFilterExpectedInsertions() > 0,
+        "bloomFilterExpectedInsertions must be greater than 0");
+      if (configuration.getBloomFilterFalsePositiveProbability() == null) {
+        configuration.setBloomFilterFalsePositiveProbability(DEFAULT_BLOOM_FILTER_FPP);
+      }
+      Preconditions.checkState(configuration.getBloomFilterFalsePositiveProbability() > 0
+        && configuration.getBloomFilterFalsePositiveProbability() < 1,
+        "bloomFilterFalsePositiveProbability must be between 0 and 1 (exclusive)");
+    }
+
     // maybe working folder should be mandatory?
     if (configuration.getWorkingFolder() != null) {
       Preconditions.checkState(configuration.getWorkingFolder().exists()
@@ -84,12 +105,9 @@ public class UniquenessCriterionBuilder implements DatasetCriterionBuilder {
       configuration.setWorkingFolder(new File("."));
     }
 
-    try {
-      return new UniquenessCriterion(configuration);
-    } catch (IOException e) {
-      // Not sure it's the best solution
-      throw new IllegalStateException(e);
-    }
+    // without registry, the values are not shared
+    ValueIndexRegistry registry = (valueIndexRegistry != null) ? valueIndexRegistry : new ValueIndexRegistry();
+    return new UniquenessCriterion(configuration, registry);
   }
 
   /**
@@ -128,4 +146,35 @@ public class UniquenessCriterionBuilder implements DatasetCriterionBuilder {
     configuration.setWorkingFolder(workingFolder);
     return this;
   }
+
+  /**
+   * Set the maximum number of values to keep in memory. Once this number is reached, values are written to a file
+   * and sorted to find duplicates. 0 means always use a file.
+   * 
+   * @param maxValuesInMemory
+   * @return
+   */
+  public UniquenessCriterionBuilder maxValuesInMemory(int maxValuesInMemory) {
+    configuration.setMaxValuesInMemory(maxValuesInMemory);
+    return this;
+  }
+
+  /**
+   * Also record values in a Bloom filter that can be used to quickly screen values that are probably recorded.
+   * 
+   * @param expectedInsertions expected number of values
+   * @param falsePositiveProbability probability that a value not recorded is reported as probably recorded
+   * @return
+   */
+  public UniquenessCriterionBuilder bloomFilter(int expectedInsertions, double falsePositiveProbability) {
+    configuration.setBloomFilterExpectedInsertions(expectedInsertions);
+    configuration.setBloomFilterFalsePositiveProbability(falsePositiveProbability);
+    return this;
+  }
+
+  @Override
+  public UniquenessCriterionBuilder valueIndexRegistry(ValueIndexRegistry valueIndexRegistry) {
+    this.valueIndexRegistry = valueIndexRegistry;
+    return this;
+  }
 }
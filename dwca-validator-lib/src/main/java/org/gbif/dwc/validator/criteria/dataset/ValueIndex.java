@@ -0,0 +1,324 @@
+package org.gbif.dwc.validator.criteria.dataset;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.configuration.UniquenessCriterionConfiguration;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.util.SpoolWriter;
+import org.gbif.util.ToBeMovedFileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Values of a term (or the id), for an evaluation context and a rowType, recorded once and shared by all the
+ * DatasetCriterion interested in them (e.g. UniquenessCriterion and ReferenceUniqueCriterion on the coreId).
+ * Values are first kept in memory. When maxValuesInMemory is reached, they are written to a file that will be sorted
+ * only once, on first request, using org.gbif.utils.file.FileUtils.
+ * Records must only be sent by the first consumer registered, see isFeeder(Object).
+ * Instances are obtained from a ValueIndexRegistry.
+ * NOT thread-safe
+ * 
+ * @author cgendreau
+ */
+class ValueIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ValueIndex.class);
+  private static final ToBeMovedFileUtils FILE_UTILS = new ToBeMovedFileUtils();
+
+  private final EvaluationContext evaluationContextRestriction;
+  private final String rowTypeRestriction;
+  private final Term term;
+
+  private final File valueRecordingFile;
+  private final File sortedValueFile;
+
+  // configuration of all consumers, only used before the first record
+  private int maxValuesInMemory;
+  private Integer bloomFilterExpectedInsertions;
+  private Double bloomFilterFalsePositiveProbability;
+
+  private Object feeder;
+  private int numberOfConsumers;
+  private boolean initialized;
+  private boolean sorted;
+
+  private SpoolWriter spoolWriter;
+
+  // lower case value to original value, null once values were moved to a file
+  private Map<String, String> valuesInMemory;
+  private final List<String> duplicatesInMemory;
+  // duplicates spelled differently than the value kept in valuesInMemory (e.g. "abc" when "ABC" was seen first)
+  private Set<String> otherSpellingsInMemory;
+
+  // optional, null if not used
+  private BloomFilter<CharSequence> bloomFilter;
+
+  ValueIndex(UniquenessCriterionConfiguration configuration) {
+    this.evaluationContextRestriction = configuration.getEvaluationContextRestriction();
+    this.rowTypeRestriction = configuration.getRowTypeRestriction();
+    this.term = configuration.getTerm();
+
+    String randomUUID = UUID.randomUUID().toString();
+    this.valueRecordingFile = new File(configuration.getWorkingFolder(), randomUUID + ValidatorConfig.TEXT_FILE_EXT);
+    this.sortedValueFile =
+      new File(configuration.getWorkingFolder(), randomUUID + "_sorted" + ValidatorConfig.TEXT_FILE_EXT);
+
+    this.duplicatesInMemory = new ArrayList<String>();
+  }
+
+  /**
+   * Register a new consumer of this index. All consumers share the same maxValuesInMemory, see ValueIndexRegistry.
+   * The Bloom filter is created if any consumer requested it, using the largest expected insertions and the lowest
+   * false positive probability.
+   * 
+   * @param consumer
+   * @param configuration
+   */
+  void addConsumer(Object consumer, UniquenessCriterionConfiguration configuration) {
+    Preconditions.checkState(!initialized, "Consumers can not be added once values are recorded");
+    if (feeder == null) {
+      feeder = consumer;
+    }
+    numberOfConsumers++;
+
+    if (configuration.getMaxValuesInMemory() != null) {
+      maxValuesInMemory = configuration.getMaxValuesInMemory();
+    }
+    if (configuration.getBloomFilterExpectedInsertions() != null) {
+      bloomFilterExpectedInsertions =
+        (bloomFilterExpectedInsertions == null) ? configuration.getBloomFilterExpectedInsertions() : Math.max(
+          bloomFilterExpectedInsertions, configuration.getBloomFilterExpectedInsertions());
+      bloomFilterFalsePositiveProbability =
+        (bloomFilterFalsePositiveProbability == null) ? configuration.getBloomFilterFalsePositiveProbability() : Math
+          .min(bloomFilterFalsePositiveProbability, configuration.getBloomFilterFalsePositiveProbability());
+    }
+  }
+
+  /**
+   * Unregister a consumer.
+   * 
+   * @return true if there is no more consumer
+   */
+  boolean removeConsumer() {
+    numberOfConsumers--;
+    return numberOfConsumers <= 0;
+  }
+
+  /**
+   * Is the consumer the one responsible to send the records to this index?
+   * 
+   * @param consumer
+   * @return
+   */
+  boolean isFeeder(Object consumer) {
+    return feeder == consumer;
+  }
+
+  private void ensureInitialized() {
+    if (initialized) {
+      return;
+    }
+    initialized = true;
+    valuesInMemory = new HashMap<String, String>();
+    otherSpellingsInMemory = new HashSet<String>();
+    if (bloomFilterExpectedInsertions != null) {
+      bloomFilter =
+        BloomFilter.create(Funnels.stringFunnel(Charsets.UTF_8), bloomFilterExpectedInsertions,
+          bloomFilterFalsePositiveProbability);
+    }
+    if (maxValuesInMemory == 0) {
+      switchToFile();
+    }
+  }
+
+  /**
+   * Stop using memory and write all values recorded so far into valueRecordingFile.
+   */
+  private void switchToFile() {
+    try {
+      spoolWriter = new SpoolWriter(valueRecordingFile);
+    } catch (IOException ioEx) {
+      LOGGER.error("Can't create file using SpoolWriter", ioEx);
+    }
+    if (valuesInMemory != null) {
+      for (String curr : valuesInMemory.values()) {
+        writeValue(curr);
+      }
+      for (String curr : duplicatesInMemory) {
+        writeValue(curr);
+      }
+      valuesInMemory = null;
+      otherSpellingsInMemory = null;
+      duplicatesInMemory.clear();
+    }
+  }
+
+  /**
+   * Record a value in memory.
+   * 
+   * @param value
+   */
+  private void recordInMemory(String value) {
+    String key = value.toLowerCase(Locale.ENGLISH);
+    String previous = valuesInMemory.put(key, value);
+    if (previous != null) {
+      // keep the first value we saw
+      valuesInMemory.put(key, previous);
+      duplicatesInMemory.add(value);
+      if (!previous.equals(value)) {
+        otherSpellingsInMemory.add(value);
+      }
+    }
+
+    if (valuesInMemory.size() + duplicatesInMemory.size() > maxValuesInMemory) {
+      switchToFile();
+    }
+  }
+
+  private void writeValue(String value) {
+    try {
+      spoolWriter.writeLine(value);
+    } catch (IOException ioEx) {
+      LOGGER.error("Can't write to file using SpoolWriter", ioEx);
+    }
+  }
+
+  /**
+   * Record the value of the record, if it matches the evaluation context and rowType of this index.
+   * 
+   * @param record
+   * @param evaluationContext
+   */
+  void onRecord(Record record, EvaluationContext evaluationContext) {
+    ensureInitialized();
+
+    // check that the record is in the right evaluation context
+    if (evaluationContext != evaluationContextRestriction) {
+      return;
+    }
+
+    // if we specified a rowType restriction, check that the record is also of this rowType
+    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
+      return;
+    }
+
+    String value = (term == null) ? record.id() : record.value(term);
+
+    if (bloomFilter != null && value != null) {
+      bloomFilter.put(value);
+    }
+
+    if (isInMemory()) {
+      // use the same representation as the file, null are recorded as "null"
+      recordInMemory(String.valueOf(value));
+      return;
+    }
+
+    writeValue(value);
+  }
+
+  Term getTerm() {
+    return term;
+  }
+
+  /**
+   * Are all values still kept in memory?
+   * If true, no sorted value file will be produced.
+   * 
+   * @return
+   */
+  boolean isInMemory() {
+    ensureInitialized();
+    return valuesInMemory != null;
+  }
+
+  /**
+   * Check if a value was recorded. Only available while isInMemory() returns true.
+   * The check is case sensitive.
+   * 
+   * @param value
+   * @return
+   */
+  boolean containsValue(String value) {
+    Preconditions.checkState(isInMemory(), "Values are not kept in memory");
+    return value.equals(valuesInMemory.get(value.toLowerCase(Locale.ENGLISH)))
+      || otherSpellingsInMemory.contains(value);
+  }
+
+  /**
+   * Check if a value was probably recorded using the Bloom filter.
+   * A false positive is possible but a value recorded will never be reported as not recorded.
+   * The check is case sensitive.
+   * 
+   * @param value
+   * @return true if the value was probably recorded, always false if no Bloom filter is used
+   */
+  boolean mightContainValue(String value) {
+    return bloomFilter != null && bloomFilter.mightContain(value);
+  }
+
+  /**
+   * Duplicated values found while all values are kept in memory.
+   * 
+   * @return
+   */
+  List<String> getDuplicatesInMemory() {
+    return Collections.unmodifiableList(duplicatesInMemory);
+  }
+
+  /**
+   * Get the file containing all recorded values sorted. The file is sorted on the first call only.
+   * Only available when isInMemory() returns false.
+   * 
+   * @return
+   */
+  File getSortedValueFile() {
+    Preconditions.checkState(!isInMemory(), "Values are kept in memory");
+    if (!sorted) {
+      sorted = true;
+      try {
+        spoolWriter.close();
+      } catch (IOException ioEx) {
+        LOGGER.error("Can't close SpoolWriter", ioEx);
+      }
+
+      try {
+        // same order as SortedFileDiffReader on all platforms
+        FILE_UTILS.sortByCodePoint(valueRecordingFile, sortedValueFile);
+      } catch (IOException ioEx) {
+        LOGGER.error("Can't sort id file", ioEx);
+      }
+    }
+    return sortedValueFile;
+  }
+
+  /**
+   * Delete generated files.
+   */
+  void close() {
+    IOUtils.closeQuietly(spoolWriter);
+    valueRecordingFile.delete();
+    sortedValueFile.delete();
+  }
+
+}
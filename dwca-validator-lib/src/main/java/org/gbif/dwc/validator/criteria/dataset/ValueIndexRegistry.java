@@ -0,0 +1,63 @@
+package org.gbif.dwc.validator.criteria.dataset;
+
+import org.gbif.dwc.validator.criteria.configuration.UniquenessCriterionConfiguration;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Registry of the ValueIndex shared by the DatasetCriterion of a validation chain.
+ * DatasetCriterion built with the same registry and interested in the same values (term, evaluation context and
+ * rowType) will use the same ValueIndex so the values are only recorded and sorted once. The maxValuesInMemory of the
+ * criteria is also part of the key: a criterion asking for a file (0) or a smaller memory footprint is never
+ * overridden by another one, its values are recorded separately.
+ * A registry should only be used for one validation chain.
+ * 
+ * @author cgendreau
+ */
+public class ValueIndexRegistry {
+
+  private final Map<List<Object>, ValueIndex> valueIndexByKey = new HashMap<List<Object>, ValueIndex>();
+
+  /**
+   * Get the ValueIndex matching the configuration and register the consumer on it.
+   * 
+   * @param consumer
+   * @param configuration
+   * @return
+   */
+  synchronized ValueIndex register(Object consumer, UniquenessCriterionConfiguration configuration) {
+    List<Object> key = buildKey(configuration);
+    ValueIndex valueIndex = valueIndexByKey.get(key);
+    if (valueIndex == null) {
+      valueIndex = new ValueIndex(configuration);
+      valueIndexByKey.put(key, valueIndex);
+    }
+    valueIndex.addConsumer(consumer, configuration);
+    return valueIndex;
+  }
+
+  /**
+   * Unregister a consumer, the ValueIndex is closed when it has no more consumer.
+   * 
+   * @param valueIndex
+   */
+  synchronized void release(ValueIndex valueIndex) {
+    if (valueIndex.removeConsumer()) {
+      valueIndex.close();
+      valueIndexByKey.values().remove(valueIndex);
+    }
+  }
+
+  private List<Object> buildKey(UniquenessCriterionConfiguration configuration) {
+    String termKey = (configuration.getTerm() != null) ? configuration.getTerm().qualifiedName() : null;
+    String rowTypeKey = StringUtils.lowerCase(StringUtils.trimToNull(configuration.getRowTypeRestriction()));
+    return Arrays.<Object>asList(configuration.getEvaluationContextRestriction(), rowTypeKey, termKey,
+      configuration.getMaxValuesInMemory());
+  }
+
+}
@@ -0,0 +1,20 @@
+package org.gbif.dwc.validator.criteria.dataset;
+
+/**
+ * DatasetCriterionBuilder of a criterion recording values in a ValueIndex that can be shared with the other
+ * DatasetCriterion of the same validation chain.
+ * Kept apart from DatasetCriterionBuilder so existing implementations are not affected.
+ * 
+ * @author cgendreau
+ */
+public interface ValueIndexSharingBuilder extends DatasetCriterionBuilder {
+
+  /**
+   * Set the registry used to share recorded values with the other DatasetCriterion of the same validation chain.
+   * 
+   * @param valueIndexRegistry
+   * @return
+   */
+  DatasetCriterionBuilder valueIndexRegistry(ValueIndexRegistry valueIndexRegistry);
+
+}
@@ -1,25 +1,35 @@
 package org.gbif.dwc.validator.criteria.record;
 
 import org.gbif.dwc.record.Record;
-import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.criteria.CachingCriterion;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.BoundCriterionConfiguration;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.ResultAccumulator;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.dwc.validator.transformation.TermValueTransformation;
 import org.gbif.dwc.validator.transformation.ValueTransformation;
+import org.gbif.dwc.validator.transformation.ValueTransformationCache;
 import org.gbif.dwc.validator.transformation.ValueTransformationResult;
+import org.gbif.dwc.validator.transformation.ValueTransformations;
+import org.gbif.util.ValueCache;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.base.Optional;
-import org.apache.commons.lang3.StringUtils;
 
 @RecordCriterionKey(key = "boundCriterion")
-class BoundCriterion implements RecordCriterion {
+class BoundCriterion implements RecordBatchCriterion, RestrictedCriterion, TermBasedCriterion, CachingCriterion {
 
   private final String key = BoundCriterion.class.getAnnotation(RecordCriterionKey.class).key();
 
@@ -49,36 +59,104 @@ class BoundCriterion implements RecordCriterion {
   }
 
   @Override
-  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
 
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return Optional.absent();
-    }
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
+
+  @Override
+  public Set<Term> getTerms() {
+    return ValueTransformations.getTerms(Collections.singletonList(valueTransformation));
+  }
+
+  @Override
+  public List<ValueCache<?>> getValueCaches() {
+    return ValueTransformations.getValueCaches(Collections.singletonList(valueTransformation));
+  }
+
+  @Override
+  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
 
-    List<ValidationResultElement> elementList = new ArrayList<ValidationResultElement>();
-    ValueTransformationResult<Number> parsingResult = valueTransformation.transform(record);
+    // only allocated if the record fails
+    List<ValidationResultElement> elementList = null;
+    ValueTransformationResult<Number> parsingResult =
+      ValueTransformationCache.current().transform(valueTransformation, record);
 
     // ensure we can extract numbers for those fields
     if (parsingResult.isNotTransformed()) {
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level, parsingResult
-        .getExplanation()));
+      elementList = new ArrayList<ValidationResultElement>();
+      elementList.add(parsingResult.toValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level));
     }
 
     Number parsedValue = parsingResult.getData();
 
     if (parsedValue != null
       && (parsedValue.doubleValue() < lowerBound.doubleValue() || parsedValue.doubleValue() > upperBound.doubleValue())) {
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        ValidatorConfig.getLocalizedString("criterion.bound_criterion.out_of_bounds", parsedValue, lowerBound,
-          upperBound, parsingResult.getTerm())));
+      if (elementList == null) {
+        elementList = new ArrayList<ValidationResultElement>();
+      }
+      elementList.add(ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
+        "criterion.bound_criterion.out_of_bounds", parsedValue, lowerBound, upperBound, parsingResult.getTerm()));
       return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
     }
 
-    if (elementList != null && elementList.size() > 0) {
+    if (elementList != null) {
       return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
     }
 
-    return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType()));
+    return PASSED;
+  }
+
+  /**
+   * Evaluate the batch column by column when the transformation only uses one term, otherwise record by record.
+   * Values are parsed first, then checked against the bounds in a separate loop on primitive values.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public void validate(RecordBatch recordBatch, EvaluationContext evaluationContext,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+
+    if (!(valueTransformation instanceof TermValueTransformation)) {
+      RecordBatchCriterionAdapter.validateEachRecord(this, recordBatch, evaluationContext, resultAccumulator);
+      return;
+    }
+
+    TermValueTransformation<Number> termValueTransformation = (TermValueTransformation<Number>) valueTransformation;
+    // shared with the other criteria using the same transformation on this batch
+    ValueTransformationResult<Number>[] parsingResults = recordBatch.getTransformedColumn(termValueTransformation);
+    String[] ids = recordBatch.getIds();
+
+    // NaN is used for values that could not be parsed, it is never out of bounds
+    double[] values = new double[parsingResults.length];
+    for (int i = 0; i < parsingResults.length; i++) {
+      values[i] = Double.NaN;
+      if (!parsingResults[i].isNotTransformed() && parsingResults[i].getData() != null) {
+        values[i] = parsingResults[i].getData().doubleValue();
+      }
+    }
+
+    // results are accumulated in the same order as the records
+    double lower = lowerBound.doubleValue();
+    double upper = upperBound.doubleValue();
+    for (int i = 0; i < values.length; i++) {
+      if (parsingResults[i].isNotTransformed()) {
+        recordFailure(ids[i], evaluationContext, recordBatch.getRowType(), resultAccumulator,
+          parsingResults[i].toValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level));
+      } else if (values[i] < lower || values[i] > upper) {
+        recordFailure(ids[i], evaluationContext, recordBatch.getRowType(), resultAccumulator,
+          ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
+            "criterion.bound_criterion.out_of_bounds", parsingResults[i].getData(), lowerBound, upperBound,
+            termValueTransformation.getTerm()));
+      }
+    }
+  }
+
+  private void recordFailure(String id, EvaluationContext evaluationContext, String rowType,
+    ResultAccumulator resultAccumulator, ValidationResultElement element) throws ResultAccumulationException {
+    resultAccumulator.accumulate(new ValidationResult(id, evaluationContext, rowType, element));
   }
 }
@@ -0,0 +1,109 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.text.ArchiveField;
+import org.gbif.dwc.text.ArchiveFile;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Column of the terms used by an EvaluatorChain, resolved once for an ArchiveFile.
+ * Values are then read by index from the raw row of the records instead of resolving the term for each record.
+ * Terms not declared by the ArchiveFile are known up front and never read.
+ * Immutable
+ * 
+ * @author cgendreau
+ */
+public class ColumnIndex {
+
+  private final Map<Term, ArchiveField> fields;
+  private final Set<Term> missingTerms;
+
+  private ColumnIndex(Map<Term, ArchiveField> fields, Set<Term> missingTerms) {
+    this.fields = ImmutableMap.copyOf(fields);
+    this.missingTerms = ImmutableSet.copyOf(missingTerms);
+  }
+
+  /**
+   * Resolve the column of the provided terms in the ArchiveFile.
+   * 
+   * @param archiveFile
+   * @param terms
+   * @return
+   */
+  public static ColumnIndex resolve(ArchiveFile archiveFile, Collection<Term> terms) {
+    Map<Term, ArchiveField> fields = new HashMap<Term, ArchiveField>();
+    Set<Term> missingTerms = new HashSet<Term>();
+    ArchiveField field;
+    for (Term currTerm : terms) {
+      field = archiveFile.getField(currTerm);
+      if (field == null) {
+        missingTerms.add(currTerm);
+      } else {
+        fields.put(currTerm, field);
+      }
+    }
+    return new ColumnIndex(fields, missingTerms);
+  }
+
+  /**
+   * Is the term known to be absent from the ArchiveFile? Records will never have a value for it.
+   * 
+   * @param term
+   * @return
+   */
+  public boolean isMissing(Term term) {
+    return missingTerms.contains(term);
+  }
+
+  public Set<Term> getMissingTerms() {
+    return missingTerms;
+  }
+
+  /**
+   * Read the values of a term for all the provided records, same values as Record.value(Term).
+   * Terms that were not resolved are read using Record.value(Term).
+   * 
+   * @param records records of the ArchiveFile
+   * @param term
+   * @return values in the same order as the records, null if a record has no value for the term
+   */
+  public String[] readColumn(List<Record> records, Term term) {
+    String[] column = new String[records.size()];
+    ArchiveField field = fields.get(term);
+    if (field == null && missingTerms.contains(term)) {
+      return column;
+    }
+
+    // constant value, not read from the file
+    if (field != null && field.getIndex() == null) {
+      Arrays.fill(column, field.getDefaultValue());
+      return column;
+    }
+
+    // terms not resolved and columns with a default value are left to the Record
+    if (field == null || field.getDefaultValue() != null) {
+      for (int i = 0; i < column.length; i++) {
+        column[i] = records.get(i).value(term);
+      }
+      return column;
+    }
+
+    int index = field.getIndex();
+    for (int i = 0; i < column.length; i++) {
+      column[i] = records.get(i).column(index);
+    }
+    return column;
+  }
+
+}
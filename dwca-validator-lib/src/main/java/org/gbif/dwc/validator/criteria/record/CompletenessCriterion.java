@@ -2,7 +2,7 @@ package org.gbif.dwc.validator.criteria.record;
 
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
-import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.CompletenessCriterionConfiguration;
 import org.gbif.dwc.validator.result.EvaluationContext;
@@ -11,7 +11,6 @@ import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.google.common.base.Optional;
@@ -26,7 +25,7 @@ import org.apache.commons.lang3.StringUtils;
  * @author cgendreau
  */
 @RecordCriterionKey(key = "completenessCriterion")
-class CompletenessCriterion implements RecordCriterion {
+class CompletenessCriterion implements RecordCriterion, RestrictedCriterion {
 
   private final String key = CompletenessCriterion.class.getAnnotation(RecordCriterionKey.class).key();
 
@@ -53,14 +52,17 @@ class CompletenessCriterion implements RecordCriterion {
   }
 
   @Override
-  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return Optional.absent();
-    }
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
 
-    List<ValidationResultElement> elementList = new ArrayList<ValidationResultElement>();
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
 
+  @Override
+  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
     String str = record.value(term);
     boolean isPresent = StringUtils.isNotBlank(str);
     if (isPresent && absenceSynonyms != null) {
@@ -68,15 +70,12 @@ class CompletenessCriterion implements RecordCriterion {
     }
 
     if (!isPresent) {
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        ValidatorConfig.getLocalizedString("criterion.completeness_criterion.incomplete", term)));
-    }
-
-    if (elementList != null && elementList.size() > 0) {
-      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
+      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(),
+        ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
+          "criterion.completeness_criterion.incomplete", term)));
     }
 
-    return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType()));
+    return PASSED;
   }
 
 }
@@ -2,33 +2,34 @@ package org.gbif.dwc.validator.criteria.record;
 
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
-import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.ControlledVocabularyCriterionConfiguration;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.ResultAccumulator;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.dwc.validator.vocabulary.CompactVocabulary;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 
 import com.google.common.base.Optional;
-import org.apache.commons.lang3.StringUtils;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * RecordCriterion used to ensure the value of a term is matching against a controlled vocabulary.
+ * The vocabulary is a CompactVocabulary, values can be compared ignoring the case and/or Latin diacritics. Characters
+ * like 保存標本 are not folded.
  * TODO: add ability to set 'preferred' and 'alternative' string
- * TODO: should we only compare lowerCase (at least by default)?
- * TODO: should we accept ascii folding setting? If yes, how it will (should) react with characters like 保存標本
  * 
  * @author cgendreau
  */
 @RecordCriterionKey(key = "controlledVocabularyCriterion")
-class ControlledVocabularyCriterion implements RecordCriterion {
+class ControlledVocabularyCriterion implements RecordBatchCriterion, RestrictedCriterion, TermBasedCriterion {
 
   private final String key = ControlledVocabularyCriterion.class.getAnnotation(RecordCriterionKey.class).key();
 
@@ -36,47 +37,63 @@ class ControlledVocabularyCriterion implements RecordCriterion {
   private final String rowTypeRestriction;
 
   private final Term term;
-  private final Set<String> vocabularySet;
+  private final CompactVocabulary vocabulary;
 
   ControlledVocabularyCriterion(ControlledVocabularyCriterionConfiguration configuration) {
     this.level = configuration.getLevel();
     this.rowTypeRestriction = configuration.getRowTypeRestriction();
     this.term = configuration.getTerm();
-
-    if (configuration.getVocabularySet() != null) {
-      this.vocabularySet = Collections.unmodifiableSet(configuration.getVocabularySet());
-    } else {
-      vocabularySet = null;
-    }
+    this.vocabulary = configuration.getVocabulary();
   }
 
   @Override
   public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return Optional.absent();
-    }
-
     String str = record.value(term);
     if (str == null) {
       return Optional.absent();
     }
 
-    List<ValidationResultElement> elementList = new ArrayList<ValidationResultElement>();
-    if (!vocabularySet.contains(str)) {
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        ValidatorConfig.getLocalizedString("criterion.controlled_vocabulary_criterion.controlled_vocabulary", str,
-          term.simpleName())));
+    if (!vocabulary.contains(str)) {
+      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(),
+        buildValidationResultElement(str)));
     }
-
-    if (elementList != null && elementList.size() > 0) {
-      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
-    }
-    return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType()));
+    return PASSED;
   }
 
   @Override
   public String getCriteriaKey() {
     return key;
   }
+
+  @Override
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
+
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
+
+  @Override
+  public Set<Term> getTerms() {
+    return ImmutableSet.of(term);
+  }
+
+  private ValidationResultElement buildValidationResultElement(String str) {
+    return ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
+      "criterion.controlled_vocabulary_criterion.controlled_vocabulary", str, term.simpleName());
+  }
+
+  @Override
+  public void validate(RecordBatch recordBatch, EvaluationContext evaluationContext,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    String[] column = recordBatch.getColumn(term);
+    for (int i = 0; i < column.length; i++) {
+      if (column[i] != null && !vocabulary.contains(column[i])) {
+        resultAccumulator.accumulate(new ValidationResult(recordBatch.getIds()[i], evaluationContext, recordBatch
+          .getRowType(), buildValidationResultElement(column[i])));
+      }
+    }
+  }
 }
@@ -3,15 +3,12 @@ package org.gbif.dwc.validator.criteria.record;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionBuilderKey;
 import org.gbif.dwc.validator.criteria.configuration.ControlledVocabularyCriterionConfiguration;
+import org.gbif.dwc.validator.vocabulary.CompactVocabulary;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
-import com.google.common.base.Charsets;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 
@@ -46,19 +43,33 @@ public class ControlledVocabularyCriterionBuilder implements RecordCriterionBuil
   }
 
   /**
-   * Read the dictionary from dictionaryPath and return the content in a Set.
+   * Build the CompactVocabulary from the dictionary file or, if no dictionary file is set, from the vocabularySet.
+   * A text file (.txt) is read, a prebuilt vocabulary file (see CompactVocabulary.writeTo) is memory-mapped and
+   * keeps the lookup mode it was written with.
    * 
    * @return
    * @throws IOException
+   * @throws IllegalStateException if the file is not supported or if a lookup mode is set for a prebuilt file
    */
-  private Set<String> toVocabularySet() throws IOException {
-    if (FilenameUtils.isExtension(configuration.getDictionaryPath(), "txt")) {
-      File dictionaryFile = new File(configuration.getDictionaryPath());
+  private CompactVocabulary toVocabulary() throws IOException {
+    if (StringUtils.isBlank(configuration.getDictionaryPath())) {
+      return CompactVocabulary.build(configuration.getVocabularySet(), configuration.isCaseInsensitive(),
+        configuration.isAsciiFolding());
+    }
 
-      List<String> dictionaryList = FileUtils.readLines(dictionaryFile, Charsets.UTF_8);
-      return new HashSet<String>(dictionaryList);
+    File dictionaryFile = new File(configuration.getDictionaryPath());
+    if (FilenameUtils.isExtension(configuration.getDictionaryPath(), "txt")) {
+      return CompactVocabulary.build(dictionaryFile, configuration.isCaseInsensitive(),
+        configuration.isAsciiFolding());
+    }
+    if (FilenameUtils.isExtension(configuration.getDictionaryPath(), CompactVocabulary.FILE_EXTENSION)) {
+      if (configuration.isCaseInsensitive() || configuration.isAsciiFolding()) {
+        throw new IllegalStateException("caseInsensitive and asciiFolding can not be set for the prebuilt vocabulary "
+          + configuration.getDictionaryPath() + ", it keeps the lookup mode it was written with");
+      }
+      return CompactVocabulary.load(dictionaryFile);
     }
-    return null;
+    throw new IllegalStateException("Unsupported dictionary file " + configuration.getDictionaryPath());
   }
 
   public ControlledVocabularyCriterionBuilder onTerm(Term term) {
@@ -67,7 +78,8 @@ public class ControlledVocabularyCriterionBuilder implements RecordCriterionBuil
   }
 
   /**
-   * Load the controlled vocabulary from a file (currently text file only).
+   * Load the controlled vocabulary from a file: a text file (.txt) with one entry per line or a prebuilt
+   * vocabulary file (.vocab) written by CompactVocabulary.writeTo.
    * 
    * @param dictonaryPath
    * @return
@@ -88,6 +100,28 @@ public class ControlledVocabularyCriterionBuilder implements RecordCriterionBuil
     return this;
   }
 
+  /**
+   * Compare values ignoring the case, like String.equalsIgnoreCase.
+   * Not applicable to prebuilt vocabulary files, build() throws an IllegalStateException.
+   * 
+   * @return
+   */
+  public ControlledVocabularyCriterionBuilder caseInsensitive() {
+    configuration.setCaseInsensitive(true);
+    return this;
+  }
+
+  /**
+   * Compare values ignoring the diacritics of Latin characters (e.g. Perú matches Peru).
+   * Not applicable to prebuilt vocabulary files, build() throws an IllegalStateException.
+   * 
+   * @return
+   */
+  public ControlledVocabularyCriterionBuilder asciiFolding() {
+    configuration.setAsciiFolding(true);
+    return this;
+  }
+
   /**
    * Build an immutable ControlledVocabularyCriterion instance
    * 
@@ -108,13 +142,10 @@ public class ControlledVocabularyCriterionBuilder implements RecordCriterionBuil
         "ControlledVocabularyEvaluationRule must be built on at least one vocabulary entry or a dictionnary file.");
     }
 
-    // read dictionary
-    if (dictionaryPathProvided) {
-      try {
-        configuration.setVocabularySet(toVocabularySet());
-      } catch (IOException ioEx) {
-        throw new IllegalStateException("Can't read dictionary file at " + configuration.getDictionaryPath(), ioEx);
-      }
+    try {
+      configuration.setVocabulary(toVocabulary());
+    } catch (IOException ioEx) {
+      throw new IllegalStateException("Can't read dictionary file at " + configuration.getDictionaryPath(), ioEx);
     }
 
     return new ControlledVocabularyCriterion(configuration);
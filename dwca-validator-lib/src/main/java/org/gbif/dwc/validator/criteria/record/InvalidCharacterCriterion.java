@@ -2,7 +2,9 @@ package org.gbif.dwc.validator.criteria.record;
 
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
-import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.CachingCriterion;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.InvalidCharacterCriterionConfiguration;
 import org.gbif.dwc.validator.result.EvaluationContext;
@@ -10,16 +12,18 @@ import org.gbif.dwc.validator.result.Result;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.util.ValueCache;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Optional;
-import org.apache.commons.lang3.StringUtils;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 @RecordCriterionKey(key = "invalidCharacterCriterion")
-class InvalidCharacterCriterion implements RecordCriterion {
+class InvalidCharacterCriterion implements RecordCriterion, RestrictedCriterion, TermBasedCriterion, CachingCriterion {
 
   private final String key = InvalidCharacterCriterion.class.getAnnotation(RecordCriterionKey.class).key();
 
@@ -28,6 +32,8 @@ class InvalidCharacterCriterion implements RecordCriterion {
   private final Term term;
 
   private final CharMatcher charMatcher;
+  // index of the first invalid character per value, null if not cached
+  private final ValueCache<Integer> verdictCache;
 
   InvalidCharacterCriterion(InvalidCharacterCriterionConfiguration configuration) {
     this.level = configuration.getLevel();
@@ -35,16 +41,14 @@ class InvalidCharacterCriterion implements RecordCriterion {
     this.term = configuration.getTerm();
 
     this.charMatcher = configuration.getCharMatcher();
+    int verdictCacheSize = configuration.getVerdictCacheSize();
+    this.verdictCache =
+      (verdictCacheSize > 0) ? new ValueCache<Integer>(key + " on " + term, verdictCacheSize) : null;
   }
 
   @Override
   public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
 
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return Optional.absent();
-    }
-
     String str = record.value(term);
 
     // skip if the value is null
@@ -52,26 +56,56 @@ class InvalidCharacterCriterion implements RecordCriterion {
       return Optional.absent();
     }
 
-    List<ValidationResultElement> elementList = new ArrayList<ValidationResultElement>();
-    int indexIn = charMatcher.indexIn(str);
+    int indexIn = indexIn(str);
     if (indexIn > 0) {
       // TODO when moving to Java 7 use Character.getName(int codePoint)
       int charValue = str.charAt(indexIn);
       // Remove invalid character from the error message to avoid display issues (e.g. NULL char)
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        ValidatorConfig.getLocalizedString("criterion.invalid_character_criterion.invalid_character",
-          charMatcher.removeFrom(str), indexIn, charValue)));
+      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(),
+        ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
+          "criterion.invalid_character_criterion.invalid_character", charMatcher.removeFrom(str), indexIn, charValue)));
     }
 
-    if (elementList != null && elementList.size() > 0) {
-      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
-    }
+    return PASSED;
+  }
 
-    return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType()));
+  private int indexIn(String str) {
+    if (verdictCache == null) {
+      return charMatcher.indexIn(str);
+    }
+    Integer indexIn = verdictCache.getIfPresent(str);
+    if (indexIn == null) {
+      indexIn = charMatcher.indexIn(str);
+      verdictCache.put(str, indexIn);
+    }
+    return indexIn;
   }
 
   @Override
   public String getCriteriaKey() {
     return key;
   }
+
+  @Override
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
+
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
+
+  @Override
+  public Set<Term> getTerms() {
+    return ImmutableSet.of(term);
+  }
+
+  @Override
+  public List<ValueCache<?>> getValueCaches() {
+    if (verdictCache == null) {
+      return ImmutableList.of();
+    }
+    return ImmutableList.<ValueCache<?>>of(verdictCache);
+  }
 }
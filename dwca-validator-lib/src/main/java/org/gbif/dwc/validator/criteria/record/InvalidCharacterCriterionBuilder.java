@@ -87,6 +87,17 @@ public class InvalidCharacterCriterionBuilder implements RecordCriterionBuilder
     return this;
   }
 
+  /**
+   * Keep the verdict of up to maximumSize distinct values, for terms with a low cardinality (e.g. country).
+   * 
+   * @param maximumSize
+   * @return
+   */
+  public InvalidCharacterCriterionBuilder cacheVerdicts(int maximumSize) {
+    configuration.setVerdictCacheSize(maximumSize);
+    return this;
+  }
+
   /**
    * Build an immutable InvalidCharacterCriterion instance
    * 
@@ -2,7 +2,9 @@ package org.gbif.dwc.validator.criteria.record;
 
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
-import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.CachingCriterion;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.MinMaxCriterionConfiguration;
 import org.gbif.dwc.validator.result.EvaluationContext;
@@ -11,16 +13,20 @@ import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
 import org.gbif.dwc.validator.transformation.ValueTransformation;
+import org.gbif.dwc.validator.transformation.ValueTransformationCache;
 import org.gbif.dwc.validator.transformation.ValueTransformationResult;
+import org.gbif.dwc.validator.transformation.ValueTransformations;
+import org.gbif.util.ValueCache;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
-import org.apache.commons.lang3.StringUtils;
 
 @RecordCriterionKey(key = "minMaxCriterion")
-class MinMaxCriterion implements RecordCriterion {
+class MinMaxCriterion implements RecordCriterion, RestrictedCriterion, TermBasedCriterion, CachingCriterion {
 
   private final String key = MinMaxCriterion.class.getAnnotation(RecordCriterionKey.class).key();
 
@@ -45,16 +51,49 @@ class MinMaxCriterion implements RecordCriterion {
   }
 
   @Override
-  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return Optional.absent();
-    }
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
 
-    List<ValidationResultElement> elementList = Lists.newArrayList();
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
+
+  @Override
+  public Set<Term> getTerms() {
+    return ValueTransformations.getTerms(Arrays.asList(minValueTransformation, maxValueTransformation));
+  }
+
+  @Override
+  public List<ValueCache<?>> getValueCaches() {
+    return ValueTransformations.getValueCaches(Arrays.asList(minValueTransformation, maxValueTransformation));
+  }
+
+  /**
+   * Add an element to the list, creating the list if needed.
+   * 
+   * @param elementList list or null
+   * @param element
+   * @return
+   */
+  private static List<ValidationResultElement> addElement(List<ValidationResultElement> elementList,
+    ValidationResultElement element) {
+    List<ValidationResultElement> list =
+      (elementList == null) ? Lists.<ValidationResultElement>newArrayList() : elementList;
+    list.add(element);
+    return list;
+  }
+
+  @Override
+  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
+    // only allocated if the record fails
+    List<ValidationResultElement> elementList = null;
 
-    ValueTransformationResult<Number> minValueParsingResult = minValueTransformation.transform(record);
-    ValueTransformationResult<Number> maxValueParsingResult = maxValueTransformation.transform(record);
+    ValueTransformationResult<Number> minValueParsingResult =
+      ValueTransformationCache.current().transform(minValueTransformation, record);
+    ValueTransformationResult<Number> maxValueParsingResult =
+      ValueTransformationCache.current().transform(maxValueTransformation, record);
 
     // if both values are skipped, skip also the criterion
     if (minValueParsingResult.isSkipped() && maxValueParsingResult.isSkipped()) {
@@ -63,20 +102,23 @@ class MinMaxCriterion implements RecordCriterion {
 
     // ensure we can extract numbers for those fields if provided
     if (minValueParsingResult.isNotTransformed()) {
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        minValueParsingResult.getExplanation()));
+      elementList =
+        addElement(elementList, minValueParsingResult.toValidationResultElement(key,
+          ContentValidationType.RECORD_CONTENT_VALUE, level));
     }
     if (maxValueParsingResult.isNotTransformed()) {
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        maxValueParsingResult.getExplanation()));
+      elementList =
+        addElement(elementList, maxValueParsingResult.toValidationResultElement(key,
+          ContentValidationType.RECORD_CONTENT_VALUE, level));
     }
 
     // if min or max was skipped and we enforce the use of the 2 terms, add an validation result
     if ((minValueParsingResult.isSkipped() || maxValueParsingResult.isSkipped()) && enforceTwoTermsUse) {
       Term guiltyTerm =
         minValueParsingResult.isSkipped() ? minValueParsingResult.getTerm() : maxValueParsingResult.getTerm();
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        ValidatorConfig.getLocalizedString("criterion.min_max_criterion.min_or_max_missing", guiltyTerm)));
+      elementList =
+        addElement(elementList, ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE,
+          level, "criterion.min_max_criterion.min_or_max_missing", guiltyTerm));
     }
 
     Number minValue = minValueParsingResult.getData();
@@ -85,16 +127,16 @@ class MinMaxCriterion implements RecordCriterion {
     if ((minValue != null && maxValue != null)
       && minValueParsingResult.getData().doubleValue() > maxValueParsingResult.getData().doubleValue()) {
 
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        ValidatorConfig.getLocalizedString("criterion.min_max_criterion.min_greater_than_max",
-          minValueParsingResult.getOriginalValue(), minValueParsingResult.getTerm(),
-          maxValueParsingResult.getOriginalValue(), maxValueParsingResult.getTerm())));
+      elementList =
+        addElement(elementList, ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE,
+          level, "criterion.min_max_criterion.min_greater_than_max", minValueParsingResult.getOriginalValue(),
+          minValueParsingResult.getTerm(), maxValueParsingResult.getOriginalValue(), maxValueParsingResult.getTerm()));
     }
 
-    if (elementList != null && elementList.size() > 0) {
+    if (elementList != null) {
       return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
     }
 
-    return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType()));
+    return PASSED;
   }
 }
@@ -0,0 +1,238 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.criteria.CachingCriterion;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.util.ValueCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Group of RegexCriterion on the same term and rowType evaluated by a single RegexAutomaton: each value is read once
+ * whatever the number of regexes. Each RegexCriterion still reports its own result, except when calling
+ * validate(Record, EvaluationContext) directly where a single result holds the elements of all failing regexes.
+ * If one of the RegexCriterion caches its verdicts, the masks of matching regexes are cached instead.
+ * Use merge(List) to replace the RegexCriterion of a list of criteria.
+ * 
+ * @author cgendreau
+ */
+public class MultiRegexCriterion implements RecordBatchCriterion, MultiResultRecordCriterion, RestrictedCriterion,
+  TermBasedCriterion, CachingCriterion {
+
+  private final RegexCriterion[] regexCriteria;
+  private final RegexAutomaton automaton;
+  private final Term term;
+  private final String rowTypeRestriction;
+  // null if masks are not cached
+  private final ValueCache<Long> maskCache;
+
+  private MultiRegexCriterion(RegexCriterion[] regexCriteria, RegexAutomaton automaton) {
+    this.regexCriteria = regexCriteria;
+    this.automaton = automaton;
+    this.term = regexCriteria[0].getTerm();
+    this.rowTypeRestriction = regexCriteria[0].getRowTypeRestriction();
+
+    int maskCacheSize = 0;
+    for (RegexCriterion currRegexCriterion : regexCriteria) {
+      maskCacheSize = Math.max(maskCacheSize, currRegexCriterion.getVerdictCacheSize());
+    }
+    this.maskCache =
+      (maskCacheSize > 0) ? new ValueCache<Long>(getCriteriaKey() + " on " + term, maskCacheSize) : null;
+  }
+
+  /**
+   * Merge the RegexCriterion using the same term and rowType restriction into a MultiRegexCriterion. Only
+   * RegexCriterion supported by RegexAutomaton are merged, others are left as is.
+   * 
+   * @param recordCriteria
+   * @return new list where the first RegexCriterion of each group is replaced by the MultiRegexCriterion and the
+   *         others are removed
+   */
+  public static List<RecordCriterion> merge(List<RecordCriterion> recordCriteria) {
+    Map<String, List<RegexCriterion>> groups = new LinkedHashMap<String, List<RegexCriterion>>();
+    for (RecordCriterion currRecordCriterion : recordCriteria) {
+      if (!(currRecordCriterion instanceof RegexCriterion)) {
+        continue;
+      }
+      RegexCriterion regexCriterion = (RegexCriterion) currRecordCriterion;
+      if (regexCriterion.isAutomatonSupported()) {
+        String groupKey = groupKey(regexCriterion);
+        if (!groups.containsKey(groupKey)) {
+          groups.put(groupKey, new ArrayList<RegexCriterion>());
+        }
+        groups.get(groupKey).add(regexCriterion);
+      }
+    }
+
+    Map<RegexCriterion, MultiRegexCriterion> mergedBy = new HashMap<RegexCriterion, MultiRegexCriterion>();
+    for (List<RegexCriterion> group : groups.values()) {
+      if (group.size() < 2 || group.size() > RegexAutomaton.MAX_PATTERNS) {
+        continue;
+      }
+      List<String> regexes = new ArrayList<String>();
+      for (RegexCriterion currRegexCriterion : group) {
+        regexes.add(currRegexCriterion.getRegex());
+      }
+      Optional<RegexAutomaton> automaton = RegexAutomaton.compile(regexes);
+      if (automaton.isPresent()) {
+        MultiRegexCriterion multiRegexCriterion =
+          new MultiRegexCriterion(group.toArray(new RegexCriterion[group.size()]), automaton.get());
+        for (RegexCriterion currRegexCriterion : group) {
+          mergedBy.put(currRegexCriterion, multiRegexCriterion);
+        }
+      }
+    }
+
+    if (mergedBy.isEmpty()) {
+      return recordCriteria;
+    }
+    ImmutableList.Builder<RecordCriterion> merged = ImmutableList.builder();
+    for (RecordCriterion currRecordCriterion : recordCriteria) {
+      MultiRegexCriterion multiRegexCriterion = mergedBy.get(currRecordCriterion);
+      if (multiRegexCriterion == null) {
+        merged.add(currRecordCriterion);
+      } else if (multiRegexCriterion.regexCriteria[0] == currRecordCriterion) {
+        merged.add(multiRegexCriterion);
+      }
+    }
+    return merged.build();
+  }
+
+  private static String groupKey(RegexCriterion regexCriterion) {
+    return regexCriterion.getTerm().qualifiedName() + "|"
+      + StringUtils.defaultString(regexCriterion.getRowTypeRestriction()).toLowerCase();
+  }
+
+  @Override
+  public String getCriteriaKey() {
+    return regexCriteria[0].getCriteriaKey();
+  }
+
+  @Override
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
+
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
+
+  @Override
+  public Set<Term> getTerms() {
+    return ImmutableSet.of(term);
+  }
+
+  @Override
+  public List<ValueCache<?>> getValueCaches() {
+    if (maskCache == null) {
+      return ImmutableList.of();
+    }
+    return ImmutableList.<ValueCache<?>>of(maskCache);
+  }
+
+  /**
+   * @return mask of the regexes matching the value, see RegexAutomaton.match
+   */
+  private long match(String value) {
+    if (maskCache == null) {
+      return automaton.match(value);
+    }
+    Long matched = maskCache.getIfPresent(value);
+    if (matched == null) {
+      matched = automaton.match(value);
+      maskCache.put(value, matched);
+    }
+    return matched;
+  }
+
+  /**
+   * @return true if the RegexCriterion at index matches the value
+   */
+  private boolean matches(int index, long matched, String value) {
+    if (matched == RegexAutomaton.NOT_EVALUATED) {
+      return regexCriteria[index].matches(value, null);
+    }
+    return (matched & (1L << index)) != 0;
+  }
+
+  @Override
+  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
+    String str = record.value(term);
+    // skip if the value is null
+    if (str == null) {
+      return Optional.absent();
+    }
+
+    long matched = match(str);
+    List<ValidationResultElement> elements = null;
+    for (int i = 0; i < regexCriteria.length; i++) {
+      if (!matches(i, matched, str)) {
+        if (elements == null) {
+          elements = new ArrayList<ValidationResultElement>();
+        }
+        elements.add(regexCriteria[i].buildValidationResultElement(str));
+      }
+    }
+
+    if (elements != null) {
+      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elements));
+    }
+    return PASSED;
+  }
+
+  /**
+   * Evaluate the value once for all regexes, results are reported per RegexCriterion.
+   */
+  @Override
+  public void validate(Record record, EvaluationContext evaluationContext, ResultAccumulator resultAccumulator)
+    throws ResultAccumulationException {
+    validateValue(record.id(), record.value(term), evaluationContext, record.rowType(), resultAccumulator);
+  }
+
+  private void validateValue(String id, String value, EvaluationContext evaluationContext, String rowType,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    // skip if the value is null
+    if (value == null) {
+      return;
+    }
+    long matched = match(value);
+    for (int i = 0; i < regexCriteria.length; i++) {
+      if (!matches(i, matched, value)) {
+        resultAccumulator.accumulate(new ValidationResult(id, evaluationContext, rowType, regexCriteria[i]
+          .buildValidationResultElement(value)));
+      }
+    }
+  }
+
+  /**
+   * Evaluate each value of the column once for all regexes, results are reported per RegexCriterion.
+   */
+  @Override
+  public void validate(RecordBatch recordBatch, EvaluationContext evaluationContext,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    String[] column = recordBatch.getColumn(term);
+    String[] ids = recordBatch.getIds();
+    for (int i = 0; i < column.length; i++) {
+      validateValue(ids[i], column[i], evaluationContext, recordBatch.getRowType(), resultAccumulator);
+    }
+  }
+
+}
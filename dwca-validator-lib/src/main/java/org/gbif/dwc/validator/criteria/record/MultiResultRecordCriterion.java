@@ -0,0 +1,29 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+
+/**
+ * RecordCriterion grouping the evaluation of other criteria (e.g. MultiRegexCriterion) that reports one
+ * ValidationResult per grouped criterion. validate(Record, EvaluationContext) can only return a single result, the
+ * EvaluatorChain uses validate(Record, EvaluationContext, ResultAccumulator) instead.
+ * Same rules as RecordCriterion apply: implementations must be stateless.
+ * 
+ * @author cgendreau
+ */
+public interface MultiResultRecordCriterion extends RecordCriterion {
+
+  /**
+   * Evaluate the record and send one result per grouped criterion that did not pass to the resultAccumulator.
+   * 
+   * @param record
+   * @param evaluationContext
+   * @param resultAccumulator
+   * @throws ResultAccumulationException
+   */
+  void validate(Record record, EvaluationContext evaluationContext, ResultAccumulator resultAccumulator)
+    throws ResultAccumulationException;
+
+}
@@ -0,0 +1,142 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.transformation.TermValueTransformation;
+import org.gbif.dwc.validator.transformation.ValueTransformationCache;
+import org.gbif.dwc.validator.transformation.ValueTransformationResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Batch of records, coming from the same DarwinCore component, exposed as columns.
+ * The column of a term is decoded from the records on first request and then reused by all criteria so they can
+ * process whole columns in tight loops. When a ColumnIndex is provided, columns are read by index from the raw rows.
+ * Transformed columns are also kept so a TermValueTransformation is applied once per value of the batch, even when
+ * criteria evaluated column by column and record by record use it.
+ * NOT thread-safe, a batch is meant to be evaluated by a single thread.
+ * 
+ * @author cgendreau
+ */
+public class RecordBatch {
+
+  private final List<Record> records;
+  private final String rowType;
+  private final ColumnIndex columnIndex;
+
+  private String[] ids;
+  private final Map<Term, String[]> columns;
+  private final Map<TermValueTransformation<?>, ValueTransformationResult<?>[]> transformedColumns;
+
+  /**
+   * @param records records of the batch, the Record instances must not be reused by the caller
+   * @param rowType rowType of all the records
+   */
+  public RecordBatch(List<Record> records, String rowType) {
+    this(records, rowType, null);
+  }
+
+  /**
+   * @param records records of the batch, the Record instances must not be reused by the caller
+   * @param rowType rowType of all the records
+   * @param columnIndex ColumnIndex resolved for the ArchiveFile of the records or null
+   */
+  public RecordBatch(List<Record> records, String rowType, ColumnIndex columnIndex) {
+    Preconditions.checkNotNull(records, "records can not be null");
+    this.records = records;
+    this.rowType = rowType;
+    this.columnIndex = columnIndex;
+    this.columns = new HashMap<Term, String[]>();
+    this.transformedColumns = new HashMap<TermValueTransformation<?>, ValueTransformationResult<?>[]>();
+  }
+
+  public int size() {
+    return records.size();
+  }
+
+  public String getRowType() {
+    return rowType;
+  }
+
+  public Record getRecord(int index) {
+    return records.get(index);
+  }
+
+  /**
+   * Get the ids of all records of the batch.
+   * 
+   * @return
+   */
+  public String[] getIds() {
+    if (ids == null) {
+      ids = new String[records.size()];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = records.get(i).id();
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Get the values of a term for all records of the batch. The array should not be modified.
+   * 
+   * @param term
+   * @return values in the same order as the records, null if a record has no value for the term
+   */
+  public String[] getColumn(Term term) {
+    String[] column = columns.get(term);
+    if (column == null) {
+      if (columnIndex != null) {
+        column = columnIndex.readColumn(records, term);
+      } else {
+        column = new String[records.size()];
+        for (int i = 0; i < column.length; i++) {
+          column[i] = records.get(i).value(term);
+        }
+      }
+      columns.put(term, column);
+    }
+    return column;
+  }
+
+  /**
+   * Get the results of a transformation for all records of the batch, computed on first request. Equal
+   * transformations share the same results. The array should not be modified.
+   * 
+   * @param termValueTransformation
+   * @return results in the same order as the records
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ValueTransformationResult<T>[] getTransformedColumn(TermValueTransformation<T> termValueTransformation) {
+    ValueTransformationResult<?>[] transformedColumn = transformedColumns.get(termValueTransformation);
+    if (transformedColumn == null) {
+      String[] column = getColumn(termValueTransformation.getTerm());
+      transformedColumn = new ValueTransformationResult<?>[column.length];
+      for (int i = 0; i < column.length; i++) {
+        transformedColumn[i] = termValueTransformation.transform(column[i]);
+      }
+      transformedColumns.put(termValueTransformation, transformedColumn);
+    }
+    // equal transformations produce the same type
+    return (ValueTransformationResult<T>[]) transformedColumn;
+  }
+
+  /**
+   * Start caching transformations for the record at index, see ValueTransformationCache.beginRecord().
+   * The results of the transformed columns already computed for the batch are reused for this record.
+   * 
+   * @param valueTransformationCache
+   * @param index
+   */
+  public void beginRecord(ValueTransformationCache valueTransformationCache, int index) {
+    valueTransformationCache.beginRecord();
+    for (Map.Entry<TermValueTransformation<?>, ValueTransformationResult<?>[]> entry : transformedColumns.entrySet()) {
+      valueTransformationCache.put(entry.getKey(), entry.getValue()[index]);
+    }
+  }
+
+}
@@ -0,0 +1,27 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+
+/**
+ * RecordCriterion able to evaluate a complete RecordBatch at once, column by column.
+ * Same rules as RecordCriterion apply: implementations must be stateless.
+ * 
+ * @author cgendreau
+ */
+public interface RecordBatchCriterion extends RecordCriterion {
+
+  /**
+   * Evaluate all records of the batch. Only results of records that did not pass are sent to the
+   * resultAccumulator.
+   * 
+   * @param recordBatch
+   * @param evaluationContext
+   * @param resultAccumulator
+   * @throws ResultAccumulationException
+   */
+  void validate(RecordBatch recordBatch, EvaluationContext evaluationContext, ResultAccumulator resultAccumulator)
+    throws ResultAccumulationException;
+
+}
@@ -0,0 +1,86 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.transformation.ValueTransformationCache;
+
+import com.google.common.base.Optional;
+
+/**
+ * Adapter allowing a per record RecordCriterion to be used as a RecordBatchCriterion.
+ * 
+ * @author cgendreau
+ */
+public class RecordBatchCriterionAdapter implements RecordBatchCriterion {
+
+  private final RecordCriterion recordCriterion;
+
+  private RecordBatchCriterionAdapter(RecordCriterion recordCriterion) {
+    this.recordCriterion = recordCriterion;
+  }
+
+  /**
+   * Get a RecordBatchCriterion for the provided RecordCriterion.
+   * 
+   * @param recordCriterion
+   * @return the recordCriterion itself if it already supports RecordBatch, an adapter otherwise
+   */
+  public static RecordBatchCriterion adapt(RecordCriterion recordCriterion) {
+    if (recordCriterion instanceof RecordBatchCriterion) {
+      return (RecordBatchCriterion) recordCriterion;
+    }
+    return new RecordBatchCriterionAdapter(recordCriterion);
+  }
+
+  /**
+   * Evaluate all records of the batch one by one, the ValueTransformationCache is active for each record.
+   * 
+   * @param recordCriterion
+   * @param recordBatch
+   * @param evaluationContext
+   * @param resultAccumulator
+   * @throws ResultAccumulationException
+   */
+  static void validateEachRecord(RecordCriterion recordCriterion, RecordBatch recordBatch,
+    EvaluationContext evaluationContext, ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    Optional<ValidationResult> result;
+    ValueTransformationCache valueTransformationCache = ValueTransformationCache.current();
+    for (int i = 0; i < recordBatch.size(); i++) {
+      // results of the columns already transformed for the batch are reused
+      recordBatch.beginRecord(valueTransformationCache, i);
+      try {
+        if (recordCriterion instanceof MultiResultRecordCriterion) {
+          ((MultiResultRecordCriterion) recordCriterion).validate(recordBatch.getRecord(i), evaluationContext,
+            resultAccumulator);
+          continue;
+        }
+        result = recordCriterion.validate(recordBatch.getRecord(i), evaluationContext);
+      } finally {
+        valueTransformationCache.endRecord();
+      }
+      if (result.isPresent() && !result.get().passed()) {
+        resultAccumulator.accumulate(result.get());
+      }
+    }
+  }
+
+  @Override
+  public String getCriteriaKey() {
+    return recordCriterion.getCriteriaKey();
+  }
+
+  @Override
+  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
+    return recordCriterion.validate(record, evaluationContext);
+  }
+
+  @Override
+  public void validate(RecordBatch recordBatch, EvaluationContext evaluationContext,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    validateEachRecord(recordCriterion, recordBatch, evaluationContext, resultAccumulator);
+  }
+
+}
@@ -13,12 +13,18 @@ import com.google.common.base.Optional;
  */
 public interface RecordCriterion {
 
+  /**
+   * Returned by validate when the record passed the criterion, avoids any allocation for passing records.
+   */
+  Optional<ValidationResult> PASSED = Optional.of(ValidationResult.PASSED);
+
   String getCriteriaKey();
 
   /**
    * @param record
    * @param evaluationContext
-   * @return returns Optional.absent() when the criteria can not be evaluated (e.g. rowTypeRestriction)
+   * @return returns Optional.absent() when the criteria can not be evaluated (e.g. rowTypeRestriction) and PASSED when
+   *         the record passed the criterion
    */
   Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext);
 
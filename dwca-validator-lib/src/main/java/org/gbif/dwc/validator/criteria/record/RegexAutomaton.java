@@ -0,0 +1,318 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import org.gbif.dwc.validator.criteria.record.RegexParser.Node;
+import org.gbif.dwc.validator.criteria.record.RegexParser.UnsupportedRegexException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deterministic finite automaton matching a value against up to MAX_PATTERNS regexes in a single pass.
+ * The value is read once, char by char, without backtracking: evaluation time is linear with the length of the value
+ * whatever the number of regexes. Matching state is a local variable so the automaton is immutable and thread-safe.
+ * Only the regular subset of java.util.regex is supported, see RegexParser, compile returns Optional.absent() for
+ * other regexes and for regexes that would produce too many states.
+ * Like Matcher.matches(), the complete value must match. Values containing supplementary characters are not
+ * evaluated since java.util.regex matches them as code points.
+ * 
+ * @author cgendreau
+ */
+final class RegexAutomaton {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RegexAutomaton.class);
+
+  static final int MAX_PATTERNS = 63;
+  // returned by match when the value can not be evaluated, never a valid mask since MAX_PATTERNS is 63
+  static final long NOT_EVALUATED = Long.MIN_VALUE;
+
+  private static final int MAX_NFA_STATES = 10000;
+  private static final int MAX_DFA_STATES = 2000;
+  private static final int ASCII_LIMIT = 128;
+
+  private static final int DEAD_STATE = 0;
+  private static final int START_STATE = 1;
+
+  // first char of each class of equivalent chars
+  private final int[] classStarts;
+  private final int[] asciiClasses;
+  private final int classCount;
+  // transitions[state * classCount + class]
+  private final int[] transitions;
+  // bit i set if the state completes a match of pattern i
+  private final long[] acceptMasks;
+
+  private RegexAutomaton(int[] classStarts, int[] transitions, long[] acceptMasks) {
+    this.classStarts = classStarts;
+    this.classCount = classStarts.length;
+    this.transitions = transitions;
+    this.acceptMasks = acceptMasks;
+    this.asciiClasses = new int[ASCII_LIMIT];
+    for (int c = 0; c < ASCII_LIMIT; c++) {
+      asciiClasses[c] = findClass(c);
+    }
+  }
+
+  /**
+   * Compile the regexes into a single automaton.
+   * 
+   * @param regexes valid java.util.regex regexes, the index of a regex is its bit in the mask returned by match
+   * @return the automaton or Optional.absent() if one of the regexes is not supported
+   */
+  static Optional<RegexAutomaton> compile(List<String> regexes) {
+    Preconditions.checkArgument(regexes.size() <= MAX_PATTERNS, "Too many regexes");
+    Nfa nfa = new Nfa();
+    try {
+      int start = nfa.newState();
+      for (int i = 0; i < regexes.size(); i++) {
+        int[] fragment = nfa.build(RegexParser.parse(regexes.get(i)));
+        nfa.addEpsilon(start, fragment[0]);
+        nfa.acceptMasks.set(fragment[1], nfa.acceptMasks.get(fragment[1]) | (1L << i));
+      }
+      return Optional.of(determinize(nfa, start));
+    } catch (UnsupportedRegexException e) {
+      LOGGER.debug("{}, java.util.regex will be used", e.getMessage());
+      return Optional.absent();
+    }
+  }
+
+  /**
+   * Subset construction over classes of chars behaving the same way in all transitions of the NFA.
+   */
+  private static RegexAutomaton determinize(Nfa nfa, int nfaStart) throws UnsupportedRegexException {
+    TreeSet<Integer> boundaries = new TreeSet<Integer>();
+    boundaries.add(0);
+    for (int[] ranges : nfa.ranges) {
+      if (ranges != null) {
+        for (int i = 0; i < ranges.length; i += 2) {
+          boundaries.add(ranges[i]);
+          if (ranges[i + 1] < RegexParser.MAX_CHAR) {
+            boundaries.add(ranges[i + 1] + 1);
+          }
+        }
+      }
+    }
+    int[] classStarts = new int[boundaries.size()];
+    int idx = 0;
+    for (Integer boundary : boundaries) {
+      classStarts[idx++] = boundary;
+    }
+    int classCount = classStarts.length;
+
+    // classes accepted by the transition of each NFA state
+    BitSet[] stateClasses = new BitSet[nfa.size()];
+    for (int state = 0; state < nfa.size(); state++) {
+      int[] ranges = nfa.ranges.get(state);
+      if (ranges != null) {
+        stateClasses[state] = new BitSet(classCount);
+        for (int i = 0; i < ranges.length; i += 2) {
+          stateClasses[state].set(Arrays.binarySearch(classStarts, ranges[i]),
+            findClass(classStarts, ranges[i + 1]) + 1);
+        }
+      }
+    }
+
+    List<BitSet> dfaStates = new ArrayList<BitSet>();
+    Map<BitSet, Integer> dfaStateIds = new HashMap<BitSet, Integer>();
+    BitSet dead = new BitSet();
+    dfaStates.add(dead);
+    dfaStateIds.put(dead, DEAD_STATE);
+    BitSet start = new BitSet();
+    start.set(nfaStart);
+    nfa.closure(start);
+    dfaStates.add(start);
+    dfaStateIds.put(start, START_STATE);
+
+    int[] transitions = new int[classCount * 16];
+    for (int dfaState = 0; dfaState < dfaStates.size(); dfaState++) {
+      if (transitions.length < (dfaState + 1) * classCount) {
+        transitions = Arrays.copyOf(transitions, transitions.length * 2);
+      }
+      BitSet current = dfaStates.get(dfaState);
+      for (int cls = 0; cls < classCount; cls++) {
+        BitSet next = new BitSet();
+        for (int state = current.nextSetBit(0); state >= 0; state = current.nextSetBit(state + 1)) {
+          if (stateClasses[state] != null && stateClasses[state].get(cls)) {
+            next.set(nfa.targets.get(state));
+          }
+        }
+        nfa.closure(next);
+        Integer nextId = dfaStateIds.get(next);
+        if (nextId == null) {
+          if (dfaStates.size() >= MAX_DFA_STATES) {
+            throw new UnsupportedRegexException("too many states");
+          }
+          nextId = dfaStates.size();
+          dfaStates.add(next);
+          dfaStateIds.put(next, nextId);
+        }
+        transitions[dfaState * classCount + cls] = nextId;
+      }
+    }
+
+    long[] acceptMasks = new long[dfaStates.size()];
+    for (int dfaState = 0; dfaState < dfaStates.size(); dfaState++) {
+      BitSet current = dfaStates.get(dfaState);
+      for (int state = current.nextSetBit(0); state >= 0; state = current.nextSetBit(state + 1)) {
+        acceptMasks[dfaState] |= nfa.acceptMasks.get(state);
+      }
+    }
+    return new RegexAutomaton(classStarts, Arrays.copyOf(transitions, dfaStates.size() * classCount),
+      acceptMasks);
+  }
+
+  private static int findClass(int[] classStarts, int c) {
+    int idx = Arrays.binarySearch(classStarts, c);
+    return idx >= 0 ? idx : -idx - 2;
+  }
+
+  private int findClass(int c) {
+    return findClass(classStarts, c);
+  }
+
+  /**
+   * Match the complete value against all regexes.
+   * 
+   * @param value
+   * @return mask of the regexes matching the value (bit i for regex i) or NOT_EVALUATED if the value contains
+   *         supplementary characters
+   */
+  long match(CharSequence value) {
+    int state = START_STATE;
+    int length = value.length();
+    char c;
+    for (int i = 0; i < length; i++) {
+      c = value.charAt(i);
+      if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+        return NOT_EVALUATED;
+      }
+      state = transitions[state * classCount + (c < ASCII_LIMIT ? asciiClasses[c] : findClass(c))];
+      // no regex can match anymore
+      if (state == DEAD_STATE) {
+        return 0;
+      }
+    }
+    return acceptMasks[state];
+  }
+
+  /**
+   * Thompson NFA, each state has either a transition on ranges of chars or epsilon transitions.
+   */
+  private static class Nfa {
+
+    private final List<int[]> ranges = new ArrayList<int[]>();
+    private final List<Integer> targets = new ArrayList<Integer>();
+    private final List<List<Integer>> epsilons = new ArrayList<List<Integer>>();
+    private final List<Long> acceptMasks = new ArrayList<Long>();
+
+    int size() {
+      return ranges.size();
+    }
+
+    int newState() throws UnsupportedRegexException {
+      if (ranges.size() >= MAX_NFA_STATES) {
+        throw new UnsupportedRegexException("too many states");
+      }
+      ranges.add(null);
+      targets.add(-1);
+      epsilons.add(new ArrayList<Integer>(2));
+      acceptMasks.add(0L);
+      return ranges.size() - 1;
+    }
+
+    void addEpsilon(int from, int to) {
+      epsilons.get(from).add(to);
+    }
+
+    /**
+     * Build the states of a node.
+     * 
+     * @return start and end states of the fragment
+     */
+    int[] build(Node node) throws UnsupportedRegexException {
+      int start = newState();
+      int end = start;
+      int[] fragment;
+      switch (node.type) {
+        case Node.CHARACTERS:
+          end = newState();
+          ranges.set(start, node.ranges);
+          targets.set(start, end);
+          break;
+        case Node.CONCATENATION:
+          for (Node child : node.children) {
+            fragment = build(child);
+            addEpsilon(end, fragment[0]);
+            end = fragment[1];
+          }
+          break;
+        case Node.ALTERNATION:
+          end = newState();
+          for (Node child : node.children) {
+            fragment = build(child);
+            addEpsilon(start, fragment[0]);
+            addEpsilon(fragment[1], end);
+          }
+          break;
+        case Node.REPETITION:
+          Node child = node.children.get(0);
+          for (int i = 0; i < node.min; i++) {
+            fragment = build(child);
+            addEpsilon(end, fragment[0]);
+            end = fragment[1];
+          }
+          if (node.max == RegexParser.UNBOUNDED) {
+            int loop = newState();
+            fragment = build(child);
+            addEpsilon(end, loop);
+            addEpsilon(loop, fragment[0]);
+            addEpsilon(fragment[1], loop);
+            end = loop;
+          } else {
+            int optionalEnd = newState();
+            for (int i = node.min; i < node.max; i++) {
+              fragment = build(child);
+              addEpsilon(end, fragment[0]);
+              addEpsilon(end, optionalEnd);
+              end = fragment[1];
+            }
+            addEpsilon(end, optionalEnd);
+            end = optionalEnd;
+          }
+          break;
+        default:
+          throw new IllegalStateException("Unknown node type " + node.type);
+      }
+      return new int[] {start, end};
+    }
+
+    /**
+     * Add all states reachable through epsilon transitions.
+     */
+    void closure(BitSet states) {
+      List<Integer> toVisit = new ArrayList<Integer>();
+      for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+        toVisit.add(state);
+      }
+      while (!toVisit.isEmpty()) {
+        int state = toVisit.remove(toVisit.size() - 1);
+        for (Integer next : epsilons.get(state)) {
+          if (!states.get(next)) {
+            states.set(next);
+            toVisit.add(next);
+          }
+        }
+      }
+    }
+  }
+
+}
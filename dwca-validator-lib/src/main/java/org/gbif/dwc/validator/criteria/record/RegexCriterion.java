@@ -3,19 +3,29 @@ package org.gbif.dwc.validator.criteria.record;
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.CachingCriterion;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.RegexCriterionConfiguration;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.ResultAccumulator;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.util.ValueCache;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -23,56 +33,55 @@ import org.apache.commons.lang3.StringUtils;
  * Check if the provided String can be matched against a specific Regular Expression.
  * Criterion is using Matcher(str).matches() meaning that it will 'Attempt to match the entire region against the
  * pattern.'
+ * Regexes in the regular subset of java.util.regex are evaluated by a RegexAutomaton (linear time, no backtracking),
+ * others by java.util.regex. RegexCriterion on the same term are merged by MultiRegexCriterion.
+ * Verdicts can be cached per value, see RegexCriterionConfiguration.setVerdictCacheSize.
  * 
  * @author cgendreau
  */
 @RecordCriterionKey(key = "regexCriterion")
-class RegexCriterion implements RecordCriterion {
+class RegexCriterion implements RecordBatchCriterion, RestrictedCriterion, TermBasedCriterion, CachingCriterion {
 
   private final String key = RegexCriterion.class.getAnnotation(RecordCriterionKey.class).key();
 
   private final String rowTypeRestriction;
   private final Result level;
   private final Term term;
+  private final String regex;
   private final Pattern pattern;
+  private final Optional<RegexAutomaton> automaton;
   private final String explanation;
+  private final int verdictCacheSize;
+  // null if verdicts are not cached
+  private final ValueCache<Boolean> verdictCache;
 
   public RegexCriterion(RegexCriterionConfiguration configuration) {
     rowTypeRestriction = configuration.getRowTypeRestriction();
     level = configuration.getLevel();
     term = configuration.getTerm();
-    pattern = Pattern.compile(configuration.getRegex());
-    explanation = configuration.getExplanation();
+    regex = configuration.getRegex();
+    pattern = Pattern.compile(regex);
+    automaton = RegexAutomaton.compile(Collections.singletonList(regex));
+    explanation =
+      StringUtils.defaultIfBlank(configuration.getExplanation(),
+        ValidatorConfig.getLocalizedString("criterion.regex_criterion.no_match"));
+    verdictCacheSize = configuration.getVerdictCacheSize();
+    verdictCache = (verdictCacheSize > 0) ? new ValueCache<Boolean>(key + " on " + term, verdictCacheSize) : null;
   }
 
   @Override
   public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return Optional.absent();
-    }
-
     String str = record.value(term);
     // skip if the value is null
     if (str == null) {
       return Optional.absent();
     }
 
-    List<ValidationResultElement> elementList = null;
-    if (!pattern.matcher(str).matches()) {
-      elementList = Lists.newArrayList();
-      String completeExplanation = ValidatorConfig.getLocalizedString("criterion.regex_criterion.value", str, term);
-      completeExplanation +=
-        StringUtils.defaultIfBlank(this.explanation,
-          ValidatorConfig.getLocalizedString("criterion.regex_criterion.no_match"));
-      elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-        completeExplanation));
-    }
-
-    if (elementList != null && elementList.size() > 0) {
-      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
+    if (!matches(str, null)) {
+      return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(),
+        buildValidationResultElement(str)));
     }
-    return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType()));
+    return PASSED;
   }
 
   @Override
@@ -80,4 +89,96 @@ class RegexCriterion implements RecordCriterion {
     return key;
   }
 
+  @Override
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
+
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
+
+  @Override
+  public Set<Term> getTerms() {
+    return ImmutableSet.of(term);
+  }
+
+  @Override
+  public List<ValueCache<?>> getValueCaches() {
+    if (verdictCache == null) {
+      return ImmutableList.of();
+    }
+    return ImmutableList.<ValueCache<?>>of(verdictCache);
+  }
+
+  Term getTerm() {
+    return term;
+  }
+
+  String getRegex() {
+    return regex;
+  }
+
+  int getVerdictCacheSize() {
+    return verdictCacheSize;
+  }
+
+  /**
+   * @return true if the regex can be evaluated by a RegexAutomaton
+   */
+  boolean isAutomatonSupported() {
+    return automaton.isPresent();
+  }
+
+  /**
+   * Check if the complete value matches the regex.
+   * 
+   * @param value
+   * @param matcher Matcher of the pattern to reuse if the automaton can not evaluate the value, can be null
+   * @return
+   */
+  boolean matches(String value, Matcher matcher) {
+    if (verdictCache == null) {
+      return evaluate(value, matcher);
+    }
+    Boolean verdict = verdictCache.getIfPresent(value);
+    if (verdict == null) {
+      verdict = evaluate(value, matcher);
+      verdictCache.put(value, verdict);
+    }
+    return verdict;
+  }
+
+  private boolean evaluate(String value, Matcher matcher) {
+    if (automaton.isPresent()) {
+      long matched = automaton.get().match(value);
+      if (matched != RegexAutomaton.NOT_EVALUATED) {
+        return matched != 0;
+      }
+    }
+    return (matcher == null) ? pattern.matcher(value).matches() : matcher.reset(value).matches();
+  }
+
+  ValidationResultElement buildValidationResultElement(String str) {
+    return ValidationResultElement.fromMessage(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
+      "criterion.regex_criterion.value_explanation", str, term, explanation);
+  }
+
+  /**
+   * Evaluate the column of the term using the automaton or a single Matcher.
+   */
+  @Override
+  public void validate(RecordBatch recordBatch, EvaluationContext evaluationContext,
+    ResultAccumulator resultAccumulator) throws ResultAccumulationException {
+    String[] column = recordBatch.getColumn(term);
+    Matcher matcher = automaton.isPresent() ? null : pattern.matcher("");
+    for (int i = 0; i < column.length; i++) {
+      // skip if the value is null
+      if (column[i] != null && !matches(column[i], matcher)) {
+        resultAccumulator.accumulate(new ValidationResult(recordBatch.getIds()[i], evaluationContext, recordBatch
+          .getRowType(), buildValidationResultElement(column[i])));
+      }
+    }
+  }
 }
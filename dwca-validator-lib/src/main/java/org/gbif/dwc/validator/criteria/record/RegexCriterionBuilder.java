@@ -50,6 +50,17 @@ public class RegexCriterionBuilder implements RecordCriterionBuilder {
     return this;
   }
 
+  /**
+   * Keep the verdict of up to maximumSize distinct values, for terms with a low cardinality (e.g. country).
+   * 
+   * @param maximumSize
+   * @return
+   */
+  public RegexCriterionBuilder cacheVerdicts(int maximumSize) {
+    configuration.setVerdictCacheSize(maximumSize);
+    return this;
+  }
+
   /**
    * Build RegexCriterion object.
    * 
@@ -0,0 +1,424 @@
+package org.gbif.dwc.validator.criteria.record;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Parser of the regular subset of java.util.regex evaluated by RegexAutomaton.
+ * Supported: literals, escaped characters, ., predefined character classes (\d \D \s \S \w \W), character classes
+ * with ranges and negation, groups (capturing or not), alternation and greedy or reluctant quantifiers
+ * (* + ? {n} {n,} {n,m}). ^ and $ are only supported at the beginning and the end of the regex where they have no
+ * effect on a complete match.
+ * Anything else (backreferences, lookaround, flags, boundaries, unicode properties, possessive quantifiers,
+ * nested classes ...) is reported as unsupported so the regex can be evaluated by java.util.regex.
+ * The regex is expected to be valid, it should be compiled by java.util.regex.Pattern first.
+ * 
+ * @author cgendreau
+ */
+final class RegexParser {
+
+  static final int MAX_CHAR = Character.MAX_VALUE;
+  // larger repetitions are left to java.util.regex, they would produce too many states
+  static final int MAX_REPETITION = 100;
+  static final int UNBOUNDED = -1;
+
+  // character ranges as [from, to, from, to ...], inclusive
+  private static final int[] DIGIT = {'0', '9'};
+  private static final int[] WORD = {'0', '9', 'A', 'Z', '_', '_', 'a', 'z'};
+  private static final int[] WHITESPACE = {'\t', '\r', ' ', ' '};
+  // . does not match line terminators
+  private static final int[] ANY = complement(new int[] {'\n', '\n', '\r', '\r', 0x0085, 0x0085, 0x2028, 0x2029});
+
+  private final String regex;
+  private final int end;
+  private int pos;
+
+  private RegexParser(String regex, int start, int end) {
+    this.regex = regex;
+    this.pos = start;
+    this.end = end;
+  }
+
+  /**
+   * Parse a regex.
+   * 
+   * @param regex valid java.util.regex regex
+   * @return root node of the regex
+   * @throws UnsupportedRegexException if the regex uses constructs outside of the supported subset
+   */
+  static Node parse(String regex) throws UnsupportedRegexException {
+    int start = 0;
+    int stop = regex.length();
+    if (stop > 0 && regex.charAt(0) == '^') {
+      start++;
+    }
+    // $ is escaped if preceded by an odd number of backslashes
+    if (stop > start && regex.charAt(stop - 1) == '$') {
+      int backslashes = 0;
+      while (stop - 2 - backslashes >= start && regex.charAt(stop - 2 - backslashes) == '\\') {
+        backslashes++;
+      }
+      if (backslashes % 2 == 0) {
+        stop--;
+      }
+    }
+
+    RegexParser parser = new RegexParser(regex, start, stop);
+    Node root = parser.parseAlternation();
+    if (parser.pos != stop) {
+      throw new UnsupportedRegexException(regex);
+    }
+    return root;
+  }
+
+  private Node parseAlternation() throws UnsupportedRegexException {
+    List<Node> alternatives = new ArrayList<Node>();
+    alternatives.add(parseConcatenation());
+    while (pos < end && regex.charAt(pos) == '|') {
+      pos++;
+      alternatives.add(parseConcatenation());
+    }
+    if (alternatives.size() == 1) {
+      return alternatives.get(0);
+    }
+    return new Node(Node.ALTERNATION, null, alternatives, 0, 0);
+  }
+
+  private Node parseConcatenation() throws UnsupportedRegexException {
+    List<Node> items = new ArrayList<Node>();
+    while (pos < end && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+      items.add(parseRepetition());
+    }
+    if (items.size() == 1) {
+      return items.get(0);
+    }
+    return new Node(Node.CONCATENATION, null, items, 0, 0);
+  }
+
+  private Node parseRepetition() throws UnsupportedRegexException {
+    Node atom = parseAtom();
+    if (pos >= end) {
+      return atom;
+    }
+
+    int min;
+    int max;
+    switch (regex.charAt(pos)) {
+      case '*':
+        min = 0;
+        max = UNBOUNDED;
+        pos++;
+        break;
+      case '+':
+        min = 1;
+        max = UNBOUNDED;
+        pos++;
+        break;
+      case '?':
+        min = 0;
+        max = 1;
+        pos++;
+        break;
+      case '{':
+        pos++;
+        min = parseNumber();
+        max = min;
+        if (pos < end && regex.charAt(pos) == ',') {
+          pos++;
+          max = (pos < end && regex.charAt(pos) == '}') ? UNBOUNDED : parseNumber();
+        }
+        expect('}');
+        break;
+      default:
+        return atom;
+    }
+
+    // a reluctant quantifier has no effect on a complete match, a possessive one does
+    if (pos < end && regex.charAt(pos) == '?') {
+      pos++;
+    }
+    if (pos < end && isQuantifier(regex.charAt(pos))) {
+      throw new UnsupportedRegexException(regex);
+    }
+    if (min > MAX_REPETITION || max > MAX_REPETITION || (max != UNBOUNDED && max < min)) {
+      throw new UnsupportedRegexException(regex);
+    }
+    return new Node(Node.REPETITION, null, Collections.singletonList(atom), min, max);
+  }
+
+  private Node parseAtom() throws UnsupportedRegexException {
+    char c = regex.charAt(pos++);
+    switch (c) {
+      case '(':
+        if (pos < end && regex.charAt(pos) == '?') {
+          // only non-capturing groups are supported
+          if (pos + 1 < end && regex.charAt(pos + 1) == ':') {
+            pos += 2;
+          } else {
+            throw new UnsupportedRegexException(regex);
+          }
+        }
+        Node group = parseAlternation();
+        expect(')');
+        return group;
+      case '[':
+        return Node.chars(parseCharacterClass());
+      case '.':
+        return Node.chars(ANY);
+      case '\\':
+        return Node.chars(parseEscape());
+      case '^':
+      case '$':
+      case '*':
+      case '+':
+      case '?':
+      case '{':
+      case ')':
+        throw new UnsupportedRegexException(regex);
+      default:
+        return Node.chars(literal(c));
+    }
+  }
+
+  /**
+   * Parse a character class, the opening [ is already consumed.
+   */
+  private int[] parseCharacterClass() throws UnsupportedRegexException {
+    boolean negated = false;
+    if (pos < end && regex.charAt(pos) == '^') {
+      negated = true;
+      pos++;
+    }
+    // leading ], nested classes and intersections have special meanings
+    if (pos < end && regex.charAt(pos) == ']') {
+      throw new UnsupportedRegexException(regex);
+    }
+
+    List<int[]> items = new ArrayList<int[]>();
+    while (pos < end && regex.charAt(pos) != ']') {
+      char c = regex.charAt(pos);
+      if (c == '[' || (c == '&' && pos + 1 < end && regex.charAt(pos + 1) == '&')) {
+        throw new UnsupportedRegexException(regex);
+      }
+      int[] item = parseClassCharacter();
+      if (pos + 1 < end && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+        pos++;
+        int[] to = parseClassCharacter();
+        if (!isSingleCharacter(item) || !isSingleCharacter(to) || item[0] > to[0]) {
+          throw new UnsupportedRegexException(regex);
+        }
+        item = new int[] {item[0], to[0]};
+      }
+      items.add(item);
+    }
+    expect(']');
+
+    int[] ranges = union(items);
+    return negated ? complement(ranges) : ranges;
+  }
+
+  private int[] parseClassCharacter() throws UnsupportedRegexException {
+    char c = regex.charAt(pos++);
+    if (c == '\\') {
+      if (pos >= end) {
+        throw new UnsupportedRegexException(regex);
+      }
+      return parseEscape();
+    }
+    return literal(c);
+  }
+
+  /**
+   * Supplementary characters are matched as code points by java.util.regex, not as pairs of chars.
+   */
+  private int[] literal(char c) throws UnsupportedRegexException {
+    if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+      throw new UnsupportedRegexException(regex);
+    }
+    return new int[] {c, c};
+  }
+
+  /**
+   * Parse an escape sequence, the backslash is already consumed.
+   */
+  private int[] parseEscape() throws UnsupportedRegexException {
+    char c = regex.charAt(pos++);
+    switch (c) {
+      case 'd':
+        return DIGIT;
+      case 'D':
+        return complement(DIGIT);
+      case 'w':
+        return WORD;
+      case 'W':
+        return complement(WORD);
+      case 's':
+        return WHITESPACE;
+      case 'S':
+        return complement(WHITESPACE);
+      case 't':
+        return new int[] {'\t', '\t'};
+      case 'n':
+        return new int[] {'\n', '\n'};
+      case 'r':
+        return new int[] {'\r', '\r'};
+      case 'f':
+        return new int[] {'\f', '\f'};
+      case 'a':
+        return new int[] {'\u0007', '\u0007'};
+      case 'e':
+        return new int[] {'\u001B', '\u001B'};
+      case 'x':
+        return parseHexCharacter(2);
+      case 'u':
+        return parseHexCharacter(4);
+      default:
+        // any other letter or digit is a construct (boundary, backreference, property ...)
+        if (Character.isLetterOrDigit(c)) {
+          throw new UnsupportedRegexException(regex);
+        }
+        return new int[] {c, c};
+    }
+  }
+
+  private int[] parseHexCharacter(int length) throws UnsupportedRegexException {
+    if (pos + length > end) {
+      throw new UnsupportedRegexException(regex);
+    }
+    int value = 0;
+    for (int i = 0; i < length; i++) {
+      int digit = Character.digit(regex.charAt(pos++), 16);
+      if (digit < 0) {
+        throw new UnsupportedRegexException(regex);
+      }
+      value = value * 16 + digit;
+    }
+    return new int[] {value, value};
+  }
+
+  private int parseNumber() throws UnsupportedRegexException {
+    int start = pos;
+    while (pos < end && Character.isDigit(regex.charAt(pos)) && pos - start < 4) {
+      pos++;
+    }
+    if (start == pos) {
+      throw new UnsupportedRegexException(regex);
+    }
+    return Integer.parseInt(regex.substring(start, pos));
+  }
+
+  private void expect(char c) throws UnsupportedRegexException {
+    if (pos >= end || regex.charAt(pos) != c) {
+      throw new UnsupportedRegexException(regex);
+    }
+    pos++;
+  }
+
+  private static boolean isQuantifier(char c) {
+    return c == '*' || c == '+' || c == '?' || c == '{';
+  }
+
+  private static boolean isSingleCharacter(int[] ranges) {
+    return ranges.length == 2 && ranges[0] == ranges[1];
+  }
+
+  /**
+   * @return sorted and merged union of the ranges
+   */
+  static int[] union(List<int[]> rangesList) {
+    List<int[]> pairs = new ArrayList<int[]>();
+    for (int[] ranges : rangesList) {
+      for (int i = 0; i < ranges.length; i += 2) {
+        pairs.add(new int[] {ranges[i], ranges[i + 1]});
+      }
+    }
+    Collections.sort(pairs, new Comparator<int[]>() {
+
+      @Override
+      public int compare(int[] o1, int[] o2) {
+        return o1[0] - o2[0];
+      }
+    });
+
+    int[] merged = new int[pairs.size() * 2];
+    int length = 0;
+    for (int[] pair : pairs) {
+      if (length > 0 && pair[0] <= merged[length - 1] + 1) {
+        merged[length - 1] = Math.max(merged[length - 1], pair[1]);
+      } else {
+        merged[length++] = pair[0];
+        merged[length++] = pair[1];
+      }
+    }
+    return Arrays.copyOf(merged, length);
+  }
+
+  /**
+   * @param ranges sorted and merged ranges
+   * @return ranges of all characters not included in the provided ranges
+   */
+  static int[] complement(int[] ranges) {
+    int[] complement = new int[ranges.length + 2];
+    int length = 0;
+    int next = 0;
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (ranges[i] > next) {
+        complement[length++] = next;
+        complement[length++] = ranges[i] - 1;
+      }
+      next = ranges[i + 1] + 1;
+    }
+    if (next <= MAX_CHAR) {
+      complement[length++] = next;
+      complement[length++] = MAX_CHAR;
+    }
+    return Arrays.copyOf(complement, length);
+  }
+
+  /**
+   * Node of a parsed regex.
+   */
+  static final class Node {
+
+    static final int CHARACTERS = 0;
+    static final int CONCATENATION = 1;
+    static final int ALTERNATION = 2;
+    static final int REPETITION = 3;
+
+    final int type;
+    // only for CHARACTERS
+    final int[] ranges;
+    final List<Node> children;
+    // only for REPETITION
+    final int min;
+    final int max;
+
+    Node(int type, int[] ranges, List<Node> children, int min, int max) {
+      this.type = type;
+      this.ranges = ranges;
+      this.children = children;
+      this.min = min;
+      this.max = max;
+    }
+
+    static Node chars(int[] ranges) {
+      return new Node(CHARACTERS, ranges, Collections.<Node>emptyList(), 0, 0);
+    }
+  }
+
+  /**
+   * Thrown when a regex uses constructs outside of the supported subset.
+   */
+  static class UnsupportedRegexException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedRegexException(String regex) {
+      super("Regex not supported by RegexAutomaton: " + regex);
+    }
+  }
+
+}
@@ -1,6 +1,10 @@
 package org.gbif.dwc.validator.criteria.record;
 
 import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.criteria.CachingCriterion;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
 import org.gbif.dwc.validator.criteria.annotation.RecordCriterionKey;
 import org.gbif.dwc.validator.criteria.configuration.TransformationBasedCriteriaConfiguration;
 import org.gbif.dwc.validator.result.EvaluationContext;
@@ -8,15 +12,19 @@ import org.gbif.dwc.validator.result.Result;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.dwc.validator.transformation.TermValueTransformation;
 import org.gbif.dwc.validator.transformation.ValueTransformation;
+import org.gbif.dwc.validator.transformation.ValueTransformationCache;
 import org.gbif.dwc.validator.transformation.ValueTransformationResult;
+import org.gbif.dwc.validator.transformation.ValueTransformations;
+import org.gbif.util.ValueCache;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import com.google.common.base.Optional;
-import org.apache.commons.lang3.StringUtils;
 
 /**
  * Criteria that only validates that the registered transformation(s) can be applied.
@@ -24,7 +32,8 @@ import org.apache.commons.lang3.StringUtils;
  * @author cgendreau
  */
 @RecordCriterionKey(key = "transformationBasedCriteria")
-class TransformationBasedCriteria implements RecordCriterion {
+class TransformationBasedCriteria implements RecordCriterion, RestrictedCriterion, TermBasedCriterion,
+  CachingCriterion {
 
   private final String key = TransformationBasedCriteria.class.getAnnotation(RecordCriterionKey.class).key();
 
@@ -36,7 +45,31 @@ class TransformationBasedCriteria implements RecordCriterion {
   TransformationBasedCriteria(TransformationBasedCriteriaConfiguration configuration) {
     this.rowTypeRestriction = configuration.getRowTypeRestriction();
     this.level = configuration.getLevel();
-    this.transformations = Collections.unmodifiableList(configuration.getTransformations());
+    this.transformations =
+      Collections.unmodifiableList(cached(configuration.getTransformations(),
+        configuration.getTransformationCacheSize()));
+  }
+
+  /**
+   * Wrap the TermValueTransformation using ValueTransformations.cached, other transformations are kept as is.
+   * 
+   * @param transformations
+   * @param cacheSize 0 to keep all transformations as is
+   * @return
+   */
+  private static List<ValueTransformation<?>> cached(List<ValueTransformation<?>> transformations, int cacheSize) {
+    if (cacheSize <= 0) {
+      return transformations;
+    }
+    List<ValueTransformation<?>> cachedTransformations = new ArrayList<ValueTransformation<?>>();
+    for (ValueTransformation<?> currTransformation : transformations) {
+      if (currTransformation instanceof TermValueTransformation) {
+        cachedTransformations.add(ValueTransformations.cached(currTransformation, cacheSize));
+      } else {
+        cachedTransformations.add(currTransformation);
+      }
+    }
+    return cachedTransformations;
   }
 
   @Override
@@ -45,28 +78,48 @@ class TransformationBasedCriteria implements RecordCriterion {
   }
 
   @Override
-  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
+  public String getRowTypeRestriction() {
+    return rowTypeRestriction;
+  }
 
-    // if we specified a rowType restriction, check that the record is also of this rowType
-    if (StringUtils.isNotBlank(rowTypeRestriction) && !rowTypeRestriction.equalsIgnoreCase(record.rowType())) {
-      return Optional.absent();
-    }
+  @Override
+  public EvaluationContext getEvaluationContextRestriction() {
+    return null;
+  }
+
+  @Override
+  public Set<Term> getTerms() {
+    return ValueTransformations.getTerms(transformations);
+  }
+
+  @Override
+  public List<ValueCache<?>> getValueCaches() {
+    return ValueTransformations.getValueCaches(transformations);
+  }
+
+  @Override
+  public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
 
-    List<ValidationResultElement> elementList = new ArrayList<ValidationResultElement>();
+    // only allocated if the record fails
+    List<ValidationResultElement> elementList = null;
 
+    ValueTransformationCache valueTransformationCache = ValueTransformationCache.current();
     ValueTransformationResult<?> parsingResult = null;
     for (ValueTransformation<?> currParser : transformations) {
-      parsingResult = currParser.transform(record);
+      parsingResult = valueTransformationCache.transform(currParser, record);
       if (parsingResult.isNotTransformed()) {
-        elementList.add(new ValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE, level,
-          parsingResult.getExplanation()));
+        if (elementList == null) {
+          elementList = new ArrayList<ValidationResultElement>();
+        }
+        elementList.add(parsingResult.toValidationResultElement(key, ContentValidationType.RECORD_CONTENT_VALUE,
+          level));
       }
     }
-    if (elementList != null && elementList.size() > 0) {
+    if (elementList != null) {
       return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType(), elementList));
     }
 
-    return Optional.of(new ValidationResult(record.id(), evaluationContext, record.rowType()));
+    return PASSED;
   }
 
 }
@@ -63,4 +63,16 @@ public class TransformationBasedCriteriaBuilder implements RecordCriterionBuilde
     return this;
   }
 
+  /**
+   * Keep the results of up to maximumSize distinct values per transformation, for terms with a low cardinality
+   * (e.g. eventDate).
+   * 
+   * @param maximumSize
+   * @return
+   */
+  public TransformationBasedCriteriaBuilder cacheTransformations(int maximumSize) {
+    configuration.setTransformationCacheSize(maximumSize);
+    return this;
+  }
+
 }
@@ -0,0 +1,20 @@
+package org.gbif.dwc.validator.result;
+
+/**
+ * Optional interface for ResultAccumulator that need to know how many records were evaluated, passed records are
+ * never given to a ResultAccumulator.
+ * 
+ * @author cgendreau
+ */
+public interface EvaluatedRecordListener {
+
+  /**
+   * Called once all records of a component (core or extension) were evaluated.
+   * 
+   * @param evaluationContext
+   * @param rowType rowType of the component
+   * @param numberOfRecords
+   */
+  void onRecordsEvaluated(EvaluationContext evaluationContext, String rowType, long numberOfRecords);
+
+}
@@ -4,13 +4,24 @@ import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.EvaluationResult;
 
 import java.io.IOException;
-import java.util.Iterator;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
 
 /**
  * Abstract threshold based writer for a single EvaluationResult implementation.
+ * Results are added by any number of threads to a bounded buffer and written by a dedicated writer thread, by batch
+ * of threshold results. When the buffer is full, accumulate blocks until the writer thread catches up so the memory
+ * usage stays bounded.
+ * Implementations of write and closeWriter are never called concurrently.
+ * close() must only be called once all producers are done.
  * 
  * @author cgendreau
  * @param <T>
@@ -19,70 +30,175 @@ public abstract class AbstractThresholdResultWriter<T extends EvaluationResult>
 
   protected static final int DEFAULT_THRESHOLD = 1000;
 
+  // number of batches the buffer can hold
+  private static final int BUFFERED_BATCHES = 4;
+  private static final long POLL_TIMEOUT_MS = 100;
+
   private final int threshold;
+  private final long flushIntervalNanos;
   private final AtomicInteger count;
-  private final ConcurrentLinkedQueue<T> queue;
-  private final AtomicBoolean flushing;
+  private final BlockingQueue<T> queue;
+
+  private final AtomicBoolean started;
+  private volatile boolean closed;
+  private final AtomicReference<Exception> writerError;
+  private volatile Thread writerThread;
 
   public AbstractThresholdResultWriter(int threshold) {
+    this(threshold, threshold * BUFFERED_BATCHES, 0);
+  }
+
+  /**
+   * @param threshold maximum number of results written by batch
+   * @param capacity maximum number of results waiting to be written
+   * @param flushIntervalMs maximum time, in milliseconds, to wait for a complete batch before writing a partial one.
+   *        0 to write available results immediately.
+   */
+  public AbstractThresholdResultWriter(int threshold, int capacity, long flushIntervalMs) {
+    Preconditions.checkArgument(threshold > 0, "threshold must be greater than 0");
+    Preconditions.checkArgument(capacity >= threshold, "capacity must be greater or equal to threshold");
+    Preconditions.checkArgument(flushIntervalMs >= 0, "flushIntervalMs must be positive");
     this.threshold = threshold;
+    this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
 
-    queue = new ConcurrentLinkedQueue<T>();
+    queue = new ArrayBlockingQueue<T>(capacity);
     count = new AtomicInteger(0);
 
-    flushing = new AtomicBoolean();
+    started = new AtomicBoolean();
+    writerError = new AtomicReference<Exception>();
   }
 
-  protected abstract void write(T result) throws IOException;;
+  protected abstract void write(T result) throws IOException, ResultAccumulationException;
 
-  protected abstract void closeWriter() throws IOException;
+  protected abstract void closeWriter() throws IOException, ResultAccumulationException;
 
   public boolean accumulate(T result) throws ResultAccumulationException {
-    queue.add(result);
+    if (closed) {
+      throw new ResultAccumulationException("This writer is closed");
+    }
+    throwWriterError();
 
-    if (count.incrementAndGet() == threshold && flushing.compareAndSet(false, true)) {
-      try {
-        flush(threshold);
-      } catch (IOException ioEx) {
-        throw new ResultAccumulationException(ioEx);
-      }
+    if (started.compareAndSet(false, true)) {
+      startWriterThread();
     }
+
+    try {
+      // blocks if the writer thread is behind
+      queue.put(result);
+    } catch (InterruptedException iEx) {
+      Thread.currentThread().interrupt();
+      throw new ResultAccumulationException("Interrupted while waiting for the writer thread", iEx);
+    }
+    count.incrementAndGet();
     return true;
   }
 
+  /**
+   * Write all remaining results and close the writer. Blocks until the writer thread is done.
+   * 
+   * @throws ResultAccumulationException
+   */
   public void close() throws ResultAccumulationException {
+    closed = true;
     try {
-      flushAll();
+      if (writerThread != null) {
+        writerThread.join();
+      }
       closeWriter();
+    } catch (InterruptedException iEx) {
+      Thread.currentThread().interrupt();
+      throw new ResultAccumulationException("Interrupted while waiting for the writer thread", iEx);
     } catch (IOException ioEx) {
       throw new ResultAccumulationException(ioEx);
     }
+    throwWriterError();
+  }
+
+  private synchronized void startWriterThread() {
+    writerThread = new Thread(new Runnable() {
+
+      @Override
+      public void run() {
+        drainQueue();
+      }
+    }, getClass().getSimpleName());
+    writerThread.setDaemon(true);
+    writerThread.start();
+  }
+
+  /**
+   * Writer thread loop, runs until the writer is closed and the queue is empty.
+   */
+  private void drainQueue() {
+    List<T> batch = new ArrayList<T>(threshold);
+    T first;
+    try {
+      while (true) {
+        first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          // closed is set before close() waits for us, nothing can be added after that
+          if (closed && queue.isEmpty()) {
+            return;
+          }
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, threshold - 1);
+        if (flushIntervalNanos > 0) {
+          fillBatch(batch, System.nanoTime() + flushIntervalNanos);
+        }
+        writeBatch(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException iEx) {
+      Thread.currentThread().interrupt();
+    }
   }
 
   /**
-   * Flush a specific number of ValidationResult records to the file.
+   * Wait for more results until the batch is complete, the deadline is reached or the writer is closed.
    * 
-   * @param howMany
-   * @throws IOException
+   * @param batch
+   * @param deadline in System.nanoTime() time
+   * @throws InterruptedException
    */
-  private void flush(int howMany) throws IOException {
-    int numberWritten = 0;
-    T currentResult = queue.poll();
-    while (currentResult != null && (numberWritten < howMany)) {
-      write(currentResult);
-      numberWritten++;
-      currentResult = queue.poll();
+  private void fillBatch(List<T> batch, long deadline) throws InterruptedException {
+    long remaining = deadline - System.nanoTime();
+    T next;
+    while (batch.size() < threshold && !closed && remaining > 0) {
+      next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_TIMEOUT_MS)), TimeUnit.NANOSECONDS);
+      if (next != null) {
+        batch.add(next);
+        queue.drainTo(batch, threshold - batch.size());
+      }
+      remaining = deadline - System.nanoTime();
+    }
+  }
+
+  private void writeBatch(List<T> batch) {
+    // after an error, keep draining so producers are not blocked, the error will be reported to them
+    if (writerError.get() != null) {
+      return;
+    }
+    try {
+      for (T currentResult : batch) {
+        write(currentResult);
+      }
+    } catch (IOException ioEx) {
+      writerError.compareAndSet(null, ioEx);
+    } catch (ResultAccumulationException raEx) {
+      writerError.compareAndSet(null, raEx);
+    } catch (RuntimeException rEx) {
+      writerError.compareAndSet(null, rEx);
     }
-    flushing.set(false);
   }
 
-  private void flushAll() throws IOException {
-    Iterator<T> queueIterator = queue.iterator();
-    T currentResult = null;
-    while (queueIterator.hasNext()) {
-      currentResult = queueIterator.next();
-      queueIterator.remove();
-      write(currentResult);
+  private void throwWriterError() throws ResultAccumulationException {
+    Exception ex = writerError.get();
+    if (ex instanceof ResultAccumulationException) {
+      throw (ResultAccumulationException) ex;
+    } else if (ex != null) {
+      throw new ResultAccumulationException(ex);
     }
   }
 
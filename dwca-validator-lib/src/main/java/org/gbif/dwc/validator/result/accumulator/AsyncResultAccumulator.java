@@ -0,0 +1,117 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationResult;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * ResultAccumulator decorator handing results to a background thread that accumulates them in the wrapped
+ * ResultAccumulator. Formatting and writing results is then removed from the evaluation threads, they only block
+ * when the writer thread is behind and the buffer is full.
+ * The wrapped ResultAccumulator is only called from the writer thread so it does not need to be thread-safe.
+ * close() returns once all results were given to the wrapped ResultAccumulator and it is closed.
+ * 
+ * @author cgendreau
+ */
+public class AsyncResultAccumulator implements ResultAccumulator {
+
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+  public static final int DEFAULT_CAPACITY = 10 * DEFAULT_BATCH_SIZE;
+  public static final long DEFAULT_FLUSH_INTERVAL_MS = 0;
+
+  private final ResultAccumulator resultAccumulator;
+  private final DelegatingResultWriter resultWriter;
+
+  private final AtomicInteger validationResultCount;
+  private final AtomicInteger aggregationResultCount;
+
+  public AsyncResultAccumulator(ResultAccumulator resultAccumulator) {
+    this(resultAccumulator, DEFAULT_BATCH_SIZE, DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MS);
+  }
+
+  /**
+   * @param resultAccumulator wrapped ResultAccumulator
+   * @param batchSize maximum number of results given to the wrapped ResultAccumulator in one go
+   * @param capacity maximum number of results waiting to be accumulated before the callers block
+   * @param flushIntervalMs maximum time, in milliseconds, to wait for a complete batch. 0 to accumulate available
+   *        results immediately.
+   */
+  public AsyncResultAccumulator(ResultAccumulator resultAccumulator, int batchSize, int capacity,
+    long flushIntervalMs) {
+    Preconditions.checkNotNull(resultAccumulator, "resultAccumulator can not be null");
+    this.resultAccumulator = resultAccumulator;
+    this.resultWriter = new DelegatingResultWriter(batchSize, capacity, flushIntervalMs);
+    this.validationResultCount = new AtomicInteger(0);
+    this.aggregationResultCount = new AtomicInteger(0);
+  }
+
+  /**
+   * The result is accumulated later, the return value of the wrapped ResultAccumulator is not available.
+   */
+  @Override
+  public boolean accumulate(ValidationResult result) throws ResultAccumulationException {
+    // Do not record passed result
+    if (result.passed()) {
+      return true;
+    }
+    resultWriter.accumulate(result);
+    validationResultCount.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * The result is accumulated later, the return value of the wrapped ResultAccumulator is not available.
+   */
+  @Override
+  public boolean accumulate(AggregationResult<?> result) throws ResultAccumulationException {
+    resultWriter.accumulate(result);
+    aggregationResultCount.incrementAndGet();
+    return true;
+  }
+
+  @Override
+  public void close() throws ResultAccumulationException {
+    resultWriter.close();
+  }
+
+  @Override
+  public int getValidationResultCount() {
+    return validationResultCount.get();
+  }
+
+  @Override
+  public int getAggregationResultCount() {
+    return aggregationResultCount.get();
+  }
+
+  /**
+   * Writer sending results to the wrapped ResultAccumulator.
+   */
+  private class DelegatingResultWriter extends AbstractThresholdResultWriter<EvaluationResult> {
+
+    DelegatingResultWriter(int batchSize, int capacity, long flushIntervalMs) {
+      super(batchSize, capacity, flushIntervalMs);
+    }
+
+    @Override
+    protected void write(EvaluationResult result) throws ResultAccumulationException {
+      if (result instanceof ValidationResult) {
+        resultAccumulator.accumulate((ValidationResult) result);
+      } else {
+        resultAccumulator.accumulate((AggregationResult<?>) result);
+      }
+    }
+
+    @Override
+    protected void closeWriter() throws ResultAccumulationException {
+      resultAccumulator.close();
+    }
+  }
+
+}
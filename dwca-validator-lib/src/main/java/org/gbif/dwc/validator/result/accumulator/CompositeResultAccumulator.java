@@ -0,0 +1,120 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluatedRecordListener;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * ResultAccumulator giving each result to multiple ResultAccumulator, e.g. to produce CSV and JSON files in the same
+ * validation run.
+ * When asynchronous, each ResultAccumulator is wrapped in an AsyncResultAccumulator so each one is written by its own
+ * thread and a slow one does not delay the others (until its buffer is full).
+ * close() closes all ResultAccumulator even if one of them fails, the first exception is then thrown.
+ * 
+ * @author cgendreau
+ */
+public class CompositeResultAccumulator implements ResultAccumulator, EvaluatedRecordListener {
+
+  private final List<ResultAccumulator> resultAccumulators;
+  // original ResultAccumulator, before wrapping, for EvaluatedRecordListener
+  private final List<ResultAccumulator> sinks;
+
+  private final AtomicInteger validationResultCount;
+  private final AtomicInteger aggregationResultCount;
+
+  public CompositeResultAccumulator(List<ResultAccumulator> resultAccumulators) {
+    this(resultAccumulators, false);
+  }
+
+  /**
+   * @param resultAccumulators ResultAccumulator receiving all results
+   * @param async use a writer thread per ResultAccumulator
+   */
+  public CompositeResultAccumulator(List<ResultAccumulator> resultAccumulators, boolean async) {
+    Preconditions.checkArgument(resultAccumulators != null && !resultAccumulators.isEmpty(),
+      "at least one ResultAccumulator is required");
+    this.sinks = ImmutableList.copyOf(resultAccumulators);
+    if (async) {
+      ImmutableList.Builder<ResultAccumulator> asyncResultAccumulators = ImmutableList.builder();
+      for (ResultAccumulator resultAccumulator : resultAccumulators) {
+        asyncResultAccumulators.add(new AsyncResultAccumulator(resultAccumulator));
+      }
+      this.resultAccumulators = asyncResultAccumulators.build();
+    } else {
+      this.resultAccumulators = sinks;
+    }
+    this.validationResultCount = new AtomicInteger(0);
+    this.aggregationResultCount = new AtomicInteger(0);
+  }
+
+  @Override
+  public boolean accumulate(ValidationResult result) throws ResultAccumulationException {
+    // Do not record passed result
+    if (result.passed()) {
+      return true;
+    }
+    boolean accumulated = true;
+    for (ResultAccumulator resultAccumulator : resultAccumulators) {
+      accumulated &= resultAccumulator.accumulate(result);
+    }
+    validationResultCount.incrementAndGet();
+    return accumulated;
+  }
+
+  @Override
+  public boolean accumulate(AggregationResult<?> result) throws ResultAccumulationException {
+    boolean accumulated = true;
+    for (ResultAccumulator resultAccumulator : resultAccumulators) {
+      accumulated &= resultAccumulator.accumulate(result);
+    }
+    aggregationResultCount.incrementAndGet();
+    return accumulated;
+  }
+
+  @Override
+  public void onRecordsEvaluated(EvaluationContext evaluationContext, String rowType, long numberOfRecords) {
+    for (ResultAccumulator resultAccumulator : sinks) {
+      if (resultAccumulator instanceof EvaluatedRecordListener) {
+        ((EvaluatedRecordListener) resultAccumulator).onRecordsEvaluated(evaluationContext, rowType,
+          numberOfRecords);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws ResultAccumulationException {
+    ResultAccumulationException closeException = null;
+    for (ResultAccumulator resultAccumulator : resultAccumulators) {
+      try {
+        resultAccumulator.close();
+      } catch (ResultAccumulationException raEx) {
+        if (closeException == null) {
+          closeException = raEx;
+        }
+      }
+    }
+    if (closeException != null) {
+      throw closeException;
+    }
+  }
+
+  @Override
+  public int getValidationResultCount() {
+    return validationResultCount.get();
+  }
+
+  @Override
+  public int getAggregationResultCount() {
+    return aggregationResultCount.get();
+  }
+
+}
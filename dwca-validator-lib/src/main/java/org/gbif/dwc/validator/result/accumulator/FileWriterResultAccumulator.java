@@ -3,9 +3,9 @@ package org.gbif.dwc.validator.result.accumulator;
 import org.gbif.dwc.validator.result.ResultAccumulator;
 import org.gbif.dwc.validator.result.aggregation.AggregationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.util.SpoolWriter;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -13,8 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * ResultAccumulator implementation using a FileWriter.
- * This implementation writes directly to the file on each 'accumulate' calls.
+ * ResultAccumulator implementation using a SpoolWriter, one line per result in UTF-8.
+ * Lines are buffered and written to the file when the buffer is full.
  * TODO: This writer is incomplete!
  * 
  * @author cgendreau
@@ -22,12 +22,12 @@ import org.slf4j.LoggerFactory;
 public class FileWriterResultAccumulator implements ResultAccumulator {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FileWriterResultAccumulator.class);
-  private final FileWriter fw;
+  private final SpoolWriter spoolWriter;
   private final AtomicInteger validationCount;
   private final AtomicInteger aggregationCount;
 
   public FileWriterResultAccumulator(String filePath) throws IOException {
-    fw = new FileWriter(new File(filePath));
+    spoolWriter = new SpoolWriter(new File(filePath));
     validationCount = new AtomicInteger(0);
     aggregationCount = new AtomicInteger(0);
   }
@@ -37,10 +37,10 @@ public class FileWriterResultAccumulator implements ResultAccumulator {
     // TODO of course, this is incomplete.
     String resultLine = result.getId();
     try {
-      fw.write(resultLine);
+      spoolWriter.writeLine(resultLine);
       validationCount.incrementAndGet();
     } catch (IOException ioEx) {
-      LOGGER.error("Can't write to file using FileWriter", ioEx);
+      LOGGER.error("Can't write to file using SpoolWriter", ioEx);
       return false;
     }
     return true;
@@ -50,10 +50,10 @@ public class FileWriterResultAccumulator implements ResultAccumulator {
   public boolean accumulate(AggregationResult<?> result) {
     String resultLine = result.getId();
     try {
-      fw.write(resultLine);
+      spoolWriter.writeLine(resultLine);
       aggregationCount.incrementAndGet();
     } catch (IOException ioEx) {
-      LOGGER.error("Can't write to file using FileWriter", ioEx);
+      LOGGER.error("Can't write to file using SpoolWriter", ioEx);
       return false;
     }
     return true;
@@ -61,12 +61,11 @@ public class FileWriterResultAccumulator implements ResultAccumulator {
 
   @Override
   public void close() {
-    if (fw != null) {
+    if (spoolWriter != null) {
       try {
-        fw.flush();
-        fw.close();
+        spoolWriter.close();
       } catch (IOException ioEx) {
-        LOGGER.error("Can't close FileWriter", ioEx);
+        LOGGER.error("Can't close SpoolWriter", ioEx);
       }
     }
   }
@@ -10,6 +10,7 @@ import java.util.List;
 /**
  * In memory ResultAccumulatorIF, maximum number of accumulated results is defined
  * by MAX_RESULT.
+ * Accumulate methods are synchronized so the instance can be shared by multiple threads.
  * 
  * @author cgendreau
  */
@@ -25,7 +26,7 @@ public class InMemoryResultAccumulator implements ResultAccumulator {
   }
 
   @Override
-  public boolean accumulate(ValidationResult result) {
+  public synchronized boolean accumulate(ValidationResult result) {
     // Do not record passed result
     if (result.passed()) {
       return true;
@@ -37,7 +38,7 @@ public class InMemoryResultAccumulator implements ResultAccumulator {
   }
 
   @Override
-  public boolean accumulate(AggregationResult<?> result) {
+  public synchronized boolean accumulate(AggregationResult<?> result) {
     if (aggregationResultList.size() < MAX_RESULT) {
       return aggregationResultList.add(result);
     }
@@ -50,20 +51,20 @@ public class InMemoryResultAccumulator implements ResultAccumulator {
   }
 
   @Override
-  public int getValidationResultCount() {
+  public synchronized int getValidationResultCount() {
     return validationResultList.size();
   }
 
   @Override
-  public int getAggregationResultCount() {
+  public synchronized int getAggregationResultCount() {
     return validationResultList.size();
   }
 
-  public List<ValidationResult> getValidationResultList() {
+  public synchronized List<ValidationResult> getValidationResultList() {
     return validationResultList;
   }
 
-  public List<AggregationResult<?>> getAggregationResultList() {
+  public synchronized List<AggregationResult<?>> getAggregationResultList() {
     return aggregationResultList;
   }
 }
@@ -0,0 +1,59 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of the result files written by text based ResultAccumulator (CSV, JSON).
+ * Streams are opened with large buffers to limit the number of write calls.
+ * 
+ * @author cgendreau
+ */
+public enum ResultCompression {
+
+  NONE(""), GZIP(".gz");
+
+  public static final int BUFFER_SIZE = 64 * 1024;
+
+  private final String fileExtension;
+
+  private ResultCompression(String fileExtension) {
+    this.fileExtension = fileExtension;
+  }
+
+  /**
+   * Extension to add after the extension of the format, e.g. .gz
+   * 
+   * @return extension or empty string
+   */
+  public String getFileExtension() {
+    return fileExtension;
+  }
+
+  /**
+   * Open a buffered, possibly compressed, stream to the provided file.
+   * 
+   * @param filePath
+   * @return
+   * @throws IOException
+   */
+  public OutputStream open(String filePath) throws IOException {
+    OutputStream out = new FileOutputStream(filePath);
+    try {
+      switch (this) {
+        case GZIP:
+          // GZIPOutputStream buffers the compressed data, the buffer is used for the uncompressed data
+          return new BufferedOutputStream(new GZIPOutputStream(out, BUFFER_SIZE), BUFFER_SIZE);
+        default:
+          return new BufferedOutputStream(out, BUFFER_SIZE);
+      }
+    } catch (IOException ioEx) {
+      out.close();
+      throw ioEx;
+    }
+  }
+
+}
@@ -0,0 +1,262 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.aggregation.ResultSummary;
+import org.gbif.dwc.validator.result.type.ValidationTypeIF;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+/**
+ * ResultAccumulator decorator limiting the number of results recorded per evaluator key, validation type and rowType.
+ * The first maxRecorded ValidationResultElement of each group are given to the wrapped ResultAccumulator as they
+ * arrive, a random sample (reservoir sampling) of sampleSize elements among the following ones is given on close.
+ * Exact counts are kept for all groups and given to the wrapped ResultAccumulator on close as
+ * AggregationResult of ResultSummary (id is the rowType).
+ * The wrapped ResultAccumulator must be thread-safe if this instance is shared by multiple threads.
+ * 
+ * @author cgendreau
+ */
+public class SamplingResultAccumulator implements ResultAccumulator {
+
+  public static final int DEFAULT_MAX_RECORDED = 1000;
+  public static final int DEFAULT_SAMPLE_SIZE = 100;
+
+  private final ResultAccumulator resultAccumulator;
+  private final int maxRecorded;
+  private final int sampleSize;
+  private final Random random;
+
+  // groups in order of appearance
+  private final Map<GroupKey, Group> groups;
+
+  private final AtomicInteger validationResultCount;
+  private final AtomicInteger aggregationResultCount;
+
+  public SamplingResultAccumulator(ResultAccumulator resultAccumulator) {
+    this(resultAccumulator, DEFAULT_MAX_RECORDED, DEFAULT_SAMPLE_SIZE);
+  }
+
+  public SamplingResultAccumulator(ResultAccumulator resultAccumulator, int maxRecorded, int sampleSize) {
+    this(resultAccumulator, maxRecorded, sampleSize, new Random());
+  }
+
+  /**
+   * @param resultAccumulator wrapped ResultAccumulator
+   * @param maxRecorded number of elements recorded as they arrive for each group
+   * @param sampleSize number of elements randomly selected among the remaining ones of each group
+   * @param random source of the sampling, allows reproducible samples
+   */
+  public SamplingResultAccumulator(ResultAccumulator resultAccumulator, int maxRecorded, int sampleSize,
+    Random random) {
+    Preconditions.checkNotNull(resultAccumulator, "resultAccumulator can not be null");
+    Preconditions.checkArgument(maxRecorded >= 0 && sampleSize >= 0, "maxRecorded and sampleSize must be positive");
+    this.resultAccumulator = resultAccumulator;
+    this.maxRecorded = maxRecorded;
+    this.sampleSize = sampleSize;
+    this.random = random;
+    this.groups = new LinkedHashMap<GroupKey, Group>();
+    this.validationResultCount = new AtomicInteger(0);
+    this.aggregationResultCount = new AtomicInteger(0);
+  }
+
+  private Group getGroup(ValidationResultElement element, ValidationResult result) {
+    GroupKey key = new GroupKey(element.getEvaluatorKey(), element.getType(), result.getEvaluationContextDetails());
+    synchronized (groups) {
+      Group group = groups.get(key);
+      if (group == null) {
+        group = new Group(key, result.getEvaluationContext());
+        groups.put(key, group);
+      }
+      return group;
+    }
+  }
+
+  /**
+   * Only the elements that are recorded immediately are given to the wrapped ResultAccumulator, sampled elements are
+   * kept until close().
+   */
+  @Override
+  public boolean accumulate(ValidationResult result) throws ResultAccumulationException {
+    // Do not record passed result
+    if (result.passed()) {
+      return true;
+    }
+    validationResultCount.incrementAndGet();
+
+    List<ValidationResultElement> elements = result.getResults();
+    List<ValidationResultElement> recordedElements = new ArrayList<ValidationResultElement>(elements.size());
+    for (ValidationResultElement element : elements) {
+      if (getGroup(element, result).add(result, element)) {
+        recordedElements.add(element);
+      }
+    }
+
+    if (recordedElements.isEmpty()) {
+      return true;
+    }
+    if (recordedElements.size() == elements.size()) {
+      return resultAccumulator.accumulate(result);
+    }
+    return resultAccumulator.accumulate(new ValidationResult(result.getId(), result.getEvaluationContext(), result
+      .getEvaluationContextDetails(), recordedElements));
+  }
+
+  @Override
+  public boolean accumulate(AggregationResult<?> result) throws ResultAccumulationException {
+    aggregationResultCount.incrementAndGet();
+    return resultAccumulator.accumulate(result);
+  }
+
+  /**
+   * Give the samples and the summaries to the wrapped ResultAccumulator, then close it.
+   */
+  @Override
+  public void close() throws ResultAccumulationException {
+    List<Group> groupList = getGroupList();
+    for (Group group : groupList) {
+      for (ValidationResult sample : group.getSamples()) {
+        resultAccumulator.accumulate(sample);
+      }
+    }
+    for (Group group : groupList) {
+      resultAccumulator.accumulate(new AggregationResult<ResultSummary>(group.key.rowType, group.key.evaluatorKey,
+        group.evaluationContext, group.summarize()));
+    }
+    resultAccumulator.close();
+  }
+
+  /**
+   * Get the current summary of each group in order of appearance.
+   * 
+   * @return
+   */
+  public List<ResultSummary> getSummaries() {
+    List<Group> groupList = getGroupList();
+    List<ResultSummary> summaries = new ArrayList<ResultSummary>(groupList.size());
+    for (Group group : groupList) {
+      summaries.add(group.summarize());
+    }
+    return summaries;
+  }
+
+  private List<Group> getGroupList() {
+    synchronized (groups) {
+      return new ArrayList<Group>(groups.values());
+    }
+  }
+
+  /**
+   * Total number of ValidationResult received, including the ones that were not recorded.
+   */
+  @Override
+  public int getValidationResultCount() {
+    return validationResultCount.get();
+  }
+
+  @Override
+  public int getAggregationResultCount() {
+    return aggregationResultCount.get();
+  }
+
+  private static class GroupKey {
+
+    private final String evaluatorKey;
+    private final ValidationTypeIF type;
+    private final String rowType;
+
+    GroupKey(String evaluatorKey, ValidationTypeIF type, String rowType) {
+      this.evaluatorKey = evaluatorKey;
+      this.type = type;
+      this.rowType = rowType;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof GroupKey)) {
+        return false;
+      }
+      GroupKey other = (GroupKey) obj;
+      return Objects.equal(evaluatorKey, other.evaluatorKey) && Objects.equal(type, other.type)
+        && Objects.equal(rowType, other.rowType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(evaluatorKey, type, rowType);
+    }
+  }
+
+  /**
+   * Counts and samples of a group, guarded by its own monitor.
+   */
+  private class Group {
+
+    private final GroupKey key;
+    private final EvaluationContext evaluationContext;
+    private final List<ValidationResult> samples;
+    private long count;
+    private int recordedCount;
+
+    Group(GroupKey key, EvaluationContext evaluationContext) {
+      this.key = key;
+      this.evaluationContext = evaluationContext;
+      this.samples = new ArrayList<ValidationResult>();
+    }
+
+    /**
+     * Count the element and decide if it is recorded immediately, sampled or dropped.
+     * 
+     * @return the element should be recorded immediately
+     */
+    synchronized boolean add(ValidationResult result, ValidationResultElement element) {
+      count++;
+      if (recordedCount < maxRecorded) {
+        recordedCount++;
+        return true;
+      }
+      if (sampleSize == 0) {
+        return false;
+      }
+      if (samples.size() < sampleSize) {
+        samples.add(buildSample(result, element));
+      } else {
+        // keep the element with a probability of sampleSize / number of elements not recorded immediately
+        long replacedIndex = (long) (random.nextDouble() * (count - maxRecorded));
+        if (replacedIndex < sampleSize) {
+          samples.set((int) replacedIndex, buildSample(result, element));
+        }
+      }
+      return false;
+    }
+
+    synchronized List<ValidationResult> getSamples() {
+      return new ArrayList<ValidationResult>(samples);
+    }
+
+    synchronized ResultSummary summarize() {
+      return new ResultSummary(key.evaluatorKey, key.type, key.rowType, count, recordedCount + samples.size());
+    }
+
+    private ValidationResult buildSample(ValidationResult result, ValidationResultElement element) {
+      if (result.getResults().size() == 1) {
+        return result;
+      }
+      return new ValidationResult(result.getId(), result.getEvaluationContext(), result.getEvaluationContextDetails(),
+        element);
+    }
+  }
+
+}
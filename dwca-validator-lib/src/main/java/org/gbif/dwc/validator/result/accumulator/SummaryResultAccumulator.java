@@ -0,0 +1,219 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluatedRecordListener;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * ResultAccumulator decorator counting ValidationResultElement per level (ERROR, WARNING) and per criterion, term,
+ * EvaluationContext and rowType, as well as the number of evaluated records per rowType. All results are also given to
+ * the wrapped ResultAccumulator.
+ * The counts are given to the wrapped ResultAccumulator on close as AggregationResult of Long, the id is
+ * dimension:value:level (e.g. criterion:boundCriterion:ERROR or records:rowType).
+ * The term of a result is the first Term found in the parameters of its message, results without message or without
+ * Term are not counted per term.
+ * Counters are striped so concurrent evaluation threads do not contend on the same counter.
+ * 
+ * @author cgendreau
+ */
+public class SummaryResultAccumulator implements ResultAccumulator, EvaluatedRecordListener {
+
+  public static final String SUMMARY_KEY = "summary";
+
+  /**
+   * Dimensions of the summary.
+   */
+  public enum Dimension {
+    CRITERION, TERM, CONTEXT, ROW_TYPE, RECORDS;
+
+    private final String id = name().toLowerCase().replace("_", "");
+
+    public String getId() {
+      return id;
+    }
+  }
+
+  private static final String SEPARATOR = ":";
+
+  private final ResultAccumulator resultAccumulator;
+  private final ConcurrentMap<String, StripedCounter> counters;
+  private final ConcurrentMap<String, EvaluationContext> contexts;
+  private final StripedCounter validationResultCount;
+  private final StripedCounter aggregationResultCount;
+
+  public SummaryResultAccumulator(ResultAccumulator resultAccumulator) {
+    Preconditions.checkNotNull(resultAccumulator, "resultAccumulator can not be null");
+    this.resultAccumulator = resultAccumulator;
+    this.counters = new ConcurrentHashMap<String, StripedCounter>();
+    this.contexts = new ConcurrentHashMap<String, EvaluationContext>();
+    this.validationResultCount = new StripedCounter();
+    this.aggregationResultCount = new StripedCounter();
+  }
+
+  private static String buildId(Dimension dimension, String value, Result level) {
+    StringBuilder id = new StringBuilder(dimension.getId()).append(SEPARATOR).append(value);
+    if (level != null) {
+      id.append(SEPARATOR).append(level);
+    }
+    return id.toString();
+  }
+
+  private void increment(String id, EvaluationContext evaluationContext, long value) {
+    StripedCounter counter = counters.get(id);
+    if (counter == null) {
+      StripedCounter newCounter = new StripedCounter();
+      counter = counters.putIfAbsent(id, newCounter);
+      if (counter == null) {
+        counter = newCounter;
+        if (evaluationContext != null) {
+          contexts.put(id, evaluationContext);
+        }
+      }
+    }
+    counter.add(value);
+  }
+
+  @Override
+  public boolean accumulate(ValidationResult result) throws ResultAccumulationException {
+    // Do not record passed result
+    if (result.passed()) {
+      return true;
+    }
+    validationResultCount.add(1);
+
+    EvaluationContext evaluationContext = result.getEvaluationContext();
+    Term term;
+    for (ValidationResultElement element : result.getResults()) {
+      Result level = element.getResult();
+      if (level != Result.ERROR && level != Result.WARNING) {
+        continue;
+      }
+      increment(buildId(Dimension.CRITERION, element.getEvaluatorKey(), level), null, 1);
+      increment(buildId(Dimension.CONTEXT, String.valueOf(evaluationContext), level), evaluationContext, 1);
+      increment(buildId(Dimension.ROW_TYPE, result.getEvaluationContextDetails(), level), evaluationContext, 1);
+      term = getTerm(element);
+      if (term != null) {
+        increment(buildId(Dimension.TERM, term.qualifiedName(), level), null, 1);
+      }
+    }
+    return resultAccumulator.accumulate(result);
+  }
+
+  private Term getTerm(ValidationResultElement element) {
+    Object[] params = element.getMessageParams();
+    if (params != null) {
+      for (Object param : params) {
+        if (param instanceof Term) {
+          return (Term) param;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public boolean accumulate(AggregationResult<?> result) throws ResultAccumulationException {
+    aggregationResultCount.add(1);
+    return resultAccumulator.accumulate(result);
+  }
+
+  @Override
+  public void onRecordsEvaluated(EvaluationContext evaluationContext, String rowType, long numberOfRecords) {
+    increment(buildId(Dimension.RECORDS, rowType, null), evaluationContext, numberOfRecords);
+    if (resultAccumulator instanceof EvaluatedRecordListener) {
+      ((EvaluatedRecordListener) resultAccumulator).onRecordsEvaluated(evaluationContext, rowType, numberOfRecords);
+    }
+  }
+
+  /**
+   * Get the current count of a level for a value of a dimension.
+   * 
+   * @param dimension
+   * @param value e.g. criterion key, term qualified name, EvaluationContext name or rowType
+   * @param level ERROR or WARNING, ignored for Dimension.RECORDS
+   * @return
+   */
+  public long getCount(Dimension dimension, String value, Result level) {
+    StripedCounter counter =
+      counters.get(buildId(dimension, value, (dimension == Dimension.RECORDS) ? null : level));
+    return (counter == null) ? 0 : counter.sum();
+  }
+
+  /**
+   * Get a snapshot of all counts ordered by id.
+   * 
+   * @return
+   */
+  public SortedMap<String, Long> getCounts() {
+    SortedMap<String, Long> counts = new TreeMap<String, Long>();
+    for (Map.Entry<String, StripedCounter> entry : counters.entrySet()) {
+      counts.put(entry.getKey(), entry.getValue().sum());
+    }
+    return counts;
+  }
+
+  /**
+   * Give the counts to the wrapped ResultAccumulator, then close it.
+   */
+  @Override
+  public void close() throws ResultAccumulationException {
+    for (Map.Entry<String, Long> count : getCounts().entrySet()) {
+      resultAccumulator.accumulate(new AggregationResult<Long>(count.getKey(), SUMMARY_KEY, contexts.get(count
+        .getKey()), count.getValue()));
+    }
+    resultAccumulator.close();
+  }
+
+  @Override
+  public int getValidationResultCount() {
+    return (int) validationResultCount.sum();
+  }
+
+  @Override
+  public int getAggregationResultCount() {
+    return (int) aggregationResultCount.sum();
+  }
+
+  /**
+   * Counter spreading the increments over several cells, each thread uses the cell matching its id.
+   * Cells are spaced to avoid sharing the same cache line.
+   */
+  static class StripedCounter {
+
+    // power of 2, between 2 and 4 times the number of processors
+    private static final int NUMBER_OF_STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4;
+    // 8 longs = 64 bytes
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(NUMBER_OF_STRIPES * PADDING);
+
+    void add(long value) {
+      int stripe = (int) (Thread.currentThread().getId() & (NUMBER_OF_STRIPES - 1));
+      cells.addAndGet(stripe * PADDING, value);
+    }
+
+    long sum() {
+      long sum = 0;
+      for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+        sum += cells.get(i * PADDING);
+      }
+      return sum;
+    }
+  }
+
+}
@@ -0,0 +1,227 @@
+package org.gbif.dwc.validator.result.accumulator.binary;
+
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.binary.BinaryResultFormat.Block;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * ResultAccumulator implementation saving ValidationResult to a compact binary file, see BinaryResultFormat.
+ * The file can be read, paged and filtered using BinaryResultReader and converted to another format on demand.
+ * The resultedObject of ValidationResultElement is not saved.
+ * Accumulate methods are synchronized so the instance can be shared by multiple threads.
+ * 
+ * @author cgendreau
+ */
+public class BinaryResultAccumulator implements ResultAccumulator {
+
+  private final String resultFilePath;
+  private final int blockSize;
+
+  private CountingOutputStream countingOutputStream;
+  private DataOutputStream out;
+
+  // string to dictionary code, codes are assigned in insertion order
+  private final Map<String, Integer> dictionary;
+  private final List<Block> blocks;
+
+  private long blockOffset;
+  private int blockResultCount;
+  private Set<Integer> blockEvaluatorKeyCodes;
+  private Set<Integer> blockContextDetailsCodes;
+
+  private int count;
+  private boolean closed;
+
+  public BinaryResultAccumulator(String resultFilePath) {
+    this(resultFilePath, BinaryResultFormat.DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * @param resultFilePath
+   * @param blockSize number of ValidationResult per block, the reader skips or reads a block at once
+   */
+  public BinaryResultAccumulator(String resultFilePath, int blockSize) {
+    Preconditions.checkArgument(blockSize > 0, "blockSize must be greater than 0");
+    this.resultFilePath = resultFilePath;
+    this.blockSize = blockSize;
+    this.dictionary = new LinkedHashMap<String, Integer>();
+    this.blocks = new ArrayList<Block>();
+  }
+
+  private void openOutput() throws IOException {
+    countingOutputStream = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(resultFilePath)));
+    out = new DataOutputStream(countingOutputStream);
+    out.writeInt(BinaryResultFormat.MAGIC);
+    out.writeInt(BinaryResultFormat.VERSION);
+    startBlock();
+  }
+
+  private void startBlock() {
+    blockOffset = countingOutputStream.getCount();
+    blockResultCount = 0;
+    blockEvaluatorKeyCodes = new LinkedHashSet<Integer>();
+    blockContextDetailsCodes = new LinkedHashSet<Integer>();
+  }
+
+  private void endBlock() {
+    if (blockResultCount > 0) {
+      blocks.add(new Block(blockOffset, (int) (countingOutputStream.getCount() - blockOffset), blockResultCount,
+        blockEvaluatorKeyCodes, blockContextDetailsCodes));
+    }
+  }
+
+  /**
+   * Get the dictionary code of a string, adding it to the dictionary if needed.
+   * 
+   * @param value
+   * @return code + 1, 0 is used for null
+   */
+  private int encode(String value) {
+    if (value == null) {
+      return 0;
+    }
+    Integer code = dictionary.get(value);
+    if (code == null) {
+      code = dictionary.size();
+      dictionary.put(value, code);
+    }
+    return code + 1;
+  }
+
+  @Override
+  public synchronized boolean accumulate(ValidationResult result) throws ResultAccumulationException {
+    // Do not record passed result
+    if (result.passed()) {
+      return true;
+    }
+    if (closed) {
+      throw new ResultAccumulationException("This ResultAccumulator is closed");
+    }
+
+    try {
+      if (out == null) {
+        openOutput();
+      }
+      writeResult(result);
+      count++;
+
+      blockResultCount++;
+      if (blockResultCount == blockSize) {
+        endBlock();
+        startBlock();
+      }
+    } catch (IOException ioEx) {
+      throw new ResultAccumulationException(ioEx);
+    }
+    return true;
+  }
+
+  private void writeResult(ValidationResult result) throws IOException {
+    BinaryResultFormat.writeId(out, result.getId());
+    out.writeByte(result.getEvaluationContext() == null ? 0 : result.getEvaluationContext().ordinal() + 1);
+
+    int contextDetailsCode = encode(result.getEvaluationContextDetails());
+    blockContextDetailsCodes.add(contextDetailsCode);
+    BinaryResultFormat.writeVarint(out, contextDetailsCode);
+
+    List<ValidationResultElement> elements = result.getResults();
+    if (elements == null) {
+      elements = Collections.emptyList();
+    }
+    BinaryResultFormat.writeVarint(out, elements.size());
+    int evaluatorKeyCode;
+    for (ValidationResultElement element : elements) {
+      evaluatorKeyCode = encode(element.getEvaluatorKey());
+      blockEvaluatorKeyCodes.add(evaluatorKeyCode);
+      BinaryResultFormat.writeVarint(out, evaluatorKeyCode);
+      BinaryResultFormat.writeVarint(out, encode(element.getType() == null ? null : element.getType().getId()));
+      out.writeByte(element.getResult() == null ? 0 : element.getResult().ordinal() + 1);
+      writeExplanation(element);
+    }
+  }
+
+  private void writeExplanation(ValidationResultElement element) throws IOException {
+    if (element.getMessageKey() == null) {
+      out.writeByte(BinaryResultFormat.EXPLANATION_TEXT);
+      BinaryResultFormat.writeString(out, element.getExplanation());
+      return;
+    }
+    out.writeByte(BinaryResultFormat.EXPLANATION_MESSAGE);
+    BinaryResultFormat.writeVarint(out, encode(element.getMessageKey()));
+    Object[] params = element.getMessageParams();
+    int numberOfParams = (params == null) ? 0 : params.length;
+    BinaryResultFormat.writeVarint(out, numberOfParams);
+    for (int i = 0; i < numberOfParams; i++) {
+      BinaryResultFormat.writeParam(out, params[i]);
+    }
+  }
+
+  @Override
+  public boolean accumulate(AggregationResult<?> result) throws ResultAccumulationException {
+    throw new ResultAccumulationException("This ResultAccumulator was not configured to record AggregationResult");
+  }
+
+  /**
+   * Write the dictionary and the block index. The file is only readable once closed.
+   */
+  @Override
+  public synchronized void close() throws ResultAccumulationException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      if (out == null) {
+        openOutput();
+      }
+      endBlock();
+
+      long footerOffset = countingOutputStream.getCount();
+      BinaryResultFormat.writeVarint(out, dictionary.size());
+      for (String value : dictionary.keySet()) {
+        BinaryResultFormat.writeString(out, value);
+      }
+      BinaryResultFormat.writeVarint(out, blocks.size());
+      for (Block block : blocks) {
+        block.write(out);
+      }
+      out.writeLong(footerOffset);
+      out.writeInt(BinaryResultFormat.MAGIC);
+      out.flush();
+    } catch (IOException ioEx) {
+      throw new ResultAccumulationException(ioEx);
+    } finally {
+      IOUtils.closeQuietly(out);
+    }
+  }
+
+  @Override
+  public synchronized int getValidationResultCount() {
+    return count;
+  }
+
+  @Override
+  public int getAggregationResultCount() {
+    return 0;
+  }
+
+}
@@ -0,0 +1,272 @@
+package org.gbif.dwc.validator.result.accumulator.binary;
+
+import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.type.StructureValidationType;
+import org.gbif.dwc.validator.result.type.ValidationTypeIF;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Constants and encoding helpers shared by BinaryResultAccumulator and BinaryResultReader.
+ * Layout of a file:
+ * <ul>
+ * <li>header: MAGIC, VERSION</li>
+ * <li>blocks of at most blockSize ValidationResult</li>
+ * <li>footer: string dictionary, block index (offset, length, number of results, evaluator keys and context
+ * details codes used in the block)</li>
+ * <li>trailer: footer offset as a long, MAGIC</li>
+ * </ul>
+ * Evaluator keys, validation types, context details (rowType) and message keys are stored as codes of the dictionary.
+ * Codes, lengths and numerical ids are stored as varint (7 bits per byte, high bit set when more bytes follow).
+ * Explanations built from a message are stored as the message key and its parameters, other explanations are stored
+ * as String.
+ * 
+ * @author cgendreau
+ */
+final class BinaryResultFormat {
+
+  static final int MAGIC = 0x44574356;
+  static final int VERSION = 2;
+  static final int DEFAULT_BLOCK_SIZE = 1024;
+  // header: MAGIC (int) and VERSION (int)
+  static final int HEADER_LENGTH = 8;
+  // trailer: footer offset (long) and MAGIC (int)
+  static final int TRAILER_LENGTH = 12;
+
+  // id kinds
+  static final int ID_NULL = 0;
+  static final int ID_NUMERIC = 1;
+  static final int ID_STRING = 2;
+
+  // explanation kinds
+  static final int EXPLANATION_TEXT = 0;
+  static final int EXPLANATION_MESSAGE = 1;
+
+  // message parameter kinds
+  static final int PARAM_NULL = 0;
+  static final int PARAM_STRING = 1;
+  static final int PARAM_LONG = 2;
+  static final int PARAM_DOUBLE = 3;
+  static final int PARAM_DECIMAL = 4;
+
+  // longest numerical id stored as varint, longer ones could overflow a long
+  private static final int MAX_NUMERIC_ID_LENGTH = 18;
+
+  private static final Map<String, ValidationTypeIF> VALIDATION_TYPE_BY_ID = new HashMap<String, ValidationTypeIF>();
+  static {
+    for (ValidationTypeIF type : ContentValidationType.values()) {
+      VALIDATION_TYPE_BY_ID.put(type.getId(), type);
+    }
+    for (ValidationTypeIF type : StructureValidationType.values()) {
+      VALIDATION_TYPE_BY_ID.put(type.getId(), type);
+    }
+  }
+
+  private BinaryResultFormat() {
+  }
+
+  static ValidationTypeIF getValidationType(String id) throws IOException {
+    ValidationTypeIF type = VALIDATION_TYPE_BY_ID.get(id);
+    if (type == null) {
+      throw new IOException("Unknown validation type " + id);
+    }
+    return type;
+  }
+
+  static void writeVarint(DataOutput out, long value) throws IOException {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      out.writeByte((int) ((remaining & 0x7F) | 0x80));
+      remaining >>>= 7;
+    }
+    out.writeByte((int) remaining);
+  }
+
+  static long readVarLong(DataInput in) throws IOException {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      if (shift > 63) {
+        throw new IOException("Malformed varint");
+      }
+      b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+  static int readVarint(DataInput in) throws IOException {
+    long value = readVarLong(in);
+    if (value > Integer.MAX_VALUE) {
+      throw new IOException("Malformed varint");
+    }
+    return (int) value;
+  }
+
+  /**
+   * Write a nullable String as varint length + 1 (0 for null) followed by the UTF-8 bytes.
+   */
+  static void writeString(DataOutput out, String value) throws IOException {
+    if (value == null) {
+      writeVarint(out, 0);
+      return;
+    }
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    writeVarint(out, bytes.length + 1);
+    out.write(bytes);
+  }
+
+  static String readString(DataInput in) throws IOException {
+    int length = readVarint(in);
+    if (length == 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length - 1];
+    in.readFully(bytes);
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+  /**
+   * Ids made of digits only, without leading zero, are stored as varint. Others are stored as String.
+   */
+  static void writeId(DataOutput out, String id) throws IOException {
+    if (id == null) {
+      out.writeByte(ID_NULL);
+    } else if (isNumericId(id)) {
+      out.writeByte(ID_NUMERIC);
+      writeVarint(out, Long.parseLong(id));
+    } else {
+      out.writeByte(ID_STRING);
+      writeString(out, id);
+    }
+  }
+
+  static String readId(DataInput in) throws IOException {
+    int kind = in.readByte();
+    switch (kind) {
+      case ID_NULL:
+        return null;
+      case ID_NUMERIC:
+        return Long.toString(readVarLong(in));
+      case ID_STRING:
+        return readString(in);
+      default:
+        throw new IOException("Unknown id kind " + kind);
+    }
+  }
+
+  /**
+   * Write a message parameter. Primitive wrappers are stored as Long or Double, other numbers as BigDecimal so they
+   * are formatted as numbers when read back. Everything else is stored as its String representation.
+   */
+  static void writeParam(DataOutput out, Object param) throws IOException {
+    if (param == null) {
+      out.writeByte(PARAM_NULL);
+    } else if (param instanceof Long || param instanceof Integer || param instanceof Short || param instanceof Byte) {
+      out.writeByte(PARAM_LONG);
+      out.writeLong(((Number) param).longValue());
+    } else if (param instanceof Double || param instanceof Float) {
+      out.writeByte(PARAM_DOUBLE);
+      out.writeDouble(((Number) param).doubleValue());
+    } else if (param instanceof Number) {
+      out.writeByte(PARAM_DECIMAL);
+      writeString(out, param.toString());
+    } else {
+      out.writeByte(PARAM_STRING);
+      writeString(out, param.toString());
+    }
+  }
+
+  static Object readParam(DataInput in) throws IOException {
+    int kind = in.readByte();
+    switch (kind) {
+      case PARAM_NULL:
+        return null;
+      case PARAM_STRING:
+        return readString(in);
+      case PARAM_LONG:
+        return in.readLong();
+      case PARAM_DOUBLE:
+        return in.readDouble();
+      case PARAM_DECIMAL:
+        return new BigDecimal(readString(in));
+      default:
+        throw new IOException("Unknown parameter kind " + kind);
+    }
+  }
+
+  private static boolean isNumericId(String id) {
+    int length = id.length();
+    if (length == 0 || length > MAX_NUMERIC_ID_LENGTH || (id.charAt(0) == '0' && length > 1)) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      char c = id.charAt(i);
+      if (c < '0' || c > '9') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Entry of the block index.
+   */
+  static class Block {
+
+    final long offset;
+    final int length;
+    final int resultCount;
+    // dictionary codes used in the block, allows to skip blocks without reading them
+    final Set<Integer> evaluatorKeyCodes;
+    final Set<Integer> contextDetailsCodes;
+
+    Block(long offset, int length, int resultCount, Set<Integer> evaluatorKeyCodes, Set<Integer> contextDetailsCodes) {
+      this.offset = offset;
+      this.length = length;
+      this.resultCount = resultCount;
+      this.evaluatorKeyCodes = evaluatorKeyCodes;
+      this.contextDetailsCodes = contextDetailsCodes;
+    }
+
+    void write(DataOutput out) throws IOException {
+      writeVarint(out, offset);
+      writeVarint(out, length);
+      writeVarint(out, resultCount);
+      writeCodes(out, evaluatorKeyCodes);
+      writeCodes(out, contextDetailsCodes);
+    }
+
+    static Block read(DataInput in) throws IOException {
+      return new Block(readVarLong(in), readVarint(in), readVarint(in), readCodes(in), readCodes(in));
+    }
+
+    private static void writeCodes(DataOutput out, Set<Integer> codes) throws IOException {
+      writeVarint(out, codes.size());
+      for (Integer code : codes) {
+        writeVarint(out, code);
+      }
+    }
+
+    private static Set<Integer> readCodes(DataInput in) throws IOException {
+      int size = readVarint(in);
+      Set<Integer> codes = new HashSet<Integer>(size * 2);
+      for (int i = 0; i < size; i++) {
+        codes.add(readVarint(in));
+      }
+      return codes;
+    }
+  }
+
+}
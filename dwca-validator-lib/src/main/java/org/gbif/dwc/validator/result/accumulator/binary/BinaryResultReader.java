@@ -0,0 +1,273 @@
+package org.gbif.dwc.validator.result.accumulator.binary;
+
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.binary.BinaryResultFormat.Block;
+import org.gbif.dwc.validator.result.type.ValidationTypeIF;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Reader for files produced by BinaryResultAccumulator.
+ * Only the dictionary and the block index are loaded when opened. Results are read by block: paging jumps directly
+ * to the block containing the requested result and filtering skips the blocks that do not contain the requested
+ * evaluator key or context details (rowType).
+ * NOT thread-safe
+ * 
+ * @author cgendreau
+ */
+public class BinaryResultReader implements Closeable {
+
+  private final RandomAccessFile file;
+  private final String[] dictionary;
+  private final List<Block> blocks;
+  private final int resultCount;
+
+  public BinaryResultReader(File resultFile) throws IOException {
+    file = new RandomAccessFile(resultFile, "r");
+    try {
+      if (file.length() < BinaryResultFormat.HEADER_LENGTH + BinaryResultFormat.TRAILER_LENGTH
+        || file.readInt() != BinaryResultFormat.MAGIC) {
+        throw new IOException(resultFile.getAbsolutePath() + " is not a binary result file");
+      }
+      int version = file.readInt();
+      if (version != BinaryResultFormat.VERSION) {
+        throw new IOException("Unsupported binary result file version " + version);
+      }
+
+      file.seek(file.length() - BinaryResultFormat.TRAILER_LENGTH);
+      long footerOffset = file.readLong();
+      if (file.readInt() != BinaryResultFormat.MAGIC) {
+        throw new IOException(resultFile.getAbsolutePath() + " is incomplete, the accumulator was not closed");
+      }
+
+      DataInput footer =
+        readBytes(footerOffset, (int) (file.length() - BinaryResultFormat.TRAILER_LENGTH - footerOffset));
+      dictionary = new String[BinaryResultFormat.readVarint(footer)];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = BinaryResultFormat.readString(footer);
+      }
+      int numberOfBlocks = BinaryResultFormat.readVarint(footer);
+      List<Block> blockList = new ArrayList<Block>(numberOfBlocks);
+      int count = 0;
+      for (int i = 0; i < numberOfBlocks; i++) {
+        Block block = Block.read(footer);
+        blockList.add(block);
+        count += block.resultCount;
+      }
+      blocks = Collections.unmodifiableList(blockList);
+      resultCount = count;
+    } catch (IOException ioEx) {
+      file.close();
+      throw ioEx;
+    }
+  }
+
+  /**
+   * Total number of ValidationResult in the file.
+   * 
+   * @return
+   */
+  public int getResultCount() {
+    return resultCount;
+  }
+
+  /**
+   * Read a page of ValidationResult.
+   * 
+   * @param offset number of results to skip
+   * @param limit maximum number of results to return
+   * @return
+   * @throws IOException
+   */
+  public List<ValidationResult> read(int offset, int limit) throws IOException {
+    return read(offset, limit, null, null);
+  }
+
+  /**
+   * Read a page of ValidationResult matching the provided filters.
+   * When filtering on evaluatorKey, only the ValidationResultElement of this evaluator are included in the results.
+   * 
+   * @param offset number of matching results to skip
+   * @param limit maximum number of results to return
+   * @param evaluatorKey evaluator key to match or null to accept all of them
+   * @param contextDetails context details (rowType) to match or null to accept all of them
+   * @return
+   * @throws IOException
+   */
+  public List<ValidationResult> read(int offset, int limit, String evaluatorKey, String contextDetails)
+    throws IOException {
+    Preconditions.checkArgument(offset >= 0 && limit >= 0, "offset and limit must be positive");
+    List<ValidationResult> page = new ArrayList<ValidationResult>();
+
+    int evaluatorKeyCode = findCode(evaluatorKey);
+    int contextDetailsCode = findCode(contextDetails);
+    // the value was never recorded
+    if (evaluatorKeyCode < 0 || contextDetailsCode < 0) {
+      return page;
+    }
+    boolean filtered = (evaluatorKey != null || contextDetails != null);
+
+    int toSkip = offset;
+    for (Block block : blocks) {
+      if (page.size() == limit) {
+        break;
+      }
+      if (evaluatorKey != null && !block.evaluatorKeyCodes.contains(evaluatorKeyCode)) {
+        continue;
+      }
+      if (contextDetails != null && !block.contextDetailsCodes.contains(contextDetailsCode)) {
+        continue;
+      }
+      // without filter, we know if the block is needed without reading it
+      if (!filtered && toSkip >= block.resultCount) {
+        toSkip -= block.resultCount;
+        continue;
+      }
+
+      DataInput in = readBytes(block.offset, block.length);
+      ValidationResult result;
+      for (int i = 0; i < block.resultCount && page.size() < limit; i++) {
+        result = readResult(in, evaluatorKeyCode, contextDetailsCode);
+        if (result != null) {
+          if (toSkip > 0) {
+            toSkip--;
+          } else {
+            page.add(result);
+          }
+        }
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Send all results to a ResultAccumulator, e.g. to convert them to CSV or JSON.
+   * The ResultAccumulator is not closed.
+   * 
+   * @param resultAccumulator
+   * @throws IOException
+   * @throws ResultAccumulationException
+   */
+  public void copyTo(ResultAccumulator resultAccumulator) throws IOException, ResultAccumulationException {
+    for (Block block : blocks) {
+      DataInput in = readBytes(block.offset, block.length);
+      ValidationResult result;
+      for (int i = 0; i < block.resultCount; i++) {
+        result = readResult(in, 0, 0);
+        if (result != null) {
+          resultAccumulator.accumulate(result);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param value
+   * @return code + 1 as written in the file, 0 for null, -1 if the value is not in the dictionary
+   */
+  private int findCode(String value) {
+    if (value == null) {
+      return 0;
+    }
+    for (int i = 0; i < dictionary.length; i++) {
+      if (value.equals(dictionary[i])) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  private String decode(int code) {
+    return (code == 0) ? null : dictionary[code - 1];
+  }
+
+  private DataInput readBytes(long offset, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    file.seek(offset);
+    file.readFully(bytes);
+    return new DataInputStream(new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * Read the next result, the whole result is always consumed from the input.
+   * 
+   * @param in
+   * @param evaluatorKeyCode only keep elements of this evaluator, 0 to keep all of them
+   * @param contextDetailsCode only return the result if it has this context details, 0 to accept all of them
+   * @return the result, possibly without element, or null if it does not match the filters
+   * @throws IOException
+   */
+  private ValidationResult readResult(DataInput in, int evaluatorKeyCode, int contextDetailsCode) throws IOException {
+    String id = BinaryResultFormat.readId(in);
+    int context = in.readByte();
+    int resultContextDetailsCode = BinaryResultFormat.readVarint(in);
+
+    int numberOfElements = BinaryResultFormat.readVarint(in);
+    List<ValidationResultElement> elements = new ArrayList<ValidationResultElement>(numberOfElements);
+    int elementEvaluatorKeyCode;
+    int typeCode;
+    int result;
+    int explanationKind;
+    String explanation = null;
+    int messageKeyCode = 0;
+    Object[] messageParams = null;
+    for (int i = 0; i < numberOfElements; i++) {
+      elementEvaluatorKeyCode = BinaryResultFormat.readVarint(in);
+      typeCode = BinaryResultFormat.readVarint(in);
+      result = in.readByte();
+      explanationKind = in.readByte();
+      if (explanationKind == BinaryResultFormat.EXPLANATION_TEXT) {
+        explanation = BinaryResultFormat.readString(in);
+      } else if (explanationKind == BinaryResultFormat.EXPLANATION_MESSAGE) {
+        messageKeyCode = BinaryResultFormat.readVarint(in);
+        messageParams = new Object[BinaryResultFormat.readVarint(in)];
+        for (int j = 0; j < messageParams.length; j++) {
+          messageParams[j] = BinaryResultFormat.readParam(in);
+        }
+      } else {
+        throw new IOException("Unknown explanation kind " + explanationKind);
+      }
+
+      if (evaluatorKeyCode == 0 || evaluatorKeyCode == elementEvaluatorKeyCode) {
+        ValidationTypeIF type = (typeCode == 0) ? null : BinaryResultFormat.getValidationType(decode(typeCode));
+        Result elementResult = (result == 0) ? null : Result.values()[result - 1];
+        if (explanationKind == BinaryResultFormat.EXPLANATION_TEXT) {
+          elements.add(new ValidationResultElement(decode(elementEvaluatorKeyCode), type, elementResult, explanation));
+        } else {
+          elements.add(ValidationResultElement.fromMessage(decode(elementEvaluatorKeyCode), type, elementResult,
+            decode(messageKeyCode), messageParams));
+        }
+      }
+    }
+
+    // when filtering on the evaluator, results without element of this evaluator are skipped
+    if ((evaluatorKeyCode != 0 && elements.isEmpty())
+      || (contextDetailsCode != 0 && contextDetailsCode != resultContextDetailsCode)) {
+      return null;
+    }
+    return new ValidationResult(id, (context == 0) ? null : EvaluationContext.values()[context - 1],
+      decode(resultContextDetailsCode), elements);
+  }
+
+  @Override
+  public void close() throws IOException {
+    file.close();
+  }
+
+}
@@ -2,11 +2,13 @@ package org.gbif.dwc.validator.result.accumulator.csv;
 
 import org.gbif.dwc.validator.config.ValidatorConfig;
 import org.gbif.dwc.validator.result.accumulator.AbstractThresholdResultWriter;
+import org.gbif.dwc.validator.result.accumulator.ResultCompression;
 import org.gbif.dwc.validator.result.aggregation.AggregationResult;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 
+import com.google.common.base.Charsets;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
@@ -18,20 +20,24 @@ import org.apache.commons.csv.CSVPrinter;
 class CSVAggregationResultWriter extends AbstractThresholdResultWriter<AggregationResult<?>> {
 
   private final String aggregationResultFilePath;
+  private final ResultCompression compression;
   private CSVPrinter aggregationCsvPrinter;
 
   public CSVAggregationResultWriter(String aggregationResultFilePath) {
-    this(aggregationResultFilePath, DEFAULT_THRESHOLD);
+    this(aggregationResultFilePath, DEFAULT_THRESHOLD, ResultCompression.NONE);
   }
 
-  public CSVAggregationResultWriter(String aggregationResultFilePath, int threshold) {
+  public CSVAggregationResultWriter(String aggregationResultFilePath, int threshold, ResultCompression compression) {
     super(threshold);
     this.aggregationResultFilePath = aggregationResultFilePath;
+    this.compression = compression;
   }
 
 
   private void openAggregationCsvPrinter() throws IOException {
-    aggregationCsvPrinter = new CSVPrinter(new FileWriter(aggregationResultFilePath), CSVFormat.DEFAULT);
+    aggregationCsvPrinter =
+      new CSVPrinter(new OutputStreamWriter(compression.open(aggregationResultFilePath), Charsets.UTF_8),
+        CSVFormat.DEFAULT);
     printAggregationResultHeaders();
   }
 
@@ -2,6 +2,7 @@ package org.gbif.dwc.validator.result.accumulator.csv;
 
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.ResultCompression;
 import org.gbif.dwc.validator.result.aggregation.AggregationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 
@@ -24,12 +25,24 @@ public class CSVResultAccumulator implements ResultAccumulator {
   }
 
   public CSVResultAccumulator(String validationResultFilePath, String aggregationResultFilePath) {
+    this(validationResultFilePath, aggregationResultFilePath, ResultCompression.NONE);
+  }
+
+  /**
+   * @param validationResultFilePath
+   * @param aggregationResultFilePath
+   * @param compression compression of both files, the paths should include the extension of the compression
+   */
+  public CSVResultAccumulator(String validationResultFilePath, String aggregationResultFilePath,
+    ResultCompression compression) {
     if (StringUtils.isNotBlank(validationResultFilePath)) {
-      csvValidationResultAccumulator = new CSVValidationResultWriter(validationResultFilePath);
+      csvValidationResultAccumulator =
+        new CSVValidationResultWriter(validationResultFilePath, DEFAULT_THRESHOLD, compression);
     }
 
     if (StringUtils.isNotBlank(aggregationResultFilePath)) {
-      csvAggregationResultAccumulator = new CSVAggregationResultWriter(aggregationResultFilePath);
+      csvAggregationResultAccumulator =
+        new CSVAggregationResultWriter(aggregationResultFilePath, DEFAULT_THRESHOLD, compression);
     }
   }
 
@@ -2,12 +2,14 @@ package org.gbif.dwc.validator.result.accumulator.csv;
 
 import org.gbif.dwc.validator.config.ValidatorConfig;
 import org.gbif.dwc.validator.result.accumulator.AbstractThresholdResultWriter;
+import org.gbif.dwc.validator.result.accumulator.ResultCompression;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 
+import com.google.common.base.Charsets;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
@@ -20,18 +22,22 @@ class CSVValidationResultWriter extends AbstractThresholdResultWriter<Validation
 
   private CSVPrinter validationCsvPrinter;
   private final String validationResultFilePath;
+  private final ResultCompression compression;
 
   CSVValidationResultWriter(String validationResultFilePath) {
-    this(validationResultFilePath, DEFAULT_THRESHOLD);
+    this(validationResultFilePath, DEFAULT_THRESHOLD, ResultCompression.NONE);
   }
 
-  CSVValidationResultWriter(String validationResultFilePath, int threshold) {
+  CSVValidationResultWriter(String validationResultFilePath, int threshold, ResultCompression compression) {
     super(threshold);
     this.validationResultFilePath = validationResultFilePath;
+    this.compression = compression;
   }
 
   private void openCsvPrinter() throws IOException {
-    validationCsvPrinter = new CSVPrinter(new FileWriter(validationResultFilePath), CSVFormat.DEFAULT);
+    validationCsvPrinter =
+      new CSVPrinter(new OutputStreamWriter(compression.open(validationResultFilePath), Charsets.UTF_8),
+        CSVFormat.DEFAULT);
     printValidationResultHeaders();
   }
 
@@ -2,11 +2,14 @@ package org.gbif.dwc.validator.result.accumulator.json;
 
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.ResultCompression;
 import org.gbif.dwc.validator.result.aggregation.AggregationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 
-import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.codehaus.jackson.JsonEncoding;
@@ -19,26 +22,41 @@ import org.codehaus.jackson.map.annotate.JsonSerialize.Inclusion;
 
 /**
  * ResultAccumulator implementation saving results to JSON file(s).
+ * AggregationResult are kept in memory and written after the ValidationResult when the accumulator is closed.
  * 
  * @author cgendreau
  */
 public class JSONResultAccumulator implements ResultAccumulator {
 
   private final static String ROOT_OBJECT_NAME = "validationResults";
+  private final static String AGGREGATION_OBJECT_NAME = "aggregationResults";
   private final String resultFilePath;
+  private final ResultCompression compression;
   private ObjectMapper om;
   private JsonGenerator jGenerator = null;
 
   private final AtomicInteger count;
+  private final List<AggregationResult<?>> aggregationResultList;
 
   public JSONResultAccumulator(String resultFilePath) {
+    this(resultFilePath, ResultCompression.NONE);
+  }
+
+  /**
+   * @param resultFilePath path of the file, it should include the extension of the compression
+   * @param compression
+   */
+  public JSONResultAccumulator(String resultFilePath, ResultCompression compression) {
     this.resultFilePath = resultFilePath;
+    this.compression = compression;
     this.count = new AtomicInteger(0);
+    this.aggregationResultList = Collections.synchronizedList(new ArrayList<AggregationResult<?>>());
   }
 
   private void openJsonGenerator() throws IOException {
     JsonFactory jfactory = new JsonFactory();
-    jGenerator = jfactory.createJsonGenerator(new File(resultFilePath), JsonEncoding.UTF8);
+    // the stream is closed by the generator
+    jGenerator = jfactory.createJsonGenerator(compression.open(resultFilePath), JsonEncoding.UTF8);
     jGenerator.writeStartObject();
     jGenerator.writeArrayFieldStart(ROOT_OBJECT_NAME);
 
@@ -74,20 +92,34 @@ public class JSONResultAccumulator implements ResultAccumulator {
 
   @Override
   public boolean accumulate(AggregationResult<?> result) throws ResultAccumulationException {
-    throw new ResultAccumulationException("This ResultAccumulator was not configured to record AggregationResult");
+    return aggregationResultList.add(result);
   }
 
   @Override
   public void close() throws ResultAccumulationException {
-    if (jGenerator != null) {
-      try {
+    if (jGenerator == null && aggregationResultList.isEmpty()) {
+      return;
+    }
+    try {
+      if (jGenerator == null) {
+        openJsonGenerator();
+      }
+      jGenerator.writeEndArray();
+
+      if (!aggregationResultList.isEmpty()) {
+        jGenerator.writeArrayFieldStart(AGGREGATION_OBJECT_NAME);
+        synchronized (aggregationResultList) {
+          for (AggregationResult<?> aggregationResult : aggregationResultList) {
+            om.writeValue(jGenerator, aggregationResult);
+          }
+        }
         jGenerator.writeEndArray();
-        jGenerator.writeEndObject();
-
-        jGenerator.close();
-      } catch (IOException ioEx) {
-        throw new ResultAccumulationException(ioEx);
       }
+      jGenerator.writeEndObject();
+
+      jGenerator.close();
+    } catch (IOException ioEx) {
+      throw new ResultAccumulationException(ioEx);
     }
   }
 
@@ -98,7 +130,7 @@ public class JSONResultAccumulator implements ResultAccumulator {
 
   @Override
   public int getAggregationResultCount() {
-    return 0;
+    return aggregationResultList.size();
   }
 
 }
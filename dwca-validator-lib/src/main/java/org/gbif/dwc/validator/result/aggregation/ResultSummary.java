@@ -0,0 +1,61 @@
+package org.gbif.dwc.validator.result.aggregation;
+
+import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.result.type.ValidationTypeIF;
+
+/**
+ * Number of ValidationResultElement produced by an evaluator for a validation type and a rowType, and how many of
+ * them were recorded.
+ * This object is immutable.
+ * 
+ * @author cgendreau
+ */
+public class ResultSummary {
+
+  private final String evaluatorKey;
+  private final ValidationTypeIF type;
+  private final String rowType;
+  private final long count;
+  private final int recordedCount;
+
+  public ResultSummary(String evaluatorKey, ValidationTypeIF type, String rowType, long count, int recordedCount) {
+    this.evaluatorKey = evaluatorKey;
+    this.type = type;
+    this.rowType = rowType;
+    this.count = count;
+    this.recordedCount = recordedCount;
+  }
+
+  public String getEvaluatorKey() {
+    return evaluatorKey;
+  }
+
+  public ValidationTypeIF getType() {
+    return type;
+  }
+
+  public String getRowType() {
+    return rowType;
+  }
+
+  /**
+   * @return total number of results
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @return number of results given to the ResultAccumulator
+   */
+  public int getRecordedCount() {
+    return recordedCount;
+  }
+
+  @Override
+  public String toString() {
+    return ValidatorConfig.getLocalizedString("result.summary", count, type == null ? null : type.getId(),
+      recordedCount);
+  }
+
+}
@@ -18,6 +18,12 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
  */
 public class ValidationResult implements EvaluationResult {
 
+  /**
+   * Shared result used by RecordCriterion when a record passes. It does not carry the id nor the context of the record
+   * so no object is allocated for passing records.
+   */
+  public static final ValidationResult PASSED = new ValidationResult(null, null, (String) null);
+
   private final String id;
   private final EvaluationContext evaluationContext;
   private final String evaluationContextDetails;
@@ -1,14 +1,18 @@
 package org.gbif.dwc.validator.result.validation;
 
+import org.gbif.dwc.validator.config.ValidatorConfig;
 import org.gbif.dwc.validator.result.Result;
 import org.gbif.dwc.validator.result.type.ValidationTypeIF;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.codehaus.jackson.annotate.JsonIgnore;
 
 /**
  * Immutable object holding validation result for a single ValidationTypeIF.
+ * The explanation can be provided already formatted or as a message key and its parameters, in which case it is only
+ * formatted when requested (e.g. when the result is written) and elements using the same message only cost references.
  * 
  * @author cgendreau
  */
@@ -18,6 +22,8 @@ public class ValidationResultElement {
   private final ValidationTypeIF type;
   private final Result result;
   private final String explanation;
+  private final String messageKey;
+  private final Object[] messageParams;
   private final Object resultedObject;
 
   public ValidationResultElement(String evaluatorKey, ValidationTypeIF type, Result result, String explanation) {
@@ -33,13 +39,36 @@ public class ValidationResultElement {
    */
   public ValidationResultElement(String evaluatorKey, ValidationTypeIF type, Result result, String explanation,
     Object resultedObject) {
+    this(evaluatorKey, type, result, explanation, null, null, resultedObject);
+  }
+
+  private ValidationResultElement(String evaluatorKey, ValidationTypeIF type, Result result, String explanation,
+    String messageKey, Object[] messageParams, Object resultedObject) {
     this.evaluatorKey = evaluatorKey;
     this.type = type;
     this.result = result;
     this.explanation = explanation;
+    this.messageKey = messageKey;
+    this.messageParams = messageParams;
     this.resultedObject = resultedObject;
   }
 
+  /**
+   * Build a ValidationResultElement with an explanation that will be formatted from the localized message only when
+   * requested. The parameters should be immutable.
+   * 
+   * @param evaluatorKey key of the validator who generated this entry
+   * @param type
+   * @param result
+   * @param messageKey key of the localized message, see ValidatorConfig.getLocalizedString
+   * @param messageParams parameters of the message
+   * @return
+   */
+  public static ValidationResultElement fromMessage(String evaluatorKey, ValidationTypeIF type, Result result,
+    String messageKey, Object... messageParams) {
+    return new ValidationResultElement(evaluatorKey, type, result, null, messageKey, messageParams, null);
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == null) {
@@ -54,6 +83,7 @@ public class ValidationResultElement {
     ValidationResultElement vre = (ValidationResultElement) obj;
     return new EqualsBuilder().appendSuper(super.equals(obj)).append(evaluatorKey, vre.evaluatorKey)
       .append(type, vre.type).append(result, vre.result).append(explanation, vre.explanation)
+      .append(messageKey, vre.messageKey).append(messageParams, vre.messageParams)
       .append(resultedObject, vre.resultedObject).isEquals();
   }
 
@@ -61,10 +91,38 @@ public class ValidationResultElement {
     return evaluatorKey;
   }
 
+  /**
+   * Get the explanation, formatting it from the message key and parameters if required.
+   * 
+   * @return
+   */
   public String getExplanation() {
+    if (explanation == null && messageKey != null) {
+      return ValidatorConfig.getLocalizedString(messageKey, messageParams);
+    }
     return explanation;
   }
 
+  /**
+   * Key of the localized message used to build the explanation.
+   * 
+   * @return message key or null if the explanation was provided already formatted
+   */
+  @JsonIgnore
+  public String getMessageKey() {
+    return messageKey;
+  }
+
+  /**
+   * Parameters of the localized message used to build the explanation.
+   * 
+   * @return copy of the parameters or null if the explanation was provided already formatted
+   */
+  @JsonIgnore
+  public Object[] getMessageParams() {
+    return (messageParams == null) ? null : messageParams.clone();
+  }
+
   public Result getResult() {
     return result;
   }
@@ -80,7 +138,7 @@ public class ValidationResultElement {
   @Override
   public int hashCode() {
     return new HashCodeBuilder(7779, 8903).append(evaluatorKey).append(type).append(result).append(explanation)
-      .append(resultedObject).toHashCode();
+      .append(messageKey).append(messageParams).append(resultedObject).toHashCode();
   }
 
   /**
@@ -150,6 +208,6 @@ public class ValidationResultElement {
   @Override
   public String toString() {
     return new ToStringBuilder(this).append("evaluatorKey", evaluatorKey).append("type", type).append("result", result)
-      .append("explanation", explanation).toString();
+      .append("explanation", getExplanation()).toString();
   }
 }
@@ -0,0 +1,72 @@
+package org.gbif.dwc.validator.transformation;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.Term;
+import org.gbif.util.ValueCache;
+
+/**
+ * TermValueTransformation keeping the results of another TermValueTransformation in a ValueCache.
+ * ValueTransformationResult are immutable so the same instance is returned for all occurrences of a raw value.
+ * Use ValueTransformations.cached to get an instance.
+ * 
+ * @author cgendreau
+ */
+class CachedValueTransformation<T> implements TermValueTransformation<T> {
+
+  private final TermValueTransformation<T> valueTransformation;
+  private final ValueCache<ValueTransformationResult<T>> valueCache;
+
+  CachedValueTransformation(TermValueTransformation<T> valueTransformation, int maximumSize) {
+    this.valueTransformation = valueTransformation;
+    this.valueCache =
+      new ValueCache<ValueTransformationResult<T>>(valueTransformation.getClass().getSimpleName() + " on "
+        + valueTransformation.getTerm().simpleName(), maximumSize);
+  }
+
+  ValueCache<ValueTransformationResult<T>> getValueCache() {
+    return valueCache;
+  }
+
+  @Override
+  public Term getTerm() {
+    return valueTransformation.getTerm();
+  }
+
+  @Override
+  public ValueTransformationResult<T> transform(Record record) {
+    return transform(record.value(getTerm()));
+  }
+
+  /**
+   * Null values are not cached.
+   */
+  @Override
+  public ValueTransformationResult<T> transform(String str) {
+    if (str == null) {
+      return valueTransformation.transform(str);
+    }
+    ValueTransformationResult<T> result = valueCache.getIfPresent(str);
+    if (result == null) {
+      result = valueTransformation.transform(str);
+      valueCache.put(str, result);
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return valueTransformation.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    return valueTransformation.equals(((CachedValueTransformation<?>) obj).valueTransformation);
+  }
+
+}
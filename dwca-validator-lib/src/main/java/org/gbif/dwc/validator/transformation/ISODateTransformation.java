@@ -2,8 +2,8 @@ package org.gbif.dwc.validator.transformation;
 
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
-import org.gbif.dwc.validator.config.ValidatorConfig;
 
+import com.google.common.base.Objects;
 import org.apache.commons.lang3.StringUtils;
 import org.threeten.bp.DateTimeException;
 import org.threeten.bp.LocalDate;
@@ -19,10 +19,11 @@ import org.threeten.bp.temporal.TemporalAccessor;
  * Transform the value associated with a Term into an ISO date.
  * Note that the provided 'raw' value must already be in ISO format and this class will simply transform
  * it into a TemporalAccessor object.
+ * Instances with the same Term and options are equal so their results can be shared, see ValueTransformationCache.
  * 
  * @author cgendreau
  */
-public class ISODateTransformation implements ValueTransformation<TemporalAccessor> {
+public class ISODateTransformation implements TermValueTransformation<TemporalAccessor> {
 
   private final Term term;
 
@@ -48,12 +49,14 @@ public class ISODateTransformation implements ValueTransformation<TemporalAccess
     .toFormatter().withResolverStyle(ResolverStyle.STRICT);
 
   private final boolean allowPartialDate;
+  private final boolean allowMissingLeadingZeros;
   private final DateTimeFormatter activeCompleteDateFormatter;
   private final DateTimeFormatter activePartialDateFormatter;
 
   ISODateTransformation(Term term, boolean allowPartialDate, boolean allowMissingLeadingZeros) {
     this.term = term;
     this.allowPartialDate = allowPartialDate;
+    this.allowMissingLeadingZeros = allowMissingLeadingZeros;
 
     if (allowMissingLeadingZeros) {
       activeCompleteDateFormatter = ISO8601_ISO_DATE_ALLOW_NO_LZ;
@@ -65,14 +68,21 @@ public class ISODateTransformation implements ValueTransformation<TemporalAccess
   }
 
   private ValueTransformationResult<TemporalAccessor> createNonISOEvaluationRuleResult(String value) {
-    return ValueTransformationResult.notTransformed(term, "",
-      ValidatorConfig.getLocalizedString("transformation.date.non_ISO", value));
+    return ValueTransformationResult.notTransformedFromMessage(term, "", "transformation.date.non_ISO", value);
+  }
+
+  @Override
+  public Term getTerm() {
+    return term;
   }
 
   @Override
   public ValueTransformationResult<TemporalAccessor> transform(Record record) {
+    return transform(record.value(term));
+  }
 
-    String str = record.value(term);
+  @Override
+  public ValueTransformationResult<TemporalAccessor> transform(String str) {
     if (StringUtils.isBlank(str)) {
       return ValueTransformationResult.skipped(term, str);
     }
@@ -116,4 +126,22 @@ public class ISODateTransformation implements ValueTransformation<TemporalAccess
     return null;
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof ISODateTransformation)) {
+      return false;
+    }
+    ISODateTransformation other = (ISODateTransformation) obj;
+    return Objects.equal(term, other.term) && allowPartialDate == other.allowPartialDate
+      && allowMissingLeadingZeros == other.allowMissingLeadingZeros;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(term, allowPartialDate, allowMissingLeadingZeros);
+  }
+
 }
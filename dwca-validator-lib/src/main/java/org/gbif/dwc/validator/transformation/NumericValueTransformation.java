@@ -2,17 +2,18 @@ package org.gbif.dwc.validator.transformation;
 
 import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.Term;
-import org.gbif.dwc.validator.config.ValidatorConfig;
 
+import com.google.common.base.Objects;
 import org.apache.commons.lang3.StringUtils;
 
 /**
  * Transform the value associated with a Term into a Double.
+ * Instances on the same Term are equal so their results can be shared, see ValueTransformationCache.
  * 
  * @author cgendreau
  * @param <T>
  */
-class NumericValueTransformation implements ValueTransformation<Number> {
+class NumericValueTransformation implements TermValueTransformation<Number> {
 
   private final Term term;
 
@@ -20,9 +21,18 @@ class NumericValueTransformation implements ValueTransformation<Number> {
     this.term = term;
   }
 
+  @Override
+  public Term getTerm() {
+    return term;
+  }
+
   @Override
   public ValueTransformationResult<Number> transform(Record record) {
-    String str = record.value(term);
+    return transform(record.value(term));
+  }
+
+  @Override
+  public ValueTransformationResult<Number> transform(String str) {
     if (StringUtils.isBlank(str)) {
       return ValueTransformationResult.skipped(term, str);
     }
@@ -31,10 +41,26 @@ class NumericValueTransformation implements ValueTransformation<Number> {
     try {
       value = Double.parseDouble(str);
     } catch (NumberFormatException nfEx) {
-      return ValueTransformationResult.notTransformed(term, str,
-        ValidatorConfig.getLocalizedString("transformation.numeric.non_numerical", str, term));
+      return ValueTransformationResult.notTransformedFromMessage(term, str, "transformation.numeric.non_numerical",
+        str, term);
     }
     return ValueTransformationResult.transformed(term, str, (Number) value);
   }
 
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof NumericValueTransformation)) {
+      return false;
+    }
+    return Objects.equal(term, ((NumericValueTransformation) obj).term);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(term);
+  }
+
 }
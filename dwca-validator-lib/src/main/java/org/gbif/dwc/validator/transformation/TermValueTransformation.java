@@ -0,0 +1,18 @@
+package org.gbif.dwc.validator.transformation;
+
+import org.gbif.dwc.terms.Term;
+
+/**
+ * A ValueTransformation using the value of a single Term. The transformation can be applied directly on a value,
+ * e.g. on the column of a RecordBatch.
+ * 
+ * @author cgendreau
+ * @param <T>
+ */
+public interface TermValueTransformation<T> extends ValueTransformation<T> {
+
+  Term getTerm();
+
+  ValueTransformationResult<T> transform(String value);
+
+}
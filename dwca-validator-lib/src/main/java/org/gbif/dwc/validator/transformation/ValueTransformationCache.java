@@ -0,0 +1,113 @@
+package org.gbif.dwc.validator.transformation;
+
+import org.gbif.dwc.record.Record;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-thread cache of ValueTransformationResult for the record currently evaluated.
+ * Equal ValueTransformation (e.g. NumericValueTransformation on the same term) used by different criteria are only
+ * computed once per record.
+ * The cache is only active between beginRecord() and endRecord(), usually called by the EvaluatorChain, otherwise
+ * transformations are simply computed. Moving to the next record only increments a counter, nothing is allocated
+ * once all transformations of the chain were seen.
+ * 
+ * @author cgendreau
+ */
+public class ValueTransformationCache {
+
+  private static final ThreadLocal<ValueTransformationCache> CURRENT = new ThreadLocal<ValueTransformationCache>() {
+
+    @Override
+    protected ValueTransformationCache initialValue() {
+      return new ValueTransformationCache();
+    }
+  };
+
+  private final Map<ValueTransformation<?>, CacheEntry> entries;
+  private int generation;
+  private boolean active;
+
+  private ValueTransformationCache() {
+    this.entries = new HashMap<ValueTransformation<?>, CacheEntry>();
+  }
+
+  /**
+   * Get the cache of the current thread.
+   * 
+   * @return
+   */
+  public static ValueTransformationCache current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Start caching for a new record, results of the previous record are discarded.
+   */
+  public void beginRecord() {
+    generation++;
+    active = true;
+  }
+
+  /**
+   * Stop caching, following calls to transform will compute the transformation.
+   */
+  public void endRecord() {
+    active = false;
+  }
+
+  /**
+   * Get the result of the transformation for the current record, computing it only if not already cached.
+   * 
+   * @param valueTransformation
+   * @param record the record currently evaluated
+   * @return
+   */
+  @SuppressWarnings("unchecked")
+  public <T> ValueTransformationResult<T> transform(ValueTransformation<T> valueTransformation, Record record) {
+    if (!active) {
+      return valueTransformation.transform(record);
+    }
+
+    CacheEntry entry = getEntry(valueTransformation);
+    if (entry.generation != generation) {
+      entry.result = valueTransformation.transform(record);
+      entry.generation = generation;
+    }
+    // equal transformations produce the same type
+    return (ValueTransformationResult<T>) entry.result;
+  }
+
+  /**
+   * Set the result of a transformation for the current record, e.g. already computed for a whole RecordBatch column.
+   * Ignored when the cache is not active.
+   * 
+   * @param valueTransformation
+   * @param result result of the valueTransformation for the current record
+   */
+  public void put(ValueTransformation<?> valueTransformation, ValueTransformationResult<?> result) {
+    if (!active) {
+      return;
+    }
+    CacheEntry entry = getEntry(valueTransformation);
+    entry.result = result;
+    entry.generation = generation;
+  }
+
+  private CacheEntry getEntry(ValueTransformation<?> valueTransformation) {
+    CacheEntry entry = entries.get(valueTransformation);
+    if (entry == null) {
+      entry = new CacheEntry();
+      entries.put(valueTransformation, entry);
+    }
+    return entry;
+  }
+
+  private static class CacheEntry {
+
+    private int generation;
+    private ValueTransformationResult<?> result;
+  }
+
+}
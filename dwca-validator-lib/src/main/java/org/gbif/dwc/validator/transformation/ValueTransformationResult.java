@@ -1,6 +1,10 @@
 package org.gbif.dwc.validator.transformation;
 
 import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.type.ValidationTypeIF;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
 
 
 public class ValueTransformationResult<T> {
@@ -16,7 +20,11 @@ public class ValueTransformationResult<T> {
   private final Term term;
 
   private final T dataObject;
+  // provided already formatted, null if the explanation is built from messageKey
   private final String explanation;
+  // explanation is only formatted when requested
+  private final String messageKey;
+  private final Object[] messageParams;
 
   public static <T> ValueTransformationResult<T> skipped(Term term, String originalValue) {
     return new ValueTransformationResult<T>(term, originalValue, TransformationStatus.SKIPPED, null, null);
@@ -27,23 +35,84 @@ public class ValueTransformationResult<T> {
       explanation);
   }
 
+  /**
+   * Build a NOT_TRANSFORMED result with an explanation that will be formatted from the localized message only when
+   * requested. The parameters should be immutable.
+   * 
+   * @param term
+   * @param originalValue
+   * @param messageKey key of the localized message explaining why the value was not transformed
+   * @param messageParams parameters of the message
+   * @return
+   */
+  public static <T> ValueTransformationResult<T> notTransformedFromMessage(Term term, String originalValue,
+    String messageKey, Object... messageParams) {
+    return new ValueTransformationResult<T>(term, originalValue, TransformationStatus.NOT_TRANSFORMED, null, null,
+      messageKey, messageParams);
+  }
+
   public static <T> ValueTransformationResult<T> transformed(Term term, String originalValue, T dataObject) {
     return new ValueTransformationResult<T>(term, originalValue, TransformationStatus.TRANSFORMED, dataObject, null);
   }
 
   public ValueTransformationResult(Term term, String originalValue, TransformationStatus status, T dataObject,
     String explanation) {
+    this(term, originalValue, status, dataObject, explanation, null, null);
+  }
+
+  private ValueTransformationResult(Term term, String originalValue, TransformationStatus status, T dataObject,
+    String explanation, String messageKey, Object[] messageParams) {
     this.term = term;
     this.originalValue = originalValue;
     this.status = status;
     this.dataObject = dataObject;
     this.explanation = explanation;
+    this.messageKey = messageKey;
+    this.messageParams = messageParams;
   }
 
+  /**
+   * Get the explanation, formatting it from the message key and parameters if required.
+   * 
+   * @return explanation or null if there is no explanation
+   */
   public String getExplanation() {
+    if (explanation == null && messageKey != null) {
+      return ValidatorConfig.getLocalizedString(messageKey, messageParams);
+    }
     return explanation;
   }
 
+  /**
+   * Key of the localized message used to build the explanation.
+   * 
+   * @return message key or null if the explanation was provided already formatted
+   */
+  public String getMessageKey() {
+    return messageKey;
+  }
+
+  public Object[] getMessageParams() {
+    return messageParams;
+  }
+
+  /**
+   * Build the ValidationResultElement reporting the explanation of this result, keeping the message key and
+   * parameters when available so the explanation is still only formatted when requested.
+   * 
+   * @param evaluatorKey
+   * @param type
+   * @param result
+   * @return
+   */
+  public ValidationResultElement toValidationResultElement(String evaluatorKey, ValidationTypeIF type,
+    Result result) {
+    if (messageKey == null) {
+      return new ValidationResultElement(evaluatorKey, type, result, explanation);
+    }
+    return ValidationResultElement.fromMessage(evaluatorKey, type, result, messageKey, messageParams);
+  }
+
   public T getData() {
     return dataObject;
   }
@@ -1,7 +1,15 @@
 package org.gbif.dwc.validator.transformation;
 
 import org.gbif.dwc.terms.Term;
+import org.gbif.util.ValueCache;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.threeten.bp.temporal.TemporalAccessor;
 
 /**
@@ -20,4 +28,51 @@ public class ValueTransformations {
     return new ISODateTransformation(term, allowPartialDate, allowMissingLeadingZeros);
   }
 
+  /**
+   * Keep the results of a transformation in a ValueCache, for terms with a low cardinality like eventDate.
+   * Equal cached transformations still share their results per record, see ValueTransformationCache.
+   * 
+   * @param valueTransformation a TermValueTransformation
+   * @param maximumSize maximum number of raw values kept in the cache
+   * @return
+   */
+  public static <T> ValueTransformation<T> cached(ValueTransformation<T> valueTransformation, int maximumSize) {
+    Preconditions.checkArgument(valueTransformation instanceof TermValueTransformation,
+      "Only TermValueTransformation can be cached");
+    return new CachedValueTransformation<T>((TermValueTransformation<T>) valueTransformation, maximumSize);
+  }
+
+  /**
+   * Get the caches used by the provided transformations.
+   * 
+   * @param transformations
+   * @return caches of the transformations returned by cached(ValueTransformation, int)
+   */
+  public static List<ValueCache<?>> getValueCaches(Collection<? extends ValueTransformation<?>> transformations) {
+    ImmutableList.Builder<ValueCache<?>> valueCaches = ImmutableList.builder();
+    for (ValueTransformation<?> currTransformation : transformations) {
+      if (currTransformation instanceof CachedValueTransformation) {
+        valueCaches.add(((CachedValueTransformation<?>) currTransformation).getValueCache());
+      }
+    }
+    return valueCaches.build();
+  }
+
+  /**
+   * Get the terms used by the provided transformations.
+   * 
+   * @param transformations
+   * @return terms used or an empty set if one of the transformations is not a TermValueTransformation
+   */
+  public static Set<Term> getTerms(Collection<? extends ValueTransformation<?>> transformations) {
+    ImmutableSet.Builder<Term> terms = ImmutableSet.builder();
+    for (ValueTransformation<?> currTransformation : transformations) {
+      if (!(currTransformation instanceof TermValueTransformation)) {
+        return ImmutableSet.of();
+      }
+      terms.add(((TermValueTransformation<?>) currTransformation).getTerm());
+    }
+    return terms.build();
+  }
+
 }
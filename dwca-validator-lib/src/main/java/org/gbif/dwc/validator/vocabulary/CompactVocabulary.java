@@ -0,0 +1,429 @@
+package org.gbif.dwc.validator.vocabulary;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.text.Normalizer;
+import java.util.Arrays;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Immutable and compact set of vocabulary entries used by ControlledVocabularyCriterion, meant for large dictionaries
+ * like lists of scientific names.
+ * Entries are normalized according to the lookup mode (case-insensitive and/or ASCII folding) and stored back to back
+ * in a single char buffer, located by an open addressing hash table of entry indexes: there is no object per entry.
+ * Lookups normalize and hash the value char by char without allocating anything.
+ * A vocabulary can be written to a file (writeTo) and memory-mapped (load) so large dictionaries are not read on
+ * the heap nor rebuilt on each run. Files are limited to 2GB.
+ * Case-insensitive lookup compares chars like String.equalsIgnoreCase. ASCII folding removes the diacritics of the
+ * Latin-1 Supplement and Latin Extended-A characters and expands ligatures (e.g. é to e, æ to ae, ß to ss).
+ * Thread-safe.
+ * 
+ * @author cgendreau
+ */
+public final class CompactVocabulary {
+
+  public static final String FILE_EXTENSION = "vocab";
+
+  private static final int MAGIC = 0x564F4341;
+  private static final int VERSION = 1;
+  // magic, version, flags, entry count, char count, slot count
+  private static final int HEADER_LENGTH = 24;
+  private static final int CASE_INSENSITIVE_FLAG = 1;
+  private static final int ASCII_FOLDING_FLAG = 2;
+
+  private static final char FOLDING_START = '\u00C0';
+  private static final char FOLDING_END = '\u0180';
+  // folded chars from FOLDING_START (inclusive) to FOLDING_END (exclusive), null if the char is not folded
+  private static final char[][] FOLDING = buildFolding();
+
+  private final boolean caseInsensitive;
+  private final boolean asciiFolding;
+  private final int entryCount;
+  // start of entry i in chars, offsets[entryCount] is the end of the last entry
+  private final IntBuffer offsets;
+  // entry index + 1, 0 for an empty slot
+  private final IntBuffer slots;
+  private final CharBuffer chars;
+  private final int slotMask;
+
+  private CompactVocabulary(boolean caseInsensitive, boolean asciiFolding, int entryCount, IntBuffer offsets,
+    IntBuffer slots, CharBuffer chars) {
+    this.caseInsensitive = caseInsensitive;
+    this.asciiFolding = asciiFolding;
+    this.entryCount = entryCount;
+    this.offsets = offsets;
+    this.slots = slots;
+    this.chars = chars;
+    this.slotMask = slots.capacity() - 1;
+  }
+
+  /**
+   * Build a vocabulary from entries.
+   * 
+   * @param entries
+   * @param caseInsensitive
+   * @param asciiFolding
+   * @return
+   */
+  public static CompactVocabulary build(Iterable<String> entries, boolean caseInsensitive, boolean asciiFolding) {
+    Builder builder = new Builder(caseInsensitive, asciiFolding);
+    for (String entry : entries) {
+      builder.add(entry);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Build a vocabulary from a UTF-8 text file containing one entry per line.
+   * 
+   * @param dictionaryFile
+   * @param caseInsensitive
+   * @param asciiFolding
+   * @return
+   * @throws IOException
+   */
+  public static CompactVocabulary build(File dictionaryFile, boolean caseInsensitive, boolean asciiFolding)
+    throws IOException {
+    Builder builder = new Builder(caseInsensitive, asciiFolding);
+    BufferedReader reader =
+      new BufferedReader(new InputStreamReader(new FileInputStream(dictionaryFile), Charsets.UTF_8));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        builder.add(line);
+      }
+    } finally {
+      IOUtils.closeQuietly(reader);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Memory-map a vocabulary file written by writeTo. The lookup mode is the one used to write the file.
+   * 
+   * @param vocabularyFile
+   * @return
+   * @throws IOException if the file is not a vocabulary file
+   */
+  public static CompactVocabulary load(File vocabularyFile) throws IOException {
+    RandomAccessFile raf = new RandomAccessFile(vocabularyFile, "r");
+    ByteBuffer buffer;
+    try {
+      // the mapping remains valid once the channel is closed
+      buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+    } finally {
+      raf.close();
+    }
+
+    if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+      throw new IOException(vocabularyFile + " is not a vocabulary file");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException("Unsupported vocabulary file version " + buffer.getInt(4));
+    }
+    int flags = buffer.getInt(8);
+    int entryCount = buffer.getInt(12);
+    int charCount = buffer.getInt(16);
+    int slotCount = buffer.getInt(20);
+    long expectedLength = HEADER_LENGTH + 4L * (entryCount + 1) + 4L * slotCount + 2L * charCount;
+    if (buffer.capacity() != expectedLength || Integer.bitCount(slotCount) != 1) {
+      throw new IOException(vocabularyFile + " is truncated or corrupted");
+    }
+
+    int position = HEADER_LENGTH;
+    IntBuffer offsets = slice(buffer, position, 4 * (entryCount + 1)).asIntBuffer();
+    position += 4 * (entryCount + 1);
+    IntBuffer slots = slice(buffer, position, 4 * slotCount).asIntBuffer();
+    position += 4 * slotCount;
+    CharBuffer chars = slice(buffer, position, 2 * charCount).asCharBuffer();
+    return new CompactVocabulary((flags & CASE_INSENSITIVE_FLAG) != 0, (flags & ASCII_FOLDING_FLAG) != 0,
+      entryCount, offsets, slots, chars);
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+    ByteBuffer duplicate = buffer.duplicate();
+    duplicate.position(position);
+    duplicate.limit(position + length);
+    return duplicate.slice();
+  }
+
+  /**
+   * Write the vocabulary to a file that can be memory-mapped by load.
+   * 
+   * @param vocabularyFile
+   * @throws IOException
+   */
+  public void writeTo(File vocabularyFile) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(vocabularyFile)));
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt((caseInsensitive ? CASE_INSENSITIVE_FLAG : 0) | (asciiFolding ? ASCII_FOLDING_FLAG : 0));
+      out.writeInt(entryCount);
+      out.writeInt(chars.capacity());
+      out.writeInt(slots.capacity());
+      for (int i = 0; i <= entryCount; i++) {
+        out.writeInt(offsets.get(i));
+      }
+      for (int i = 0; i < slots.capacity(); i++) {
+        out.writeInt(slots.get(i));
+      }
+      for (int i = 0; i < chars.capacity(); i++) {
+        out.writeChar(chars.get(i));
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Check if the vocabulary contains the value, according to the lookup mode.
+   * 
+   * @param value
+   * @return
+   */
+  public boolean contains(String value) {
+    if (value == null) {
+      return false;
+    }
+    int slot = hash(value) & slotMask;
+    int entry;
+    while ((entry = slots.get(slot)) != 0) {
+      if (entryEquals(entry - 1, value)) {
+        return true;
+      }
+      slot = (slot + 1) & slotMask;
+    }
+    return false;
+  }
+
+  /**
+   * @return number of distinct normalized entries
+   */
+  public int size() {
+    return entryCount;
+  }
+
+  public boolean isCaseInsensitive() {
+    return caseInsensitive;
+  }
+
+  public boolean isAsciiFolding() {
+    return asciiFolding;
+  }
+
+  /**
+   * Hash of the normalized value, computed char by char.
+   */
+  private int hash(String value) {
+    int hash = 0;
+    int length = value.length();
+    char c;
+    char[] folded;
+    for (int i = 0; i < length; i++) {
+      c = value.charAt(i);
+      folded = fold(c);
+      if (folded == null) {
+        hash = 31 * hash + normalizeCase(c);
+      } else {
+        for (char foldedChar : folded) {
+          hash = 31 * hash + normalizeCase(foldedChar);
+        }
+      }
+    }
+    return mix(hash);
+  }
+
+  /**
+   * Compare the stored entry with the normalized value, char by char.
+   */
+  private boolean entryEquals(int entry, String value) {
+    int position = offsets.get(entry);
+    int end = offsets.get(entry + 1);
+    int length = value.length();
+    char c;
+    char[] folded;
+    for (int i = 0; i < length; i++) {
+      c = value.charAt(i);
+      folded = fold(c);
+      if (folded == null) {
+        if (position >= end || chars.get(position++) != normalizeCase(c)) {
+          return false;
+        }
+      } else {
+        for (char foldedChar : folded) {
+          if (position >= end || chars.get(position++) != normalizeCase(foldedChar)) {
+            return false;
+          }
+        }
+      }
+    }
+    return position == end;
+  }
+
+  private char[] fold(char c) {
+    if (asciiFolding && c >= FOLDING_START && c < FOLDING_END) {
+      return FOLDING[c - FOLDING_START];
+    }
+    return null;
+  }
+
+  private char normalizeCase(char c) {
+    // same comparison as String.equalsIgnoreCase
+    return caseInsensitive ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+  }
+
+  private static int mix(int hash) {
+    int h = hash;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return h;
+  }
+
+  private static char[][] buildFolding() {
+    char[][] folding = new char[FOLDING_END - FOLDING_START][];
+    for (char c = FOLDING_START; c < FOLDING_END; c++) {
+      // base letter followed by combining diacritical marks
+      String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+      if (decomposed.length() > 1 && decomposed.charAt(0) < 0x80) {
+        folding[c - FOLDING_START] = new char[] {decomposed.charAt(0)};
+      }
+    }
+    String[][] others =
+      {{"\u00C6", "AE"}, {"\u00E6", "ae"}, {"\u0152", "OE"}, {"\u0153", "oe"}, {"\u00DF", "ss"}, {"\u00D8", "O"},
+        {"\u00F8", "o"}, {"\u0110", "D"}, {"\u0111", "d"}, {"\u00D0", "D"}, {"\u00F0", "d"}, {"\u0126", "H"},
+        {"\u0127", "h"}, {"\u0131", "i"}, {"\u0141", "L"}, {"\u0142", "l"}, {"\u013F", "L"}, {"\u0140", "l"},
+        {"\u00DE", "TH"}, {"\u00FE", "th"}, {"\u0166", "T"}, {"\u0167", "t"}, {"\u0138", "q"}, {"\u014A", "N"},
+        {"\u014B", "n"}, {"\u0149", "n"}, {"\u0132", "IJ"}, {"\u0133", "ij"}, {"\u017F", "s"}};
+    for (String[] other : others) {
+      folding[other[0].charAt(0) - FOLDING_START] = other[1].toCharArray();
+    }
+    return folding;
+  }
+
+  /**
+   * Accumulate normalized entries and build the hash table.
+   */
+  private static class Builder {
+
+    private final CompactVocabulary normalizer;
+    private char[] chars = new char[1024];
+    private int charCount;
+    private int[] offsets = new int[128];
+    private int entryCount;
+    private int[] slots = new int[256];
+
+    Builder(boolean caseInsensitive, boolean asciiFolding) {
+      // only used to normalize and hash values
+      this.normalizer =
+        new CompactVocabulary(caseInsensitive, asciiFolding, 0, IntBuffer.allocate(1), IntBuffer.allocate(1),
+          CharBuffer.allocate(0));
+    }
+
+    void add(String entry) {
+      Preconditions.checkNotNull(entry);
+      // append the normalized entry
+      int start = charCount;
+      char[] folded;
+      for (int i = 0; i < entry.length(); i++) {
+        folded = normalizer.fold(entry.charAt(i));
+        if (folded == null) {
+          append(normalizer.normalizeCase(entry.charAt(i)));
+        } else {
+          for (char foldedChar : folded) {
+            append(normalizer.normalizeCase(foldedChar));
+          }
+        }
+      }
+
+      // duplicates (once normalized) are only stored once
+      int hash = hashStored(start, charCount);
+      int slot = hash & (slots.length - 1);
+      while (slots[slot] != 0) {
+        int existing = slots[slot] - 1;
+        if (storedEquals(existing, start, charCount)) {
+          charCount = start;
+          return;
+        }
+        slot = (slot + 1) & (slots.length - 1);
+      }
+
+      if (entryCount + 2 > offsets.length) {
+        offsets = Arrays.copyOf(offsets, offsets.length * 2);
+      }
+      offsets[entryCount] = start;
+      offsets[entryCount + 1] = charCount;
+      slots[slot] = entryCount + 1;
+      entryCount++;
+
+      // keep the load factor under 0.5
+      if (entryCount * 2 > slots.length) {
+        rehash(slots.length * 2);
+      }
+    }
+
+    private void append(char c) {
+      if (charCount == chars.length) {
+        chars = Arrays.copyOf(chars, chars.length * 2);
+      }
+      chars[charCount++] = c;
+    }
+
+    private int hashStored(int start, int end) {
+      int hash = 0;
+      for (int i = start; i < end; i++) {
+        hash = 31 * hash + chars[i];
+      }
+      return mix(hash);
+    }
+
+    private boolean storedEquals(int entry, int start, int end) {
+      int entryStart = offsets[entry];
+      int entryEnd = offsets[entry + 1];
+      if (entryEnd - entryStart != end - start) {
+        return false;
+      }
+      for (int i = 0; i < end - start; i++) {
+        if (chars[entryStart + i] != chars[start + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void rehash(int slotCount) {
+      int[] newSlots = new int[slotCount];
+      for (int entry = 0; entry < entryCount; entry++) {
+        int slot = hashStored(offsets[entry], offsets[entry + 1]) & (slotCount - 1);
+        while (newSlots[slot] != 0) {
+          slot = (slot + 1) & (slotCount - 1);
+        }
+        newSlots[slot] = entry + 1;
+      }
+      slots = newSlots;
+    }
+
+    CompactVocabulary build() {
+      offsets[entryCount] = charCount;
+      return new CompactVocabulary(normalizer.caseInsensitive, normalizer.asciiFolding, entryCount,
+        IntBuffer.wrap(Arrays.copyOf(offsets, entryCount + 1)), IntBuffer.wrap(slots),
+        CharBuffer.wrap(Arrays.copyOf(chars, charCount)));
+    }
+  }
+
+}
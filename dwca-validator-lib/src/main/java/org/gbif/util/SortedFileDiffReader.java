@@ -0,0 +1,136 @@
+package org.gbif.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Comparator;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Streaming merge-join returning, one by one, the lines of an input file that are NOT found in a reference file.
+ * Both files must be sorted by code point, see ToBeMovedFileUtils.sortByCodePoint. This is the byte order of UTF-8
+ * files sorted with LC_ALL=C and differs from String.compareTo for supplementary characters. Only one line per file
+ * is kept in memory.
+ * An IOException is thrown as soon as a line out of order is detected since the result would be wrong.
+ * THIS FILE NEEDS TO BE MOVED TO org.gbif.utils.file after review.
+ * 
+ * @author cgendreau
+ */
+public class SortedFileDiffReader implements Closeable {
+
+  /**
+   * Order of the lines expected in both files.
+   */
+  public static final Comparator<String> CODE_POINT_ORDER = new Comparator<String>() {
+
+    @Override
+    public int compare(String str1, String str2) {
+      return compareCodePoints(str1, str2);
+    }
+  };
+
+  private final File referenceFile;
+  private final File inputFile;
+
+  private final BufferedReader refFileBr;
+  private final BufferedReader inputFileBr;
+
+  private String refFileLine;
+  private String previousInputFileLine;
+
+  /**
+   * @param referenceFile sorted file
+   * @param inputFile sorted file
+   * @throws IOException
+   */
+  public SortedFileDiffReader(File referenceFile, File inputFile) throws IOException {
+    this.referenceFile = referenceFile;
+    this.inputFile = inputFile;
+
+    BufferedReader refBr = null;
+    try {
+      refBr = new BufferedReader(new InputStreamReader(new FileInputStream(referenceFile), Charsets.UTF_8));
+      this.inputFileBr = new BufferedReader(new InputStreamReader(new FileInputStream(inputFile), Charsets.UTF_8));
+    } catch (IOException ioEx) {
+      IOUtils.closeQuietly(refBr);
+      throw ioEx;
+    }
+    this.refFileBr = refBr;
+    this.refFileLine = refFileBr.readLine();
+  }
+
+  /**
+   * Read the next line of the input file that is not found in the reference file.
+   * 
+   * @return the line or null if the end of the input file is reached
+   * @throws IOException if a file can not be read or is not sorted
+   */
+  public String readLine() throws IOException {
+    String inputFileLine;
+    while ((inputFileLine = inputFileBr.readLine()) != null) {
+      ensureSorted(previousInputFileLine, inputFileLine, inputFile);
+      previousInputFileLine = inputFileLine;
+
+      // move forward in the reference file until we reach or pass the current line
+      while (refFileLine != null && compareCodePoints(refFileLine, inputFileLine) < 0) {
+        String nextRefFileLine = refFileBr.readLine();
+        ensureSorted(refFileLine, nextRefFileLine, referenceFile);
+        refFileLine = nextRefFileLine;
+      }
+
+      if (refFileLine == null || !refFileLine.equals(inputFileLine)) {
+        return inputFileLine;
+      }
+    }
+    return null;
+  }
+
+  private void ensureSorted(String previousLine, String line, File file) throws IOException {
+    if (previousLine != null && line != null && compareCodePoints(previousLine, line) > 0) {
+      throw new IOException(file.getAbsolutePath() + " is not sorted: " + line + " found after " + previousLine);
+    }
+  }
+
+  /**
+   * Compare 2 Strings by code point instead of UTF-16 char.
+   * 
+   * @param str1
+   * @param str2
+   * @return
+   */
+  static int compareCodePoints(String str1, String str2) {
+    int length = Math.min(str1.length(), str2.length());
+    char c1;
+    char c2;
+    for (int i = 0; i < length; i++) {
+      c1 = str1.charAt(i);
+      c2 = str2.charAt(i);
+      if (c1 != c2) {
+        return toCodePointOrder(c1) - toCodePointOrder(c2);
+      }
+    }
+    return str1.length() - str2.length();
+  }
+
+  /**
+   * Surrogates (supplementary characters) must sort after all other chars, including the ones from U+E000.
+   */
+  private static int toCodePointOrder(char c) {
+    if (c < Character.MIN_SURROGATE) {
+      return c;
+    }
+    return (c > Character.MAX_SURROGATE) ? c - 0x800 : c + 0x2000;
+  }
+
+  @Override
+  public void close() {
+    IOUtils.closeQuietly(refFileBr);
+    IOUtils.closeQuietly(inputFileBr);
+  }
+
+}
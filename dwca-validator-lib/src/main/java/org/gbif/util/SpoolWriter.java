@@ -0,0 +1,171 @@
+package org.gbif.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+
+/**
+ * High-throughput line writer used to spool values (ids, references, results) to a temporary or output file.
+ * Text is always encoded in UTF-8 into a large direct ByteBuffer that is written to the FileChannel only when full,
+ * flush() and close() excepted. ASCII characters are copied directly to the buffer, others go through a reused
+ * CharsetEncoder. Lines are terminated by the platform line separator.
+ * Each SpoolWriter allocates its own direct buffer, 1 MB by default (DEFAULT_BUFFER_SIZE), outside of the Java heap.
+ * It is released with the SpoolWriter, not by close().
+ * NOT thread-safe
+ * THIS FILE NEEDS TO BE MOVED TO org.gbif.utils.file after review.
+ * 
+ * @author cgendreau
+ */
+public class SpoolWriter implements Closeable, Flushable {
+
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  // longest UTF-8 sequence of a code point, the encoder can not make progress with a smaller buffer
+  public static final int MIN_BUFFER_SIZE = 4;
+
+  private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator").getBytes(Charsets.UTF_8);
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final CharsetEncoder encoder;
+  private boolean closed;
+
+  public SpoolWriter(File file) throws IOException {
+    this(file, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * @param file file to create or overwrite
+   * @param bufferSize size of the buffer in bytes, at least MIN_BUFFER_SIZE
+   * @throws IOException
+   */
+  public SpoolWriter(File file, int bufferSize) throws IOException {
+    Preconditions.checkArgument(bufferSize >= Math.max(MIN_BUFFER_SIZE, LINE_SEPARATOR.length),
+      "bufferSize is too small");
+    this.channel = new FileOutputStream(file).getChannel();
+    this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    // same behavior as String.getBytes, malformed input is replaced
+    this.encoder =
+      Charsets.UTF_8.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  /**
+   * Write a value, null is written as "null".
+   * 
+   * @param value
+   * @throws IOException
+   */
+  public void write(String value) throws IOException {
+    ensureOpen();
+    String str = String.valueOf(value);
+    int length = str.length();
+    int i = 0;
+    char c;
+    while (i < length) {
+      c = str.charAt(i);
+      if (c >= 0x80) {
+        encode(str, i);
+        return;
+      }
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      buffer.put((byte) c);
+      i++;
+    }
+  }
+
+  /**
+   * Write a line separator.
+   * 
+   * @throws IOException
+   */
+  public void newLine() throws IOException {
+    ensureOpen();
+    if (buffer.remaining() < LINE_SEPARATOR.length) {
+      drain();
+    }
+    buffer.put(LINE_SEPARATOR);
+  }
+
+  /**
+   * Write a value followed by a line separator.
+   * 
+   * @param value
+   * @throws IOException
+   */
+  public void writeLine(String value) throws IOException {
+    write(value);
+    newLine();
+  }
+
+  /**
+   * Encode the end of a String containing non ASCII characters.
+   */
+  private void encode(String str, int start) throws IOException {
+    CharBuffer chars = CharBuffer.wrap(str, start, str.length());
+    encoder.reset();
+    CoderResult result;
+    do {
+      result = encoder.encode(chars, buffer, true);
+      if (result.isOverflow()) {
+        drain();
+      }
+    } while (result.isOverflow());
+
+    while (encoder.flush(buffer).isOverflow()) {
+      drain();
+    }
+  }
+
+  /**
+   * Write the content of the buffer to the channel.
+   */
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private void ensureOpen() throws IOException {
+    if (closed) {
+      throw new IOException("SpoolWriter is closed");
+    }
+  }
+
+  /**
+   * Write buffered content to the file.
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    drain();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      drain();
+    } finally {
+      channel.close();
+    }
+  }
+
+}
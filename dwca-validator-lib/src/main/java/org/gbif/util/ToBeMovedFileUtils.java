@@ -1,17 +1,21 @@
 package org.gbif.util;
 
-import org.gbif.utils.file.InputStreamUtils;
-
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
 
+import com.google.common.base.Charsets;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +28,7 @@ import org.slf4j.LoggerFactory;
 public class ToBeMovedFileUtils {
 
   private static final Logger LOG = LoggerFactory.getLogger(ToBeMovedFileUtils.class);
+  private static final int DEFAULT_MAX_LINES_IN_MEMORY = 100000;
 
   /**
    * Write to resultFile all the lines from the input file that were NOT found in reference file.
@@ -36,45 +41,23 @@ public class ToBeMovedFileUtils {
    */
   public boolean diffFileInJava(File referenceFile, File inputFile, File resultFile) {
     PrintWriter resultWriter = null;
-    BufferedReader inputFileBr = null;
-    BufferedReader refFileBr = null;
+    SortedFileDiffReader diffReader = null;
     boolean success = false;
 
     try {
       String inputFileLine;
-      String refFileLine;
-
-      inputFileBr = new BufferedReader(new FileReader(inputFile));
-      refFileBr = new BufferedReader(new FileReader(referenceFile));
+      diffReader = new SortedFileDiffReader(referenceFile, inputFile);
       resultWriter = new PrintWriter(new FileWriter(resultFile));
 
-      inputFileLine = inputFileBr.readLine();
-      refFileLine = refFileBr.readLine();
-
-      while (inputFileLine != null) {
-        while (refFileLine != null) {
-          if (!refFileLine.equals(inputFileLine)) {
-            // compare the String to determine if it's not found or if we are not there yet
-            if (refFileLine.compareTo(inputFileLine) > 0) {
-              resultWriter.println(inputFileLine);
-              break;
-            } else {
-              refFileLine = refFileBr.readLine();
-            }
-          } else {
-            // if found, break the refFileLine loop
-            break;
-          }
-        }
-        inputFileLine = inputFileBr.readLine();
+      while ((inputFileLine = diffReader.readLine()) != null) {
+        resultWriter.println(inputFileLine);
       }
+      resultWriter.flush();
       success = true;
     } catch (IOException e) {
       LOG.warn("Caught Exception", e);
     } finally {
-      resultWriter.flush();
-      IOUtils.closeQuietly(inputFileBr);
-      IOUtils.closeQuietly(refFileBr);
+      IOUtils.closeQuietly(diffReader);
       IOUtils.closeQuietly(resultWriter);
     }
 
@@ -82,51 +65,136 @@ public class ToBeMovedFileUtils {
   }
 
   /**
-   * Write to resultFile all the lines from the input file that were NOT found in reference file.
-   * There is no restriction about if the files(referenceFile and inputFile) should be sorted or not.
-   * This is done using 'awk' on unix-based system.
+   * Sort the lines of a UTF-8 file by code point, the order expected by SortedFileDiffReader.
+   * The sort is done in Java so the order is the same on all platforms, Unix sort or not.
    * 
-   * @param referenceFile
-   * @param inputFile
-   * @param result file where to write results
-   * @return
+   * @param input
+   * @param sorted file where to write the sorted lines
    * @throws IOException
    */
-  public boolean diffFileInUnix(File referenceFile, File inputFile, File resultFile) throws IOException {
+  public void sortByCodePoint(File input, File sorted) throws IOException {
+    sortByCodePoint(input, sorted, DEFAULT_MAX_LINES_IN_MEMORY);
+  }
 
-    boolean success = false;
+  /**
+   * Sort the lines of a UTF-8 file by code point, the order expected by SortedFileDiffReader.
+   * Files with more than maxLinesInMemory lines are sorted in chunks written next to the sorted file and then merged.
+   * 
+   * @param input
+   * @param sorted file where to write the sorted lines
+   * @param maxLinesInMemory maximum number of lines sorted in memory at once
+   * @throws IOException
+   */
+  public void sortByCodePoint(File input, File sorted, int maxLinesInMemory) throws IOException {
+    List<File> chunkFiles = new ArrayList<File>();
+    BufferedReader inputBr = null;
     try {
-      LinkedList<String> cmds = new LinkedList<String>();
-      cmds.add("/bin/sh");
-      cmds.add("-c");
-      ProcessBuilder pb = new ProcessBuilder(cmds);
-      Map<String, String> env = pb.environment();
-      env.clear();
-      // make sure we use the C locale (not sure it is useful for grep)
-      env.put("LC_ALL", "C");
-
-      // store lines of referenceFile in a array them compare the lines of inputFile against the array.
-      String command =
-        "awk 'FNR==NR{a[$0];next}!($0 in a)' " + referenceFile.getAbsolutePath() + ' ' + inputFile.getAbsolutePath()
-          + " > " + resultFile.getAbsolutePath();
-      cmds.add(command);
-
-      Process process = pb.start();
-      // get the stdout and stderr from the command that was run
-      InputStream err = process.getErrorStream();
-      int exitValue = process.waitFor();
-      // grep will return 0 if there is a diff and 1 if there is no diff, other value is an error.
-      if (exitValue == 0) {
-        success = true;
-      } else {
-        LOG.warn("Error sorting file with unix grep");
-        InputStreamUtils isu = new InputStreamUtils();
-        System.err.append(isu.readEntireStream(err));
+      inputBr = new BufferedReader(new InputStreamReader(new FileInputStream(input), Charsets.UTF_8));
+      List<String> lines = new ArrayList<String>();
+      String line;
+      boolean endOfFile = false;
+      while (!endOfFile) {
+        line = inputBr.readLine();
+        endOfFile = (line == null);
+        if (!endOfFile) {
+          lines.add(line);
+        }
+        if (lines.size() == maxLinesInMemory || (endOfFile && !lines.isEmpty())) {
+          Collections.sort(lines, SortedFileDiffReader.CODE_POINT_ORDER);
+          // the only chunk is written directly to the sorted file
+          File chunkFile = (endOfFile && chunkFiles.isEmpty()) ? sorted
+            : File.createTempFile(sorted.getName(), ".chunk", sorted.getAbsoluteFile().getParentFile());
+          chunkFiles.add(chunkFile);
+          writeLines(lines, chunkFile);
+          lines.clear();
+        }
+      }
+      inputBr.close();
+
+      if (chunkFiles.isEmpty()) {
+        writeLines(lines, sorted);
+      } else if (!chunkFiles.get(0).equals(sorted)) {
+        mergeSortedFiles(chunkFiles, sorted);
+      }
+    } finally {
+      IOUtils.closeQuietly(inputBr);
+      for (File chunkFile : chunkFiles) {
+        if (!chunkFile.equals(sorted)) {
+          chunkFile.delete();
+        }
       }
-    } catch (Exception e) {
-      LOG.warn("Caught Exception", e);
     }
-    return success;
+  }
+
+  private static void writeLines(List<String> lines, File file) throws IOException {
+    BufferedWriter writer = null;
+    try {
+      writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8));
+      for (String line : lines) {
+        writer.write(line);
+        writer.newLine();
+      }
+      writer.close();
+    } finally {
+      IOUtils.closeQuietly(writer);
+    }
+  }
+
+  /**
+   * Merge files sorted by code point, only the current line of each file is kept in memory.
+   */
+  private static void mergeSortedFiles(List<File> sortedFiles, File sorted) throws IOException {
+    List<BufferedReader> readers = new ArrayList<BufferedReader>();
+    PriorityQueue<SortedFileLine> currentLines = new PriorityQueue<SortedFileLine>(sortedFiles.size());
+    BufferedWriter writer = null;
+    try {
+      for (File sortedFile : sortedFiles) {
+        readers.add(new BufferedReader(new InputStreamReader(new FileInputStream(sortedFile), Charsets.UTF_8)));
+        SortedFileLine sortedFileLine = new SortedFileLine(readers.get(readers.size() - 1));
+        if (sortedFileLine.next()) {
+          currentLines.add(sortedFileLine);
+        }
+      }
+
+      writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(sorted), Charsets.UTF_8));
+      SortedFileLine sortedFileLine;
+      while ((sortedFileLine = currentLines.poll()) != null) {
+        writer.write(sortedFileLine.line);
+        writer.newLine();
+        if (sortedFileLine.next()) {
+          currentLines.add(sortedFileLine);
+        }
+      }
+      writer.close();
+    } finally {
+      IOUtils.closeQuietly(writer);
+      for (BufferedReader reader : readers) {
+        IOUtils.closeQuietly(reader);
+      }
+    }
+  }
+
+  /**
+   * Current line of a sorted file being merged.
+   */
+  private static class SortedFileLine implements Comparable<SortedFileLine> {
+
+    private final BufferedReader reader;
+    private String line;
+
+    SortedFileLine(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    boolean next() throws IOException {
+      line = reader.readLine();
+      return line != null;
+    }
+
+    @Override
+    public int compareTo(SortedFileLine other) {
+      return SortedFileDiffReader.CODE_POINT_ORDER.compare(line, other.line);
+    }
   }
 
 }
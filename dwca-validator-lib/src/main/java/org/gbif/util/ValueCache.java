@@ -0,0 +1,66 @@
+package org.gbif.util;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * Bounded cache of values computed from a raw String value (e.g. verdict of a criterion, result of a
+ * transformation). Meant for terms with a low cardinality (country, basisOfRecord, eventDate ...) where the same
+ * value is evaluated over and over: repeated values become a single hash lookup.
+ * The least recently used entries are evicted once maximumSize is reached. Hit and miss counts are recorded.
+ * Thread-safe, two threads missing the same value may both compute it.
+ * THIS FILE NEEDS TO BE MOVED TO org.gbif.utils after review.
+ * 
+ * @author cgendreau
+ */
+public class ValueCache<V> {
+
+  public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+  private final String name;
+  private final Cache<String, V> cache;
+
+  /**
+   * @param name used to report statistics
+   * @param maximumSize maximum number of values kept
+   */
+  public ValueCache(String name, int maximumSize) {
+    Preconditions.checkArgument(maximumSize > 0, "maximumSize must be greater than 0");
+    this.name = name;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * @param value raw value
+   * @return the cached value or null if not cached
+   */
+  public V getIfPresent(String value) {
+    return cache.getIfPresent(value);
+  }
+
+  /**
+   * @param value raw value
+   * @param computed value computed from the raw value, can not be null
+   */
+  public void put(String value, V computed) {
+    cache.put(value, computed);
+  }
+
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    CacheStats stats = cache.stats();
+    return String.format("%s: hitRate=%.3f, hits=%d, misses=%d, evictions=%d, size=%d", name, stats.hitRate(),
+      stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.size());
+  }
+
+}
@@ -52,4 +52,66 @@ public class DwcArchiveEvaluatorTest {
     }
   }
 
+  /**
+   * Same as testValidateArchive but reading core and extensions concurrently with a pool of record evaluators.
+   */
+  @Test
+  public void testValidateArchiveConcurrently() {
+
+    File testDwcFolder = new File("test-dwca-" + System.currentTimeMillis());
+    testDwcFolder.mkdir();
+
+    FileEvaluator validator = Evaluators.defaultChain(testDwcFolder).usingThreads(4).concurrentComponents().build();
+
+    try {
+      File testDwca = new File(getClass().getResource("/dwca/vascan_dwca.zip").toURI());
+      InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+      validator.evaluateFile(testDwca, resultAccumulator);
+
+      assertTrue("The test archive /dwca/vascan_dwca.zip should pass the default validation chain.", resultAccumulator
+        .getValidationResultList().isEmpty());
+
+    } catch (URISyntaxException e) {
+      e.printStackTrace();
+      fail();
+    }
+
+    try {
+      FileUtils.forceDelete(testDwcFolder);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Same as testValidateArchive but records are read directly from the zip file.
+   */
+  @Test
+  public void testValidateArchiveFromZip() {
+
+    File testDwcFolder = new File("test-dwca-" + System.currentTimeMillis());
+    testDwcFolder.mkdir();
+
+    FileEvaluator validator = Evaluators.defaultChain(testDwcFolder).streamFromZip().build();
+
+    try {
+      File testDwca = new File(getClass().getResource("/dwca/vascan_dwca.zip").toURI());
+      InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+      validator.evaluateFile(testDwca, resultAccumulator);
+
+      assertTrue("The test archive /dwca/vascan_dwca.zip should pass the default validation chain.", resultAccumulator
+        .getValidationResultList().isEmpty());
+
+    } catch (URISyntaxException e) {
+      e.printStackTrace();
+      fail();
+    }
+
+    try {
+      FileUtils.forceDelete(testDwcFolder);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
 }
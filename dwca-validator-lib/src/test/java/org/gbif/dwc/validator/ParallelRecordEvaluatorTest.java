@@ -0,0 +1,103 @@
+package org.gbif.dwc.validator;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.text.ArchiveField;
+import org.gbif.dwc.text.ArchiveField.DataType;
+import org.gbif.dwc.text.ArchiveFile;
+import org.gbif.dwc.validator.chain.EvaluatorChain;
+import org.gbif.dwc.validator.criteria.RecordCriteria;
+import org.gbif.dwc.validator.criteria.dataset.DatasetCriterion;
+import org.gbif.dwc.validator.criteria.record.RecordCriterion;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.mock.MockRecordFactory;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.InMemoryResultAccumulator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test ParallelRecordEvaluator.
+ * 
+ * @author cgendreau
+ */
+public class ParallelRecordEvaluatorTest {
+
+  private static final int NUMBER_OF_RECORDS = 500;
+
+  /**
+   * DatasetCriterion keeping the record ids in the order they were received.
+   */
+  private static class RecordingDatasetCriterion implements DatasetCriterion {
+
+    private final List<String> ids = new ArrayList<String>();
+
+    @Override
+    public String getCriteriaKey() {
+      return "recordingDatasetCriterion";
+    }
+
+    @Override
+    public void onRecord(Record record, EvaluationContext evaluationContext) {
+      ids.add(record.id());
+    }
+
+    @Override
+    public void validateDataset(ResultAccumulator resultAccumulator) {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  @Test
+  public void testParallelEvaluation() {
+    ArchiveFile archiveFile = new ArchiveFile();
+    archiveFile.setRowType(DwcTerm.Occurrence.qualifiedName());
+    archiveFile.setId(new ArchiveField(0, DwcTerm.occurrenceID, null, DataType.string));
+    archiveFile.addField(new ArchiveField(1, DwcTerm.decimalLatitude, null, DataType.string));
+
+    List<Record> records = new ArrayList<Record>();
+    List<String> expectedIds = new ArrayList<String>();
+    for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+      // every 10 records, use an out of bounds latitude
+      String lat = (i % 10 == 0) ? "91" : "45";
+      records.add(MockRecordFactory.buildMockOccurrenceRecord(DwcTerm.occurrenceID, Integer.toString(i),
+        new Term[] {DwcTerm.decimalLatitude}, new String[] {lat}));
+      expectedIds.add(Integer.toString(i));
+    }
+
+    RecordingDatasetCriterion datasetCriterion = new RecordingDatasetCriterion();
+    List<RecordCriterion> recordCriteria = new ArrayList<RecordCriterion>();
+    recordCriteria.add(RecordCriteria.withinRange(DwcTerm.decimalLatitude, Evaluators.MIN_LATITUDE,
+      Evaluators.MAX_LATITUDE).build());
+    List<DatasetCriterion> datasetCriteria = new ArrayList<DatasetCriterion>();
+    datasetCriteria.add(datasetCriterion);
+    EvaluatorChain chain = Evaluators.buildFromEvaluatorList(recordCriteria, datasetCriteria);
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    ParallelRecordEvaluator parallelEvaluator = new ParallelRecordEvaluator(4, 7);
+    try {
+      parallelEvaluator.evaluate(records.iterator(), archiveFile, EvaluationContext.CORE, chain, resultAccumulator);
+    } catch (ResultAccumulationException e) {
+      e.printStackTrace();
+      fail();
+    } finally {
+      parallelEvaluator.shutdown();
+    }
+
+    assertEquals(NUMBER_OF_RECORDS / 10, resultAccumulator.getValidationResultCount());
+    // DatasetCriterion must receive all records in reading order
+    assertEquals(expectedIds, datasetCriterion.ids);
+  }
+
+}
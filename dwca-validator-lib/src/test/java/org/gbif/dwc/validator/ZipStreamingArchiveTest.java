@@ -0,0 +1,127 @@
+package org.gbif.dwc.validator;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.validator.ZipStreamingArchive.ZipEntryRecordIterator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test reading records directly from a zipped archive.
+ * 
+ * @author cgendreau
+ */
+public class ZipStreamingArchiveTest {
+
+  @Test
+  public void testStreamCoreRecords() {
+    File descriptorFolder = new File("test-zip-stream-" + System.currentTimeMillis());
+    ZipStreamingArchive zipArchive = null;
+    try {
+      File testDwca = new File(getClass().getResource("/dwca/vascan_dwca.zip").toURI());
+      zipArchive = ZipStreamingArchive.open(testDwca, descriptorFolder);
+      assertNotNull(zipArchive);
+
+      // only meta.xml should be extracted
+      assertEquals(1, descriptorFolder.list().length);
+
+      ZipEntryRecordIterator recordIt = zipArchive.iterator(zipArchive.getArchive().getCore());
+      int count = 0;
+      Record record;
+      while (recordIt.hasNext()) {
+        record = recordIt.next();
+        assertNotNull(record.id());
+        count++;
+      }
+      recordIt.close();
+      assertEquals(2, count);
+
+      assertEquals(3, zipArchive.getArchive().getExtensions().size());
+    } catch (URISyntaxException e) {
+      e.printStackTrace();
+      fail();
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } finally {
+      if (zipArchive != null) {
+        try {
+          zipArchive.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    }
+    assertFalse(descriptorFolder.exists());
+  }
+
+  /**
+   * Build a zipped archive with a core file and a metadata file at the provided location.
+   */
+  private File buildMockDwca(String metadataLocation) throws IOException {
+    File dwcaFile = File.createTempFile("dwca", ".zip");
+    ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(dwcaFile));
+    try {
+      zos.putNextEntry(new ZipEntry("meta.xml"));
+      zos.write(("<archive xmlns=\"http://rs.tdwg.org/dwc/text/\" metadata=\"" + metadataLocation + "\">"
+        + "<core encoding=\"UTF-8\" fieldsTerminatedBy=\"\\t\" ignoreHeaderLines=\"1\" "
+        + "rowType=\"http://rs.tdwg.org/dwc/terms/Occurrence\"><files><location>occurrence.txt</location></files>"
+        + "<id index=\"0\"/><field index=\"1\" term=\"http://rs.tdwg.org/dwc/terms/country\"/></core></archive>")
+        .getBytes(Charsets.UTF_8));
+      zos.putNextEntry(new ZipEntry("occurrence.txt"));
+      zos.write("id\tcountry\n1\tCanada\n".getBytes(Charsets.UTF_8));
+      zos.putNextEntry(new ZipEntry(metadataLocation));
+      zos.write("<eml/>".getBytes(Charsets.UTF_8));
+    } finally {
+      zos.close();
+    }
+    return dwcaFile;
+  }
+
+  @Test
+  public void testNestedMetadata() throws Exception {
+    File dwcaFile = buildMockDwca("docs/eml.xml");
+    File descriptorFolder = new File("test-zip-stream-" + System.currentTimeMillis());
+    ZipStreamingArchive zipArchive = ZipStreamingArchive.open(dwcaFile, descriptorFolder);
+    try {
+      assertNotNull(zipArchive);
+      assertTrue(new File(descriptorFolder, "docs/eml.xml").isFile());
+    } finally {
+      zipArchive.close();
+      dwcaFile.delete();
+    }
+    assertFalse(descriptorFolder.exists());
+  }
+
+  @Test
+  public void testMetadataOutsideOfArchive() throws Exception {
+    File dwcaFile = buildMockDwca("../eml.xml");
+    File parentFolder = new File("test-zip-stream-" + System.currentTimeMillis());
+    File descriptorFolder = new File(parentFolder, "descriptor");
+    try {
+      ZipStreamingArchive.open(dwcaFile, descriptorFolder);
+      fail();
+    } catch (IOException e) {
+      // expected, nothing should be written next to the descriptor folder
+      assertFalse(new File(parentFolder, "eml.xml").exists());
+    } finally {
+      FileUtils.deleteQuietly(parentFolder);
+      dwcaFile.delete();
+    }
+  }
+
+}
@@ -1,25 +1,53 @@
 package org.gbif.dwc.validator.chain;
 
 import org.gbif.dwc.record.Record;
+import org.gbif.dwc.record.RecordImpl;
 import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.text.ArchiveField;
+import org.gbif.dwc.text.ArchiveField.DataType;
+import org.gbif.dwc.text.ArchiveFile;
 import org.gbif.dwc.validator.Evaluators;
 import org.gbif.dwc.validator.TestEvaluationResultHelper;
 import org.gbif.dwc.validator.chain.EvaluatorChain;
 import org.gbif.dwc.validator.criteria.DatasetCriteria;
 import org.gbif.dwc.validator.criteria.RecordCriteria;
+import org.gbif.dwc.validator.criteria.RestrictedCriterion;
+import org.gbif.dwc.validator.criteria.TermBasedCriterion;
+import org.gbif.dwc.validator.criteria.configuration.BoundCriterionConfiguration;
+import org.gbif.dwc.validator.criteria.configuration.MinMaxCriterionConfiguration;
+import org.gbif.dwc.validator.criteria.dataset.DatasetCriterion;
+import org.gbif.dwc.validator.criteria.record.BoundCriterionBuilder;
+import org.gbif.dwc.validator.criteria.record.ColumnIndex;
+import org.gbif.dwc.validator.criteria.record.MinMaxCriterionBuilder;
+import org.gbif.dwc.validator.criteria.record.RecordBatch;
+import org.gbif.dwc.validator.criteria.record.RecordCriterion;
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.mock.MockRecordFactory;
 import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.ResultAccumulator;
 import org.gbif.dwc.validator.result.accumulator.InMemoryResultAccumulator;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.transformation.TermValueTransformation;
+import org.gbif.dwc.validator.transformation.ValueTransformationResult;
 import org.gbif.dwc.validator.transformation.ValueTransformations;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -87,4 +115,257 @@ public class CriteriaChainTest {
     testFolder.delete();
   }
 
+  @Test
+  public void testForComponent() throws Exception {
+    CountingCriterion occurrenceCriterion =
+      new CountingCriterion(DwcTerm.Occurrence.qualifiedName().toLowerCase(), null);
+    CountingCriterion taxonCriterion = new CountingCriterion(DwcTerm.Taxon.qualifiedName(), null);
+    CountingCriterion extensionCriterion = new CountingCriterion(null, EvaluationContext.EXT);
+    CountingCriterion coreCriterion = new CountingCriterion("", EvaluationContext.CORE);
+    CountingCriterion extensionDatasetCriterion = new CountingCriterion(null, EvaluationContext.EXT);
+
+    List<RecordCriterion> recordCriteria = new ArrayList<RecordCriterion>();
+    recordCriteria.add(occurrenceCriterion);
+    recordCriteria.add(taxonCriterion);
+    recordCriteria.add(extensionCriterion);
+    List<DatasetCriterion> datasetCriteria = new ArrayList<DatasetCriterion>();
+    datasetCriteria.add(coreCriterion);
+    datasetCriteria.add(extensionDatasetCriterion);
+    EvaluatorChain chain = Evaluators.buildFromEvaluatorList(recordCriteria, datasetCriteria);
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    EvaluatorChain componentChain = chain.forComponent(DwcTerm.Occurrence.qualifiedName(), EvaluationContext.CORE);
+    componentChain.evaluateRecord(buildMockRecord("1", "30", "60"), EvaluationContext.CORE, resultAccumulator);
+    componentChain.evaluateRecord(buildMockRecord("2", "30", "60"), EvaluationContext.CORE, resultAccumulator);
+
+    // only applicable criteria received the records
+    assertEquals(2, occurrenceCriterion.count);
+    assertEquals(0, taxonCriterion.count);
+    assertEquals(0, extensionCriterion.count);
+    assertEquals(2, coreCriterion.count);
+    assertEquals(0, extensionDatasetCriterion.count);
+
+    // the complete chain dispatches records to the record and dataset criteria applicable to their rowType
+    chain.evaluateRecord(buildMockRecord("3", "30", "60"), EvaluationContext.CORE, resultAccumulator);
+    assertEquals(3, occurrenceCriterion.count);
+    assertEquals(0, taxonCriterion.count);
+    assertEquals(0, extensionCriterion.count);
+    assertEquals(3, coreCriterion.count);
+    assertEquals(0, extensionDatasetCriterion.count);
+  }
+
+  @Test
+  public void testForArchiveFile() throws Exception {
+    ArchiveFile archiveFile = new ArchiveFile();
+    archiveFile.setRowType(DwcTerm.Occurrence.qualifiedName());
+    ArchiveField idField = new ArchiveField(0, DwcTerm.occurrenceID, null, DataType.string);
+    archiveFile.setId(idField);
+    archiveFile.addField(new ArchiveField(1, DwcTerm.scientificName, null, DataType.string));
+    archiveFile.addField(new ArchiveField(2, DwcTerm.country, "Canada", DataType.string));
+    archiveFile.addField(new ArchiveField(null, DwcTerm.basisOfRecord, "PreservedSpecimen", DataType.string));
+
+    CountingCriterion nameCriterion =
+      new CountingCriterion(null, null, ImmutableSet.<Term>of(DwcTerm.scientificName, DwcTerm.decimalLatitude));
+    CountingCriterion coordinatesCriterion =
+      new CountingCriterion(null, null, ImmutableSet.<Term>of(DwcTerm.decimalLatitude, DwcTerm.decimalLongitude));
+    CountingCriterion unknownTermsCriterion = new CountingCriterion(null, null);
+    List<RecordCriterion> recordCriteria = new ArrayList<RecordCriterion>();
+    recordCriteria.add(nameCriterion);
+    recordCriteria.add(coordinatesCriterion);
+    recordCriteria.add(unknownTermsCriterion);
+    recordCriteria.add(RecordCriteria.checkForInvalidCharacter(DwcTerm.country).build());
+    EvaluatorChain chain = Evaluators.buildFromEvaluatorList(recordCriteria, new ArrayList<DatasetCriterion>());
+
+    EvaluatorChain componentChain = chain.forComponent(archiveFile, EvaluationContext.CORE);
+    ColumnIndex columnIndex = componentChain.getColumnIndex();
+    assertEquals(ImmutableSet.<Term>of(DwcTerm.decimalLatitude, DwcTerm.decimalLongitude),
+      columnIndex.getMissingTerms());
+    assertNull(chain.getColumnIndex());
+
+    List<Record> records = new ArrayList<Record>();
+    for (String[] row : Arrays.asList(new String[] {"1", "Puma concolor", "Peru"}, new String[] {"2", "Alces alces",
+      null})) {
+      RecordImpl record =
+        new RecordImpl(idField, archiveFile.getFields().values(), DwcTerm.Occurrence.qualifiedName(), false);
+      record.setRow(row);
+      records.add(record);
+    }
+
+    // values read by index are the same as the ones returned by the records
+    for (Term currTerm : Arrays.<Term>asList(DwcTerm.scientificName, DwcTerm.country, DwcTerm.basisOfRecord,
+      DwcTerm.decimalLatitude, DwcTerm.catalogNumber)) {
+      String[] column = columnIndex.readColumn(records, currTerm);
+      for (int i = 0; i < records.size(); i++) {
+        assertEquals(records.get(i).value(currTerm), column[i]);
+      }
+    }
+    assertEquals("Peru", columnIndex.readColumn(records, DwcTerm.country)[0]);
+    assertEquals("PreservedSpecimen", columnIndex.readColumn(records, DwcTerm.basisOfRecord)[1]);
+
+    // criteria using only terms not declared by the ArchiveFile are skipped
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    componentChain.evaluateRecordBatch(new RecordBatch(records, archiveFile.getRowType(), columnIndex),
+      EvaluationContext.CORE, resultAccumulator);
+    assertEquals(2, nameCriterion.count);
+    assertEquals(0, coordinatesCriterion.count);
+    assertEquals(2, unknownTermsCriterion.count);
+  }
+
+  @Test
+  public void testRecordBatchSharesTransformations() throws Exception {
+    AtomicInteger parseCount = new AtomicInteger();
+    List<RecordCriterion> recordCriteria = new ArrayList<RecordCriterion>();
+    // two criteria using equal transformations, as two criteria on the same term would
+    recordCriteria.add(RecordCriteria.tryTransformations(
+      new CountingTransformation(DwcTerm.decimalLatitude, parseCount)).build());
+    recordCriteria.add(RecordCriteria.tryTransformations(
+      new CountingTransformation(DwcTerm.decimalLatitude, parseCount),
+      new CountingTransformation(DwcTerm.decimalLongitude, parseCount)).build());
+    EvaluatorChain chain = Evaluators.buildFromEvaluatorList(recordCriteria, new ArrayList<DatasetCriterion>());
+
+    List<Record> records = new ArrayList<Record>();
+    for (int i = 0; i < 10; i++) {
+      records.add(buildMockRecord(Integer.toString(i), "30", i % 2 == 0 ? "60" : "a"));
+    }
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    chain.evaluateRecordBatch(new RecordBatch(records, DwcTerm.Occurrence.qualifiedName()), EvaluationContext.CORE,
+      resultAccumulator);
+
+    // each term is parsed once per record
+    assertEquals(20, parseCount.get());
+    assertEquals(5, resultAccumulator.getValidationResultList().size());
+  }
+
+  @Test
+  public void testRecordBatchSharesTransformedColumns() throws Exception {
+    AtomicInteger parseCount = new AtomicInteger();
+    List<RecordCriterion> recordCriteria = new ArrayList<RecordCriterion>();
+    // BoundCriterion evaluates the batch column by column, MinMaxCriterion record by record
+    BoundCriterionConfiguration boundConfiguration = new BoundCriterionConfiguration();
+    boundConfiguration.setLowerBound(-90);
+    boundConfiguration.setUpperBound(90);
+    boundConfiguration.setValueTransformation(new CountingTransformation(DwcTerm.decimalLatitude, parseCount));
+    recordCriteria.add(new BoundCriterionBuilder(boundConfiguration).build());
+    MinMaxCriterionConfiguration minMaxConfiguration = new MinMaxCriterionConfiguration();
+    minMaxConfiguration.setMinValueTransformation(new CountingTransformation(DwcTerm.decimalLatitude, parseCount));
+    minMaxConfiguration.setMaxValueTransformation(new CountingTransformation(DwcTerm.decimalLongitude, parseCount));
+    recordCriteria.add(new MinMaxCriterionBuilder(minMaxConfiguration).build());
+    EvaluatorChain chain = Evaluators.buildFromEvaluatorList(recordCriteria, new ArrayList<DatasetCriterion>());
+
+    List<Record> records = new ArrayList<Record>();
+    for (int i = 0; i < 10; i++) {
+      records.add(buildMockRecord(Integer.toString(i), i % 2 == 0 ? "30" : "100", "60"));
+    }
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    chain.evaluateRecordBatch(new RecordBatch(records, DwcTerm.Occurrence.qualifiedName()), EvaluationContext.CORE,
+      resultAccumulator);
+
+    // each term is parsed once per record, failing values are not parsed again
+    assertEquals(20, parseCount.get());
+    // out of bounds and min greater than max
+    assertEquals(10, resultAccumulator.getValidationResultList().size());
+  }
+
+  /**
+   * Numeric transformation counting the values it parses, instances on the same Term are equal.
+   */
+  private static class CountingTransformation implements TermValueTransformation<Number> {
+
+    private final TermValueTransformation<Number> numericTransformation;
+    private final AtomicInteger parseCount;
+
+    CountingTransformation(Term term, AtomicInteger parseCount) {
+      this.numericTransformation = (TermValueTransformation<Number>) ValueTransformations.toNumeric(term);
+      this.parseCount = parseCount;
+    }
+
+    @Override
+    public Term getTerm() {
+      return numericTransformation.getTerm();
+    }
+
+    @Override
+    public ValueTransformationResult<Number> transform(Record record) {
+      return transform(record.value(getTerm()));
+    }
+
+    @Override
+    public ValueTransformationResult<Number> transform(String value) {
+      parseCount.incrementAndGet();
+      return numericTransformation.transform(value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof CountingTransformation
+        && numericTransformation.equals(((CountingTransformation) obj).numericTransformation);
+    }
+
+    @Override
+    public int hashCode() {
+      return numericTransformation.hashCode();
+    }
+  }
+
+  /**
+   * Restricted criterion counting the records it receives, it does not check its restrictions.
+   */
+  private static class CountingCriterion implements RecordCriterion, DatasetCriterion, RestrictedCriterion,
+    TermBasedCriterion {
+
+    private final String rowTypeRestriction;
+    private final EvaluationContext evaluationContextRestriction;
+    private final Set<Term> terms;
+    private int count;
+
+    CountingCriterion(String rowTypeRestriction, EvaluationContext evaluationContextRestriction) {
+      this(rowTypeRestriction, evaluationContextRestriction, ImmutableSet.<Term>of());
+    }
+
+    CountingCriterion(String rowTypeRestriction, EvaluationContext evaluationContextRestriction, Set<Term> terms) {
+      this.rowTypeRestriction = rowTypeRestriction;
+      this.evaluationContextRestriction = evaluationContextRestriction;
+      this.terms = terms;
+    }
+
+    @Override
+    public String getCriteriaKey() {
+      return "countingCriterion";
+    }
+
+    @Override
+    public Optional<ValidationResult> validate(Record record, EvaluationContext evaluationContext) {
+      count++;
+      return PASSED;
+    }
+
+    @Override
+    public void onRecord(Record record, EvaluationContext evaluationContext) {
+      count++;
+    }
+
+    @Override
+    public void validateDataset(ResultAccumulator resultAccumulator) {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String getRowTypeRestriction() {
+      return rowTypeRestriction;
+    }
+
+    @Override
+    public EvaluationContext getEvaluationContextRestriction() {
+      return evaluationContextRestriction;
+    }
+
+    @Override
+    public Set<Term> getTerms() {
+      return terms;
+    }
+  }
+
 }
@@ -0,0 +1,105 @@
+package org.gbif.dwc.validator.config;
+
+import org.gbif.dwc.terms.DwcTerm;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test MessageFormatCache produces the same messages as MessageFormat.format and compare their speed.
+ * 
+ * @author cgendreau
+ */
+public class MessageFormatCacheTest {
+
+  private static final ResourceBundle RESOURCE_BUNDLE = ResourceBundle.getBundle("language_resources", Locale.ENGLISH);
+  private static final String KEY = "criterion.bound_criterion.out_of_bounds";
+  private static final int NUMBER_OF_THREADS = 4;
+  private static final int NUMBER_OF_MESSAGES = 200000;
+
+  private String expectedMessage(int i) {
+    return MessageFormat.format(RESOURCE_BUNDLE.getString(KEY), i, 0, 100, DwcTerm.decimalLatitude);
+  }
+
+  @Test
+  public void testFormat() {
+    MessageFormatCache messageFormatCache = new MessageFormatCache(RESOURCE_BUNDLE, Locale.getDefault());
+    for (int i = 0; i < 2000; i += 7) {
+      assertEquals(expectedMessage(i), messageFormatCache.format(KEY, i, 0, 100, DwcTerm.decimalLatitude));
+    }
+    assertEquals(MessageFormat.format(RESOURCE_BUNDLE.getString("criterion.regex_criterion.value"), "a", "b"),
+      messageFormatCache.format("criterion.regex_criterion.value", "a", "b"));
+    assertEquals(expectedMessage(1234), ValidatorConfig.getLocalizedString(KEY, 1234, 0, 100,
+      DwcTerm.decimalLatitude));
+  }
+
+  @Test
+  public void testMultiThreadFormat() throws Exception {
+    final MessageFormatCache messageFormatCache = new MessageFormatCache(RESOURCE_BUNDLE, Locale.getDefault());
+    List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+    for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+      final int offset = i;
+      tasks.add(new Callable<Boolean>() {
+
+        @Override
+        public Boolean call() {
+          for (int j = offset; j < 20000; j += NUMBER_OF_THREADS) {
+            if (!expectedMessage(j).equals(messageFormatCache.format(KEY, j, 0, 100, DwcTerm.decimalLatitude))) {
+              return false;
+            }
+          }
+          return true;
+        }
+      });
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    for (Future<Boolean> future : executorService.invokeAll(tasks)) {
+      assertTrue(future.get());
+    }
+    executorService.shutdown();
+  }
+
+  /**
+   * Microbenchmark of MessageFormatCache against MessageFormat.format, both paths are warmed up first.
+   */
+  @Ignore("Benchmark formatting 800k messages, run manually")
+  @Test
+  public void testBenchmark() {
+    MessageFormatCache messageFormatCache = new MessageFormatCache(RESOURCE_BUNDLE, Locale.getDefault());
+    long length = 0;
+    for (int round = 0; round < 2; round++) {
+      long t = System.nanoTime();
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+        length += expectedMessage(i).length();
+      }
+      long formatTime = System.nanoTime() - t;
+
+      t = System.nanoTime();
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+        length -= messageFormatCache.format(KEY, i, 0, 100, DwcTerm.decimalLatitude).length();
+      }
+      long cacheTime = System.nanoTime() - t;
+      if (round == 1) {
+        System.out.println("MessageFormat.format took " + formatTime / 1000000 + " ms, MessageFormatCache took "
+          + cacheTime / 1000000 + " ms for " + NUMBER_OF_MESSAGES + " messages");
+      }
+    }
+    // both paths produced messages of the same length
+    assertEquals(0, length);
+  }
+
+}
@@ -11,6 +11,7 @@ import org.gbif.dwc.validator.result.validation.ValidationResult;
 
 import com.google.common.base.Optional;
 import org.junit.Test;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
@@ -32,6 +33,8 @@ public class BoundCriterionTest {
     Optional<ValidationResult> result =
       criteria.validate(buildMockRecord("1", MIN_LATITUDE.toString()), EvaluationContext.CORE);
     assertTrue(result.isPresent() && result.get().passed());
+    // passing records should share the same result
+    assertSame(RecordCriterion.PASSED, result);
 
     result = criteria.validate(buildMockRecord("1", MAX_LATITUDE.toString()), EvaluationContext.CORE);
     assertTrue(result.isPresent() && result.get().passed());
@@ -9,15 +9,19 @@ import org.gbif.dwc.validator.criteria.record.RecordCriterion;
 import org.gbif.dwc.validator.mock.MockRecordFactory;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.vocabulary.CompactVocabulary;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.HashSet;
 import java.util.Set;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.Sets;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -80,6 +84,74 @@ public class ControlledVocabularyCriterionTest {
     assertFalse(result.isPresent());
   }
 
+  @Test
+  public void testCaseInsensitiveAndAsciiFolding() {
+    Set<String> vocabulary = Sets.newHashSet("Perú", "Côte d'Ivoire", "Æland", "Straße", "保存標本");
+
+    RecordCriterion criterion =
+      ControlledVocabularyCriterionBuilder.builder().onTerm(DwcTerm.country).useVocabularySet(vocabulary).build();
+    assertTrue(TestEvaluationResultHelper.validationPassed(criterion.validate(
+      buildMockRecord("1", "Perú", "PreservedSpecimen"), EvaluationContext.CORE)));
+    assertTrue(TestEvaluationResultHelper.validationFailed(criterion.validate(
+      buildMockRecord("1", "peru", "PreservedSpecimen"), EvaluationContext.CORE)));
+
+    criterion =
+      ControlledVocabularyCriterionBuilder.builder().onTerm(DwcTerm.country).useVocabularySet(vocabulary)
+        .caseInsensitive().build();
+    assertTrue(TestEvaluationResultHelper.validationPassed(criterion.validate(
+      buildMockRecord("1", "PERÚ", "PreservedSpecimen"), EvaluationContext.CORE)));
+    assertTrue(TestEvaluationResultHelper.validationFailed(criterion.validate(
+      buildMockRecord("1", "peru", "PreservedSpecimen"), EvaluationContext.CORE)));
+
+    criterion =
+      ControlledVocabularyCriterionBuilder.builder().onTerm(DwcTerm.country).useVocabularySet(vocabulary)
+        .caseInsensitive().asciiFolding().build();
+    for (String country : new String[] {"peru", "PERU", "Cote d'Ivoire", "côte D'IVOIRE", "aeland", "strasse",
+      "保存標本"}) {
+      assertTrue(country, TestEvaluationResultHelper.validationPassed(criterion.validate(
+        buildMockRecord("1", country, "PreservedSpecimen"), EvaluationContext.CORE)));
+    }
+    for (String country : new String[] {"per", "perus", "Cote dIvoire", "aland", "保存"}) {
+      assertTrue(country, TestEvaluationResultHelper.validationFailed(criterion.validate(
+        buildMockRecord("1", country, "PreservedSpecimen"), EvaluationContext.CORE)));
+    }
+  }
+
+  @Test
+  public void testPrebuiltVocabularyFile() throws IOException, URISyntaxException {
+    File testFile = new File(this.getClass().getResource("/dictionary/european_union_country.txt").toURI());
+    CompactVocabulary vocabulary = CompactVocabulary.build(testFile, true, true);
+    assertEquals(28, vocabulary.size());
+
+    File vocabularyFile = File.createTempFile("european_union_country", "." + CompactVocabulary.FILE_EXTENSION);
+    vocabularyFile.deleteOnExit();
+    vocabulary.writeTo(vocabularyFile);
+
+    // the lookup mode is stored in the file
+    RecordCriterion criterion =
+      ControlledVocabularyCriterionBuilder.builder().onTerm(DwcTerm.country)
+        .useDictionaryAt(vocabularyFile.getAbsolutePath()).build();
+    for (String country : new String[] {"Spain", "SPAIN", "Sweden", "Österreich", "Austria"}) {
+      boolean expected = !"Österreich".equals(country);
+      assertEquals(country, expected, TestEvaluationResultHelper.validationPassed(criterion.validate(
+        buildMockRecord("1", country, "PreservedSpecimen"), EvaluationContext.CORE)));
+    }
+
+    CompactVocabulary loaded = CompactVocabulary.load(vocabularyFile);
+    assertEquals(vocabulary.size(), loaded.size());
+    assertTrue(loaded.isCaseInsensitive());
+    assertTrue(loaded.isAsciiFolding());
+
+    // the lookup mode of a prebuilt file can not be changed
+    try {
+      ControlledVocabularyCriterionBuilder.builder().onTerm(DwcTerm.country)
+        .useDictionaryAt(vocabularyFile.getAbsolutePath()).caseInsensitive().build();
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testBuilderBehavior() {
     ControlledVocabularyCriterionBuilder.builder().onTerm(DwcTerm.basisOfRecord).build();
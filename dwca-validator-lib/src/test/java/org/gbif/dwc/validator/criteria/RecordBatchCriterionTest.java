@@ -0,0 +1,140 @@
+package org.gbif.dwc.validator.criteria;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.chain.EvaluatorChain;
+import org.gbif.dwc.validator.criteria.dataset.DatasetCriterion;
+import org.gbif.dwc.validator.criteria.record.BoundCriterionBuilder;
+import org.gbif.dwc.validator.criteria.record.CompletenessCriterionBuilder;
+import org.gbif.dwc.validator.criteria.record.ControlledVocabularyCriterionBuilder;
+import org.gbif.dwc.validator.criteria.record.RecordBatch;
+import org.gbif.dwc.validator.criteria.record.RecordBatchCriterion;
+import org.gbif.dwc.validator.criteria.record.RecordBatchCriterionAdapter;
+import org.gbif.dwc.validator.criteria.record.RecordCriterion;
+import org.gbif.dwc.validator.criteria.record.RegexCriterionBuilder;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.mock.MockRecordFactory;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.accumulator.InMemoryResultAccumulator;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test that evaluating a RecordBatch gives the same results as evaluating each record.
+ * 
+ * @author cgendreau
+ */
+public class RecordBatchCriterionTest {
+
+  private RecordBatch buildMockBatch(String... countryAndLatitude) {
+    List<Record> records = new ArrayList<Record>();
+    for (int i = 0; i < countryAndLatitude.length; i += 2) {
+      records.add(MockRecordFactory.buildMockOccurrenceRecord(DwcTerm.occurrenceID, Integer.toString(i / 2),
+        new Term[] {DwcTerm.country, DwcTerm.decimalLatitude},
+        new String[] {countryAndLatitude[i], countryAndLatitude[i + 1]}));
+    }
+    return new RecordBatch(records, DwcTerm.Occurrence.qualifiedName());
+  }
+
+  private List<String> validateBatch(RecordCriterion criterion, RecordBatch batch)
+    throws ResultAccumulationException {
+    InMemoryResultAccumulator accumulator = new InMemoryResultAccumulator();
+    RecordBatchCriterionAdapter.adapt(criterion).validate(batch, EvaluationContext.CORE, accumulator);
+    return toStringList(accumulator.getValidationResultList());
+  }
+
+  private List<String> validateEachRecord(RecordCriterion criterion, RecordBatch batch) {
+    List<ValidationResult> results = new ArrayList<ValidationResult>();
+    for (int i = 0; i < batch.size(); i++) {
+      Optional<ValidationResult> result = criterion.validate(batch.getRecord(i), EvaluationContext.CORE);
+      if (result.isPresent() && !result.get().passed()) {
+        results.add(result.get());
+      }
+    }
+    return toStringList(results);
+  }
+
+  private List<String> toStringList(List<ValidationResult> results) {
+    List<String> resultList = new ArrayList<String>();
+    for (ValidationResult currResult : results) {
+      for (ValidationResultElement currElement : currResult.getResults()) {
+        resultList.add(currResult.getId() + ":" + currResult.getEvaluationContextDetails() + ":"
+          + currElement.getExplanation());
+      }
+    }
+    return resultList;
+  }
+
+  private void assertSameResults(RecordCriterion criterion, RecordBatch batch, int expectedFailures)
+    throws ResultAccumulationException {
+    List<String> expected = validateEachRecord(criterion, batch);
+    assertEquals(expectedFailures, expected.size());
+    assertEquals(expected, validateBatch(criterion, batch));
+  }
+
+  @Test
+  public void testBoundCriterion() throws ResultAccumulationException {
+    RecordBatch batch = buildMockBatch("Canada", "45.5", "Canada", "91", "Canada", "north", "Canada", null);
+    RecordCriterion criterion =
+      BoundCriterionBuilder.builder().termBoundedBy(DwcTerm.decimalLatitude, BoundCriterionTest.MIN_LATITUDE,
+        BoundCriterionTest.MAX_LATITUDE).build();
+    assertTrue(criterion instanceof RecordBatchCriterion);
+    assertSameResults(criterion, batch, 2);
+
+    // batch of another rowType should not be sent to the criterion by the chain
+    criterion =
+      BoundCriterionBuilder.builder()
+        .termBoundedBy(DwcTerm.decimalLatitude, BoundCriterionTest.MIN_LATITUDE, BoundCriterionTest.MAX_LATITUDE)
+        .onRowType(DwcTerm.Taxon).build();
+    EvaluatorChain chain =
+      new EvaluatorChain(Collections.singletonList(criterion), Collections.<DatasetCriterion>emptyList());
+    InMemoryResultAccumulator accumulator = new InMemoryResultAccumulator();
+    chain.evaluateRecordBatch(batch, EvaluationContext.CORE, accumulator);
+    assertTrue(accumulator.getValidationResultList().isEmpty());
+  }
+
+  @Test
+  public void testRegexCriterion() throws ResultAccumulationException {
+    RecordBatch batch = buildMockBatch("cat", "1", "bat", "1", "hat", "1", null, "1");
+    RecordCriterion criterion = RegexCriterionBuilder.builder().regex(DwcTerm.country, "[hc]at").build();
+    assertTrue(criterion instanceof RecordBatchCriterion);
+    assertSameResults(criterion, batch, 1);
+  }
+
+  @Test
+  public void testControlledVocabularyCriterion() throws ResultAccumulationException {
+    RecordBatch batch = buildMockBatch("Canada", "1", "Atlantis", "1", "Mexico", "1", "", "1");
+    RecordCriterion criterion =
+      ControlledVocabularyCriterionBuilder.builder().onTerm(DwcTerm.country)
+        .useVocabularySet(Sets.newHashSet("Canada", "Mexico")).build();
+    assertTrue(criterion instanceof RecordBatchCriterion);
+    assertSameResults(criterion, batch, 2);
+  }
+
+  @Test
+  public void testAdapter() throws ResultAccumulationException {
+    RecordBatch batch = buildMockBatch("Canada", "1", "", "1", null, "1");
+    RecordCriterion criterion =
+      CompletenessCriterionBuilder.builder().checkTerm(DwcTerm.country)
+        .onRowType(DwcTerm.Occurrence).build();
+    assertSameResults(criterion, batch, 2);
+
+    // batch criteria should not be wrapped
+    RecordCriterion batchCriterion = RegexCriterionBuilder.builder().regex(DwcTerm.country, "[hc]at").build();
+    assertSame(batchCriterion, RecordBatchCriterionAdapter.adapt(batchCriterion));
+  }
+
+}
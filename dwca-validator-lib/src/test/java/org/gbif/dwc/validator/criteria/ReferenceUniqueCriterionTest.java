@@ -7,17 +7,24 @@ import org.gbif.dwc.text.ArchiveField;
 import org.gbif.dwc.text.ArchiveField.DataType;
 import org.gbif.dwc.validator.TestEvaluationResultHelper;
 import org.gbif.dwc.validator.criteria.dataset.DatasetCriterion;
+import org.gbif.dwc.validator.criteria.dataset.ValueIndexRegistry;
 import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.accumulator.InMemoryResultAccumulator;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -143,4 +150,194 @@ public class ReferenceUniqueCriterionTest {
     assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "5",
       ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
   }
+
+  /**
+   * Ids only differing by case are all valid targets, in memory and file based.
+   */
+  @Test
+  public void referentialIntegrityEvaluatorIdsDifferingByCase() throws IOException, ResultAccumulationException {
+    for (int maxValuesInMemory : new int[] {100, 0}) {
+      InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+      DatasetCriterion referenceCriterion =
+        DatasetCriteria
+          .termReferentialIntegrityInCore(null, DwcTerm.acceptedNameUsageID, DwcTerm.taxonID,
+            DwcTerm.Taxon.qualifiedName()).maxValuesInMemory(maxValuesInMemory).build();
+
+      referenceCriterion.onRecord(buildMockRecord("ABC", "abc"), EvaluationContext.CORE);
+      referenceCriterion.onRecord(buildMockRecord("abc", "ABC"), EvaluationContext.CORE);
+      referenceCriterion.onRecord(buildMockRecord("1", "Abc"), EvaluationContext.CORE);
+
+      referenceCriterion.validateDataset(resultAccumulator);
+      referenceCriterion.close();
+
+      // "ABC" and "abc" are also reported as duplicates by the UniquenessCriterion
+      assertFalse(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(),
+        "abc", ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
+      assertFalse(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(),
+        "ABC", ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
+      assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(),
+        "Abc", ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
+    }
+  }
+
+  /**
+   * Same as referentialIntegrityEvaluatorIncorrectId but using the file based implementation.
+   */
+  @Test
+  public void referentialIntegrityEvaluatorIncorrectIdFileBased() {
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    try {
+      DatasetCriterion referenceCriterion =
+        DatasetCriteria
+          .termReferentialIntegrityInCore(null, DwcTerm.acceptedNameUsageID, DwcTerm.taxonID,
+            DwcTerm.Taxon.qualifiedName()).maxValuesInMemory(0).build();
+
+      referenceCriterion.onRecord(buildMockRecord("1", "4"), EvaluationContext.CORE);
+      referenceCriterion.onRecord(buildMockRecord("2", "1"), EvaluationContext.CORE);
+
+      referenceCriterion.validateDataset(resultAccumulator);
+      referenceCriterion.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } catch (ResultAccumulationException e) {
+      e.printStackTrace();
+      fail();
+    }
+    assertEquals(1, resultAccumulator.getValidationResultCount());
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "4",
+      ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
+  }
+
+  /**
+   * Same as referentialIntegrityEvaluatorIncorrectIdFileBased but screening references with a Bloom filter.
+   * "2" refers to "1" which is already recorded, "3" refers to "4" which is read later.
+   */
+  @Test
+  public void referentialIntegrityEvaluatorBloomFilter() {
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    try {
+      DatasetCriterion referenceCriterion =
+        DatasetCriteria
+          .termReferentialIntegrityInCore(null, DwcTerm.acceptedNameUsageID, DwcTerm.taxonID,
+            DwcTerm.Taxon.qualifiedName()).maxValuesInMemory(0).bloomFilter(100, 0.0001).build();
+
+      referenceCriterion.onRecord(buildMockRecord("1", ""), EvaluationContext.CORE);
+      referenceCriterion.onRecord(buildMockRecord("2", "1"), EvaluationContext.CORE);
+      referenceCriterion.onRecord(buildMockRecord("3", "4"), EvaluationContext.CORE);
+      referenceCriterion.onRecord(buildMockRecord("4", "5"), EvaluationContext.CORE);
+
+      referenceCriterion.validateDataset(resultAccumulator);
+      referenceCriterion.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } catch (ResultAccumulationException e) {
+      e.printStackTrace();
+      fail();
+    }
+    assertEquals(1, resultAccumulator.getValidationResultCount());
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "5",
+      ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
+  }
+
+  /**
+   * UniquenessCriterion and ReferenceUniqueCriterion on the coreId sharing the same ValueIndexRegistry should only
+   * record and sort the coreId once.
+   */
+  @Test
+  public void referentialIntegrityEvaluatorSharedValueIndex() {
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    File workingFolder = Files.createTempDir();
+    try {
+      ValueIndexRegistry valueIndexRegistry = new ValueIndexRegistry();
+      DatasetCriterion uniquenessCriterion =
+        DatasetCriteria.coreIdUniqueness(workingFolder).maxValuesInMemory(0).valueIndexRegistry(valueIndexRegistry)
+          .build();
+      DatasetCriterion referenceCriterion =
+        DatasetCriteria.archiveIdIntegrity(workingFolder).maxValuesInMemory(0).valueIndexRegistry(valueIndexRegistry)
+          .build();
+
+      Record[] coreRecords = {buildMockRecord("1", ""), buildMockRecord("2", ""), buildMockRecord("2", "")};
+      for (Record currRecord : coreRecords) {
+        uniquenessCriterion.onRecord(currRecord, EvaluationContext.CORE);
+        referenceCriterion.onRecord(currRecord, EvaluationContext.CORE);
+      }
+      Record[] extRecords = {buildMockRecord("1", ""), buildMockRecord("4", "")};
+      for (Record currRecord : extRecords) {
+        uniquenessCriterion.onRecord(currRecord, EvaluationContext.EXT);
+        referenceCriterion.onRecord(currRecord, EvaluationContext.EXT);
+      }
+
+      uniquenessCriterion.validateDataset(resultAccumulator);
+      referenceCriterion.validateDataset(resultAccumulator);
+
+      // one sorted file for the shared coreId and one for the extension values
+      assertEquals(2, workingFolder.list(new SuffixFileFilter("_sorted.txt")).length);
+
+      uniquenessCriterion.close();
+      referenceCriterion.close();
+      assertEquals(0, workingFolder.list().length);
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } catch (ResultAccumulationException e) {
+      e.printStackTrace();
+      fail();
+    } finally {
+      FileUtils.deleteQuietly(workingFolder);
+    }
+
+    // duplicated id is reported by both criteria
+    assertEquals(3, resultAccumulator.getValidationResultCount());
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "2",
+      ContentValidationType.FIELD_UNIQUENESS));
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "4",
+      ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
+  }
+
+  /**
+   * A criterion asking for a file based index (maxValuesInMemory 0) must not be switched to memory because another
+   * criterion of the chain keeps its values in memory.
+   */
+  @Test
+  public void referentialIntegrityEvaluatorValueIndexNotShared() throws IOException, ResultAccumulationException {
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+    File workingFolder = Files.createTempDir();
+    try {
+      ValueIndexRegistry valueIndexRegistry = new ValueIndexRegistry();
+      DatasetCriterion uniquenessCriterion =
+        DatasetCriteria.coreIdUniqueness(workingFolder).maxValuesInMemory(0).valueIndexRegistry(valueIndexRegistry)
+          .build();
+      DatasetCriterion referenceCriterion =
+        DatasetCriteria.archiveIdIntegrity(workingFolder).valueIndexRegistry(valueIndexRegistry).build();
+
+      Record[] coreRecords = {buildMockRecord("1", ""), buildMockRecord("2", ""), buildMockRecord("2", "")};
+      for (Record currRecord : coreRecords) {
+        uniquenessCriterion.onRecord(currRecord, EvaluationContext.CORE);
+        referenceCriterion.onRecord(currRecord, EvaluationContext.CORE);
+      }
+      referenceCriterion.onRecord(buildMockRecord("4", ""), EvaluationContext.EXT);
+
+      uniquenessCriterion.validateDataset(resultAccumulator);
+      referenceCriterion.validateDataset(resultAccumulator);
+
+      // only the coreId of the file based criterion is sorted
+      assertEquals(1, workingFolder.list(new SuffixFileFilter("_sorted.txt")).length);
+
+      uniquenessCriterion.close();
+      referenceCriterion.close();
+      assertEquals(0, workingFolder.list().length);
+    } finally {
+      FileUtils.deleteQuietly(workingFolder);
+    }
+
+    assertEquals(3, resultAccumulator.getValidationResultCount());
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "4",
+      ContentValidationType.FIELD_REFERENTIAL_INTEGRITY));
+  }
 }
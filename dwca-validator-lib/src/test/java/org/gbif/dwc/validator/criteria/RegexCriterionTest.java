@@ -4,15 +4,30 @@ import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.validator.TestEvaluationResultHelper;
+import org.gbif.dwc.validator.chain.EvaluatorChain;
+import org.gbif.dwc.validator.config.ValidatorConfig;
+import org.gbif.dwc.validator.criteria.dataset.DatasetCriterion;
+import org.gbif.dwc.validator.criteria.record.MultiRegexCriterion;
+import org.gbif.dwc.validator.criteria.record.RecordBatch;
+import org.gbif.dwc.validator.criteria.record.RecordBatchCriterionAdapter;
 import org.gbif.dwc.validator.criteria.record.RecordCriterion;
 import org.gbif.dwc.validator.criteria.record.RegexCriterionBuilder;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.mock.MockRecordFactory;
 import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.accumulator.InMemoryResultAccumulator;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import com.google.common.base.Optional;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -40,10 +55,147 @@ public class RegexCriterionTest {
     // should not passed
     result = criteria.validate(buildMockRecord("3", "bat"), EvaluationContext.CORE);
     assertTrue(TestEvaluationResultHelper.validationFailed(result));
+    // explanation is formatted from the message key when requested
+    ValidationResultElement element = result.get().getResults().get(0);
+    assertEquals("criterion.regex_criterion.value_explanation", element.getMessageKey());
+    assertEquals(ValidatorConfig.getLocalizedString("criterion.regex_criterion.value", "bat", DwcTerm.country)
+      + ValidatorConfig.getLocalizedString("criterion.regex_criterion.no_match"), element.getExplanation());
+
     result = criteria.validate(buildMockRecord("4", "a cat"), EvaluationContext.CORE);
     assertTrue(TestEvaluationResultHelper.validationFailed(result));
   }
 
+  /**
+   * Regexes in the regular subset are evaluated by an automaton, others by java.util.regex. Both must give the same
+   * result as Pattern.matches.
+   */
+  @Test
+  public void testAutomatonMatchesJavaRegex() {
+    String[] regexes =
+      {"[hc]at", "^[A-Z]{2}$", "\\d{4}-\\d{2}(-\\d{2})?", "(?:ab|a)*c+?", "[^\\s,]+(, [^\\s,]+)*", "a.c",
+        "[a-c-]\\.\\$", "\\w+\\W?", "\\x41\\u00e9[\\D&&[^b]]", "(a)\\1", "\\bcat\\b", "\\p{Lu}+", "a*+b", "(?i)cat",
+        "x{0,2}y{2,}", "|a", "[\\]a]", ".*"};
+    String[] values =
+      {"", "cat", "hat", "a cat", "CA", "Ca", "2014-02-30", "2014-02", "2014-2", "ababac", "abacc", "abc", "a\nc",
+        "a,b", "a, b, c", "b.$", "-.$", "foo!", "Aé1", "aa", "CAT", "xyy", "xxxyy", "a", "]", "é", "\uD83C\uDF32",
+        "a\uD83C\uDF32c", "cat\r\n"};
+
+    for (String regex : regexes) {
+      RecordCriterion criterion = RegexCriterionBuilder.builder().regex(DwcTerm.country, regex).build();
+      for (String value : values) {
+        Optional<ValidationResult> result = criterion.validate(buildMockRecord("1", value), EvaluationContext.CORE);
+        assertEquals(regex + " on " + value, Pattern.matches(regex, value),
+          TestEvaluationResultHelper.validationPassed(result));
+      }
+    }
+  }
+
+  private List<String> toStringList(List<ValidationResult> results) {
+    List<String> resultList = new ArrayList<String>();
+    for (ValidationResult currResult : results) {
+      for (ValidationResultElement currElement : currResult.getResults()) {
+        resultList.add(currResult.getId() + ":" + currElement.getExplanation());
+      }
+    }
+    return resultList;
+  }
+
+  private List<String> validateAll(List<RecordCriterion> criteria, RecordBatch batch, boolean useBatch)
+    throws ResultAccumulationException {
+    InMemoryResultAccumulator accumulator = new InMemoryResultAccumulator();
+    for (RecordCriterion criterion : criteria) {
+      if (useBatch) {
+        RecordBatchCriterionAdapter.adapt(criterion).validate(batch, EvaluationContext.CORE, accumulator);
+      } else {
+        for (int i = 0; i < batch.size(); i++) {
+          Optional<ValidationResult> result = criterion.validate(batch.getRecord(i), EvaluationContext.CORE);
+          if (result.isPresent() && !result.get().passed()) {
+            accumulator.accumulate(result.get());
+          }
+        }
+      }
+    }
+    return toStringList(accumulator.getValidationResultList());
+  }
+
+  @Test
+  public void testMultiRegexCriterion() throws ResultAccumulationException {
+    List<RecordCriterion> criteria = new ArrayList<RecordCriterion>();
+    criteria.add(RegexCriterionBuilder.builder().regex(DwcTerm.country, "[A-Z][a-z]+").build());
+    criteria.add(RegexCriterionBuilder.builder().regex(DwcTerm.decimalLatitude, "-?\\d+(\\.\\d+)?").build());
+    criteria.add(RegexCriterionBuilder.builder().regex(DwcTerm.country, ".{2,8}").build());
+    // not supported by the automaton, kept as is
+    criteria.add(RegexCriterionBuilder.builder().regex(DwcTerm.country, "(\\w)\\1.*").build());
+    criteria.add(RegexCriterionBuilder.builder().regex(DwcTerm.country, "[^0-9]*").build());
+
+    List<RecordCriterion> merged = MultiRegexCriterion.merge(criteria);
+    assertEquals(3, merged.size());
+    assertTrue(merged.get(0) instanceof MultiRegexCriterion);
+    assertEquals("regexCriterion", merged.get(0).getCriteriaKey());
+    assertEquals(criteria.get(1), merged.get(1));
+    assertEquals(criteria.get(3), merged.get(2));
+
+    List<Record> records = new ArrayList<Record>();
+    String[] countries = {"Canada", "canada", "Bosnia and Herzegovina", "Peru2", "Ooh", "\uD83C\uDF32", null};
+    for (int i = 0; i < countries.length; i++) {
+      records.add(MockRecordFactory.buildMockOccurrenceRecord(DwcTerm.occurrenceID, Integer.toString(i), new Term[] {
+        DwcTerm.country, DwcTerm.decimalLatitude}, new String[] {countries[i], "45.5"}));
+    }
+    RecordBatch batch = new RecordBatch(records, DwcTerm.Occurrence.qualifiedName());
+
+    List<String> expected = validateAll(criteria, batch, false);
+    assertEquals(13, expected.size());
+    // same results, grouped by criteria instead of by record
+    List<String> perRecord = validateAll(merged, batch, false);
+    List<String> perBatch = validateAll(merged, batch, true);
+    assertEquals(expected.size(), perRecord.size());
+    assertTrue(perRecord.containsAll(expected));
+    assertEquals(perRecord.size(), perBatch.size());
+    assertTrue(perBatch.containsAll(expected));
+
+    // the chain merges the regexes but still reports one result per failing regex, on both paths
+    EvaluatorChain chain = new EvaluatorChain(criteria, Collections.<DatasetCriterion>emptyList());
+    InMemoryResultAccumulator perRecordAccumulator = new InMemoryResultAccumulator();
+    for (int i = 0; i < batch.size(); i++) {
+      chain.evaluateRecordCriteria(batch.getRecord(i), EvaluationContext.CORE, perRecordAccumulator);
+    }
+    InMemoryResultAccumulator perBatchAccumulator = new InMemoryResultAccumulator();
+    chain.evaluateRecordBatch(batch, EvaluationContext.CORE, perBatchAccumulator);
+    assertEquals(expected.size(), perRecordAccumulator.getValidationResultList().size());
+    assertEquals(expected.size(), perBatchAccumulator.getValidationResultList().size());
+    assertTrue(toStringList(perRecordAccumulator.getValidationResultList()).containsAll(expected));
+    assertTrue(toStringList(perBatchAccumulator.getValidationResultList()).containsAll(expected));
+  }
+
+  @Test
+  public void testVerdictCache() throws ResultAccumulationException {
+    List<RecordCriterion> criteria = new ArrayList<RecordCriterion>();
+    criteria.add(RegexCriterionBuilder.builder().regex(DwcTerm.country, "[A-Z][a-z]+").cacheVerdicts(10).build());
+    // not supported by the automaton
+    criteria.add(RegexCriterionBuilder.builder().regex(DwcTerm.country, "(\\w)\\1.*").cacheVerdicts(10).build());
+
+    List<Record> records = new ArrayList<Record>();
+    String[] countries = {"Canada", "canada", "Peru", "Canada", "canada", "Ooh", "Canada"};
+    for (int i = 0; i < countries.length; i++) {
+      records.add(buildMockRecord(Integer.toString(i), countries[i]));
+    }
+    RecordBatch batch = new RecordBatch(records, DwcTerm.Occurrence.qualifiedName());
+
+    List<String> perRecord = validateAll(criteria, batch, false);
+    assertEquals(9, perRecord.size());
+    assertEquals(perRecord, validateAll(criteria, batch, true));
+    CachingCriterion cachingCriterion = (CachingCriterion) criteria.get(0);
+    assertEquals(1, cachingCriterion.getValueCaches().size());
+    // 4 distinct values evaluated twice
+    assertEquals(4, cachingCriterion.getValueCaches().get(0).getStats().missCount());
+    assertEquals(10, cachingCriterion.getValueCaches().get(0).getStats().hitCount());
+
+    // without cache
+    CachingCriterion notCaching =
+      (CachingCriterion) RegexCriterionBuilder.builder().regex(DwcTerm.country, "[A-Z][a-z]+").build();
+    assertTrue(notCaching.getValueCaches().isEmpty());
+  }
+
   @Test(expected = NullPointerException.class)
   public void testBuilderBehavior() {
     RegexCriterionBuilder.builder().build();
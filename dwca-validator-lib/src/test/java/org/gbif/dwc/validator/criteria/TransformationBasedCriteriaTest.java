@@ -0,0 +1,66 @@
+package org.gbif.dwc.validator.criteria;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.TestEvaluationResultHelper;
+import org.gbif.dwc.validator.criteria.record.RecordCriterion;
+import org.gbif.dwc.validator.criteria.record.TransformationBasedCriteriaBuilder;
+import org.gbif.dwc.validator.mock.MockRecordFactory;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.transformation.ValueTransformations;
+import org.gbif.util.ValueCache;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test TransformationBasedCriteria object.
+ * 
+ * @author cgendreau
+ */
+public class TransformationBasedCriteriaTest {
+
+  private Record buildMockRecord(String id, String decimalLatitude) {
+    return MockRecordFactory.buildMockOccurrenceRecord(DwcTerm.occurrenceID, id,
+      new Term[] {DwcTerm.decimalLatitude}, new String[] {decimalLatitude});
+  }
+
+  @Test
+  public void testTransformationBasedCriteria() {
+    RecordCriterion criterion =
+      TransformationBasedCriteriaBuilder.builder()
+        .appendTransformation(ValueTransformations.toNumeric(DwcTerm.decimalLatitude)).build();
+
+    assertTrue(TestEvaluationResultHelper.validationPassed(criterion.validate(buildMockRecord("1", "45.5"),
+      EvaluationContext.CORE)));
+    assertTrue(TestEvaluationResultHelper.validationFailed(criterion.validate(buildMockRecord("2", "north"),
+      EvaluationContext.CORE)));
+    assertTrue(((CachingCriterion) criterion).getValueCaches().isEmpty());
+  }
+
+  @Test
+  public void testCachedTransformations() {
+    RecordCriterion criterion =
+      TransformationBasedCriteriaBuilder.builder()
+        .appendTransformation(ValueTransformations.toNumeric(DwcTerm.decimalLatitude)).cacheTransformations(10)
+        .build();
+
+    List<ValueCache<?>> valueCaches = ((CachingCriterion) criterion).getValueCaches();
+    assertEquals(1, valueCaches.size());
+
+    // same results as without the cache, the second evaluation of each value is a hit
+    for (int i = 0; i < 2; i++) {
+      assertTrue(TestEvaluationResultHelper.validationPassed(criterion.validate(buildMockRecord("1", "45.5"),
+        EvaluationContext.CORE)));
+      assertTrue(TestEvaluationResultHelper.validationFailed(criterion.validate(buildMockRecord("2", "north"),
+        EvaluationContext.CORE)));
+    }
+    assertEquals(2, valueCaches.get(0).getStats().hitCount());
+  }
+
+}
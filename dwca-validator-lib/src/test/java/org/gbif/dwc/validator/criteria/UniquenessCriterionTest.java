@@ -20,6 +20,7 @@ import java.util.List;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -143,4 +144,61 @@ public class UniquenessCriterionTest {
     assertTrue(resultAccumulator.getValidationResultList().isEmpty());
   }
 
+  /**
+   * Same as testUniquenessCriterionNonUniqueId but values will be moved to a file during the evaluation.
+   */
+  @Test
+  public void testUniquenessCriterionNonUniqueIdAboveMemoryLimit() {
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+
+    try {
+      DatasetCriterion uniquenessEvaluator = UniquenessCriterionBuilder.builder().maxValuesInMemory(2).build();
+      uniquenessEvaluator.onRecord(buildMockRecord("1", "1"), EvaluationContext.CORE);
+      uniquenessEvaluator.onRecord(buildMockRecord("1", "2"), EvaluationContext.CORE);
+      uniquenessEvaluator.onRecord(buildMockRecord("2", "3"), EvaluationContext.CORE);
+      uniquenessEvaluator.onRecord(buildMockRecord("3", "4"), EvaluationContext.CORE);
+      uniquenessEvaluator.onRecord(buildMockRecord("3", "5"), EvaluationContext.CORE);
+
+      uniquenessEvaluator.validateDataset(resultAccumulator);
+      uniquenessEvaluator.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } catch (ResultAccumulationException e) {
+      e.printStackTrace();
+      fail();
+    }
+
+    assertEquals(2, resultAccumulator.getValidationResultCount());
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "1",
+      ContentValidationType.FIELD_UNIQUENESS));
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "3",
+      ContentValidationType.FIELD_UNIQUENESS));
+  }
+
+  @Test
+  public void testUniquenessCriterionIsCaseInsensitive() {
+
+    InMemoryResultAccumulator resultAccumulator = new InMemoryResultAccumulator();
+
+    try {
+      DatasetCriterion uniquenessEvaluator = UniquenessCriterionBuilder.builder().build();
+      uniquenessEvaluator.onRecord(buildMockRecord("a1", "1"), EvaluationContext.CORE);
+      uniquenessEvaluator.onRecord(buildMockRecord("A1", "2"), EvaluationContext.CORE);
+
+      uniquenessEvaluator.validateDataset(resultAccumulator);
+      uniquenessEvaluator.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } catch (ResultAccumulationException e) {
+      e.printStackTrace();
+      fail();
+    }
+
+    assertTrue(TestEvaluationResultHelper.containsValidationType(resultAccumulator.getValidationResultList(), "A1",
+      ContentValidationType.FIELD_UNIQUENESS));
+  }
+
 }
@@ -0,0 +1,67 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test AsyncResultAccumulator delivers all results to the wrapped ResultAccumulator.
+ * 
+ * @author cgendreau
+ */
+public class AsyncResultAccumulatorTest {
+
+  private static final int NUMBER_OF_THREADS = 4;
+  private static final int NUMBER_OF_RESULTS = InMemoryResultAccumulator.MAX_RESULT / NUMBER_OF_THREADS;
+
+  @Test
+  public void testAsyncResultAccumulator() throws Exception {
+    InMemoryResultAccumulator inMemoryResultAccumulator = new InMemoryResultAccumulator();
+    // small buffer to force producers to wait for the writer thread
+    final AsyncResultAccumulator asyncResultAccumulator =
+      new AsyncResultAccumulator(inMemoryResultAccumulator, 10, 20, 5);
+
+    List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+    for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+      final String prefix = Integer.toString(i);
+      tasks.add(new Callable<Boolean>() {
+
+        @Override
+        public Boolean call() throws ResultAccumulationException {
+          for (int j = 0; j < NUMBER_OF_RESULTS; j++) {
+            asyncResultAccumulator.accumulate(new ValidationResult(prefix + "-" + j, EvaluationContext.CORE, "",
+              new ValidationResultElement("unit test", ContentValidationType.RECORD_CONTENT_VALUE, Result.ERROR,
+                "explanation")));
+          }
+          // passed results should not be sent
+          return asyncResultAccumulator.accumulate(ValidationResult.PASSED);
+        }
+      });
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    for (Future<Boolean> future : executorService.invokeAll(tasks)) {
+      future.get();
+    }
+    executorService.shutdown();
+    asyncResultAccumulator.close();
+
+    assertEquals(NUMBER_OF_THREADS * NUMBER_OF_RESULTS, asyncResultAccumulator.getValidationResultCount());
+    assertEquals(NUMBER_OF_THREADS * NUMBER_OF_RESULTS, inMemoryResultAccumulator.getValidationResultCount());
+  }
+
+}
@@ -0,0 +1,60 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test CompositeResultAccumulator gives all results to all ResultAccumulator.
+ * 
+ * @author cgendreau
+ */
+public class CompositeResultAccumulatorTest {
+
+  private static final int NUMBER_OF_RESULTS = 50;
+
+  private void testCompositeResultAccumulator(boolean async) throws Exception {
+    InMemoryResultAccumulator first = new InMemoryResultAccumulator();
+    InMemoryResultAccumulator second = new InMemoryResultAccumulator();
+    CompositeResultAccumulator compositeResultAccumulator =
+      new CompositeResultAccumulator(Arrays.<ResultAccumulator>asList(first, second), async);
+
+    for (int i = 0; i < NUMBER_OF_RESULTS; i++) {
+      compositeResultAccumulator.accumulate(new ValidationResult(Integer.toString(i), EvaluationContext.CORE, "",
+        new ValidationResultElement("unit test", ContentValidationType.RECORD_CONTENT_VALUE, Result.ERROR,
+          "explanation")));
+    }
+    compositeResultAccumulator.accumulate(ValidationResult.PASSED);
+    compositeResultAccumulator.accumulate(new AggregationResult<Long>("id", "unit test", EvaluationContext.CORE, 1L));
+    compositeResultAccumulator.close();
+
+    assertEquals(NUMBER_OF_RESULTS, compositeResultAccumulator.getValidationResultCount());
+    assertEquals(1, compositeResultAccumulator.getAggregationResultCount());
+    for (InMemoryResultAccumulator inMemoryResultAccumulator : Arrays.asList(first, second)) {
+      assertEquals(NUMBER_OF_RESULTS, inMemoryResultAccumulator.getValidationResultList().size());
+      assertEquals("0", inMemoryResultAccumulator.getValidationResultList().get(0).getId());
+      assertEquals(1, inMemoryResultAccumulator.getAggregationResultList().size());
+    }
+  }
+
+  @Test
+  public void testCompositeResultAccumulator() throws Exception {
+    testCompositeResultAccumulator(false);
+  }
+
+  @Test
+  public void testAsyncCompositeResultAccumulator() throws Exception {
+    testCompositeResultAccumulator(true);
+  }
+
+}
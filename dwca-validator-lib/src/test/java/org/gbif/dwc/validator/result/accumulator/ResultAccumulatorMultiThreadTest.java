@@ -21,6 +21,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -114,6 +115,14 @@ public class ResultAccumulatorMultiThreadTest {
 
     testThread(ra, 16);
     System.out.println("ThresholdResultAccumulator took " + (System.currentTimeMillis() - t) + " ms");
+
+    // all results should be written, plus the header line
+    try {
+      Assert.assertEquals(16 * NUMBER_OF_DATA + 1, FileUtils.readLines(new File(fileName)).size());
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    }
     // clean up
     new File(fileName).delete();
   }
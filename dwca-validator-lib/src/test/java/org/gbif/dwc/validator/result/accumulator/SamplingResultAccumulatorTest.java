@@ -0,0 +1,83 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.aggregation.ResultSummary;
+import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test SamplingResultAccumulator caps results per group and keeps exact counts.
+ * 
+ * @author cgendreau
+ */
+public class SamplingResultAccumulatorTest {
+
+  private static final String BOUND_KEY = "boundCriterion";
+  private static final String REGEX_KEY = "regexCriterion";
+  private static final int NUMBER_OF_RESULTS = 1000;
+  private static final int MAX_RECORDED = 10;
+  private static final int SAMPLE_SIZE = 5;
+
+  @Test
+  public void testSamplingResultAccumulator() throws Exception {
+    InMemoryResultAccumulator inMemoryResultAccumulator = new InMemoryResultAccumulator();
+    SamplingResultAccumulator samplingResultAccumulator =
+      new SamplingResultAccumulator(inMemoryResultAccumulator, MAX_RECORDED, SAMPLE_SIZE, new Random(42));
+
+    ValidationResultElement boundElement =
+      new ValidationResultElement(BOUND_KEY, ContentValidationType.RECORD_CONTENT_BOUNDS, Result.ERROR, "bound");
+    ValidationResultElement regexElement =
+      new ValidationResultElement(REGEX_KEY, ContentValidationType.RECORD_CONTENT_VALUE, Result.WARNING, "regex");
+
+    for (int i = 0; i < NUMBER_OF_RESULTS; i++) {
+      // regex only fails on the first 3 records
+      List<ValidationResultElement> elements =
+        (i < 3) ? Arrays.asList(boundElement, regexElement) : Arrays.asList(boundElement);
+      samplingResultAccumulator.accumulate(new ValidationResult(Integer.toString(i), EvaluationContext.CORE,
+        DwcTerm.Occurrence.qualifiedName(), elements));
+    }
+    samplingResultAccumulator.accumulate(ValidationResult.PASSED);
+    samplingResultAccumulator.close();
+
+    assertEquals(NUMBER_OF_RESULTS, samplingResultAccumulator.getValidationResultCount());
+    List<ValidationResult> results = inMemoryResultAccumulator.getValidationResultList();
+    assertEquals(MAX_RECORDED + SAMPLE_SIZE, results.size());
+    // first results are recorded as they arrive
+    for (int i = 0; i < MAX_RECORDED; i++) {
+      assertEquals(Integer.toString(i), results.get(i).getId());
+    }
+    assertEquals(2, results.get(0).getResults().size());
+    // samples are taken among the remaining results
+    for (int i = MAX_RECORDED; i < results.size(); i++) {
+      assertTrue(Integer.parseInt(results.get(i).getId()) >= MAX_RECORDED);
+      assertEquals(BOUND_KEY, results.get(i).getResults().get(0).getEvaluatorKey());
+    }
+
+    List<AggregationResult<?>> aggregationResults = inMemoryResultAccumulator.getAggregationResultList();
+    assertEquals(2, aggregationResults.size());
+    ResultSummary boundSummary = (ResultSummary) aggregationResults.get(0).getResult();
+    assertEquals(BOUND_KEY, aggregationResults.get(0).getEvaluatorKey());
+    assertEquals(DwcTerm.Occurrence.qualifiedName(), aggregationResults.get(0).getId());
+    assertEquals(ContentValidationType.RECORD_CONTENT_BOUNDS, boundSummary.getType());
+    assertEquals(NUMBER_OF_RESULTS, boundSummary.getCount());
+    assertEquals(MAX_RECORDED + SAMPLE_SIZE, boundSummary.getRecordedCount());
+
+    ResultSummary regexSummary = (ResultSummary) aggregationResults.get(1).getResult();
+    assertEquals(3, regexSummary.getCount());
+    assertEquals(3, regexSummary.getRecordedCount());
+  }
+
+}
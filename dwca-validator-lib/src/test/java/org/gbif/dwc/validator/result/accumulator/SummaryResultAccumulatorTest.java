@@ -0,0 +1,95 @@
+package org.gbif.dwc.validator.result.accumulator;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.validator.exception.ResultAccumulationException;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.accumulator.SummaryResultAccumulator.Dimension;
+import org.gbif.dwc.validator.result.aggregation.AggregationResult;
+import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test SummaryResultAccumulator counts results from multiple threads.
+ * 
+ * @author cgendreau
+ */
+public class SummaryResultAccumulatorTest {
+
+  private static final String BOUND_KEY = "boundCriterion";
+  private static final String UNIQUENESS_KEY = "uniquenessCriterion";
+  private static final int NUMBER_OF_THREADS = 4;
+  private static final int NUMBER_OF_RESULTS = 10000;
+
+  @Test
+  public void testSummaryResultAccumulator() throws Exception {
+    InMemoryResultAccumulator inMemoryResultAccumulator = new InMemoryResultAccumulator();
+    final SummaryResultAccumulator summaryResultAccumulator = new SummaryResultAccumulator(inMemoryResultAccumulator);
+    final String occurrence = DwcTerm.Occurrence.qualifiedName();
+
+    List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+    for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+      tasks.add(new Callable<Boolean>() {
+
+        @Override
+        public Boolean call() throws ResultAccumulationException {
+          for (int j = 0; j < NUMBER_OF_RESULTS; j++) {
+            ValidationResultElement boundElement =
+              ValidationResultElement.fromMessage(BOUND_KEY, ContentValidationType.RECORD_CONTENT_BOUNDS,
+                (j % 2 == 0) ? Result.ERROR : Result.WARNING, "criterion.bound_criterion.out_of_bounds", j, 0, 1,
+                DwcTerm.decimalLatitude);
+            ValidationResultElement uniquenessElement =
+              new ValidationResultElement(UNIQUENESS_KEY, ContentValidationType.FIELD_UNIQUENESS, Result.ERROR, "");
+            summaryResultAccumulator.accumulate(new ValidationResult(Integer.toString(j), EvaluationContext.CORE,
+              occurrence, Arrays.asList(boundElement, uniquenessElement)));
+          }
+          return summaryResultAccumulator.accumulate(ValidationResult.PASSED);
+        }
+      });
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    for (Future<Boolean> future : executorService.invokeAll(tasks)) {
+      future.get();
+    }
+    executorService.shutdown();
+    summaryResultAccumulator.onRecordsEvaluated(EvaluationContext.CORE, occurrence, 3 * NUMBER_OF_RESULTS);
+    summaryResultAccumulator.onRecordsEvaluated(EvaluationContext.CORE, occurrence, NUMBER_OF_RESULTS);
+
+    int total = NUMBER_OF_THREADS * NUMBER_OF_RESULTS;
+    assertEquals(total, summaryResultAccumulator.getValidationResultCount());
+    assertEquals(total / 2, summaryResultAccumulator.getCount(Dimension.CRITERION, BOUND_KEY, Result.ERROR));
+    assertEquals(total / 2, summaryResultAccumulator.getCount(Dimension.CRITERION, BOUND_KEY, Result.WARNING));
+    assertEquals(total, summaryResultAccumulator.getCount(Dimension.CRITERION, UNIQUENESS_KEY, Result.ERROR));
+    assertEquals(0, summaryResultAccumulator.getCount(Dimension.CRITERION, UNIQUENESS_KEY, Result.WARNING));
+    // only the bound criterion has a term in its message
+    assertEquals(total / 2,
+      summaryResultAccumulator.getCount(Dimension.TERM, DwcTerm.decimalLatitude.qualifiedName(), Result.ERROR));
+    assertEquals(total + total / 2, summaryResultAccumulator.getCount(Dimension.CONTEXT,
+      EvaluationContext.CORE.name(), Result.ERROR));
+    assertEquals(total / 2, summaryResultAccumulator.getCount(Dimension.ROW_TYPE, occurrence, Result.WARNING));
+    assertEquals(4 * NUMBER_OF_RESULTS, summaryResultAccumulator.getCount(Dimension.RECORDS, occurrence, null));
+
+    summaryResultAccumulator.close();
+    List<AggregationResult<?>> aggregationResults = inMemoryResultAccumulator.getAggregationResultList();
+    assertEquals(summaryResultAccumulator.getCounts().size(), aggregationResults.size());
+    for (AggregationResult<?> aggregationResult : aggregationResults) {
+      assertEquals(SummaryResultAccumulator.SUMMARY_KEY, aggregationResult.getEvaluatorKey());
+      assertEquals(summaryResultAccumulator.getCounts().get(aggregationResult.getId()), aggregationResult.getResult());
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+package org.gbif.dwc.validator.result.accumulator.binary;
+
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.validator.result.EvaluationContext;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.accumulator.InMemoryResultAccumulator;
+import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.validation.ValidationResult;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test BinaryResultAccumulator and BinaryResultReader.
+ * 
+ * @author cgendreau
+ */
+public class BinaryResultAccumulatorTest {
+
+  private static final int NUMBER_OF_RESULTS = 2500;
+  private static final String UNIQUENESS_KEY = "uniquenessCriterion";
+  private static final String REGEX_KEY = "regexCriterion";
+
+  /**
+   * Even results are Occurrence uniqueness results, odd ones are Taxon regex results.
+   * Ids are numerical, with leading zero or textual. Some explanations are built from a message.
+   */
+  private ValidationResult buildResult(int i) {
+    String id = (i % 3 == 0) ? Integer.toString(i) : (i % 3 == 1) ? "0" + i : "id-" + i;
+    if (i % 4 == 0) {
+      return new ValidationResult(id, EvaluationContext.CORE, DwcTerm.Occurrence.qualifiedName(),
+        ValidationResultElement.fromMessage(UNIQUENESS_KEY, ContentValidationType.FIELD_UNIQUENESS, Result.ERROR,
+          "criterion.bound_criterion.out_of_bounds", i, 0.5, null, DwcTerm.occurrenceID));
+    }
+    if (i % 2 == 0) {
+      return new ValidationResult(id, EvaluationContext.CORE, DwcTerm.Occurrence.qualifiedName(),
+        new ValidationResultElement(UNIQUENESS_KEY, ContentValidationType.FIELD_UNIQUENESS, Result.ERROR,
+          "not unique"));
+    }
+    return new ValidationResult(id, EvaluationContext.EXT, DwcTerm.Taxon.qualifiedName(), new ValidationResultElement(
+      REGEX_KEY, ContentValidationType.RECORD_CONTENT_VALUE, Result.WARNING, "Value " + i + " doesn't match"));
+  }
+
+  private void assertSameResult(ValidationResult expected, ValidationResult result) {
+    assertEquals(expected.getId(), result.getId());
+    assertEquals(expected.getEvaluationContext(), result.getEvaluationContext());
+    assertEquals(expected.getEvaluationContextDetails(), result.getEvaluationContextDetails());
+    assertEquals(expected.getResults().size(), result.getResults().size());
+    for (int i = 0; i < expected.getResults().size(); i++) {
+      ValidationResultElement expectedElement = expected.getResults().get(i);
+      ValidationResultElement element = result.getResults().get(i);
+      assertEquals(expectedElement.getEvaluatorKey(), element.getEvaluatorKey());
+      assertEquals(expectedElement.getType(), element.getType());
+      assertEquals(expectedElement.getResult(), element.getResult());
+      assertEquals(expectedElement.getExplanation(), element.getExplanation());
+      assertEquals(expectedElement.getMessageKey(), element.getMessageKey());
+    }
+  }
+
+  @Test
+  public void testBinaryResultAccumulator() throws Exception {
+    File resultFile = File.createTempFile("binaryResults", ".bin");
+    try {
+      BinaryResultAccumulator accumulator = new BinaryResultAccumulator(resultFile.getAbsolutePath(), 100);
+      for (int i = 0; i < NUMBER_OF_RESULTS; i++) {
+        accumulator.accumulate(buildResult(i));
+      }
+      accumulator.accumulate(ValidationResult.PASSED);
+      accumulator.close();
+      assertEquals(NUMBER_OF_RESULTS, accumulator.getValidationResultCount());
+
+      BinaryResultReader reader = new BinaryResultReader(resultFile);
+      try {
+        assertEquals(NUMBER_OF_RESULTS, reader.getResultCount());
+
+        // paging
+        List<ValidationResult> page = reader.read(1234, 10);
+        assertEquals(10, page.size());
+        for (int i = 0; i < page.size(); i++) {
+          assertSameResult(buildResult(1234 + i), page.get(i));
+        }
+        assertEquals(5, reader.read(NUMBER_OF_RESULTS - 5, 10).size());
+
+        // filtering
+        page = reader.read(10, 5, REGEX_KEY, null);
+        assertEquals(5, page.size());
+        assertSameResult(buildResult(21), page.get(0));
+        page = reader.read(0, NUMBER_OF_RESULTS, null, DwcTerm.Occurrence.qualifiedName());
+        assertEquals(NUMBER_OF_RESULTS / 2, page.size());
+        assertTrue(reader.read(0, 10, REGEX_KEY, DwcTerm.Occurrence.qualifiedName()).isEmpty());
+        assertTrue(reader.read(0, 10, "unknownCriterion", null).isEmpty());
+
+        // conversion
+        InMemoryResultAccumulator inMemoryResultAccumulator = new InMemoryResultAccumulator();
+        reader.copyTo(inMemoryResultAccumulator);
+        assertEquals(InMemoryResultAccumulator.MAX_RESULT, inMemoryResultAccumulator.getValidationResultCount());
+        assertSameResult(buildResult(0), inMemoryResultAccumulator.getValidationResultList().get(0));
+      } finally {
+        reader.close();
+      }
+    } finally {
+      resultFile.delete();
+    }
+  }
+
+  @Test
+  public void testResultWithoutElement() throws Exception {
+    // not reported as passed even if it has no element
+    ValidationResult emptyResult =
+      new ValidationResult("1", EvaluationContext.CORE, DwcTerm.Occurrence.qualifiedName(),
+        Collections.<ValidationResultElement>emptyList()) {
+
+        @Override
+        public boolean passed() {
+          return false;
+        }
+      };
+
+    File resultFile = File.createTempFile("binaryResults", ".bin");
+    try {
+      BinaryResultAccumulator accumulator = new BinaryResultAccumulator(resultFile.getAbsolutePath(), 100);
+      accumulator.accumulate(emptyResult);
+      accumulator.accumulate(buildResult(1));
+      accumulator.close();
+
+      BinaryResultReader reader = new BinaryResultReader(resultFile);
+      try {
+        assertEquals(2, reader.getResultCount());
+        List<ValidationResult> page = reader.read(0, 10);
+        assertEquals(2, page.size());
+        assertSameResult(emptyResult, page.get(0));
+        assertSameResult(buildResult(1), page.get(1));
+
+        // no element of the evaluator
+        assertEquals(1, reader.read(0, 10, REGEX_KEY, null).size());
+
+        // read back without element, the result is passed and not recorded by InMemoryResultAccumulator
+        InMemoryResultAccumulator inMemoryResultAccumulator = new InMemoryResultAccumulator();
+        reader.copyTo(inMemoryResultAccumulator);
+        assertEquals(1, inMemoryResultAccumulator.getValidationResultCount());
+        assertSameResult(buildResult(1), inMemoryResultAccumulator.getValidationResultList().get(0));
+      } finally {
+        reader.close();
+      }
+    } finally {
+      resultFile.delete();
+    }
+  }
+
+}
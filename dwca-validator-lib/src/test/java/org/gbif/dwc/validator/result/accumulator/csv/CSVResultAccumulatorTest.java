@@ -5,20 +5,26 @@ import org.gbif.dwc.validator.exception.ResultAccumulationException;
 import org.gbif.dwc.validator.result.EvaluationContext;
 import org.gbif.dwc.validator.result.Result;
 import org.gbif.dwc.validator.result.ResultAccumulator;
+import org.gbif.dwc.validator.result.accumulator.ResultCompression;
 import org.gbif.dwc.validator.result.type.ContentValidationType;
 import org.gbif.dwc.validator.result.validation.ValidationResult;
 import org.gbif.dwc.validator.result.validation.ValidationResultElement;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import com.google.common.base.Charsets;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -78,4 +84,28 @@ public class CSVResultAccumulatorTest {
     }
     validationResultFile.delete();
   }
+
+  @Test
+  public void testGzipCSVResultAccumulator() throws Exception {
+    File validationResultFile = File.createTempFile("test_CSVResultAccumulator_Validation", ".txt.gz");
+
+    ResultAccumulator ra =
+      new CSVResultAccumulator(validationResultFile.getAbsolutePath(), null, ResultCompression.GZIP);
+    ra.accumulate(new ValidationResult("8", EvaluationContext.CORE, DwcTerm.Occurrence.qualifiedName(),
+      new ValidationResultElement(key, ContentValidationType.FIELD_UNIQUENESS, Result.ERROR, "not unique")));
+    ra.close();
+
+    InputStream in = new GZIPInputStream(new FileInputStream(validationResultFile));
+    try {
+      List<String> lines = IOUtils.readLines(in, Charsets.UTF_8);
+      List<String> expectedLines =
+        FileUtils.readLines(new File(getClass().getResource("/accumulator/expectedCsv.txt").toURI()), Charsets.UTF_8);
+      assertEquals(2, lines.size());
+      assertEquals(expectedLines.get(0), lines.get(0));
+      assertEquals(expectedLines.get(1), lines.get(1));
+    } finally {
+      in.close();
+      validationResultFile.delete();
+    }
+  }
 }
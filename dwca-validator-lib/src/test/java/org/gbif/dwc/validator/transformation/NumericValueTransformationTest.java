@@ -4,9 +4,15 @@ import org.gbif.dwc.record.Record;
 import org.gbif.dwc.terms.DwcTerm;
 import org.gbif.dwc.terms.Term;
 import org.gbif.dwc.validator.mock.MockRecordFactory;
+import org.gbif.dwc.validator.result.Result;
+import org.gbif.dwc.validator.result.type.ContentValidationType;
+import org.gbif.dwc.validator.result.validation.ValidationResultElement;
+import org.gbif.dwc.validator.transformation.ValueTransformationResult.TransformationStatus;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -51,4 +57,33 @@ public class NumericValueTransformationTest {
     assertTrue(result.isNotTransformed());
   }
 
+  @Test
+  public void testExplanation() {
+    ValueTransformation<Number> transformation = ValueTransformations.toNumeric(DwcTerm.decimalLatitude);
+    ValueTransformationResult<Number> result = transformation.transform(buildMockRecord("1", "w"));
+    assertEquals("transformation.numeric.non_numerical", result.getMessageKey());
+    ValidationResultElement element =
+      result.toValidationResultElement("boundCriterion", ContentValidationType.RECORD_CONTENT_VALUE, Result.ERROR);
+    assertEquals(result.getMessageKey(), element.getMessageKey());
+    assertEquals(result.getExplanation(), element.getExplanation());
+    // same message, same hash code without formatting the explanation
+    assertEquals(element.hashCode(),
+      transformation.transform(buildMockRecord("2", "w"))
+        .toValidationResultElement("boundCriterion", ContentValidationType.RECORD_CONTENT_VALUE, Result.ERROR)
+        .hashCode());
+
+    // explanation provided already formatted
+    result =
+      new ValueTransformationResult<Number>(DwcTerm.decimalLatitude, "w", TransformationStatus.NOT_TRANSFORMED, null,
+        "w is not a number");
+    assertNull(result.getMessageKey());
+    assertEquals("w is not a number", result.getExplanation());
+    element =
+      result.toValidationResultElement("boundCriterion", ContentValidationType.RECORD_CONTENT_VALUE, Result.ERROR);
+    assertNull(element.getMessageKey());
+    assertEquals("w is not a number", element.getExplanation());
+    assertEquals("w is not a number",
+      ValueTransformationResult.notTransformed(DwcTerm.decimalLatitude, "w", "w is not a number").getExplanation());
+  }
+
 }
@@ -0,0 +1,109 @@
+package org.gbif.dwc.validator.transformation;
+
+import org.gbif.dwc.record.Record;
+import org.gbif.dwc.terms.DwcTerm;
+import org.gbif.dwc.terms.Term;
+import org.gbif.dwc.validator.mock.MockRecordFactory;
+import org.gbif.util.ValueCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.threeten.bp.temporal.TemporalAccessor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test ValueTransformationCache behavior.
+ * 
+ * @author cgendreau
+ */
+public class ValueTransformationCacheTest {
+
+  private Record buildMockRecord(String occID, String lat) {
+    return MockRecordFactory.buildMockOccurrenceRecord(DwcTerm.occurrenceID, occID,
+      new Term[] {DwcTerm.decimalLatitude}, new String[] {lat});
+  }
+
+  @Test
+  public void testCache() {
+    ValueTransformation<Number> transformation = ValueTransformations.toNumeric(DwcTerm.decimalLatitude);
+    // another instance on the same term, as used by another criterion
+    ValueTransformation<Number> sameTransformation = ValueTransformations.toNumeric(DwcTerm.decimalLatitude);
+    ValueTransformationCache cache = ValueTransformationCache.current();
+
+    // not active, always computed
+    Record record = buildMockRecord("1", "45.5");
+    assertTrue(cache.transform(transformation, record) != cache.transform(transformation, record));
+
+    cache.beginRecord();
+    ValueTransformationResult<Number> result = cache.transform(transformation, record);
+    assertEquals(45.5d, result.getData().doubleValue(), 0);
+    assertSame(result, cache.transform(sameTransformation, record));
+    cache.endRecord();
+
+    // next record should not see the previous result
+    cache.beginRecord();
+    result = cache.transform(sameTransformation, buildMockRecord("2", "12"));
+    assertEquals(12d, result.getData().doubleValue(), 0);
+    cache.endRecord();
+  }
+
+  @Test
+  public void testCachedTransformation() throws Exception {
+    final ValueTransformation<TemporalAccessor> transformation =
+      ValueTransformations.cached(ValueTransformations.toISODate(DwcTerm.eventDate, true, false), 2);
+    final String[] dates = {"2014-08-07", "2014-08", "2014-8-7", "", "2014-08-07", "2014-08", null};
+
+    // results are immutable, the same instance is returned
+    ValueTransformationResult<TemporalAccessor> result =
+      ((TermValueTransformation<TemporalAccessor>) transformation).transform("2014-08-07");
+    assertSame(result, ((TermValueTransformation<TemporalAccessor>) transformation).transform("2014-08-07"));
+
+    // same results from concurrent threads, the least recently used values are evicted
+    ExecutorService executorService = Executors.newFixedThreadPool(4);
+    List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+    for (int i = 0; i < 4; i++) {
+      futures.add(executorService.submit(new Callable<Boolean>() {
+
+        @Override
+        public Boolean call() {
+          ValueTransformation<TemporalAccessor> notCached = ValueTransformations.toISODate(DwcTerm.eventDate, true,
+            false);
+          for (int j = 0; j < 10000; j++) {
+            Record record =
+              MockRecordFactory.buildMockOccurrenceRecord(DwcTerm.occurrenceID, Integer.toString(j),
+                new Term[] {DwcTerm.eventDate}, new String[] {dates[j % dates.length]});
+            ValueTransformationResult<TemporalAccessor> expected = notCached.transform(record);
+            ValueTransformationResult<TemporalAccessor> cached = transformation.transform(record);
+            if (expected.isTransformed() != cached.isTransformed() || expected.isSkipped() != cached.isSkipped()) {
+              return false;
+            }
+          }
+          return true;
+        }
+      }));
+    }
+    for (Future<Boolean> future : futures) {
+      assertTrue(future.get());
+    }
+    executorService.shutdown();
+
+    List<ValueCache<?>> valueCaches = ValueTransformations.getValueCaches(Collections.singletonList(transformation));
+    assertEquals(1, valueCaches.size());
+    assertTrue(valueCaches.get(0).getStats().hitCount() > 0);
+    assertTrue(valueCaches.get(0).getStats().evictionCount() > 0);
+    assertFalse(ValueTransformations.getValueCaches(
+      Collections.singletonList(ValueTransformations.toNumeric(DwcTerm.decimalLatitude))).size() > 0);
+  }
+
+}
@@ -0,0 +1,96 @@
+package org.gbif.utils;
+
+import org.gbif.util.SortedFileDiffReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test SortedFileDiffReader.
+ * 
+ * @author cgendreau
+ */
+public class SortedFileDiffReaderTest {
+
+  @Test
+  public void testReadLine() {
+    SortedFileDiffReader diffReader = null;
+    try {
+      File referenceFile = new File(this.getClass().getResource("/files/referenceFile.txt").toURI());
+      File inputFile = new File(this.getClass().getResource("/files/inputFile.txt").toURI());
+      File expectedFile = new File(this.getClass().getResource("/files/expectedResultFile.txt").toURI());
+
+      diffReader = new SortedFileDiffReader(referenceFile, inputFile);
+      List<String> lines = new ArrayList<String>();
+      String line;
+      while ((line = diffReader.readLine()) != null) {
+        lines.add(line);
+      }
+      assertEquals(FileUtils.readLines(expectedFile, Charsets.UTF_8), lines);
+    } catch (URISyntaxException e) {
+      e.printStackTrace();
+      fail();
+    } catch (IOException e) {
+      e.printStackTrace();
+      fail();
+    } finally {
+      if (diffReader != null) {
+        diffReader.close();
+      }
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnsortedInputFile() throws IOException, URISyntaxException {
+    File referenceFile = new File(this.getClass().getResource("/files/referenceFile.txt").toURI());
+    File inputFile = File.createTempFile("unsortedInput", ".txt");
+    FileUtils.writeLines(inputFile, Charsets.UTF_8.name(), Arrays.asList("b", "a"));
+
+    SortedFileDiffReader diffReader = new SortedFileDiffReader(referenceFile, inputFile);
+    try {
+      while (diffReader.readLine() != null) {
+        // consume all lines
+      }
+    } finally {
+      diffReader.close();
+      inputFile.delete();
+    }
+  }
+
+  /**
+   * Files sorted in byte order (LC_ALL=C) put supplementary characters after U+FFFD, String.compareTo does not.
+   */
+  @Test
+  public void testCodePointOrder() throws IOException {
+    File referenceFile = File.createTempFile("reference", ".txt");
+    File inputFile = File.createTempFile("input", ".txt");
+    FileUtils.writeLines(referenceFile, Charsets.UTF_8.name(), Arrays.asList("a", "\uFFFD", "\uD835\uDD38"));
+    FileUtils.writeLines(inputFile, Charsets.UTF_8.name(),
+      Arrays.asList("a", "b", "\uFFFD", "\uD835\uDD38", "\uD835\uDD39"));
+
+    SortedFileDiffReader diffReader = new SortedFileDiffReader(referenceFile, inputFile);
+    try {
+      List<String> lines = new ArrayList<String>();
+      String line;
+      while ((line = diffReader.readLine()) != null) {
+        lines.add(line);
+      }
+      assertEquals(Arrays.asList("b", "\uD835\uDD39"), lines);
+    } finally {
+      diffReader.close();
+      referenceFile.delete();
+      inputFile.delete();
+    }
+  }
+}
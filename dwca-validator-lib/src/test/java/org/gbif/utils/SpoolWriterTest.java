@@ -0,0 +1,169 @@
+package org.gbif.utils;
+
+import org.gbif.util.SpoolWriter;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import org.apache.commons.io.FileUtils;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test SpoolWriter and compare it to the FileWriter pattern it replaces.
+ * 
+ * @author cgendreau
+ */
+public class SpoolWriterTest {
+
+  private static final int NUMBER_OF_IDS = 10000000;
+  private static final int FLUSH_THRESHOLD = 1000;
+  private static final String ENDLINE = System.getProperty("line.separator");
+
+  @Test
+  public void testWriteLine() throws IOException {
+    File file = File.createTempFile("spoolWriter", ".txt");
+    // longer than the buffer to force multiple writes, even inside a single value
+    String longValue = Strings.repeat("abcdé", 20);
+    List<String> values =
+      Arrays.asList("id-1", "Pinus contorta Dougl. ex Loud.", "Quercus × hispanica", "北京", "🌲 tree", "",
+        longValue, null);
+    try {
+      SpoolWriter spoolWriter = new SpoolWriter(file, 16);
+      for (String value : values) {
+        spoolWriter.writeLine(value);
+      }
+      spoolWriter.write("last");
+      spoolWriter.close();
+
+      List<String> expected = new ArrayList<String>();
+      for (String value : values) {
+        expected.add(String.valueOf(value));
+      }
+      expected.add("last");
+      assertEquals(expected, FileUtils.readLines(file, Charsets.UTF_8));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testWriteAfterClose() throws IOException {
+    File file = File.createTempFile("spoolWriter", ".txt");
+    try {
+      SpoolWriter spoolWriter = new SpoolWriter(file);
+      spoolWriter.close();
+      // closing twice is allowed
+      spoolWriter.close();
+      spoolWriter.writeLine("id-1");
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * A character encoded on 4 bytes must fit in the smallest buffer accepted.
+   */
+  @Test(timeout = 10000)
+  public void testMinimalBuffer() throws IOException {
+    File file = File.createTempFile("spoolWriter", ".txt");
+    List<String> values = Arrays.asList("é", "北京", "🌲 tree", "a🌲");
+    try {
+      SpoolWriter spoolWriter = new SpoolWriter(file, SpoolWriter.MIN_BUFFER_SIZE);
+      for (String value : values) {
+        spoolWriter.writeLine(value);
+      }
+      spoolWriter.close();
+      assertEquals(values, FileUtils.readLines(file, Charsets.UTF_8));
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBufferTooSmall() throws IOException {
+    File file = File.createTempFile("spoolWriter", ".txt");
+    try {
+      new SpoolWriter(file, SpoolWriter.MIN_BUFFER_SIZE - 1);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Spool ids with the FileWriter pattern previously used by ValueIndex and ReferenceUniqueCriterion (platform
+   * charset, one concatenation per line, flush every 1000 lines) and with SpoolWriter.
+   * 
+   * @param numberOfIds
+   * @param fileWriterFile
+   * @param spoolWriterFile
+   * @return time spent using FileWriter and using SpoolWriter, in ms
+   * @throws IOException
+   */
+  private long[] spoolIds(int numberOfIds, File fileWriterFile, File spoolWriterFile) throws IOException {
+    long t = System.currentTimeMillis();
+    FileWriter fw = new FileWriter(fileWriterFile);
+    for (int i = 0; i < numberOfIds; i++) {
+      fw.write("id-" + i + ENDLINE);
+      if (i % FLUSH_THRESHOLD == 0) {
+        fw.flush();
+      }
+    }
+    fw.close();
+    long fileWriterTime = System.currentTimeMillis() - t;
+
+    t = System.currentTimeMillis();
+    SpoolWriter spoolWriter = new SpoolWriter(spoolWriterFile);
+    for (int i = 0; i < numberOfIds; i++) {
+      spoolWriter.write("id-");
+      spoolWriter.write(Integer.toString(i));
+      spoolWriter.newLine();
+    }
+    spoolWriter.close();
+    long spoolWriterTime = System.currentTimeMillis() - t;
+    return new long[] {fileWriterTime, spoolWriterTime};
+  }
+
+  @Test
+  public void testSameContentAsFileWriter() throws IOException {
+    File fileWriterFile = File.createTempFile("fileWriter", ".txt");
+    File spoolWriterFile = File.createTempFile("spoolWriter", ".txt");
+    try {
+      // more than the default buffer size
+      spoolIds(100000, fileWriterFile, spoolWriterFile);
+      assertTrue(FileUtils.contentEquals(fileWriterFile, spoolWriterFile));
+    } finally {
+      fileWriterFile.delete();
+      spoolWriterFile.delete();
+    }
+  }
+
+  /**
+   * Spool 10M ids (about 100 MB per file) using FileWriter and SpoolWriter and print the time spent.
+   */
+  @Ignore("Benchmark writing about 200 MB, run manually")
+  @Test
+  public void testBenchmark() throws IOException {
+    File fileWriterFile = File.createTempFile("fileWriter", ".txt");
+    File spoolWriterFile = File.createTempFile("spoolWriter", ".txt");
+    try {
+      long[] times = spoolIds(NUMBER_OF_IDS, fileWriterFile, spoolWriterFile);
+      System.out.println("Spooling " + NUMBER_OF_IDS + " ids using FileWriter: " + times[0]
+        + " ms, using SpoolWriter: " + times[1] + " ms");
+      assertEquals(fileWriterFile.length(), spoolWriterFile.length());
+    } finally {
+      fileWriterFile.delete();
+      spoolWriterFile.delete();
+    }
+  }
+
+}
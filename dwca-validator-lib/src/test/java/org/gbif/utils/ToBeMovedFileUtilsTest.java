@@ -1,14 +1,20 @@
 package org.gbif.utils;
 
+import org.gbif.util.SortedFileDiffReader;
 import org.gbif.util.ToBeMovedFileUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-import org.apache.commons.lang3.SystemUtils;
+import com.google.common.base.Charsets;
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -45,36 +51,40 @@ public class ToBeMovedFileUtilsTest {
     assertTrue(success);
   }
 
+  /**
+   * Lines sorted in Java, in chunks, must be readable by SortedFileDiffReader even when String.compareTo would order
+   * supplementary characters before U+E000.
+   */
   @Test
-  public void testDiffFileInUnix() {
+  public void testSortByCodePoint() throws IOException {
+    File inputFile = File.createTempFile("unsorted", ".txt");
+    File sortedFile = File.createTempFile("sorted", ".txt");
+    File referenceFile = File.createTempFile("reference", ".txt");
+    FileUtils.writeLines(inputFile, Charsets.UTF_8.name(),
+      Arrays.asList("\uD835\uDD38", "b", "\uE000", "a", "\uFFFD", "b", "c"));
+    FileUtils.writeLines(referenceFile, Charsets.UTF_8.name(), Arrays.asList("b", "\uE000"));
 
-    // skip if test is running on non-Unix OS
-    if (!SystemUtils.IS_OS_UNIX) {
-      return;
-    }
-
-    boolean success = false;
     try {
-      File referenceFile = new File(this.getClass().getResource("/files/referenceFile.txt").toURI());
-      File inputFile = new File(this.getClass().getResource("/files/inputFile.txt").toURI());
-
-      File resultFile = File.createTempFile("testResult", "txt");
-
-      ToBeMovedFileUtils fu = new ToBeMovedFileUtils();
-      success = fu.diffFileInUnix(referenceFile, inputFile, resultFile);
-
-      // compare expected file
-      File expectedFile = new File(this.getClass().getResource("/files/expectedResultFile.txt").toURI());
-      assertTrue(org.apache.commons.io.FileUtils.contentEqualsIgnoreEOL(expectedFile, resultFile, "UTF-8"));
-      resultFile.delete();
-    } catch (URISyntaxException e) {
-      e.printStackTrace();
-      fail();
-    } catch (IOException e) {
-      e.printStackTrace();
-      fail();
+      new ToBeMovedFileUtils().sortByCodePoint(inputFile, sortedFile, 2);
+      assertEquals(Arrays.asList("a", "b", "b", "c", "\uE000", "\uFFFD", "\uD835\uDD38"),
+        FileUtils.readLines(sortedFile, Charsets.UTF_8.name()));
+
+      SortedFileDiffReader diffReader = new SortedFileDiffReader(referenceFile, sortedFile);
+      List<String> lines = new ArrayList<String>();
+      try {
+        String line;
+        while ((line = diffReader.readLine()) != null) {
+          lines.add(line);
+        }
+      } finally {
+        diffReader.close();
+      }
+      assertEquals(Arrays.asList("a", "c", "\uFFFD", "\uD835\uDD38"), lines);
+    } finally {
+      inputFile.delete();
+      sortedFile.delete();
+      referenceFile.delete();
     }
-
-    assertTrue(success);
   }
+
 }